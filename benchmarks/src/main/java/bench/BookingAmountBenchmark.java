@@ -0,0 +1,76 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.Validator;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking amount = daily rent x inclusive days, from {@code YYYY-MM-DD} strings, computed
+ * the way {@code BookingController.updateBookingDatesAndAmount} and {@code JdbcBookingDAO} do
+ * it ({@link LocalDate#parse} + {@link ChronoUnit#DAYS}) and with {@link Validator#parseIsoDate}.
+ * Both run over the same {@value #BATCH} date ranges per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingAmountBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private final String[] starts = new String[BATCH];
+    private final String[] ends = new String[BATCH];
+    private final double[] rents = new double[BATCH];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < BATCH; i++) {
+            LocalDate start = base.plusDays(random.nextInt(730));
+            starts[i] = start.toString();
+            ends[i] = start.plusDays(random.nextInt(30)).toString();
+            rents[i] = 25 + random.nextInt(36) * 5;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double localDateParse() {
+        double total = 0;
+        for (int i = 0; i < BATCH; i++) {
+            long days = ChronoUnit.DAYS.between(LocalDate.parse(starts[i]), LocalDate.parse(ends[i])) + 1;
+            if (days < 1) days = 1;
+            total += rents[i] * days;
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double validatorEpochDays() {
+        double total = 0;
+        for (int i = 0; i < BATCH; i++) {
+            int days = Validator.parseIsoDate(ends[i]) - Validator.parseIsoDate(starts[i]) + 1;
+            if (days < 1) days = 1;
+            total += rents[i] * days;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,395 @@
+package bench;
+
+import controller.BookingController;
+import controller.CarController;
+import util.Srent_DB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers the booking paths from many threads on a small fleet in embedded H2, then checks
+ * the invariants the app relies on and prints the interleaving behind every violation.
+ * <p>
+ * Each customer thread runs the same controller sequences as the UI: {@code BookingPanel}'s
+ * {@code bookIfAvailable}, cancelling one of its own bookings, and, from the
+ * {@code ReservationManagementPanel}, moving or cancelling any booking as an admin would.
+ * {@code -Dstress.legacyBooking=true} books with the old check / insert / mark-reserved
+ * sequence instead, which breaks the invariants below.
+ * Afterwards:
+ * <ul>
+ *   <li>no car has two confirmed bookings with overlapping dates</li>
+ *   <li>a car is {@code reserved} exactly when it has a confirmed booking</li>
+ *   <li>every booking has one {@code makes} and one {@code reserves} row and neither points
+ *       at a missing booking</li>
+ * </ul>
+ * Exits with status 1 if any invariant is broken.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar -Dstress.threads=16 -Dstress.cars=4 bench.BookingStress
+ * </pre>
+ * Settings: {@code stress.threads} (16), {@code stress.cars} (4), {@code stress.seconds} (10),
+ * {@code stress.seed} (42), {@code stress.report} (violations printed in full, 5),
+ * {@code stress.legacyBooking} (false).
+ */
+public final class BookingStress {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 3, 1);
+    private static final int CHECK = 0, INSERT = 1, RESERVE = 2, CANCEL = 3, MOVE = 4;
+
+    private final int threads = Integer.getInteger("stress.threads", 16);
+    private final int cars = Integer.getInteger("stress.cars", 4);
+    private final long seconds = Long.getLong("stress.seconds", 10);
+    private final long seed = Long.getLong("stress.seed", 42);
+    private final int report = Integer.getInteger("stress.report", 5);
+    private final boolean legacyBooking = Boolean.getBoolean("stress.legacyBooking");
+
+    private final long started = System.nanoTime();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<List<Event>> logs = new ArrayList<>();
+    private final AtomicInteger booked = new AtomicInteger(), refused = new AtomicInteger(),
+            cancelled = new AtomicInteger(), moved = new AtomicInteger(), failed = new AtomicInteger();
+
+    private BookingStress() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("srent.db.url") == null) System.setProperty("srent.db.url", EmbeddedDb.URL);
+        System.exit(new BookingStress().run() == 0 ? 0 : 1);
+    }
+
+    private int run() throws Exception {
+        EmbeddedDb.create(cars);
+        try (Connection conn = Srent_DB.getConnection(); Statement st = conn.createStatement()) {
+            // User 1 is EmbeddedDb's customer; one more per thread so bookings can be traced to a thread.
+            for (int t = 0; t < threads; t++) {
+                st.execute("INSERT INTO user (username, password) VALUES ('stress" + t + "', 'x')");
+                st.execute("INSERT INTO Customer (user_id, occupation) VALUES (" + (t + 2) + ", 'stress')");
+            }
+        }
+        System.out.printf("Stressing %d threads on %d cars for %d s (seed %d)%n", threads, cars, seconds, seed);
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<Event> log = new ArrayList<>();
+            logs.add(log);
+            int userId = t + 2;
+            SplittableRandom random = new SplittableRandom(seed + t);
+            Thread worker = new Thread(() -> {
+                try {
+                    go.await();
+                    List<Integer> own = new ArrayList<>();
+                    while (System.nanoTime() < deadline) step(userId, random, own, log);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "stress-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        go.countDown();
+        for (Thread worker : workers) worker.join();
+
+        System.out.printf("Operations: %d booked, %d refused (car not available), %d cancelled, %d moved, %d failed%n",
+                booked.get(), refused.get(), cancelled.get(), moved.get(), failed.get());
+        return checkInvariants();
+    }
+
+    /** One user action; every database step is logged with a global sequence number. */
+    private void step(int userId, SplittableRandom random, List<Integer> own, List<Event> log) {
+        int roll = random.nextInt(100);
+        if (roll < 50 || own.isEmpty()) {
+            int carId = 1 + random.nextInt(cars);
+            LocalDate start = FIRST_DAY.plusDays(random.nextInt(28));
+            String from = start.toString(), to = start.plusDays(random.nextInt(5)).toString();
+            if (legacyBooking) {
+                legacyBook(userId, carId, from, to, own, log);
+                return;
+            }
+            // BookingPanel: claim the car and insert the booking in one transaction.
+            long claimSeq = sequence.incrementAndGet(), claimNanos = System.nanoTime() - started;
+            int bookingId = BookingController.bookIfAvailable(userId, carId, from, to, 0.0, 100.0, "self", 0, from);
+            if (bookingId == 0) {
+                refused.incrementAndGet();
+                return;
+            }
+            if (bookingId < 0) {
+                log.add(new Event(claimSeq, claimNanos, userId, carId, 0, INSERT, "book: bookIfAvailable failed"));
+                failed.incrementAndGet();
+                return;
+            }
+            log.add(new Event(claimSeq, claimNanos, userId, carId, bookingId, CHECK, "book: car " + carId + " claimed"));
+            log.add(event(userId, carId, bookingId, RESERVE, "book: committed booking " + bookingId + " " + from + ".." + to));
+            own.add(bookingId);
+            booked.incrementAndGet();
+        } else if (roll < 75) {
+            // Customer cancels one of their own bookings (possibly one an admin already cancelled).
+            int bookingId = own.remove(random.nextInt(own.size()));
+            cancel(userId, bookingId, "cancel own", log);
+        } else if (roll < 85) {
+            // Admin cancels any booking made so far, like ReservationManagementPanel.
+            int bookingId = 1 + random.nextInt(Math.max(1, booked.get()));
+            cancel(userId, bookingId, "admin cancel", log);
+        } else {
+            int bookingId = own.get(random.nextInt(own.size()));
+            LocalDate start = FIRST_DAY.plusDays(random.nextInt(28));
+            String from = start.toString(), to = start.plusDays(random.nextInt(5)).toString();
+            boolean ok = BookingController.updateBookingDatesAndAmount(bookingId, from, to);
+            log.add(event(userId, carOf(bookingId), bookingId, MOVE, "move booking " + bookingId + " to " + from + ".." + to
+                    + (ok ? "" : " failed")));
+            if (ok) moved.incrementAndGet();
+            else failed.incrementAndGet();
+        }
+    }
+
+    /** The check / insert / mark-reserved sequence {@code BookingPanel} used before {@code bookIfAvailable}. */
+    private void legacyBook(int userId, int carId, String from, String to, List<Integer> own, List<Event> log) {
+        boolean available = CarController.isCarAvailable(carId);
+        // The check is logged once the booking id is known, under the sequence number it ran at.
+        long checkSeq = sequence.incrementAndGet(), checkNanos = System.nanoTime() - started;
+        if (!available) {
+            refused.incrementAndGet();
+            return;
+        }
+        if (!BookingController.createBooking(userId, carId, from, to, 0.0, 100.0, "self", 0, from)) {
+            log.add(new Event(checkSeq, checkNanos, userId, carId, 0, CHECK, "book: car " + carId + " is available"));
+            log.add(event(userId, carId, 0, INSERT, "book: insert failed"));
+            failed.incrementAndGet();
+            return;
+        }
+        int bookingId = latestBooking(userId, carId);
+        log.add(new Event(checkSeq, checkNanos, userId, carId, bookingId, CHECK, "book: car " + carId + " is available"));
+        log.add(event(userId, carId, bookingId, INSERT, "book: inserted booking " + bookingId + " " + from + ".." + to));
+        CarController.updateCar(carId, "Model " + carId, 100.0, "reserved");
+        log.add(event(userId, carId, bookingId, RESERVE, "book: car " + carId + " marked reserved"));
+        own.add(bookingId);
+        booked.incrementAndGet();
+    }
+
+    private void cancel(int userId, int bookingId, String what, List<Event> log) {
+        int carId = carOf(bookingId);
+        boolean ok = BookingController.cancelBooking(bookingId);
+        log.add(event(userId, carId, bookingId, CANCEL, what + ": booking " + bookingId + " on car " + carId
+                + " cancelled" + (ok ? "" : " (failed)")));
+        if (ok) cancelled.incrementAndGet();
+        else failed.incrementAndGet();
+    }
+
+    private Event event(int userId, int carId, int bookingId, int op, String text) {
+        return new Event(sequence.incrementAndGet(), System.nanoTime() - started, userId, carId, bookingId, op, text);
+    }
+
+    /* ---------- invariants ---------- */
+
+    private int checkInvariants() throws SQLException {
+        List<Violation> violations = new ArrayList<>();
+        try (Connection conn = Srent_DB.getConnection(); Statement st = conn.createStatement()) {
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT r1.car_id, b1.booking_id, b2.booking_id, b1.start_date, b1.end_date, b2.start_date, b2.end_date "
+                            + "FROM reserves r1 JOIN reserves r2 ON r1.car_id = r2.car_id AND r1.booking_id < r2.booking_id "
+                            + "JOIN Booking b1 ON b1.booking_id = r1.booking_id JOIN Booking b2 ON b2.booking_id = r2.booking_id "
+                            + "WHERE b1.booking_status = 'confirmed' AND b2.booking_status = 'confirmed' "
+                            + "AND b1.start_date <= b2.end_date AND b2.start_date <= b1.end_date ORDER BY r1.car_id, b1.booking_id")) {
+                while (rs.next()) {
+                    violations.add(new Violation("overlap", rs.getInt(1), String.format(
+                            "car %d: confirmed bookings %d (%s..%s) and %d (%s..%s) overlap", rs.getInt(1),
+                            rs.getInt(2), rs.getDate(4), rs.getDate(5), rs.getInt(3), rs.getDate(6), rs.getDate(7)),
+                            rs.getInt(2), rs.getInt(3)));
+                }
+            }
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT c.car_id, c.vehicle_status, "
+                            + "(SELECT COUNT(*) FROM reserves r JOIN Booking b ON b.booking_id = r.booking_id "
+                            + " WHERE r.car_id = c.car_id AND b.booking_status = 'confirmed') "
+                            + "FROM Car c ORDER BY c.car_id")) {
+                while (rs.next()) {
+                    String status = rs.getString(2);
+                    int confirmed = rs.getInt(3);
+                    if ("reserved".equals(status) == (confirmed > 0)) continue;
+                    violations.add(new Violation("status", rs.getInt(1), String.format(
+                            "car %d is '%s' with %d confirmed booking(s)", rs.getInt(1), status, confirmed)));
+                }
+            }
+            String[][] orphans = {
+                    {"booking without makes", "SELECT b.booking_id FROM Booking b LEFT JOIN makes m ON m.booking_id = b.booking_id WHERE m.booking_id IS NULL"},
+                    {"booking without reserves", "SELECT b.booking_id FROM Booking b LEFT JOIN reserves r ON r.booking_id = b.booking_id WHERE r.booking_id IS NULL"},
+                    {"makes without booking", "SELECT m.booking_id FROM makes m LEFT JOIN Booking b ON b.booking_id = m.booking_id WHERE b.booking_id IS NULL"},
+                    {"reserves without booking", "SELECT r.booking_id FROM reserves r LEFT JOIN Booking b ON b.booking_id = r.booking_id WHERE b.booking_id IS NULL"},
+                    {"booking on several cars", "SELECT booking_id FROM reserves GROUP BY booking_id HAVING COUNT(*) > 1"},
+            };
+            for (String[] orphan : orphans) {
+                try (ResultSet rs = st.executeQuery(orphan[1])) {
+                    while (rs.next()) {
+                        violations.add(new Violation("orphan", 0, orphan[0] + ": booking " + rs.getInt(1), rs.getInt(1)));
+                    }
+                }
+            }
+        }
+
+        if (violations.isEmpty()) {
+            System.out.println("All invariants hold.");
+            return 0;
+        }
+        System.out.printf("%d overlap, %d status and %d orphan violation(s)%n",
+                violations.stream().filter(v -> v.kind.equals("overlap")).count(),
+                violations.stream().filter(v -> v.kind.equals("status")).count(),
+                violations.stream().filter(v -> v.kind.equals("orphan")).count());
+        List<Event> all = new ArrayList<>();
+        for (List<Event> log : logs) all.addAll(log);
+        all.sort(Comparator.comparingLong(e -> e.seq));
+        Map<String, Integer> causes = new TreeMap<>();
+        for (Violation v : violations) {
+            trace(v, all);
+            causes.merge(v.kind + ": " + v.cause, 1, Integer::sum);
+        }
+        System.out.println("By cause:");
+        for (Map.Entry<String, Integer> e : causes.entrySet()) System.out.printf("  %6d  %s%n", e.getValue(), e.getKey());
+
+        for (int i = 0; i < Math.min(report, violations.size()); i++) {
+            Violation v = violations.get(i);
+            System.out.println();
+            System.out.println("VIOLATION " + v.text);
+            System.out.println("  cause: " + v.cause);
+            if (v.steps.isEmpty()) System.out.println("  (no logged steps)");
+            for (Event e : v.steps) {
+                System.out.printf("  #%-7d %9.3f ms  user %-3d %s%n", e.seq, e.nanos / 1e6, e.userId, e.text);
+            }
+        }
+        if (violations.size() > report) {
+            System.out.printf("%n%d more; raise stress.report to print them.%n", violations.size() - report);
+        }
+        return violations.size();
+    }
+
+    /**
+     * Finds the steps that let a violation happen. For two overlapping bookings a and b (a made
+     * first) that is either both availability checks running before either booking marked the
+     * car reserved, or the cancel that set the car available again while a was still confirmed.
+     */
+    private static void trace(Violation v, List<Event> all) {
+        if (v.kind.equals("overlap")) {
+            Event aCheck = find(all, v.bookings[0], CHECK), aReserve = find(all, v.bookings[0], RESERVE);
+            Event bCheck = find(all, v.bookings[1], CHECK), bReserve = find(all, v.bookings[1], RESERVE);
+            if (aCheck == null || aReserve == null || bCheck == null || bReserve == null) return;
+            if (aCheck.seq > bCheck.seq) {
+                Event t;
+                t = aCheck; aCheck = bCheck; bCheck = t;
+                t = aReserve; aReserve = bReserve; bReserve = t;
+            }
+            v.steps.add(aCheck);
+            if (bCheck.seq < aReserve.seq) {
+                v.cause = "check-then-act race: both saw the car available";
+                for (Event e : all) {
+                    if (e.seq > aCheck.seq && e.seq <= Math.max(aReserve.seq, bReserve.seq)
+                            && (e.bookingId == aCheck.bookingId || e.bookingId == bCheck.bookingId)) v.steps.add(e);
+                }
+                return;
+            }
+            Event release = null;
+            for (Event e : all) {
+                if (e.seq > aReserve.seq && e.seq < bCheck.seq && e.op == CANCEL && e.carId == v.carId) release = e;
+            }
+            v.steps.add(aReserve);
+            if (release != null) {
+                v.cause = find(all, release.bookingId, CANCEL) != release
+                        ? "car set available by cancelling an already-cancelled booking"
+                        : "car set available by cancelling another booking";
+                v.steps.add(release);
+            }
+            v.steps.add(bCheck);
+            v.steps.add(bReserve);
+        } else if (v.kind.equals("status")) {
+            // The car's last steps: whatever ran last decided the status.
+            for (Event e : all) if (e.carId == v.carId) v.steps.add(e);
+            v.steps = new ArrayList<>(v.steps.subList(Math.max(0, v.steps.size() - 6), v.steps.size()));
+            Event last = v.steps.isEmpty() ? null : v.steps.get(v.steps.size() - 1);
+            if (last != null) v.cause = last.op == CANCEL ? "cancel set the car available" : "last step was " + last.text;
+        } else {
+            for (Event e : all) if (e.bookingId == v.bookings[0]) v.steps.add(e);
+            v.cause = "partial createBooking";
+        }
+    }
+
+    /** @return the first step of {@code op} on the booking */
+    private static Event find(List<Event> all, int bookingId, int op) {
+        for (Event e : all) if (e.bookingId == bookingId && e.op == op) return e;
+        return null;
+    }
+
+    /* ---------- helpers ---------- */
+
+    /** The booking {@code createBooking} just made; each thread books as its own user. */
+    private static int latestBooking(int userId, int carId) {
+        String sql = "SELECT MAX(m.booking_id) FROM makes m JOIN reserves r ON r.booking_id = m.booking_id "
+                + "WHERE m.user_id = ? AND r.car_id = ?";
+        try (Connection conn = Srent_DB.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setInt(2, carId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private static int carOf(int bookingId) {
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT car_id FROM reserves WHERE booking_id = ?")) {
+            ps.setInt(1, bookingId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private static final class Event {
+        final long seq, nanos;
+        final int userId, carId, bookingId, op;
+        final String text;
+
+        Event(long seq, long nanos, int userId, int carId, int bookingId, int op, String text) {
+            this.seq = seq;
+            this.nanos = nanos;
+            this.userId = userId;
+            this.carId = carId;
+            this.bookingId = bookingId;
+            this.op = op;
+            this.text = text;
+        }
+    }
+
+    private static final class Violation {
+        final String kind;
+        final int carId;
+        final String text;
+        final int[] bookings;
+        String cause = "not traced";
+        List<Event> steps = new ArrayList<>();
+
+        Violation(String kind, int carId, String text, int... bookings) {
+            this.kind = kind;
+            this.carId = carId;
+            this.text = text;
+            this.bookings = bookings;
+        }
+    }
+}
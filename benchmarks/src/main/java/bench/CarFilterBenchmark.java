@@ -0,0 +1,113 @@
+package bench;
+
+import dao.impl.InMemoryCarDAO;
+import model.Car;
+import model.CarFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.impl.CarFilterManager;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Fleet search: {@link CarFilterManager} on its cached column snapshot against the
+ * per-car stream chain {@code CarListPanel.applyFilters} used before it, for the same query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarFilterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int fleetSize;
+
+    private List<Car> cars;
+    private CarFilterManager manager;
+    private CarFilter filter;
+
+    // The query: automatic electrics between 50 and 150 a day with at least four seats.
+    private final String fuel = "Electric";
+    private final String trans = "Automatic";
+    private final String color = "All";
+    private final double minPrice = 50, maxPrice = 150;
+    private final int minSeats = 4, maxSeats = Integer.MAX_VALUE;
+
+    @Setup
+    public void setUp() {
+        InMemoryCarDAO dao = Fleets.dao(fleetSize);
+        cars = dao.getAllCars();
+        manager = new CarFilterManager(dao, Long.MAX_VALUE);
+        manager.refresh();
+        filter = new CarFilter().fuelType(fuel).transmission(trans)
+                .priceBetween(minPrice, maxPrice).seatsBetween(minSeats, maxSeats);
+    }
+
+    @Benchmark
+    public List<Car> columnarSnapshot() {
+        return manager.filter(filter);
+    }
+
+    /**
+     * The same search pinned to the sequential path: compare it with {@link #columnarSnapshot()}
+     * on a multi-core machine to see what the parallel chunks buy at each fleet size.
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-XX:ActiveProcessorCount=1")
+    public List<Car> columnarSnapshotOneCore() {
+        return manager.filter(filter);
+    }
+
+    @Benchmark
+    public List<Car> streamChain() {
+        return cars.stream()
+                .filter(c -> fuel.equals("All") || c.getFuelType().equalsIgnoreCase(fuel))
+                .filter(c -> trans.equals("All") || c.getTransmission().equalsIgnoreCase(trans))
+                .filter(c -> color.equals("All") || c.getColor().equalsIgnoreCase(color))
+                .filter(c -> c.getRentalPrice() >= minPrice && c.getRentalPrice() <= maxPrice)
+                .filter(c -> c.getSeatingCapacity() >= minSeats && c.getSeatingCapacity() <= maxSeats)
+                .collect(Collectors.toList());
+    }
+
+    /** What a snapshot reload costs, paid once per TTL rather than per search. */
+    @Benchmark
+    public CarFilterManager snapshotBuild() {
+        CarFilterManager fresh = new CarFilterManager(() -> cars, Long.MAX_VALUE);
+        fresh.refresh();
+        return fresh;
+    }
+
+    /** Deterministic fleets shared by the in-memory benchmarks. */
+    static final class Fleets {
+        private static final String[] BRANDS = {"Toyota", "Renault", "Fiat", "Ford", "Volkswagen", "Hyundai", "BMW", "Peugeot"};
+        private static final String[] COLORS = {"White", "Black", "Grey", "Red", "Blue"};
+        private static final String[] FUELS = {"Petrol", "Diesel", "Hybrid", "Electric"};
+        private static final String[] TRANSMISSIONS = {"Manual", "Automatic"};
+
+        static InMemoryCarDAO dao(int size) {
+            SplittableRandom random = new SplittableRandom(42);
+            InMemoryCarDAO dao = new InMemoryCarDAO();
+            for (int id = 1; id <= size; id++) {
+                dao.saveCar(new Car(id, BRANDS[random.nextInt(BRANDS.length)], "Model " + id,
+                        COLORS[random.nextInt(COLORS.length)], FUELS[random.nextInt(FUELS.length)],
+                        TRANSMISSIONS[random.nextInt(TRANSMISSIONS.length)], 2 + random.nextInt(8),
+                        25 + random.nextInt(36) * 5, random.nextInt(5) == 0 ? "reserved" : "available"));
+            }
+            return dao;
+        }
+    }
+}
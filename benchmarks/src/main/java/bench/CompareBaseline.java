@@ -0,0 +1,114 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result ({@code -rf csv}) with a stored baseline and exits with status 1
+ * if any benchmark got slower by more than the threshold (default 10%) with error bars that
+ * no longer overlap.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.CompareBaseline benchmarks/baselines/jdk17.csv result.csv [10]
+ * </pre>
+ */
+public final class CompareBaseline {
+
+    private CompareBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CompareBaseline <baseline.csv> <result.csv> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Result> baseline = read(args[0]);
+        Map<String, Result> current = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-70s %12s %12s %8s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Result> e : current.entrySet()) {
+            Result now = e.getValue();
+            Result before = baseline.get(e.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %12s %12.3f %8s  (new)%n", e.getKey(), "-", now.score, "");
+                continue;
+            }
+            // Positive change = worse, whichever direction the mode counts.
+            double change = 100 * (now.score - before.score) / before.score * (now.higherIsBetter ? -1 : 1);
+            boolean separated = now.higherIsBetter
+                    ? now.score + now.error < before.score - before.error
+                    : now.score - now.error > before.score + before.error;
+            boolean regressed = change > threshold && separated;
+            if (regressed) regressions++;
+            System.out.printf("%-70s %12.3f %12.3f %+7.1f%%%s%n", e.getKey(), before.score, now.score, change,
+                    regressed ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) System.out.printf("%-70s  (missing from result)%n", key);
+        }
+        System.out.println(regressions == 0 ? "No regressions." : regressions + " regression(s) over " + threshold + "%.");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static Map<String, Result> read(String path) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (lines.isEmpty()) return results;
+        List<String> header = split(lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.trim().isEmpty()) continue;
+            List<String> cells = split(line);
+            StringBuilder key = new StringBuilder(cells.get(0));
+            for (int i = 7; i < cells.size() && i < header.size(); i++) {
+                if (!cells.get(i).isEmpty()) key.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(cells.get(i));
+            }
+            double error = cells.get(5).isEmpty() || cells.get(5).equals("NaN") ? 0 : Double.parseDouble(cells.get(5));
+            results.put(key.toString(), new Result(Double.parseDouble(cells.get(4)), error, cells.get(1).equals("thrpt")));
+        }
+        return results;
+    }
+
+    /** Splits one CSV line as JMH writes it: quoted text cells, unquoted numbers. */
+    private static List<String> split(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static final class Result {
+        final double score;
+        final double error;
+        final boolean higherIsBetter;
+
+        Result(double score, double error, boolean higherIsBetter) {
+            this.score = score;
+            this.error = error;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
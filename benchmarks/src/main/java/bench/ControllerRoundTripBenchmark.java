@@ -0,0 +1,69 @@
+package bench;
+
+import controller.AuthenticationController;
+import controller.BookingController;
+import controller.CarController;
+import model.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole controller calls through the {@code Srent_DB} pool against embedded H2: the cost the
+ * app adds on top of the database (pool hand-off, statement setup, mapping) for a login, the
+ * available-car list and a booking that is made and cancelled again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = EmbeddedDb.URL_PROPERTY)
+public class ControllerRoundTripBenchmark {
+
+    private static final int FLEET = 500;
+
+    private int nextCar;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        EmbeddedDb.create(FLEET);
+    }
+
+    /** Keeps the booking tables from growing across iterations. */
+    @Setup(Level.Iteration)
+    public void resetBookings() throws SQLException {
+        EmbeddedDb.clearBookings();
+    }
+
+    @Benchmark
+    public AuthenticationController.LoginResult login() {
+        return AuthenticationController.authenticate(EmbeddedDb.CUSTOMER_NAME, EmbeddedDb.CUSTOMER_PASSWORD);
+    }
+
+    @Benchmark
+    public List<Car> availableCars() {
+        return CarController.getAvailableCarsAsObjects();
+    }
+
+    /** The {@code BookingPanel} sequence, then the cancellation from the reservations screen. */
+    @Benchmark
+    public boolean bookThenCancel() {
+        int carId = 1 + (nextCar++ % FLEET);
+        int bookingId = BookingController.bookIfAvailable(1, carId, "2026-03-01", "2026-03-04", 0.0, 400.0, "self", 0, "2026-03-01");
+        if (bookingId <= 0) throw new IllegalStateException("car " + carId + " not released");
+        return BookingController.cancelBooking(bookingId);
+    }
+}
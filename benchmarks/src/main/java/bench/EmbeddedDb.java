@@ -0,0 +1,137 @@
+package bench;
+
+import util.Srent_DB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+
+/**
+ * Embedded H2 stand-in for the MySQL schema in {@code resources/sql/DDL.sql}, reached through
+ * the app's own {@link Srent_DB} pool. Benchmarks that use it fork with {@link #URL_PROPERTY}.
+ */
+final class EmbeddedDb {
+
+    static final String URL = "jdbc:h2:mem:srent;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=USER";
+    static final String URL_PROPERTY = "-Dsrent.db.url=" + URL;
+
+    static final String CUSTOMER_NAME = "bench";
+    static final String CUSTOMER_PASSWORD = "bench-pass";
+
+    private static final String[] SCHEMA = {
+            "DROP ALL OBJECTS",
+            "CREATE TABLE user (user_id INT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(30), last_name VARCHAR(30), "
+                    + "username VARCHAR(50) UNIQUE, password VARCHAR(50), email VARCHAR(120) UNIQUE, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+            "CREATE TABLE Admin (user_id INT PRIMARY KEY, salary DOUBLE, FOREIGN KEY (user_id) REFERENCES user(user_id))",
+            "CREATE TABLE Customer (user_id INT PRIMARY KEY, occupation VARCHAR(100), FOREIGN KEY (user_id) REFERENCES user(user_id))",
+            "CREATE TABLE VehicleSpecification (specification_id INT AUTO_INCREMENT PRIMARY KEY, color VARCHAR(20), "
+                    + "fuel_type VARCHAR(20), transmission_type VARCHAR(20), seating_capacity INT)",
+            "CREATE TABLE Branch (branch_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), "
+                    + "latitude DOUBLE NOT NULL, longitude DOUBLE NOT NULL)",
+            "CREATE TABLE Car (car_id INT AUTO_INCREMENT PRIMARY KEY, model VARCHAR(50), daily_rent DOUBLE, "
+                    + "deposit DOUBLE, mileage INT, vehicle_status ENUM('available','reserved','rented','service','retired') "
+                    + "DEFAULT 'available', branch_id INT, latitude DOUBLE, "
+                    + "longitude DOUBLE, FOREIGN KEY (branch_id) REFERENCES Branch(branch_id) ON DELETE SET NULL)",
+            "CREATE TABLE has (car_id INT, specification_id INT, FOREIGN KEY (car_id) REFERENCES Car(car_id), "
+                    + "FOREIGN KEY (specification_id) REFERENCES VehicleSpecification(specification_id))",
+            "CREATE TABLE Booking (booking_id INT AUTO_INCREMENT PRIMARY KEY, start_date DATE, end_date DATE, "
+                    + "booking_status ENUM('pending','confirmed','finished','cancelled') DEFAULT 'pending', "
+                    + "secure_deposit DOUBLE, amount DOUBLE, "
+                    + "drive_option ENUM('self','chauffeur') DEFAULT 'self', reading INT, date_out DATE)",
+            "CREATE TABLE makes (user_id INT, booking_id INT, PRIMARY KEY (user_id, booking_id), "
+                    + "FOREIGN KEY (user_id) REFERENCES user(user_id), FOREIGN KEY (booking_id) REFERENCES Booking(booking_id))",
+            "CREATE TABLE reserves (booking_id INT, car_id INT, FOREIGN KEY (booking_id) REFERENCES Booking(booking_id), "
+                    + "FOREIGN KEY (car_id) REFERENCES Car(car_id))"
+    };
+
+    private EmbeddedDb() {
+    }
+
+    /** Recreates the schema with {@code cars} cars (one spec each) and one customer. */
+    static void create(int cars) throws SQLException {
+        try (Connection conn = Srent_DB.getConnection(); Statement st = conn.createStatement()) {
+            for (String sql : SCHEMA) st.execute(sql);
+            st.execute("INSERT INTO user (username, password) VALUES ('" + CUSTOMER_NAME + "', '" + CUSTOMER_PASSWORD + "')");
+            st.execute("INSERT INTO Customer (user_id, occupation) VALUES (1, 'tester')");
+
+            String[] colors = {"White", "Black", "Grey", "Red", "Blue"};
+            String[] fuels = {"Petrol", "Diesel", "Hybrid", "Electric"};
+            String[] transmissions = {"Manual", "Automatic"};
+            SplittableRandom random = new SplittableRandom(42);
+            conn.setAutoCommit(false);
+            try (PreparedStatement spec = conn.prepareStatement("INSERT INTO VehicleSpecification "
+                         + "(color, fuel_type, transmission_type, seating_capacity) VALUES (?, ?, ?, ?)");
+                 PreparedStatement car = conn.prepareStatement("INSERT INTO Car "
+                         + "(model, daily_rent, deposit, mileage, vehicle_status) VALUES (?, ?, 0, ?, 'available')");
+                 PreparedStatement has = conn.prepareStatement("INSERT INTO has (car_id, specification_id) VALUES (?, ?)")) {
+                for (int i = 1; i <= cars; i++) {
+                    spec.setString(1, colors[random.nextInt(colors.length)]);
+                    spec.setString(2, fuels[random.nextInt(fuels.length)]);
+                    spec.setString(3, transmissions[random.nextInt(transmissions.length)]);
+                    spec.setInt(4, 2 + random.nextInt(8));
+                    spec.addBatch();
+                    car.setString(1, "Model " + i);
+                    car.setDouble(2, 25 + random.nextInt(36) * 5);
+                    car.setInt(3, random.nextInt(200_000));
+                    car.addBatch();
+                    has.setInt(1, i);
+                    has.setInt(2, i);
+                    has.addBatch();
+                }
+                spec.executeBatch();
+                car.executeBatch();
+                has.executeBatch();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Adds {@code count} registered users with names drawn from fixed lists, and usernames and
+     * emails made unique by a running number, in batches of 10k.
+     */
+    static void addUsers(int count) throws SQLException {
+        String[] firstNames = {"Ahmet", "Mehmet", "Ayse", "Fatma", "Elif", "Can", "Zeynep", "Emre", "Deniz", "Burak",
+                "John", "Mary", "James", "Linda", "Robert", "Anna", "David", "Sarah", "Michael", "Laura"};
+        String[] lastNames = {"Yilmaz", "Kaya", "Demir", "Sahin", "Celik", "Yildiz", "Aydin", "Ozturk", "Arslan", "Dogan",
+                "Smith", "Johnson", "Williams", "Brown", "Anderson", "Thompson", "Harrison", "Robinson", "Clark", "Lewis"};
+        SplittableRandom random = new SplittableRandom(7);
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO user (first_name, last_name, username, password, email) VALUES (?, ?, ?, 'x', ?)")) {
+            conn.setAutoCommit(false);
+            for (int i = 1; i <= count; i++) {
+                String first = firstNames[random.nextInt(firstNames.length)];
+                String last = lastNames[random.nextInt(lastNames.length)];
+                String username = (first.charAt(0) + last).toLowerCase() + i;
+                ps.setString(1, first);
+                ps.setString(2, last);
+                ps.setString(3, username);
+                ps.setString(4, username + "@mail.example");
+                ps.addBatch();
+                if (i % 10_000 == 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /** Removes bookings and marks every car available again. */
+    static void clearBookings() throws SQLException {
+        try (Connection conn = Srent_DB.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DELETE FROM reserves");
+            st.execute("DELETE FROM makes");
+            st.execute("DELETE FROM Booking");
+            st.execute("UPDATE Car SET vehicle_status = 'available'");
+        }
+    }
+}
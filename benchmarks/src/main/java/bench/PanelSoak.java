@@ -0,0 +1,99 @@
+package bench;
+
+import model.Car;
+import view.BookingPanel;
+import view.PanelRegistry;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import java.awt.CardLayout;
+
+/**
+ * Soak test for {@link PanelRegistry}: navigates from the car list to the booking screen and
+ * back many times, with a different car each time, the way {@code CarListPanel}'s Rent button
+ * does, and samples the heap after a full GC as it goes. Runs headless.
+ * <p>
+ * The run passes when the retained heap after the last navigation is within
+ * {@code soak.maxGrowthMb} of the first sample and the card container still holds one child per
+ * screen. With {@code -Dsoak.legacy=true} it adds a new {@code BookingPanel} per click instead,
+ * as before the registry, to show what the check catches.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar -Dsoak.navigations=10000 bench.PanelSoak
+ * </pre>
+ * Settings: {@code soak.navigations} (10000), {@code soak.samples} (5), {@code soak.maxGrowthMb} (4),
+ * {@code soak.legacy} (false). Exits with status 1 if the heap or the container grew.
+ */
+public final class PanelSoak {
+
+    private final int navigations = Integer.getInteger("soak.navigations", 10_000);
+    private final int samples = Math.max(1, Integer.getInteger("soak.samples", 5));
+    private final double maxGrowthMb = Double.parseDouble(System.getProperty("soak.maxGrowthMb", "4"));
+    private final boolean legacy = Boolean.getBoolean("soak.legacy");
+
+    private final CardLayout cardLayout = new CardLayout();
+    private final JPanel container = new JPanel(cardLayout);
+
+    private PanelSoak() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.exit(new PanelSoak().run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        SwingUtilities.invokeAndWait(() -> container.add(new JPanel(), "carlist"));
+        System.out.printf("%d navigations to the booking screen (%s)%n", navigations,
+                legacy ? "new panel per click" : "PanelRegistry");
+
+        // The first sample is taken once the booking screen exists, so its one-off cost is not counted as growth.
+        navigate(1);
+        double first = retainedMb();
+        int firstChildren = container.getComponentCount();
+        System.out.printf("  %,7d navigations  %7.1f MB  %,6d children%n", 1, first, firstChildren);
+
+        int done = 1;
+        double last = first;
+        for (int s = 1; s <= samples; s++) {
+            int target = (int) ((long) navigations * s / samples);
+            navigate(target - done);
+            done = target;
+            last = retainedMb();
+            System.out.printf("  %,7d navigations  %7.1f MB  %,6d children%n", done, last, container.getComponentCount());
+        }
+
+        boolean heapFlat = last - first <= maxGrowthMb;
+        boolean childrenFlat = container.getComponentCount() == firstChildren;
+        System.out.printf("Retained heap grew %.1f MB (limit %.1f): %s; container children %s%n",
+                last - first, maxGrowthMb, heapFlat ? "flat" : "GROWING",
+                childrenFlat ? "unchanged" : "GROWING");
+        return heapFlat && childrenFlat;
+    }
+
+    private void navigate(int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            int id = i;
+            SwingUtilities.invokeAndWait(() -> {
+                Car car = new Car(id, "Toyota", "Corolla " + id, "Red", "Diesel", "Manual", 5, 50, "available");
+                if (legacy) {
+                    container.add(new BookingPanel(cardLayout, container, car), "booking");
+                    cardLayout.show(container, "booking");
+                } else {
+                    PanelRegistry.of(container).show("booking",
+                            () -> new BookingPanel(cardLayout, container, car),
+                            panel -> panel.bind(car));
+                }
+                cardLayout.show(container, "carlist");
+            });
+        }
+    }
+
+    private static double retainedMb() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return (rt.totalMemory() - rt.freeMemory()) / 1048576.0;
+    }
+}
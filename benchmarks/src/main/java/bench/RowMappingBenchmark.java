@@ -0,0 +1,76 @@
+package bench;
+
+import controller.CarController;
+import model.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.Srent_DB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CarController#getAllCarsAsObjects()} on embedded H2, next to a scan of the same
+ * query that reads the columns by index without building {@link Car}s. The gap between the
+ * two is the controller's row mapping: name-based column lookups and object creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = EmbeddedDb.URL_PROPERTY)
+public class RowMappingBenchmark {
+
+    private static final String SQL =
+            "SELECT c.car_id, c.model, c.daily_rent, c.vehicle_status, " +
+                    "       vs.color, vs.fuel_type, vs.transmission_type, vs.seating_capacity " +
+                    "  FROM Car c " +
+                    "  JOIN has h ON c.car_id = h.car_id " +
+                    "  JOIN VehicleSpecification vs ON h.specification_id = vs.specification_id";
+
+    @Param({"1000", "10000"})
+    int fleetSize;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDb.create(fleetSize);
+    }
+
+    @Benchmark
+    public List<Car> controllerMapping() {
+        return CarController.getAllCarsAsObjects();
+    }
+
+    @Benchmark
+    public void rawScan(Blackhole bh) throws SQLException {
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getInt(1));
+                bh.consume(rs.getString(2));
+                bh.consume(rs.getDouble(3));
+                bh.consume(rs.getString(4));
+                bh.consume(rs.getString(5));
+                bh.consume(rs.getString(6));
+                bh.consume(rs.getString(7));
+                bh.consume(rs.getInt(8));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package bench;
+
+import enums.CardBrand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.Validator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Validator} on a mix of valid and invalid form input, {@value #BATCH} values per
+ * invocation. Run with {@code -prof gc}: {@code gc.alloc.rate.norm} should stay at about
+ * 0 B/op, since every check reads its argument in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private final String[] cardNumbers = new String[BATCH];
+    private final String[] emails = new String[BATCH];
+    private final String[] expiries = new String[BATCH];
+    private final String[] starts = new String[BATCH];
+    private final String[] ends = new String[BATCH];
+
+    @Setup
+    public void setUp() {
+        String[] cards = {"4111 1111 1111 1111", "5500-0000-0000-0004", "6304000000000000", "9792000000000006",
+                "4111111111111112", "4111 1111 1111 111x", "4000000000000000006", "1234"};
+        String[] mails = {"ayse.kara@mail.example", "john@sub.domain.example", "no-at-sign.example",
+                "two@@example.com", "a@b.c", "first.last+tag@example.co.uk", ".dot@example.com", "x@-bad.example"};
+        String[] exp = {"12/29", "01/2031", "2030-06", "2031-02-28", "13/29", "00/30", "2030-02-30", "11-29"};
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < BATCH; i++) {
+            cardNumbers[i] = cards[random.nextInt(cards.length)];
+            emails[i] = mails[random.nextInt(mails.length)];
+            expiries[i] = exp[random.nextInt(exp.length)];
+            int month = 1 + random.nextInt(12), day = 1 + random.nextInt(31);
+            starts[i] = String.format("2026-%02d-%02d", month, day);
+            ends[i] = String.format("2026-%02d-%02d", month, Math.min(31, day + random.nextInt(20)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int cardNumber() {
+        int valid = 0;
+        for (String n : cardNumbers) if (Validator.isValidCardNumber(n)) valid++;
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int cardBrand() {
+        int visa = 0;
+        for (String n : cardNumbers) if (Validator.detectCardBrand(n) == CardBrand.VISA) visa++;
+        return visa;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int email() {
+        int valid = 0;
+        for (String e : emails) if (Validator.isValidEmail(e)) valid++;
+        return valid;
+    }
+
+    /** Includes reading the clock for the current month, as form validation does. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int expiry() {
+        int valid = 0;
+        for (String e : expiries) if (Validator.isValidExpiry(e)) valid++;
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int dateRange() {
+        int valid = 0;
+        for (int i = 0; i < BATCH; i++) if (Validator.isValidDateRange(starts[i], ends[i])) valid++;
+        return valid;
+    }
+}
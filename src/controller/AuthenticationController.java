@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import util.Srent_DB;
 import util.Session;
+import util.Validator;
 
 
 public class AuthenticationController {
@@ -17,7 +18,33 @@ public class AuthenticationController {
         UNKNOWN
     }
 
+    /** Outcome of {@link #authenticate}: the user's ID (or -1) and role. */
+    public static class LoginResult {
+        private final int userId;
+        private final UserRole role;
+
+        public LoginResult(int userId, UserRole role) {
+            this.userId = userId;
+            this.role = role;
+        }
+
+        public int getUserId() { return userId; }
+
+        public UserRole getRole() { return role; }
+    }
+
+    /** Logs in the desktop user: checks the credentials and stores the user in {@link Session}. */
     public static UserRole login(String username, String password) {
+        LoginResult result = authenticate(username, password);
+        if (result.getUserId() > 0) Session.setCurrentUserId(result.getUserId());
+        return result.getRole();
+    }
+
+    /**
+     * Checks credentials without touching the process-wide {@link Session}, so concurrent
+     * callers (e.g. the HTTP API) can log in different users.
+     */
+    public static LoginResult authenticate(String username, String password) {
         String sql = "SELECT user_id FROM User WHERE username = ? AND password = ?";
         Connection conn = null;
         PreparedStatement ps = null;
@@ -27,7 +54,7 @@ public class AuthenticationController {
             conn = Srent_DB.getConnection();
             if (conn == null) {
                 System.err.println("Database connection is null.");
-                return UserRole.UNKNOWN;
+                return new LoginResult(-1, UserRole.UNKNOWN);
             }
 
             ps = conn.prepareStatement(sql);
@@ -37,28 +64,27 @@ public class AuthenticationController {
 
             if (rs.next()) {
                 int userId = rs.getInt("user_id");
-                Session.setCurrentUserId(userId);
 
                 if (isAdmin(userId, conn)) {
                     System.out.println("Admin login successful.");
-                    return UserRole.ADMIN;
+                    return new LoginResult(userId, UserRole.ADMIN);
                 } else if (isCustomer(userId, conn)) {
                     System.out.println("Customer login successful.");
                     // Giriş yapan userId'yi bir yerde saklamak istersen buradan alabilirsin
-                    return UserRole.CUSTOMER;
+                    return new LoginResult(userId, UserRole.CUSTOMER);
                 } else {
                     System.out.println("User exists but has no role.");
-                    return UserRole.UNKNOWN;
+                    return new LoginResult(userId, UserRole.UNKNOWN);
                 }
             } else {
                 System.out.println("Login failed: invalid username or password.");
-                return UserRole.UNKNOWN;
+                return new LoginResult(-1, UserRole.UNKNOWN);
             }
 
         } catch (SQLException e) {
             System.err.println("SQL error during login: " + e.getMessage());
             e.printStackTrace();
-            return UserRole.UNKNOWN;
+            return new LoginResult(-1, UserRole.UNKNOWN);
 
         } finally {
             try { if (rs != null) rs.close(); } catch (Exception ignored) {}
@@ -130,29 +156,31 @@ public class AuthenticationController {
 
     public static boolean registerCustomer(String firstName, String lastName, String username, String email, String gender, String address, String occupation) {
         Connection conn = null;
-        PreparedStatement checkEmailStmt = null;
         PreparedStatement insertUserStmt = null;
         PreparedStatement getIdStmt = null;
         PreparedStatement insertCustomerStmt = null;
         ResultSet rs = null;
 
+        if (!Validator.isValidEmail(email)) {
+            System.out.println("Invalid email address.");
+            return false;
+        }
+
         try {
-            conn = Srent_DB.getConnection();
-            if (conn == null) {
-                System.err.println("Database connection is null.");
+            if (UserController.isEmailRegistered(email)) {
+                System.out.println("This email is already registered.");
+                return false;
+            }
+            if (UserController.isUsernameTaken(username)) {
+                System.out.println("This username is already taken.");
                 return false;
             }
 
-            String checkEmailSql = "SELECT * FROM User WHERE email = ?";
-            checkEmailStmt = conn.prepareStatement(checkEmailSql);
-            checkEmailStmt.setString(1, email);
-            rs = checkEmailStmt.executeQuery();
-
-            if (rs.next()) {
-                System.out.println("This email is already registered.");
+            conn = Srent_DB.getConnection();
+            if (conn == null) {
+                System.err.println("Database connection is null.");
                 return false;
             }
-            rs.close();
 
             String insertUserSql = "INSERT INTO User (first_name, last_name, username, email, gender, address) VALUES (?, ?, ?, ?, ?, ?)";
             insertUserStmt = conn.prepareStatement(insertUserSql);
@@ -183,6 +211,7 @@ public class AuthenticationController {
             insertCustomerStmt.setString(2, occupation);
             insertCustomerStmt.executeUpdate();
 
+            UserController.onUserRegistered(userId, firstName, lastName, username, email);
             System.out.println("Customer registered successfully.");
             return true;
 
@@ -198,7 +227,6 @@ public class AuthenticationController {
 
         } finally {
             try { if (rs != null) rs.close(); } catch (Exception e) { }
-            try { if (checkEmailStmt != null) checkEmailStmt.close(); } catch (Exception e) { }
             try { if (insertUserStmt != null) insertUserStmt.close(); } catch (Exception e) { }
             try { if (getIdStmt != null) getIdStmt.close(); } catch (Exception e) { }
             try { if (insertCustomerStmt != null) insertCustomerStmt.close(); } catch (Exception e) { }
@@ -211,21 +239,25 @@ public class AuthenticationController {
         PreparedStatement psUser = null;
         PreparedStatement psAdmin = null;
         ResultSet rs = null;
+        if (!Validator.isValidEmail(email)) {
+            System.out.println("Invalid email address.");
+            return false;
+        }
+
         try {
+            if (UserController.isEmailRegistered(email)) {
+                System.out.println("This email is already registered.");
+                return false;
+            }
+            if (UserController.isUsernameTaken(username)) {
+                System.out.println("This username is already taken.");
+                return false;
+            }
+
             conn = Srent_DB.getConnection();
             if (conn == null) return false;
             conn.setAutoCommit(false);
 
-            String checkSql = "SELECT * FROM User WHERE email = ?";
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setString(1, email);
-                rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("This email is already registered.");
-                    return false;
-                }
-            }
-
             String insertUser = "INSERT INTO User (first_name, last_name, username, gender, email, address) VALUES (?, ?, ?, ?, ?, ?)";
             psUser = conn.prepareStatement(insertUser, Statement.RETURN_GENERATED_KEYS);
             psUser.setString(1, firstName);
@@ -236,9 +268,10 @@ public class AuthenticationController {
             psUser.setString(6, address);
             psUser.executeUpdate();
 
+            int userId = -1;
             rs = psUser.getGeneratedKeys();
             if (rs.next()) {
-                int userId = rs.getInt(1);
+                userId = rs.getInt(1);
                 String insertAdmin = "INSERT INTO Admin (user_id, salary) VALUES (?, ?)";
                 psAdmin = conn.prepareStatement(insertAdmin);
                 psAdmin.setInt(1, userId);
@@ -247,6 +280,9 @@ public class AuthenticationController {
             }
 
             conn.commit();
+            if (userId > 0) {
+                UserController.onUserRegistered(userId, firstName, lastName, username, email);
+            }
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
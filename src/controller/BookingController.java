@@ -1,34 +1,107 @@
 package controller;
 
+import model.Booking;
+import util.ShardRouter;
 import util.Srent_DB;
+import util.Validator;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 
 public class BookingController {
 
+    private static final int USER_CHUNK = 500;
+
     public static boolean createBooking(int userId, int carId, String startDate, String endDate,
                                         double deposit, double amount, String driveOption,
                                         int reading, String dateOut) {
-        Connection conn = null;
-        PreparedStatement psBooking = null;
-        PreparedStatement psMakes = null;
-        PreparedStatement psReserves = null;
-        ResultSet rs = null;
+        if (!Validator.isValidDateRange(startDate, endDate)) {
+            System.err.println("Invalid booking period: " + startDate + " to " + endDate);
+            return false;
+        }
 
-        try {
-            conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId)) {
             if (conn == null) {
                 System.err.println("Database connection failed.");
                 return false;
             }
+            int bookingId = insertBooking(conn, userId, carId, startDate, endDate, deposit, amount, driveOption, reading, dateOut);
+            if (bookingId == -1) {
+                return false;
+            }
+            PricingController.bookingCreated(bookingId, carId, startDate, endDate);
+            return true;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Books the car only if it is available, as one transaction: the car is claimed with
+     * {@code UPDATE ... WHERE vehicle_status = 'available'} before the booking is written, so of
+     * two concurrent requests for the same car exactly one gets it.
+     *
+     * @return the new booking id, 0 if the car was not available, or -1 on failure
+     */
+    public static int bookIfAvailable(int userId, int carId, String startDate, String endDate,
+                                      double deposit, double amount, String driveOption,
+                                      int reading, String dateOut) {
+        if (!Validator.isValidDateRange(startDate, endDate)) {
+            System.err.println("Invalid booking period: " + startDate + " to " + endDate);
+            return -1;
+        }
+
+        Connection conn = null;
+        try {
+            conn = ShardRouter.forCar(carId);
+            conn.setAutoCommit(false);
 
-            String insertBooking = "INSERT INTO Booking (start_date, end_date, booking_status, " +
-                    "secure_deposit, amount, drive_option, reading, date_out) VALUES (?, ?, 'confirmed', ?, ?, ?, ?, ?)";
-            psBooking = conn.prepareStatement(insertBooking, Statement.RETURN_GENERATED_KEYS);
+            String claimCar = "UPDATE Car SET vehicle_status = 'reserved' WHERE car_id = ? AND vehicle_status = 'available'";
+            try (PreparedStatement ps = conn.prepareStatement(claimCar)) {
+                ps.setInt(1, carId);
+                if (ps.executeUpdate() == 0) {
+                    conn.rollback();
+                    return 0;
+                }
+            }
+            int bookingId = insertBooking(conn, userId, carId, startDate, endDate, deposit, amount, driveOption, reading, dateOut);
+            if (bookingId == -1) {
+                conn.rollback();
+                return -1;
+            }
+
+            conn.commit();
+            CarController.carChanged(carId);
+            PricingController.bookingCreated(bookingId, carId, startDate, endDate);
+            return bookingId;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try { if (conn != null) conn.rollback(); } catch (SQLException ignored) {}
+            return -1;
+        } finally {
+            try { if (conn != null) conn.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    /** Writes the booking with its {@code makes} and {@code reserves} rows; returns its id, or -1. */
+    private static int insertBooking(Connection conn, int userId, int carId, String startDate, String endDate,
+                                     double deposit, double amount, String driveOption,
+                                     int reading, String dateOut) throws SQLException {
+        String insertBooking = "INSERT INTO Booking (start_date, end_date, booking_status, " +
+                "secure_deposit, amount, drive_option, reading, date_out) VALUES (?, ?, 'confirmed', ?, ?, ?, ?, ?)";
+        int bookingId;
+        try (PreparedStatement psBooking = conn.prepareStatement(insertBooking, Statement.RETURN_GENERATED_KEYS)) {
             psBooking.setString(1, startDate);
             psBooking.setString(2, endDate);
             psBooking.setDouble(3, deposit);
@@ -37,74 +110,118 @@ public class BookingController {
             psBooking.setInt(6, reading);
             psBooking.setString(7, dateOut);
 
-            int affectedRows = psBooking.executeUpdate();
-            if (affectedRows == 0) return false;
+            if (psBooking.executeUpdate() == 0) return -1;
+            try (ResultSet rs = psBooking.getGeneratedKeys()) {
+                if (!rs.next()) return -1;
+                bookingId = rs.getInt(1);
+            }
+        }
+
+        try (PreparedStatement psMakes = conn.prepareStatement("INSERT INTO makes (user_id, booking_id) VALUES (?, ?)")) {
+            psMakes.setInt(1, userId);
+            psMakes.setInt(2, bookingId);
+            psMakes.executeUpdate();
+        }
+        try (PreparedStatement psReserves = conn.prepareStatement("INSERT INTO reserves (booking_id, car_id) VALUES (?, ?)")) {
+            psReserves.setInt(1, bookingId);
+            psReserves.setInt(2, carId);
+            psReserves.executeUpdate();
+        }
+        return bookingId;
+    }
 
-            rs = psBooking.getGeneratedKeys();
-            if (rs.next()) {
-                int bookingId = rs.getInt(1);
-
-                String insertMakes = "INSERT INTO makes (user_id, booking_id) VALUES (?, ?)";
-                psMakes = conn.prepareStatement(insertMakes);
-                psMakes.setInt(1, userId);
-                psMakes.setInt(2, bookingId);
-                psMakes.executeUpdate();
-
-                String insertReserves = "INSERT INTO reserves (booking_id, car_id) VALUES (?, ?)";
-                psReserves = conn.prepareStatement(insertReserves);
-                psReserves.setInt(1, bookingId);
-                psReserves.setInt(2, carId);
-                psReserves.executeUpdate();
+    public static boolean cancelBooking(int bookingId) {
+        Connection conn = null;
+        try {
+            conn = ShardRouter.forBooking(bookingId);
+            conn.setAutoCommit(false);
+
+            // 1. Rezervasyonla ilişkili araba ID'sini bul
+            int carId = -1, specId = -1;
+            String startDate = null, endDate = null;
+            String carQuery = "SELECT r.car_id, h.specification_id, b.start_date, b.end_date FROM reserves r " +
+                    "JOIN Booking b ON b.booking_id = r.booking_id " +
+                    "LEFT JOIN has h ON h.car_id = r.car_id WHERE r.booking_id = ?";
+            try (PreparedStatement ps = conn.prepareStatement(carQuery)) {
+                ps.setInt(1, bookingId);
+                ResultSet rs = ps.executeQuery();
+                if (rs.next()) {
+                    carId = rs.getInt("car_id");
+                    specId = rs.getInt("specification_id");
+                    if (rs.wasNull()) specId = -1;
+                    startDate = rs.getString("start_date");
+                    endDate = rs.getString("end_date");
+                }
             }
+            if (carId != -1) lockCar(conn, carId);
 
+            // 2. Rezervasyon durumunu iptal et
+            // (already-cancelled bookings match nothing, so demand is only released once)
+            String cancelSQL = "UPDATE Booking SET booking_status = 'cancelled' WHERE booking_id = ? AND booking_status <> 'cancelled'";
+            boolean newlyCancelled;
+            try (PreparedStatement ps = conn.prepareStatement(cancelSQL)) {
+                ps.setInt(1, bookingId);
+                newlyCancelled = ps.executeUpdate() > 0;
+            }
+
+            // 3. Başka onaylı rezervasyon yoksa arabayı available yap
+            boolean released = newlyCancelled && carId != -1 && releaseCarIfFree(conn, carId);
+
+            conn.commit();
+            if (released) CarController.carChangedLater(carId);
+            if (carId != -1 && newlyCancelled) PricingController.bookingCancelled(bookingId, carId, startDate, endDate);
+            if (released) WaitlistController.carReleased(carId, specId);
             return true;
 
         } catch (SQLException e) {
             e.printStackTrace();
+            try { if (conn != null) conn.rollback(); } catch (SQLException ignored) {}
             return false;
         } finally {
-            try { if (rs != null) rs.close(); } catch (Exception ignored) {}
-            try { if (psBooking != null) psBooking.close(); } catch (Exception ignored) {}
-            try { if (psMakes != null) psMakes.close(); } catch (Exception ignored) {}
-            try { if (psReserves != null) psReserves.close(); } catch (Exception ignored) {}
-            try { if (conn != null) conn.close(); } catch (Exception ignored) {}
+            try { if (conn != null) conn.close(); } catch (SQLException ignored) {}
         }
     }
 
-    public static boolean cancelBooking(int bookingId) {
+    /** Marks the booking finished and hands its car back to the fleet and to the waitlists. */
+    public static boolean finishBooking(int bookingId) {
         Connection conn = null;
         try {
-            conn = Srent_DB.getConnection();
+            conn = ShardRouter.forBooking(bookingId);
             conn.setAutoCommit(false);
 
-            // 1. Rezervasyon durumunu iptal et
-            String cancelSQL = "UPDATE Booking SET booking_status = 'cancelled' WHERE booking_id = ?";
-            try (PreparedStatement ps = conn.prepareStatement(cancelSQL)) {
-                ps.setInt(1, bookingId);
-                ps.executeUpdate();
-            }
-
-            // 2. Rezervasyonla ilişkili araba ID'sini bul
-            int carId = -1;
-            String carQuery = "SELECT car_id FROM reserves WHERE booking_id = ?";
+            int carId = -1, specId = -1;
+            String carQuery = "SELECT r.car_id, h.specification_id FROM reserves r " +
+                    "LEFT JOIN has h ON h.car_id = r.car_id WHERE r.booking_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(carQuery)) {
                 ps.setInt(1, bookingId);
                 ResultSet rs = ps.executeQuery();
                 if (rs.next()) {
                     carId = rs.getInt("car_id");
+                    specId = rs.getInt("specification_id");
+                    if (rs.wasNull()) specId = -1;
                 }
             }
+            if (carId != -1) lockCar(conn, carId);
 
-            // 3. Arabayı available yap
-            if (carId != -1) {
-                String updateCar = "UPDATE Car SET vehicle_status = 'available' WHERE car_id = ?";
-                try (PreparedStatement ps = conn.prepareStatement(updateCar)) {
-                    ps.setInt(1, carId);
-                    ps.executeUpdate();
-                }
+            boolean finished;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE Booking SET booking_status = 'finished' WHERE booking_id = ? AND booking_status <> 'finished'")) {
+                ps.setInt(1, bookingId);
+                finished = ps.executeUpdate() > 0;
+            }
+            if (!finished) {
+                conn.rollback();
+                return false;
             }
 
+            // Araç teslim edildi, başka rezervasyonu yoksa tekrar kiralanabilir
+            boolean released = carId != -1 && releaseCarIfFree(conn, carId);
+
             conn.commit();
+            if (released) {
+                CarController.carChangedLater(carId);
+                WaitlistController.carReleased(carId, specId);
+            }
             return true;
 
         } catch (SQLException e) {
@@ -116,142 +233,213 @@ public class BookingController {
         }
     }
 
-    public static boolean finishBooking(int bookingId) {
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement("UPDATE Booking SET booking_status = 'finished' WHERE booking_id = ?")) {
+    /**
+     * Locks the car row until the transaction ends. Cancel and finish take it before touching
+     * the booking, and {@link #bookIfAvailable} takes it with its claim, so the bookings of one
+     * car change one transaction at a time.
+     */
+    private static void lockCar(Connection conn, int carId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT car_id FROM Car WHERE car_id = ? FOR UPDATE")) {
+            ps.setInt(1, carId);
+            ps.executeQuery().close();
+        }
+    }
 
-            ps.setInt(1, bookingId);
+    /**
+     * Sets a reserved car available again unless a confirmed booking still holds it. Call with
+     * the car locked, after the caller's booking has left 'confirmed'.
+     *
+     * @return whether the car was released
+     */
+    private static boolean releaseCarIfFree(Connection conn, int carId) throws SQLException {
+        // A locking read sees bookings committed after this transaction's first plain read.
+        String stillHeld = "SELECT r.booking_id FROM reserves r JOIN Booking b ON b.booking_id = r.booking_id " +
+                "WHERE r.car_id = ? AND b.booking_status = 'confirmed' FOR UPDATE";
+        try (PreparedStatement ps = conn.prepareStatement(stillHeld)) {
+            ps.setInt(1, carId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return false;
+            }
+        }
+        // A car in service or retired stays so.
+        String release = "UPDATE Car SET vehicle_status = 'available' WHERE car_id = ? AND vehicle_status IN ('reserved', 'rented')";
+        try (PreparedStatement ps = conn.prepareStatement(release)) {
+            ps.setInt(1, carId);
             return ps.executeUpdate() > 0;
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
         }
     }
 
     public static List<String> getBookingsByUser(int userId) {
-        List<String> bookings = new ArrayList<>();
         String sql = "SELECT b.booking_id, b.start_date, b.end_date, b.booking_status, b.amount, c.car_id, c.model " +
                 "FROM Booking b " +
                 "JOIN makes m ON b.booking_id = m.booking_id " +
                 "JOIN reserves r ON b.booking_id = r.booking_id " +
                 "JOIN Car c ON r.car_id = c.car_id " +
                 "WHERE m.user_id = ?";
+        return ShardRouter.fanOut(conn -> {
+            List<String> bookings = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
 
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, userId);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String entry = String.format("Booking #%d: Car ID %d (%s), %s to %s - %s [$%.2f]",
-                        rs.getInt("booking_id"),
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getString("start_date"),
-                        rs.getString("end_date"),
-                        rs.getString("booking_status"),
-                        rs.getDouble("amount"));
-                bookings.add(entry);
+                ps.setInt(1, userId);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String entry = String.format("Booking #%d: Car ID %d (%s), %s to %s - %s [$%.2f]",
+                            rs.getInt("booking_id"),
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getString("start_date"),
+                            rs.getString("end_date"),
+                            rs.getString("booking_status"),
+                            rs.getDouble("amount"));
+                    bookings.add(entry);
+                }
             }
+            return bookings;
+        });
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return bookings;
+    public static List<Booking> getBookingsByUserAsObjects(int userId) {
+        String sql = "SELECT b.booking_id, b.start_date, b.end_date, b.booking_status, b.amount, c.car_id, c.model " +
+                "FROM Booking b " +
+                "JOIN makes m ON b.booking_id = m.booking_id " +
+                "JOIN reserves r ON b.booking_id = r.booking_id " +
+                "JOIN Car c ON r.car_id = c.car_id " +
+                "WHERE m.user_id = ?";
+        return ShardRouter.fanOut(conn -> {
+            List<Booking> bookings = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        bookings.add(new Booking(
+                                rs.getInt("booking_id"),
+                                userId,
+                                rs.getInt("car_id"),
+                                rs.getString("start_date"),
+                                rs.getString("end_date"),
+                                rs.getString("booking_status"),
+                                rs.getDouble("amount"),
+                                rs.getString("model")));
+                    }
+                }
+            }
+            return bookings;
+        });
     }
 
     public static List<String> getActiveBookingsByUser(int userId) {
-        List<String> bookings = new ArrayList<>();
         String sql = "SELECT b.booking_id, b.start_date, b.end_date, b.booking_status, b.amount, c.car_id, c.model " +
                 "FROM Booking b " +
                 "JOIN makes m ON b.booking_id = m.booking_id " +
                 "JOIN reserves r ON b.booking_id = r.booking_id " +
                 "JOIN Car c ON r.car_id = c.car_id " +
                 "WHERE m.user_id = ? AND b.booking_status = 'confirmed'";
+        return ShardRouter.fanOut(conn -> {
+            List<String> bookings = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
 
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, userId);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String entry = String.format("Booking #%d: Car ID %d (%s), %s to %s - %s [$%.2f]",
-                        rs.getInt("booking_id"),
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getString("start_date"),
-                        rs.getString("end_date"),
-                        rs.getString("booking_status"),
-                        rs.getDouble("amount"));
-                bookings.add(entry);
+                ps.setInt(1, userId);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String entry = String.format("Booking #%d: Car ID %d (%s), %s to %s - %s [$%.2f]",
+                            rs.getInt("booking_id"),
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getString("start_date"),
+                            rs.getString("end_date"),
+                            rs.getString("booking_status"),
+                            rs.getDouble("amount"));
+                    bookings.add(entry);
+                }
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return bookings;
+            return bookings;
+        });
     }
 
     public static List<String> getAllBookings() {
-        List<String> bookings = new ArrayList<>();
+        // User tablosu sadece home shard'da; kullanıcı adları ayrıca çözülür
         String sql = "SELECT b.booking_id, b.start_date, b.end_date, b.booking_status, b.amount, b.drive_option, " +
-                "u.username, c.model " +
+                "m.user_id, c.model " +
                 "FROM Booking b " +
                 "JOIN makes m ON b.booking_id = m.booking_id " +
-                "JOIN user u ON m.user_id = u.user_id " +
                 "JOIN reserves r ON b.booking_id = r.booking_id " +
                 "JOIN car c ON r.car_id = c.car_id";
 
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                String booking = String.format("Booking #%d | User: %s | Car: %s\nStart: %s | End: %s | Status: %s | Drive: %s | Amount: %.2f",
-                        rs.getInt("booking_id"),
-                        rs.getString("username"),
-                        rs.getString("model"),
-                        rs.getString("start_date"),
-                        rs.getString("end_date"),
-                        rs.getString("booking_status"),
-                        rs.getString("drive_option"),
-                        rs.getDouble("amount"));
-                bookings.add(booking);
+        List<Object[]> rows = ShardRouter.fanOut(conn -> {
+            List<Object[]> shardRows = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    shardRows.add(new Object[]{
+                            rs.getInt("booking_id"),
+                            rs.getInt("user_id"),
+                            rs.getString("model"),
+                            rs.getString("start_date"),
+                            rs.getString("end_date"),
+                            rs.getString("booking_status"),
+                            rs.getString("drive_option"),
+                            rs.getDouble("amount")});
+                }
             }
+            return shardRows;
+        });
+
+        Set<Integer> userIds = new HashSet<>();
+        for (Object[] row : rows) userIds.add((Integer) row[1]);
+        Map<Integer, String> usernames = usernames(userIds);
+
+        List<String> bookings = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String username = usernames.get((Integer) row[1]);
+            if (username == null) continue; // the old inner join skipped bookings of deleted users too
+            bookings.add(String.format("Booking #%d | User: %s | Car: %s\nStart: %s | End: %s | Status: %s | Drive: %s | Amount: %.2f",
+                    row[0], username, row[2], row[3], row[4], row[5], row[6], row[7]));
+        }
+        return bookings;
+    }
 
+    /** user_id -> username from the home shard, looked up in chunks to keep the IN lists short. */
+    private static Map<Integer, String> usernames(Set<Integer> userIds) {
+        Map<Integer, String> names = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(userIds);
+        try (Connection conn = Srent_DB.getConnection()) {
+            for (int from = 0; from < ids.size(); from += USER_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + USER_CHUNK));
+                String sql = "SELECT user_id, username FROM User WHERE user_id IN ("
+                        + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) ps.setInt(i + 1, chunk.get(i));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) names.put(rs.getInt(1), rs.getString(2));
+                    }
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-
-        return bookings;
+        return names;
     }
 
     public static List<String> getBookingsByStatus(String status) {
-        List<String> bookings = new ArrayList<>();
         String sql = "SELECT booking_id, start_date, end_date, amount FROM Booking WHERE booking_status = ?";
+        return ShardRouter.fanOut(conn -> {
+            List<String> bookings = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
 
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, status);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String entry = String.format("Booking #%d: %s to %s [$%.2f]",
-                        rs.getInt("booking_id"),
-                        rs.getString("start_date"),
-                        rs.getString("end_date"),
-                        rs.getDouble("amount"));
-                bookings.add(entry);
+                ps.setString(1, status);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String entry = String.format("Booking #%d: %s to %s [$%.2f]",
+                            rs.getInt("booking_id"),
+                            rs.getString("start_date"),
+                            rs.getString("end_date"),
+                            rs.getDouble("amount"));
+                    bookings.add(entry);
+                }
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return bookings;
+            return bookings;
+        });
     }
 
     public static String getBookingById(int bookingId) {
@@ -260,7 +448,7 @@ public class BookingController {
                 "JOIN reserves r ON b.booking_id = r.booking_id " +
                 "JOIN Car c ON r.car_id = c.car_id " +
                 "WHERE b.booking_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forBooking(bookingId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, bookingId);
             ResultSet rs = ps.executeQuery();
@@ -281,8 +469,12 @@ public class BookingController {
     }
 
     public static boolean updateBookingDates(int bookingId, String startDate, String endDate) {
+        if (!Validator.isValidDateRange(startDate, endDate)) {
+            System.err.println("Invalid booking period: " + startDate + " to " + endDate);
+            return false;
+        }
         String sql = "UPDATE Booking SET start_date = ?, end_date = ? WHERE booking_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forBooking(bookingId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, startDate);
             ps.setString(2, endDate);
@@ -298,23 +490,35 @@ public class BookingController {
      * Start/end tarihlerine göre amount'u yeniden hesaplayıp günceller.
      */
     public static boolean updateBookingDatesAndAmount(int bookingId, String startDate, String endDate) {
+        if (!Validator.isValidDateRange(startDate, endDate)) {
+            System.err.println("Invalid booking period: " + startDate + " to " + endDate);
+            return false;
+        }
+
         Connection conn = null;
         try {
-            conn = Srent_DB.getConnection();
+            conn = ShardRouter.forBooking(bookingId);
             conn.setAutoCommit(false);
 
-            // 1) İlgili Booking için car_id ve günlük kira fiyatını bul
+            // 1) İlgili Booking için car_id, eski tarihleri ve günlük kira fiyatını bul
             String rentQuery =
-                    "SELECT c.daily_rent " +
+                    "SELECT c.car_id, c.daily_rent, b.start_date, b.end_date, b.booking_status " +
                             "FROM reserves r " +
                             "JOIN Car c ON r.car_id = c.car_id " +
+                            "JOIN Booking b ON b.booking_id = r.booking_id " +
                             "WHERE r.booking_id = ?";
+            int carId;
             double dailyRent;
+            String oldStart, oldEnd, status;
             try (PreparedStatement ps = conn.prepareStatement(rentQuery)) {
                 ps.setInt(1, bookingId);
                 ResultSet rs = ps.executeQuery();
                 if (!rs.next()) return false;
-                dailyRent = rs.getDouble("daily_rent");
+                carId = rs.getInt("car_id");
+                dailyRent = PricingController.dailyRate(carId, rs.getDouble("daily_rent"));
+                oldStart = rs.getString("start_date");
+                oldEnd = rs.getString("end_date");
+                status = rs.getString("booking_status");
             }
 
             // 2) Yeni tarihleri güncelle ve amount'u hesapla
@@ -337,6 +541,7 @@ public class BookingController {
             }
 
             conn.commit();
+            if (!"cancelled".equals(status)) PricingController.bookingMoved(carId, oldStart, oldEnd, startDate, endDate);
             return true;
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -348,23 +553,22 @@ public class BookingController {
     }
 
     public static List<String> getActiveBookings() {
-        List<String> bookings = new ArrayList<>();
         String sql = "SELECT booking_id, start_date, end_date, booking_status FROM Booking WHERE booking_status = 'confirmed' AND end_date >= CURRENT_DATE";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                String booking = String.format("Active Booking #%d: %s to %s | Status: %s",
-                        rs.getInt("booking_id"),
-                        rs.getString("start_date"),
-                        rs.getString("end_date"),
-                        rs.getString("booking_status"));
-                bookings.add(booking);
+        return ShardRouter.fanOut(conn -> {
+            List<String> bookings = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                     ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String booking = String.format("Active Booking #%d: %s to %s | Status: %s",
+                            rs.getInt("booking_id"),
+                            rs.getString("start_date"),
+                            rs.getString("end_date"),
+                            rs.getString("booking_status"));
+                    bookings.add(booking);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return bookings;
+            return bookings;
+        });
     }
 
 
@@ -3,18 +3,36 @@ package controller;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import model.Car;
-import util.Srent_DB;
+import util.ShardRouter;
 
 public class CarController {
 
+    /** Index refreshes that callers do not wait for, one at a time so they apply in order. */
+    private static final ExecutorService INDEX_REFRESH = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "fleet-index-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Set<Integer> REFRESH_PENDING = ConcurrentHashMap.newKeySet();
+
     public static boolean addCar(String model, double dailyRent, double deposit, int mileage, String status, int specificationId) {
+        return addCar(ShardRouter.homeRegion(), model, dailyRent, deposit, mileage, status, specificationId);
+    }
+
+    /** Adds the car to {@code region}'s fleet; {@code specificationId} must come from the same region. */
+    public static boolean addCar(String region, String model, double dailyRent, double deposit, int mileage, String status,
+                                 int specificationId) {
         Connection conn = null;
         PreparedStatement psCar = null;
         PreparedStatement psHas = null;
         ResultSet rs = null;
         try {
-            conn = Srent_DB.getConnection();
+            conn = ShardRouter.forRegion(region);
             conn.setAutoCommit(false);
 
             String insertCar = "INSERT INTO Car (model, daily_rent, deposit, mileage, vehicle_status) VALUES (?, ?, ?, ?, ?)";
@@ -27,8 +45,9 @@ public class CarController {
             psCar.executeUpdate();
 
             rs = psCar.getGeneratedKeys();
+            int carId = -1;
             if (rs.next()) {
-                int carId = rs.getInt(1);
+                carId = rs.getInt(1);
                 String insertHas = "INSERT INTO has (car_id, specification_id) VALUES (?, ?)";
                 psHas = conn.prepareStatement(insertHas);
                 psHas.setInt(1, carId);
@@ -37,6 +56,7 @@ public class CarController {
             }
 
             conn.commit();
+            if (carId != -1) carChanged(carId);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -56,13 +76,57 @@ public class CarController {
 
     public static boolean updateCar(int carId, String model, double dailyRent, String status) {
         String sql = "UPDATE Car SET model = ?, daily_rent = ?, vehicle_status = ? WHERE car_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, model);
             ps.setDouble(2, dailyRent);
             ps.setString(3, status);
             ps.setInt(4, carId);
-            return ps.executeUpdate() > 0;
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) carChanged(carId);
+            return updated;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Tells the in-memory fleet indexes (nearest-car search, similar cars) that a car was added,
+     * edited, booked, released or deleted. Call after the change is committed.
+     */
+    static void carChanged(int carId) {
+        LocationController.carChanged(carId);
+        RecommendationController.carChanged(carId);
+    }
+
+    /**
+     * {@link #carChanged(int)} on a background thread, for paths that should not wait for the
+     * indexes to re-read the car. A car already waiting for its refresh is not queued twice;
+     * the refresh reads whatever the database holds when it runs.
+     */
+    static void carChangedLater(int carId) {
+        if (!REFRESH_PENDING.add(carId)) return;
+        INDEX_REFRESH.execute(() -> {
+            REFRESH_PENDING.remove(carId);
+            try {
+                carChanged(carId);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /** Changes only the status, leaving model and daily_rent as they are in the database. */
+    public static boolean updateCarStatus(int carId, String status) {
+        String sql = "UPDATE Car SET vehicle_status = ? WHERE car_id = ?";
+        try (Connection conn = ShardRouter.forCar(carId);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, status);
+            ps.setInt(2, carId);
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) carChanged(carId);
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -71,24 +135,46 @@ public class CarController {
 
     public static boolean assignSpecificationToCar(int carId, int specId) {
         String sql = "INSERT INTO has (car_id, specification_id) VALUES (?, ?)";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, carId);
             ps.setInt(2, specId);
-            return ps.executeUpdate() > 0;
+            boolean assigned = ps.executeUpdate() > 0;
+            if (assigned) carChanged(carId);
+            return assigned;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    /** Points the car's {@code has} link at {@code specId}, creating the link if the car had none. */
+    public static boolean setSpecificationForCar(int carId, int specId) {
+        String updateSql = "UPDATE has SET specification_id = ? WHERE car_id = ?";
+        try (Connection conn = ShardRouter.forCar(carId);
+             PreparedStatement ps = conn.prepareStatement(updateSql)) {
+            ps.setInt(1, specId);
+            ps.setInt(2, carId);
+            if (ps.executeUpdate() > 0) {
+                carChanged(carId);
+                return true;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        return assignSpecificationToCar(carId, specId);
+    }
+
     public static boolean removeSpecificationFromCar(int carId, int specId) {
         String sql = "DELETE FROM has WHERE car_id = ? AND specification_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, carId);
             ps.setInt(2, specId);
-            return ps.executeUpdate() > 0;
+            boolean removed = ps.executeUpdate() > 0;
+            if (removed) carChanged(carId);
+            return removed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -101,7 +187,7 @@ public class CarController {
         String deleteManagesSql  = "DELETE FROM manages WHERE car_id = ?";
         String deleteCarSql      = "DELETE FROM Car WHERE car_id = ?";
 
-        try (Connection conn = Srent_DB.getConnection()) {
+        try (Connection conn = ShardRouter.forCar(carId)) {
             conn.setAutoCommit(false);
 
             // 1) Remove specs links
@@ -130,6 +216,7 @@ public class CarController {
             }
 
             conn.commit();
+            if (affected > 0) carChanged(carId);
             return affected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -139,7 +226,7 @@ public class CarController {
 
     public static int getSpecificationIdForCar(int carId) {
         String sql = "SELECT specification_id FROM has WHERE car_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, carId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -160,7 +247,7 @@ public class CarController {
                 "JOIN has h ON c.car_id = h.car_id " +
                 "JOIN VehicleSpecification vs ON h.specification_id = vs.specification_id " +
                 "WHERE c.car_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, carId);
             ResultSet rs = ps.executeQuery();
@@ -183,7 +270,7 @@ public class CarController {
 
     public static boolean isCarAvailable(int carId) {
         String sql = "SELECT vehicle_status FROM Car WHERE car_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, carId);
             ResultSet rs = ps.executeQuery();
@@ -197,101 +284,75 @@ public class CarController {
     }
 
     public static List<String> getAllReservedCars() {
-        List<String> cars = new ArrayList<>();
         String sql = "SELECT * FROM Car WHERE vehicle_status != 'available'";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                String car = String.format("Car ID %d: %s | Status: %s | Daily Rent: %.2f | Mileage: %d",
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getString("vehicle_status"),
-                        rs.getDouble("daily_rent"),
-                        rs.getInt("mileage"));
-                cars.add(car);
+        return ShardRouter.fanOut(conn -> {
+            List<String> cars = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String car = String.format("Car ID %d: %s | Status: %s | Daily Rent: %.2f | Mileage: %d",
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getString("vehicle_status"),
+                            rs.getDouble("daily_rent"),
+                            rs.getInt("mileage"));
+                    cars.add(car);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cars;
+            return cars;
+        });
     }
 
     public static List<String> getAllCars() {
-        List<String> cars = new ArrayList<>();
         String sql = "SELECT * FROM Car";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                String car = String.format("Car ID %d: %s | Status: %s | Daily Rent: %.2f | Mileage: %d",
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getString("vehicle_status"),
-                        rs.getDouble("daily_rent"),
-                        rs.getInt("mileage"));
-                cars.add(car);
+        return ShardRouter.fanOut(conn -> {
+            List<String> cars = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String car = String.format("Car ID %d: %s | Status: %s | Daily Rent: %.2f | Mileage: %d",
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getString("vehicle_status"),
+                            rs.getDouble("daily_rent"),
+                            rs.getInt("mileage"));
+                    cars.add(car);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cars;
+            return cars;
+        });
     }
 
     public static List<Car> getAllCarsAsObjects() {
-        List<Car> cars = new ArrayList<>();
         String sql =
                 "SELECT c.car_id, c.model, c.daily_rent, c.vehicle_status, " +
                         "       vs.color, vs.fuel_type, vs.transmission_type, vs.seating_capacity " +
                         "  FROM Car c " +
                         "  JOIN has h ON c.car_id = h.car_id " +
                         "  JOIN VehicleSpecification vs ON h.specification_id = vs.specification_id";
-
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                cars.add(new Car(
-                        rs.getInt("car_id"),
-                        "Unknown",
-                        rs.getString("model"),
-                        rs.getString("color"),
-                        rs.getString("fuel_type"),
-                        rs.getString("transmission_type"),
-                        rs.getInt("seating_capacity"),
-                        rs.getDouble("daily_rent"),
-                        rs.getString("vehicle_status")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cars;
+        return ShardRouter.fanOut(conn -> carObjects(conn, sql));
     }
 
     public static List<String> getAllAvailableCars() {
-        List<String> cars = new ArrayList<>();
         String sql = "SELECT * FROM Car WHERE vehicle_status = 'available'";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                String car = String.format("Car ID %d: %s | Daily Rent: %.2f | Mileage: %d",
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getDouble("daily_rent"),
-                        rs.getInt("mileage"));
-                cars.add(car);
+        return ShardRouter.fanOut(conn -> {
+            List<String> cars = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String car = String.format("Car ID %d: %s | Daily Rent: %.2f | Mileage: %d",
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getDouble("daily_rent"),
+                            rs.getInt("mileage"));
+                    cars.add(car);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cars;
+            return cars;
+        });
     }
 
     public static List<Car> getAvailableCarsAsObjects() {
-        List<Car> cars = new ArrayList<>();
         String sql =
                 "SELECT c.car_id, c.model, c.daily_rent, c.vehicle_status, " +
                         "       vs.color, vs.fuel_type, vs.transmission_type, vs.seating_capacity " +
@@ -299,9 +360,12 @@ public class CarController {
                         "  JOIN has h ON c.car_id = h.car_id " +
                         "  JOIN VehicleSpecification vs ON h.specification_id = vs.specification_id " +
                         " WHERE c.vehicle_status = 'available'";
+        return ShardRouter.fanOut(conn -> carObjects(conn, sql));
+    }
 
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
+    private static List<Car> carObjects(Connection conn, String sql) throws SQLException {
+        List<Car> cars = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -317,52 +381,48 @@ public class CarController {
                         rs.getString("vehicle_status")
                 ));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return cars;
     }
 
     public static List<String> getCarsByStatus(String status) {
-        List<String> cars = new ArrayList<>();
         String sql = "SELECT * FROM Car WHERE vehicle_status = ?";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, status);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String car = String.format("Car ID %d: %s | Daily Rent: %.2f | Mileage: %d",
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getDouble("daily_rent"),
-                        rs.getInt("mileage"));
-                cars.add(car);
+        return ShardRouter.fanOut(conn -> {
+            List<String> cars = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, status);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String car = String.format("Car ID %d: %s | Daily Rent: %.2f | Mileage: %d",
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getDouble("daily_rent"),
+                            rs.getInt("mileage"));
+                    cars.add(car);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cars;
+            return cars;
+        });
     }
 
     public static List<String> getCarsManagedByAdmin(int adminId) {
-        List<String> cars = new ArrayList<>();
         String sql = "SELECT c.car_id, c.model, c.vehicle_status FROM Car c " +
                 "JOIN manages m ON c.car_id = m.car_id WHERE m.user_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, adminId);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String entry = String.format("Car ID %d: %s - %s",
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getString("vehicle_status"));
-                cars.add(entry);
+        return ShardRouter.fanOut(conn -> {
+            List<String> cars = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, adminId);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String entry = String.format("Car ID %d: %s - %s",
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getString("vehicle_status"));
+                    cars.add(entry);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cars;
+            return cars;
+        });
     }
 
     public static List<String> getCarSpecifications(int carId) {
@@ -370,7 +430,7 @@ public class CarController {
         String sql = "SELECT vs.color, vs.fuel_type, vs.transmission_type, vs.seating_capacity " +
                 "FROM has h JOIN VehicleSpecification vs ON h.specification_id = vs.specification_id " +
                 "WHERE h.car_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, carId);
             ResultSet rs = ps.executeQuery();
@@ -390,7 +450,6 @@ public class CarController {
 
     public static List<String> filterCars(Double minRent, Double maxRent, Integer minMileage, Integer maxMileage,
                                           String fuelType, String transmissionType, Integer minSeats, Integer maxSeats) {
-        List<String> cars = new ArrayList<>();
         StringBuilder sql = new StringBuilder("SELECT c.car_id, c.model, c.daily_rent, c.mileage, vs.fuel_type, vs.transmission_type, vs.seating_capacity " +
                 "FROM Car c " +
                 "JOIN has h ON c.car_id = h.car_id " +
@@ -431,27 +490,27 @@ public class CarController {
             parameters.add(maxSeats);
         }
 
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
-            for (int i = 0; i < parameters.size(); i++) {
-                ps.setObject(i + 1, parameters.get(i));
-            }
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String car = String.format("Car ID %d: %s | Daily Rent: %.2f | Mileage: %d | Fuel: %s | Transmission: %s | Seats: %d",
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getDouble("daily_rent"),
-                        rs.getInt("mileage"),
-                        rs.getString("fuel_type"),
-                        rs.getString("transmission_type"),
-                        rs.getInt("seating_capacity"));
-                cars.add(car);
+        return ShardRouter.fanOut(conn -> {
+            List<String> cars = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    ps.setObject(i + 1, parameters.get(i));
+                }
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String car = String.format("Car ID %d: %s | Daily Rent: %.2f | Mileage: %d | Fuel: %s | Transmission: %s | Seats: %d",
+                            rs.getInt("car_id"),
+                            rs.getString("model"),
+                            rs.getDouble("daily_rent"),
+                            rs.getInt("mileage"),
+                            rs.getString("fuel_type"),
+                            rs.getString("transmission_type"),
+                            rs.getInt("seating_capacity"));
+                    cars.add(car);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cars;
+            return cars;
+        });
     }
 
     public static List<String> getCarHistory(int carId) {
@@ -460,7 +519,7 @@ public class CarController {
                 "FROM Booking b " +
                 "JOIN reserves r ON b.booking_id = r.booking_id " +
                 "WHERE r.car_id = ? ORDER BY b.start_date DESC";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forCar(carId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, carId);
             ResultSet rs = ps.executeQuery();
@@ -479,28 +538,28 @@ public class CarController {
         return history;
     }
 
+    /** Each shard returns its own top {@code limit}; the global top is among them. */
     public static List<String> getTopRentedCars(int limit) {
-        List<String> cars = new ArrayList<>();
         String sql = "SELECT c.car_id, c.model, COUNT(*) AS rental_count " +
                 "FROM reserves r JOIN Car c ON r.car_id = c.car_id " +
                 "GROUP BY c.car_id, c.model ORDER BY rental_count DESC LIMIT ?";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, limit);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String car = String.format("Car ID %d: %s | Rentals: %d",
-                        rs.getInt("car_id"),
-                        rs.getString("model"),
-                        rs.getInt("rental_count"));
-                cars.add(car);
+        List<Object[]> counted = ShardRouter.fanOut(conn -> {
+            List<Object[]> rows = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, limit);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    rows.add(new Object[]{rs.getInt("car_id"), rs.getString("model"), rs.getInt("rental_count")});
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return rows;
+        });
+        counted.sort((a, b) -> Integer.compare((Integer) b[2], (Integer) a[2]));
+
+        List<String> cars = new ArrayList<>();
+        for (Object[] row : counted.subList(0, Math.min(limit, counted.size()))) {
+            cars.add(String.format("Car ID %d: %s | Rentals: %d", row[0], row[1], row[2]));
         }
         return cars;
     }
-
-
-
 }
@@ -1,67 +1,215 @@
 package controller;
 
+import util.CardFingerprint;
 import util.Srent_DB;
+import util.Validator;
 
 import java.sql.*;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CardController {
 
+    /** card_fingerprint -> card_id for every stored card; filled by {@link #buildFingerprintIndex()}. */
+    private static final Map<String, Integer> fingerprintIndex = new ConcurrentHashMap<>();
+    /** The reverse of {@link #fingerprintIndex}, so a deleted card is removed by key. */
+    private static final Map<Integer, String> fingerprintOfCard = new ConcurrentHashMap<>();
+    private static volatile boolean fingerprintIndexReady = false;
+
+    /**
+     * Links the card to the user. Cards are shared by fingerprint: a second user of the same card
+     * gets a link to the existing {@code Card} row with their own expiry and holder name.
+     */
     public static boolean addCard(int userId, String brand, String number, String expDate, String nameOnCard) {
-        Connection conn = null;
-        PreparedStatement psCard = null;
-        PreparedStatement psBrings = null;
-        ResultSet rs = null;
+        if (!Validator.isValidCardNumber(number) || !Validator.isValidExpiry(expDate)) {
+            System.out.println("Invalid card number or expiry date.");
+            return false;
+        }
+        number = digitsOnly(number);
+        expDate = toExpiryDate(expDate);
 
-        try {
-            conn = Srent_DB.getConnection();
-            if (conn == null) return false;
+        String linkCard = "INSERT INTO brings (user_id, card_id, exp_date, name_on_card) VALUES (?, ?, ?, ?)";
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement psBrings = conn.prepareStatement(linkCard)) {
+            String fingerprint = CardFingerprint.of(number);
+            int cardId = cardIdFor(conn, brand, number, fingerprint);
+            if (cardId == -1) return false;
+            remember(fingerprint, cardId);
+            psBrings.setInt(1, userId);
+            psBrings.setInt(2, cardId);
+            psBrings.setString(3, expDate);
+            psBrings.setString(4, nameOnCard);
+            try {
+                psBrings.executeUpdate();
+            } catch (SQLException e) {
+                if (!isDuplicateKey(e)) {
+                    // e.g. a cached card_id whose card was deleted meanwhile: look it up afresh next time
+                    forget(cardId);
+                    throw e;
+                }
+                System.out.println("This card is already linked to the user.");
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            String insertCard = "INSERT INTO Card (card_brand, card_number, exp_date, name_on_card) VALUES (?, ?, ?, ?)";
-            psCard = conn.prepareStatement(insertCard, Statement.RETURN_GENERATED_KEYS);
-            psCard.setString(1, brand);
-            psCard.setString(2, number);
-            psCard.setString(3, expDate);
-            psCard.setString(4, nameOnCard);
-            psCard.executeUpdate();
+    /**
+     * @return the card_id for the fingerprint, inserting the card if it is new; -1 on failure.
+     *         The caller adds it to the fingerprint index once its transaction has committed.
+     */
+    private static int cardIdFor(Connection conn, String brand, String number, String fingerprint) throws SQLException {
+        Integer known = fingerprintIndex.get(fingerprint);
+        if (known != null) return known;
+        if (brand == null || brand.isBlank()) {
+            brand = Validator.detectCardBrand(number).getDisplayName();
+        }
+        // A UNIQUE key on card_fingerprint turns a concurrent duplicate into a no-op update
+        // that still hands back the existing card_id.
+        String insertCard = "INSERT INTO Card (card_brand, card_last4, card_fingerprint) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE card_id = LAST_INSERT_ID(card_id)";
+        try (PreparedStatement ps = conn.prepareStatement(insertCard, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, brand);
+            ps.setString(2, CardFingerprint.lastFour(number));
+            ps.setString(3, fingerprint);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
 
-            rs = psCard.getGeneratedKeys();
-            if (rs.next()) {
-                int cardId = rs.getInt(1);
-                String linkCard = "INSERT INTO brings (user_id, card_id) VALUES (?, ?)";
-                psBrings = conn.prepareStatement(linkCard);
-                psBrings.setInt(1, userId);
-                psBrings.setInt(2, cardId);
-                psBrings.executeUpdate();
-                return true;
+    /**
+     * Loads every card fingerprint into memory. Databases from before fingerprints are brought
+     * up to date by {@code src/util/migrations} and {@link util.CardMigration}, not here.
+     */
+    public static void buildFingerprintIndex() {
+        String loadSql = "SELECT card_id, card_fingerprint FROM Card";
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(loadSql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String fingerprint = rs.getString("card_fingerprint");
+                int cardId = rs.getInt("card_id");
+                if (fingerprint != null && fingerprintIndex.putIfAbsent(fingerprint, cardId) == null) {
+                    fingerprintOfCard.put(cardId, fingerprint);
+                }
             }
+            fingerprintIndexReady = true;
         } catch (SQLException e) {
             e.printStackTrace();
-        } finally {
-            try { if (rs != null) rs.close(); } catch (Exception ignored) {}
-            try { if (psCard != null) psCard.close(); } catch (Exception ignored) {}
-            try { if (psBrings != null) psBrings.close(); } catch (Exception ignored) {}
-            try { if (conn != null) conn.close(); } catch (Exception ignored) {}
         }
-        return false;
     }
 
-    public static boolean deleteCard(int cardId) {
-        String sql = "DELETE FROM Card WHERE card_id = ?";
+    private static void remember(String fingerprint, int cardId) {
+        fingerprintIndex.put(fingerprint, cardId);
+        fingerprintOfCard.put(cardId, fingerprint);
+    }
+
+    private static void forget(int cardId) {
+        String fingerprint = fingerprintOfCard.remove(cardId);
+        if (fingerprint != null) fingerprintIndex.remove(fingerprint, cardId);
+    }
+
+    /** MySQL's ER_DUP_ENTRY, or the standard SQLSTATE for a unique violation (H2). */
+    private static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+    }
+
+    /** O(1) duplicate check once the fingerprint index is loaded; falls back to the indexed column before that. */
+    public static boolean isCardRegistered(String number) {
+        String fingerprint = CardFingerprint.of(number);
+        if (fingerprintIndex.containsKey(fingerprint)) return true;
+        if (fingerprintIndexReady) return false;
+        String sql = "SELECT 1 FROM Card WHERE card_fingerprint = ?";
         try (Connection conn = Srent_DB.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, cardId);
-            return ps.executeUpdate() > 0;
+            ps.setString(1, fingerprint);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /** Lists the users linked to the given card number, found through the card_fingerprint index. */
+    public static List<String> getUsersSharingCard(String number) {
+        List<String> users = new ArrayList<>();
+        String sql = "SELECT u.user_id, u.first_name, u.last_name, u.email " +
+                "FROM Card c JOIN brings b ON c.card_id = b.card_id JOIN User u ON b.user_id = u.user_id " +
+                "WHERE c.card_fingerprint = ? ORDER BY u.user_id";
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, CardFingerprint.of(number));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    users.add(String.format("User ID %d: %s %s | Email: %s",
+                            rs.getInt("user_id"),
+                            rs.getString("first_name"),
+                            rs.getString("last_name"),
+                            rs.getString("email")));
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+        }
+        return users;
+    }
+
+    /**
+     * Removes the card from this user only. The shared {@code Card} row goes once no user is
+     * linked to it any more.
+     */
+    public static boolean deleteCard(int userId, int cardId) {
+        Connection conn = null;
+        try {
+            conn = Srent_DB.getConnection();
+            conn.setAutoCommit(false);
+            if (!unlink(conn, userId, cardId)) {
+                conn.rollback();
+                return false;
+            }
+            boolean cardDeleted = deleteIfUnlinked(conn, cardId);
+            conn.commit();
+            if (cardDeleted) forget(cardId);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try { if (conn != null) conn.rollback(); } catch (SQLException ignored) {}
             return false;
+        } finally {
+            try { if (conn != null) conn.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    private static boolean unlink(Connection conn, int userId, int cardId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM brings WHERE user_id = ? AND card_id = ?")) {
+            ps.setInt(1, userId);
+            ps.setInt(2, cardId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    private static boolean deleteIfUnlinked(Connection conn, int cardId) throws SQLException {
+        String sql = "DELETE FROM Card WHERE card_id = ? AND NOT EXISTS (SELECT 1 FROM brings WHERE card_id = ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, cardId);
+            ps.setInt(2, cardId);
+            return ps.executeUpdate() > 0;
         }
     }
 
     public static List<String> getCardsByUser(int userId) {
         List<String> cards = new ArrayList<>();
-        String sql = "SELECT c.card_id, c.card_brand, c.card_number, c.exp_date, c.name_on_card " +
+        String sql = "SELECT c.card_id, c.card_brand, c.card_last4, b.exp_date, b.name_on_card " +
                 "FROM Card c JOIN brings b ON c.card_id = b.card_id WHERE b.user_id = ?";
         try (Connection conn = Srent_DB.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -71,7 +219,7 @@ public class CardController {
                 String card = String.format("Card ID %d: %s ending in ****%s (Exp: %s, Name: %s)",
                         rs.getInt("card_id"),
                         rs.getString("card_brand"),
-                        rs.getString("card_number").substring(12),
+                        rs.getString("card_last4"),
                         rs.getDate("exp_date"),
                         rs.getString("name_on_card"));
                 cards.add(card);
@@ -82,32 +230,92 @@ public class CardController {
         return cards;
     }
 
-    public static boolean updateCard(int cardId, String brand, String number, String expDate, String nameOnCard) {
-        String sql = "UPDATE Card SET card_brand = ?, card_number = ?, exp_date = ?, name_on_card = ? WHERE card_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, brand);
-            ps.setString(2, number);
-            ps.setString(3, expDate);
-            ps.setString(4, nameOnCard);
-            ps.setInt(5, cardId);
-            return ps.executeUpdate() > 0;
+    /**
+     * Changes this user's copy of the card. The same number only updates their expiry and
+     * holder name; a different number is a different card, so the user is moved to it and
+     * other users of the old card keep theirs.
+     */
+    public static boolean updateCard(int userId, int cardId, String brand, String number, String expDate, String nameOnCard) {
+        if (!Validator.isValidCardNumber(number) || !Validator.isValidExpiry(expDate)) {
+            System.out.println("Invalid card number or expiry date.");
+            return false;
+        }
+        number = digitsOnly(number);
+        expDate = toExpiryDate(expDate);
+        String fingerprint = CardFingerprint.of(number);
+
+        Connection conn = null;
+        try {
+            conn = Srent_DB.getConnection();
+            conn.setAutoCommit(false);
+            String current = null;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT card_fingerprint FROM Card WHERE card_id = ?")) {
+                ps.setInt(1, cardId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) current = rs.getString("card_fingerprint");
+                }
+            }
+
+            boolean oldCardDeleted = false;
+            int newCardId = -1;
+            if (fingerprint.equals(current)) {
+                String sql = "UPDATE brings SET exp_date = ?, name_on_card = ? WHERE user_id = ? AND card_id = ?";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setString(1, expDate);
+                    ps.setString(2, nameOnCard);
+                    ps.setInt(3, userId);
+                    ps.setInt(4, cardId);
+                    if (ps.executeUpdate() == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+            } else {
+                if (!unlink(conn, userId, cardId)) {
+                    conn.rollback();
+                    return false;
+                }
+                oldCardDeleted = deleteIfUnlinked(conn, cardId);
+                newCardId = cardIdFor(conn, brand, number, fingerprint);
+                if (newCardId == -1) {
+                    conn.rollback();
+                    return false;
+                }
+                String sql = "INSERT INTO brings (user_id, card_id, exp_date, name_on_card) VALUES (?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE exp_date = VALUES(exp_date), name_on_card = VALUES(name_on_card)";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, userId);
+                    ps.setInt(2, newCardId);
+                    ps.setString(3, expDate);
+                    ps.setString(4, nameOnCard);
+                    ps.executeUpdate();
+                }
+            }
+            conn.commit();
+            if (oldCardDeleted) forget(cardId);
+            if (newCardId != -1) remember(fingerprint, newCardId);
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
+            try { if (conn != null) conn.rollback(); } catch (SQLException ignored) {}
             return false;
+        } finally {
+            try { if (conn != null) conn.close(); } catch (SQLException ignored) {}
         }
     }
 
-    public static String getCardById(int cardId) {
-        String sql = "SELECT * FROM Card WHERE card_id = ?";
+    public static String getCardById(int userId, int cardId) {
+        String sql = "SELECT c.card_brand, c.card_last4, b.exp_date, b.name_on_card " +
+                "FROM Card c JOIN brings b ON c.card_id = b.card_id WHERE b.user_id = ? AND c.card_id = ?";
         try (Connection conn = Srent_DB.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, cardId);
+            ps.setInt(1, userId);
+            ps.setInt(2, cardId);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 return String.format("%s ending in ****%s | Exp: %s | Holder: %s",
                         rs.getString("card_brand"),
-                        rs.getString("card_number").substring(12),
+                        rs.getString("card_last4"),
                         rs.getDate("exp_date"),
                         rs.getString("name_on_card"));
             }
@@ -116,4 +324,14 @@ public class CardController {
         }
         return "Card not found.";
     }
+
+    private static String digitsOnly(String number) {
+        return number.replace(" ", "").replace("-", "");
+    }
+
+    /** Turns any expiry accepted by {@link Validator#parseExpiry} into the last day of that month. */
+    private static String toExpiryDate(String expDate) {
+        int expiry = Validator.parseExpiry(expDate);
+        return YearMonth.of(expiry / 100, expiry % 100).atEndOfMonth().toString();
+    }
 }
@@ -0,0 +1,205 @@
+package controller;
+
+import util.ExportWriter;
+import util.ShardRouter;
+import util.Srent_DB;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finance exports: bookings joined with their customer and car, and the fleet with its
+ * specification, streamed from every shard straight into a CSV or JSON file. Rows are never
+ * collected in memory beyond one chunk, so a year of bookings costs the same heap as a day.
+ * A failed export leaves no file behind (see {@link ExportWriter#commit()}).
+ */
+public class ExportController {
+
+    private static final String[] BOOKING_COLUMNS = {
+            "booking_id", "start_date", "end_date", "booking_status", "amount", "secure_deposit", "drive_option",
+            "user_id", "username", "first_name", "last_name", "email", "car_id", "model", "daily_rent"};
+
+    private static final int USER_CHUNK = 1000;
+
+    private static final String[] FLEET_COLUMNS = {
+            "car_id", "model", "daily_rent", "deposit", "mileage", "vehicle_status",
+            "color", "fuel_type", "transmission_type", "seating_capacity"};
+
+    /**
+     * Writes the bookings that start within {@code [from, to]} (either bound may be null) and,
+     * if {@code status} is not null, have that status. Shards are read one after another; since
+     * each owns a higher id range the file stays ordered by booking_id.
+     *
+     * @return rows written, or -1 if the export failed
+     */
+    public static long exportBookings(Path file, ExportWriter.Format format, boolean gzip,
+                                      LocalDate from, LocalDate to, String status) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (from != null) where.append(" AND b.start_date >= ?");
+        if (to != null) where.append(" AND b.start_date <= ?");
+        if (status != null) where.append(" AND b.booking_status = ?");
+        where.append(" ORDER BY b.booking_id");
+        if (!ShardRouter.isSharded()) return exportJoinedBookings(file, format, gzip, where.toString(), from, to, status);
+
+        // User lives on the home shard only, so customers are looked up per chunk of rows.
+        String sql = "SELECT b.booking_id, b.start_date, b.end_date, b.booking_status, b.amount, b.secure_deposit, " +
+                "b.drive_option, m.user_id, c.car_id, c.model, c.daily_rent " +
+                "FROM Booking b " +
+                "JOIN makes m ON b.booking_id = m.booking_id " +
+                "JOIN reserves r ON b.booking_id = r.booking_id " +
+                "JOIN Car c ON r.car_id = c.car_id" + where;
+
+        try (ExportWriter out = ExportWriter.open(file, format, gzip, BOOKING_COLUMNS);
+             Connection home = Srent_DB.getConnection()) {
+            Object[][] chunk = new Object[USER_CHUNK][];
+            for (String region : ShardRouter.regions()) {
+                try (Connection conn = ShardRouter.forRegion(region);
+                     PreparedStatement ps = streaming(conn, sql)) {
+                    bind(ps, from, to, status);
+
+                    int n = 0;
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            chunk[n++] = new Object[]{rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                    rs.getDouble(5), rs.getDouble(6), rs.getString(7), rs.getInt(8),
+                                    rs.getInt(9), rs.getString(10), rs.getDouble(11)};
+                            if (n == chunk.length) {
+                                writeBookings(out, chunk, n, home);
+                                n = 0;
+                            }
+                        }
+                    }
+                    writeBookings(out, chunk, n, home);
+                }
+            }
+            out.commit();
+            return out.rows();
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /** One database: customers come from the same query, which is what keeps the export fast. */
+    private static long exportJoinedBookings(Path file, ExportWriter.Format format, boolean gzip, String where,
+                                             LocalDate from, LocalDate to, String status) {
+        String sql = "SELECT b.booking_id, b.start_date, b.end_date, b.booking_status, b.amount, b.secure_deposit, " +
+                "b.drive_option, u.user_id, u.username, u.first_name, u.last_name, u.email, " +
+                "c.car_id, c.model, c.daily_rent " +
+                "FROM Booking b " +
+                "JOIN makes m ON b.booking_id = m.booking_id " +
+                "JOIN User u ON m.user_id = u.user_id " +
+                "JOIN reserves r ON b.booking_id = r.booking_id " +
+                "JOIN Car c ON r.car_id = c.car_id" + where;
+
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = streaming(conn, sql)) {
+            bind(ps, from, to, status);
+
+            try (ResultSet rs = ps.executeQuery();
+                 ExportWriter out = ExportWriter.open(file, format, gzip, BOOKING_COLUMNS)) {
+                while (rs.next()) {
+                    out.num(rs.getInt(1)).text(rs.getString(2)).text(rs.getString(3)).text(rs.getString(4))
+                            .money(rs.getDouble(5)).money(rs.getDouble(6)).text(rs.getString(7))
+                            .num(rs.getInt(8)).text(rs.getString(9)).text(rs.getString(10)).text(rs.getString(11))
+                            .text(rs.getString(12)).num(rs.getInt(13)).text(rs.getString(14)).money(rs.getDouble(15))
+                            .endRow();
+                }
+                out.commit();
+            return out.rows();
+            }
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private static void bind(PreparedStatement ps, LocalDate from, LocalDate to, String status) throws SQLException {
+        int i = 1;
+        if (from != null) ps.setString(i++, from.toString());
+        if (to != null) ps.setString(i++, to.toString());
+        if (status != null) ps.setString(i, status);
+    }
+
+    /** Looks up the customers of {@code rows[0..n)} on the home shard and writes the rows. */
+    private static void writeBookings(ExportWriter out, Object[][] rows, int n, Connection home)
+            throws SQLException, IOException {
+        if (n == 0) return;
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (int i = 0; i < n; i++) userIds.add((Integer) rows[i][7]);
+
+        Map<Integer, String[]> users = new HashMap<>();
+        String sql = "SELECT user_id, username, first_name, last_name, email FROM User WHERE user_id IN ("
+                + String.join(",", Collections.nCopies(userIds.size(), "?")) + ")";
+        try (PreparedStatement ps = home.prepareStatement(sql)) {
+            int p = 1;
+            for (int id : userIds) ps.setInt(p++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    users.put(rs.getInt(1), new String[]{rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)});
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            Object[] r = rows[i];
+            String[] u = users.get((Integer) r[7]);
+            if (u == null) continue; // same as the inner join on User before sharding
+            out.num((Integer) r[0]).text((String) r[1]).text((String) r[2]).text((String) r[3])
+                    .money((Double) r[4]).money((Double) r[5]).text((String) r[6])
+                    .num((Integer) r[7]).text(u[0]).text(u[1]).text(u[2]).text(u[3])
+                    .num((Integer) r[8]).text((String) r[9]).money((Double) r[10])
+                    .endRow();
+        }
+    }
+
+    /** @return rows written, or -1 if the export failed */
+    public static long exportFleet(Path file, ExportWriter.Format format, boolean gzip) {
+        String sql = "SELECT c.car_id, c.model, c.daily_rent, c.deposit, c.mileage, c.vehicle_status, " +
+                "vs.color, vs.fuel_type, vs.transmission_type, vs.seating_capacity " +
+                "FROM Car c " +
+                "LEFT JOIN has h ON c.car_id = h.car_id " +
+                "LEFT JOIN VehicleSpecification vs ON h.specification_id = vs.specification_id " +
+                "ORDER BY c.car_id";
+
+        try (ExportWriter out = ExportWriter.open(file, format, gzip, FLEET_COLUMNS)) {
+            for (String region : ShardRouter.regions()) {
+                try (Connection conn = ShardRouter.forRegion(region);
+                     PreparedStatement ps = streaming(conn, sql);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.num(rs.getInt(1)).text(rs.getString(2)).money(rs.getDouble(3)).money(rs.getDouble(4))
+                                .num(rs.getInt(5)).text(rs.getString(6)).text(rs.getString(7)).text(rs.getString(8))
+                                .text(rs.getString(9)).num(rs.getInt(10)).endRow();
+                    }
+                }
+            }
+            out.commit();
+            return out.rows();
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * A forward-only statement whose rows arrive as they are read. Connector/J only streams
+     * with a fetch size of {@code Integer.MIN_VALUE}; other drivers take a batch size.
+     */
+    private static PreparedStatement streaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        boolean mysql = conn.getMetaData().getURL().startsWith("jdbc:mysql:");
+        ps.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+        return ps;
+    }
+}
@@ -0,0 +1,131 @@
+package controller;
+
+import dao.DAOFactory;
+import model.Branch;
+import model.CarFilter;
+import service.impl.NearestCarIndex;
+import util.ShardRouter;
+import util.Validator;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Branches, where cars are picked up, and the nearest-available-car search over them.
+ * <p>
+ * The search runs on one process-wide {@link NearestCarIndex}. Every controller method that
+ * changes a car's status, specification, price or position calls {@link #carChanged(int)}
+ * (through {@link CarController#carChanged(int)}) after it commits, so a car that was just
+ * booked or released shows up correctly in the next search without reloading the fleet.
+ * A filter's price range is checked against the demand-priced daily rate, as customers see it.
+ */
+public class LocationController {
+
+    private static final NearestCarIndex INDEX = new NearestCarIndex(DAOFactory.getCarDAO(),
+            NearestCarIndex.CELL_DEG, NearestCarIndex.RELOAD_MS, PricingController::dailyRate);
+
+    public static int addBranch(String name, double latitude, double longitude) {
+        return addBranch(ShardRouter.homeRegion(), name, latitude, longitude);
+    }
+
+    /** @return the new branch_id, or -1 on failure */
+    public static int addBranch(String region, String name, double latitude, double longitude) {
+        if (!Validator.isValidCoordinate(latitude, longitude)) {
+            System.err.println("Invalid coordinates: " + latitude + ", " + longitude);
+            return -1;
+        }
+        String sql = "INSERT INTO Branch (name, latitude, longitude) VALUES (?, ?, ?)";
+        try (Connection conn = ShardRouter.forRegion(region);
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, name);
+            ps.setDouble(2, latitude);
+            ps.setDouble(3, longitude);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    public static List<Branch> getAllBranches() {
+        String sql = "SELECT branch_id, name, latitude, longitude FROM Branch ORDER BY branch_id";
+        return ShardRouter.fanOut(conn -> {
+            List<Branch> branches = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    branches.add(new Branch(
+                            rs.getInt("branch_id"),
+                            rs.getString("name"),
+                            rs.getDouble("latitude"),
+                            rs.getDouble("longitude")));
+                }
+            }
+            return branches;
+        });
+    }
+
+    /** Parks the car at a branch of its own region; the car takes the branch's coordinates. */
+    public static boolean moveCarToBranch(int carId, int branchId) {
+        String sql = "UPDATE Car SET branch_id = ?, " +
+                "latitude = (SELECT latitude FROM Branch WHERE branch_id = ?), " +
+                "longitude = (SELECT longitude FROM Branch WHERE branch_id = ?) " +
+                "WHERE car_id = ? AND EXISTS (SELECT 1 FROM Branch WHERE branch_id = ?)";
+        boolean moved;
+        try (Connection conn = ShardRouter.forCar(carId);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, branchId);
+            ps.setInt(2, branchId);
+            ps.setInt(3, branchId);
+            ps.setInt(4, carId);
+            ps.setInt(5, branchId);
+            moved = ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        if (moved) carChanged(carId);
+        return moved;
+    }
+
+    /** Leaves the car at arbitrary coordinates, e.g. where a one-way rental ended. */
+    public static boolean setCarLocation(int carId, double latitude, double longitude) {
+        if (!Validator.isValidCoordinate(latitude, longitude)) {
+            System.err.println("Invalid coordinates: " + latitude + ", " + longitude);
+            return false;
+        }
+        String sql = "UPDATE Car SET branch_id = NULL, latitude = ?, longitude = ? WHERE car_id = ?";
+        boolean moved;
+        try (Connection conn = ShardRouter.forCar(carId);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setDouble(1, latitude);
+            ps.setDouble(2, longitude);
+            ps.setInt(3, carId);
+            moved = ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        if (moved) carChanged(carId);
+        return moved;
+    }
+
+    /**
+     * The {@code k} available cars nearest to the given point that also match {@code filter}
+     * (may be null), nearest first.
+     */
+    public static List<NearestCarIndex.Hit> findNearestAvailableCars(double latitude, double longitude, int k,
+                                                                     CarFilter filter) {
+        if (!Validator.isValidCoordinate(latitude, longitude)) return new ArrayList<>();
+        return INDEX.nearest(latitude, longitude, k, filter);
+    }
+
+    /** Brings the car's entry in the nearest-car index up to date. */
+    public static void carChanged(int carId) {
+        INDEX.carChanged(carId);
+    }
+}
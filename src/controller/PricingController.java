@@ -0,0 +1,79 @@
+package controller;
+
+import model.Car;
+import service.impl.PricingEngine;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Effective daily rates. {@code daily_rent} stays the admin-set base; what customers see and
+ * pay is that base scaled by the demand multiplier of one process-wide {@link PricingEngine}.
+ * <p>
+ * {@link BookingController} reports every booking it creates, cancels or reschedules here
+ * after it commits; the engine recomputes its price table every
+ * {@link PricingEngine#RECOMPUTE_MS} ms, so a lookup never does more than a binary search.
+ */
+public class PricingController {
+
+    private static final PricingEngine ENGINE = new PricingEngine();
+
+    static {
+        ENGINE.start(Long.getLong("srent.pricing.recomputeMs", PricingEngine.RECOMPUTE_MS));
+    }
+
+    /** @return what the car costs per day right now */
+    public static double dailyRate(Car car) {
+        return ENGINE.dailyRate(car.getId(), car.getRentalPrice());
+    }
+
+    public static double dailyRate(int carId, double baseRent) {
+        return ENGINE.dailyRate(carId, baseRent);
+    }
+
+    /**
+     * Copies of {@code cars} whose rental price is the effective daily rate, for screens that
+     * filter, sort and book by price. Never write these prices back as {@code daily_rent}.
+     */
+    public static List<Car> priced(List<Car> cars) {
+        List<Car> priced = new ArrayList<>(cars.size());
+        for (Car c : cars) {
+            double rate = dailyRate(c);
+            priced.add(rate == c.getRentalPrice() ? c : new Car(c.getId(), c.getBrand(), c.getModel(), c.getColor(),
+                    c.getFuelType(), c.getTransmission(), c.getSeatingCapacity(), rate, c.getStatus(),
+                    c.getLatitude(), c.getLongitude()));
+        }
+        return priced;
+    }
+
+    static void bookingCreated(int bookingId, int carId, String startDate, String endDate) {
+        LocalDate start = parse(startDate), end = parse(endDate);
+        if (start != null && end != null) ENGINE.bookingCreated(bookingId, carId, start, end);
+    }
+
+    static void bookingCancelled(int bookingId, int carId, String startDate, String endDate) {
+        LocalDate start = parse(startDate), end = parse(endDate);
+        if (start != null && end != null) ENGINE.bookingCancelled(bookingId, carId, start, end);
+    }
+
+    static void bookingMoved(int carId, String oldStart, String oldEnd, String newStart, String newEnd) {
+        LocalDate os = parse(oldStart), oe = parse(oldEnd), ns = parse(newStart), ne = parse(newEnd);
+        if (os != null && oe != null && ns != null && ne != null) ENGINE.bookingMoved(carId, os, oe, ns, ne);
+    }
+
+    /** Rebuilds the price table now instead of waiting for the next scheduled run. */
+    public static PricingEngine.PriceTable recompute() {
+        return ENGINE.recompute();
+    }
+
+    private static LocalDate parse(String date) {
+        try {
+            return date == null ? null : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            System.err.println("Unparseable booking date: " + date);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package controller;
+
+import model.Car;
+import service.impl.SimilarCarIndex;
+
+import java.util.List;
+
+/**
+ * "Similar cars" offered when the car a customer picked is no longer available, answered from
+ * one process-wide {@link SimilarCarIndex}. {@link CarController#carChanged(int)} keeps it
+ * current as cars are added, edited, booked and released.
+ */
+public class RecommendationController {
+
+    public static final int DEFAULT_ALTERNATIVES = 5;
+
+    private static final SimilarCarIndex INDEX = new SimilarCarIndex();
+
+    /** Up to {@code k} available cars most like {@code carId}, most similar first. */
+    public static List<Car> findAlternatives(int carId, int k) {
+        return INDEX.alternatives(carId, k);
+    }
+
+    public static List<Car> findAlternatives(int carId) {
+        return findAlternatives(carId, DEFAULT_ALTERNATIVES);
+    }
+
+    static void carChanged(int carId) {
+        INDEX.carChanged(carId);
+    }
+}
@@ -7,11 +7,30 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
+import util.BloomFilter;
 import util.Srent_DB;
+import util.TrigramIndex;
 
 public class UserController {
 
+    private static volatile TrigramIndex userSearchIndex = new TrigramIndex();
+    // Index being built; registrations during the build are added to it as well.
+    private static volatile TrigramIndex loadingSearchIndex;
+    private static volatile boolean searchIndexReady = false;
+
+    private static final double UNIQUENESS_FALSE_POSITIVE_RATE = 0.01;
+    private static volatile BloomFilter emailFilter;
+    private static volatile BloomFilter usernameFilter;
+    // Filters being loaded; registrations during the load are added to them as well.
+    private static volatile BloomFilter loadingEmailFilter;
+    private static volatile BloomFilter loadingUsernameFilter;
+    private static final AtomicLong uniquenessEntries = new AtomicLong();
+    private static final AtomicLong uniquenessQueriesAvoided = new AtomicLong();
+    private static final AtomicLong uniquenessPossibleHits = new AtomicLong();
+    private static final AtomicLong uniquenessFalsePositives = new AtomicLong();
+
     public static String getUserRole(int userId) {
         String sqlAdmin = "SELECT user_id FROM Admin WHERE user_id = ?";
         String sqlCustomer = "SELECT user_id FROM Customer WHERE user_id = ?";
@@ -38,19 +57,125 @@ public class UserController {
     }
 
     public static boolean isEmailRegistered(String email) {
-        String sql = "SELECT 1 FROM User WHERE email = ?";
+        return isTaken(emailFilter, email, "SELECT 1 FROM User WHERE email = ?");
+    }
+
+    public static boolean isUsernameTaken(String username) {
+        return isTaken(usernameFilter, username, "SELECT 1 FROM User WHERE username = ?");
+    }
+
+    /**
+     * @return {@code false} only if neither the email nor the username can be registered yet;
+     *         {@code true} means the caller has to confirm against the database
+     */
+    public static boolean mightBeRegistered(String email, String username) {
+        BloomFilter emails = emailFilter;
+        BloomFilter usernames = usernameFilter;
+        if (emails == null || usernames == null) return true;
+        if (emails.mightContain(email) || usernames.mightContain(username)) return true;
+        uniquenessQueriesAvoided.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Answers "definitely not taken" from the Bloom filter when it is loaded; only possible
+     * hits reach the database, through the UNIQUE index on the column. If the database cannot
+     * be asked, the value counts as taken.
+     */
+    private static boolean isTaken(BloomFilter filter, String value, String sql) {
+        if (filter != null) {
+            if (!filter.mightContain(value)) {
+                uniquenessQueriesAvoided.incrementAndGet();
+                return false;
+            }
+            uniquenessPossibleHits.incrementAndGet();
+        }
         try (Connection conn = Srent_DB.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, email);
+            ps.setString(1, value);
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
+                boolean found = rs.next();
+                if (filter != null && !found) {
+                    uniquenessFalsePositives.incrementAndGet();
+                }
+                return found;
             }
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
+            return true;
         }
     }
 
+    /**
+     * Sizes the email and username Bloom filters from the current user count and loads them.
+     * The new filters are made visible to {@link #onUserRegistered} before the user scan starts,
+     * so a registration is either in the scan or added by its own call, never lost between them.
+     */
+    public static void buildUniquenessFilters() {
+        try (Connection conn = Srent_DB.getConnection()) {
+            long count = 0;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM User");
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) count = rs.getLong(1);
+            }
+            // Leave head room for a signup campaign before the false-positive rate degrades.
+            long capacity = Math.max(10_000, count * 2);
+            BloomFilter emails = new BloomFilter(capacity, UNIQUENESS_FALSE_POSITIVE_RATE);
+            BloomFilter usernames = new BloomFilter(capacity, UNIQUENESS_FALSE_POSITIVE_RATE);
+            loadingEmailFilter = emails;
+            loadingUsernameFilter = usernames;
+            uniquenessEntries.set(0);
+            long loaded = 0;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT username, email FROM User");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    emails.put(rs.getString("email"));
+                    usernames.put(rs.getString("username"));
+                    loaded++;
+                }
+            }
+            uniquenessEntries.addAndGet(loaded);
+            emailFilter = emails;
+            usernameFilter = usernames;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            loadingEmailFilter = null;
+            loadingUsernameFilter = null;
+        }
+    }
+
+    /** Keeps the in-memory search index and uniqueness filters in step with a new registration. */
+    public static void onUserRegistered(int userId, String firstName, String lastName, String username, String email) {
+        indexUser(userId, firstName, lastName, username, email);
+        // Loading filter first: once it reads null, the published one is already the new filter.
+        for (BloomFilter emails : new BloomFilter[]{loadingEmailFilter, emailFilter}) {
+            if (emails != null) emails.put(email);
+        }
+        for (BloomFilter usernames : new BloomFilter[]{loadingUsernameFilter, usernameFilter}) {
+            if (usernames != null) usernames.put(username);
+        }
+        uniquenessEntries.incrementAndGet();
+    }
+
+    /** @return a one-line report of queries avoided and the observed vs. expected false-positive rate */
+    public static String getUniquenessFilterStats() {
+        BloomFilter emails = emailFilter;
+        if (emails == null) return "Uniqueness filters not loaded.";
+        long avoided = uniquenessQueriesAvoided.get();
+        long falsePositives = uniquenessFalsePositives.get();
+        long negatives = avoided + falsePositives;
+        double observed = negatives == 0 ? 0.0 : (double) falsePositives / negatives;
+        return String.format("Uniqueness filter: %d entries | Queries avoided: %d | Possible hits: %d | " +
+                        "False positives: %d | Observed FPR: %.4f | Expected FPR: %.4f",
+                uniquenessEntries.get(),
+                avoided,
+                uniquenessPossibleHits.get(),
+                falsePositives,
+                observed,
+                emails.expectedFalsePositiveRate(uniquenessEntries.get()));
+    }
+
     public static List<String> getUsersByType(String type) {
         List<String> users = new ArrayList<>();
         String joinQuery = "SELECT u.user_id, u.name, u.email FROM User u JOIN %s t ON u.user_id = t.user_id";
@@ -75,8 +200,17 @@ public class UserController {
     }
 
     public static List<String> searchUsersByName(String keyword) {
+        if (searchIndexReady) {
+            return searchUsers(keyword, Integer.MAX_VALUE, 0);
+        }
+        return searchUsersByNameInDatabase(keyword);
+    }
+
+    /** The {@code LIKE '%keyword%'} scan used until the search index is built. */
+    public static List<String> searchUsersByNameInDatabase(String keyword) {
         List<String> users = new ArrayList<>();
-        String sql = "SELECT * FROM User WHERE name LIKE ?";
+        String sql = "SELECT user_id, CONCAT(first_name, ' ', last_name) AS name, email FROM User " +
+                     "WHERE CONCAT(first_name, ' ', last_name) LIKE ?";
         try (Connection conn = Srent_DB.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, "%" + keyword + "%");
@@ -95,6 +229,66 @@ public class UserController {
         return users;
     }
 
+    /**
+     * Loads every user's name, username and email into a new trigram index and swaps it in.
+     * Like the uniqueness filters, the new index is visible to {@link #indexUser} before the
+     * scan starts, so a user registering meanwhile is never missing from it.
+     */
+    public static void buildUserSearchIndex() {
+        String sql = "SELECT user_id, first_name, last_name, username, email FROM User";
+        TrigramIndex fresh = new TrigramIndex();
+        loadingSearchIndex = fresh;
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                put(fresh, rs.getInt("user_id"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("username"),
+                        rs.getString("email"));
+            }
+            userSearchIndex = fresh;
+            searchIndexReady = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            loadingSearchIndex = null;
+        }
+    }
+
+    /** Adds or refreshes a single user in the search index. */
+    public static void indexUser(int userId, String firstName, String lastName, String username, String email) {
+        // Loading index first, for the same reason as in onUserRegistered.
+        for (TrigramIndex index : new TrigramIndex[]{loadingSearchIndex, userSearchIndex}) {
+            if (index != null) put(index, userId, firstName, lastName, username, email);
+        }
+    }
+
+    private static void put(TrigramIndex index, int userId, String firstName, String lastName, String username, String email) {
+        String fullName = ((firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName)).trim();
+        index.put(userId, fullName, username, email);
+    }
+
+    /**
+     * Ranked user lookup over name, username and email, served from the trigram index.
+     *
+     * @param keyword the text typed in the admin search box
+     * @param limit   maximum number of users to return
+     * @param offset  number of ranked users to skip
+     * @return formatted user rows, best match first
+     */
+    public static List<String> searchUsers(String keyword, int limit, int offset) {
+        List<String> users = new ArrayList<>();
+        TrigramIndex index = userSearchIndex;
+        for (int userId : index.search(keyword, limit, offset)) {
+            String[] fields = index.get(userId);
+            if (fields == null) continue;
+            users.add(String.format("User ID %d: %s | Email: %s", userId, fields[0], fields[2]));
+        }
+        return users;
+    }
+
     public static List<String> getLatestUsers(int limit) {
         List<String> users = new ArrayList<>();
         String sql = "SELECT * FROM User ORDER BY created_at DESC LIMIT ?";
@@ -0,0 +1,374 @@
+package controller;
+
+import util.FlatJson;
+import util.Srent_DB;
+import util.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming bulk import of customers from CSV or JSON-lines files.
+ * <p>
+ * Rows are read one line at a time, validated, de-duplicated against the file chunk and the
+ * existing User table, then inserted into {@code User} and {@code Customer} with JDBC batches,
+ * one transaction per chunk. Only the current chunk is ever held in memory.
+ * <p>
+ * CSV files need a header row naming the columns; JSON-lines files ({@code .jsonl},
+ * {@code .ndjson}) hold one flat object per line. Recognised fields are
+ * first_name, last_name, username, email, gender, address and occupation.
+ */
+public class UserImportController {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final String[] FIELDS = {
+            "first_name", "last_name", "username", "email", "gender", "address", "occupation"
+    };
+
+    /** Receives per-row errors and per-chunk progress while an import runs. */
+    public interface ImportListener {
+        void onRowError(long lineNumber, String reason);
+
+        void onProgress(ImportReport report);
+    }
+
+    /** Running totals of an import; a snapshot is passed to {@link ImportListener#onProgress}. */
+    public static class ImportReport {
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private long duplicates;
+        private final long startedAt = System.nanoTime();
+
+        public long getRowsRead() { return rowsRead; }
+
+        public long getImported() { return imported; }
+
+        public long getRejected() { return rejected; }
+
+        public long getDuplicates() { return duplicates; }
+
+        /** @return imported rows per second since the import started */
+        public double getThroughput() {
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            return seconds <= 0 ? 0 : imported / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Read: %d | Imported: %d | Duplicates: %d | Rejected: %d | %.0f rows/s",
+                    rowsRead, imported, duplicates, rejected, getThroughput());
+        }
+    }
+
+    /** Listener that prints errors to stderr and progress to stdout. */
+    public static final ImportListener CONSOLE_LISTENER = new ImportListener() {
+        @Override
+        public void onRowError(long lineNumber, String reason) {
+            System.err.println("Line " + lineNumber + ": " + reason);
+        }
+
+        @Override
+        public void onProgress(ImportReport report) {
+            System.out.println("Import progress: " + report);
+        }
+    };
+
+    private static final class Row {
+        final long line;
+        final String[] values;
+
+        Row(long line, String[] values) {
+            this.line = line;
+            this.values = values;
+        }
+
+        String get(int field) { return values[field]; }
+    }
+
+    public static ImportReport importCustomers(Path file) {
+        return importCustomers(file, DEFAULT_CHUNK_SIZE, CONSOLE_LISTENER);
+    }
+
+    public static ImportReport importCustomers(Path file, int chunkSize, ImportListener listener) {
+        ImportReport report = new ImportReport();
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean jsonLines = name.endsWith(".jsonl") || name.endsWith(".ndjson");
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             Connection conn = Srent_DB.getConnection()) {
+            if (conn == null) {
+                System.err.println("Database connection is null.");
+                return report;
+            }
+            conn.setAutoCommit(false);
+
+            int[] csvColumns = null;
+            long lineNumber = 0;
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (!jsonLines && csvColumns == null) {
+                    csvColumns = mapHeader(parseCsvLine(line));
+                    continue;
+                }
+                report.rowsRead++;
+                String[] values;
+                try {
+                    values = jsonLines ? parseJsonLine(line) : pickCsvColumns(parseCsvLine(line), csvColumns);
+                } catch (IllegalArgumentException ex) {
+                    report.rejected++;
+                    listener.onRowError(lineNumber, "Malformed row: " + ex.getMessage());
+                    continue;
+                }
+                String problem = validate(values);
+                if (problem != null) {
+                    report.rejected++;
+                    listener.onRowError(lineNumber, problem);
+                    continue;
+                }
+                chunk.add(new Row(lineNumber, values));
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(conn, chunk, report, listener);
+                    chunk.clear();
+                    listener.onProgress(report);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flushChunk(conn, chunk, report, listener);
+                listener.onProgress(report);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read import file: " + e.getMessage());
+            e.printStackTrace();
+        } catch (SQLException e) {
+            System.err.println("SQL error during import: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return report;
+    }
+
+    private static void flushChunk(Connection conn, List<Row> chunk, ImportReport report, ImportListener listener)
+            throws SQLException {
+        List<Row> fresh = dropDuplicates(conn, chunk, report, listener);
+        if (fresh.isEmpty()) return;
+        try {
+            int[] userIds = insertBatch(conn, fresh);
+            conn.commit();
+            report.imported += fresh.size();
+            announce(fresh, userIds);
+        } catch (SQLException batchError) {
+            conn.rollback();
+            // Isolate the offending rows: replay the chunk one row per transaction.
+            for (Row row : fresh) {
+                try {
+                    int[] userIds = insertBatch(conn, List.of(row));
+                    conn.commit();
+                    report.imported++;
+                    announce(List.of(row), userIds);
+                } catch (SQLException rowError) {
+                    conn.rollback();
+                    report.rejected++;
+                    listener.onRowError(row.line, "Insert failed: " + rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void announce(List<Row> rows, int[] userIds) {
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            UserController.onUserRegistered(userIds[i], row.get(0), row.get(1), row.get(2), row.get(3));
+        }
+    }
+
+    private static int[] insertBatch(Connection conn, List<Row> rows) throws SQLException {
+        String insertUser = "INSERT INTO User (first_name, last_name, username, email, gender, address) VALUES (?, ?, ?, ?, ?, ?)";
+        String insertCustomer = "INSERT INTO Customer (user_id, occupation) VALUES (?, ?)";
+        int[] userIds = new int[rows.size()];
+
+        try (PreparedStatement psUser = conn.prepareStatement(insertUser, Statement.RETURN_GENERATED_KEYS)) {
+            for (Row row : rows) {
+                psUser.setString(1, row.get(0));
+                psUser.setString(2, row.get(1));
+                psUser.setString(3, row.get(2));
+                psUser.setString(4, row.get(3));
+                psUser.setString(5, row.get(4));
+                psUser.setString(6, row.get(5));
+                psUser.addBatch();
+            }
+            psUser.executeBatch();
+            try (ResultSet keys = psUser.getGeneratedKeys()) {
+                int i = 0;
+                while (keys.next() && i < userIds.length) {
+                    userIds[i++] = keys.getInt(1);
+                }
+                if (i != userIds.length) {
+                    throw new SQLException("Expected " + userIds.length + " generated keys, got " + i);
+                }
+            }
+        }
+
+        try (PreparedStatement psCustomer = conn.prepareStatement(insertCustomer)) {
+            for (int i = 0; i < rows.size(); i++) {
+                psCustomer.setInt(1, userIds[i]);
+                psCustomer.setString(2, rows.get(i).get(6));
+                psCustomer.addBatch();
+            }
+            psCustomer.executeBatch();
+        }
+        return userIds;
+    }
+
+    /**
+     * Removes rows whose email or username repeats inside the chunk or already exists in User.
+     * The uniqueness Bloom filters clear most rows; only possible hits are confirmed with one
+     * IN query per chunk.
+     */
+    private static List<Row> dropDuplicates(Connection conn, List<Row> chunk, ImportReport report,
+                                            ImportListener listener) throws SQLException {
+        Set<String> chunkEmails = new HashSet<>();
+        Set<String> chunkUsernames = new HashSet<>();
+        List<Row> unique = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            boolean newEmail = chunkEmails.add(row.get(3).toLowerCase(Locale.ROOT));
+            boolean newUsername = chunkUsernames.add(row.get(2).toLowerCase(Locale.ROOT));
+            if (newEmail && newUsername) {
+                unique.add(row);
+            } else {
+                report.duplicates++;
+                listener.onRowError(row.line, "Duplicate email or username within the file.");
+            }
+        }
+
+        List<Row> suspects = new ArrayList<>();
+        for (Row row : unique) {
+            if (UserController.mightBeRegistered(row.get(3), row.get(2))) suspects.add(row);
+        }
+        if (suspects.isEmpty()) return unique;
+
+        Set<String> existing = new HashSet<>();
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < suspects.size(); i++) placeholders.append(i == 0 ? "?" : ", ?");
+        String sql = "SELECT email, username FROM User WHERE email IN (" + placeholders + ") OR username IN (" + placeholders + ")";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < suspects.size(); i++) {
+                ps.setString(i + 1, suspects.get(i).get(3));
+                ps.setString(suspects.size() + i + 1, suspects.get(i).get(2));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String email = rs.getString("email");
+                    String username = rs.getString("username");
+                    if (email != null) existing.add("e:" + email.toLowerCase(Locale.ROOT));
+                    if (username != null) existing.add("u:" + username.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+
+        List<Row> fresh = new ArrayList<>(unique.size());
+        for (Row row : unique) {
+            if (existing.contains("e:" + row.get(3).toLowerCase(Locale.ROOT))
+                    || existing.contains("u:" + row.get(2).toLowerCase(Locale.ROOT))) {
+                report.duplicates++;
+                listener.onRowError(row.line, "Email or username already registered: " + row.get(3));
+            } else {
+                fresh.add(row);
+            }
+        }
+        return fresh;
+    }
+
+    private static String validate(String[] values) {
+        for (int i = 0; i < 4; i++) {
+            if (values[i] == null || values[i].isBlank()) return "Missing " + FIELDS[i] + ".";
+        }
+        if (!Validator.isValidEmail(values[3])) {
+            return "Invalid email: " + values[3];
+        }
+        String gender = values[4];
+        if (gender != null && !gender.isEmpty() && !gender.equals("F") && !gender.equals("M") && !gender.equals("X")) {
+            return "Gender must be F, M or X: " + gender;
+        }
+        if (values[4] != null && values[4].isEmpty()) values[4] = null;
+        return null;
+    }
+
+    private static int[] mapHeader(List<String> header) {
+        int[] columns = new int[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            columns[f] = -1;
+            for (int c = 0; c < header.size(); c++) {
+                if (header.get(c).trim().equalsIgnoreCase(FIELDS[f])) columns[f] = c;
+            }
+        }
+        return columns;
+    }
+
+    private static String[] pickCsvColumns(List<String> cells, int[] columns) {
+        String[] values = new String[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            int c = columns[f];
+            values[f] = c >= 0 && c < cells.size() ? cells.get(c).trim() : null;
+        }
+        return values;
+    }
+
+    /** Splits one CSV line, honouring double-quoted cells and doubled quotes inside them. */
+    private static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quote");
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    /** Reads one flat JSON object of string, number, boolean or null values. */
+    private static String[] parseJsonLine(String line) {
+        Map<String, String> object = FlatJson.parseObject(line);
+        String[] values = new String[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            String value = object.get(FIELDS[f]);
+            values[f] = value == null ? null : value.trim();
+        }
+        return values;
+    }
+}
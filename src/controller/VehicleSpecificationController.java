@@ -3,30 +3,105 @@ package controller;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
-import util.Srent_DB;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import util.ShardRouter;
 
 public class VehicleSpecificationController {
 
+    /**
+     * Interned catalog: "region|color|fuel|transmission|seats" (lower case) -> specification_id.
+     * Every region keeps its own rows, since a car's {@code has} link stays on its shard.
+     */
+    private static final Map<String, Integer> catalog = new ConcurrentHashMap<>();
+    private static final Set<String> loadedRegions = ConcurrentHashMap.newKeySet();
+
     public static boolean addSpecification(String color, String fuelType, String transmissionType, int seatingCapacity) {
-        String sql = "INSERT INTO VehicleSpecification (color, fuel_type, transmission_type, seating_capacity) VALUES (?, ?, ?, ?)";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        return getOrCreateSpecification(color, fuelType, transmissionType, seatingCapacity) > 0;
+    }
+
+    /**
+     * Returns the id of the specification with exactly these attributes, inserting it only if
+     * no such row exists yet. Cars with the same attributes share one row through {@code has}.
+     *
+     * @return the real specification_id, or -1 on failure
+     */
+    public static int getOrCreateSpecification(String color, String fuelType, String transmissionType, int seatingCapacity) {
+        return getOrCreateSpecification(ShardRouter.homeRegion(), color, fuelType, transmissionType, seatingCapacity);
+    }
+
+    /** As above, in {@code region}'s database; use the region of the car the spec is for. */
+    public static int getOrCreateSpecification(String region, String color, String fuelType, String transmissionType,
+                                               int seatingCapacity) {
+        String key = region + "|" + specKey(color, fuelType, transmissionType, seatingCapacity);
+        Integer cached = catalog.get(key);
+        if (cached != null) return cached;
+        if (!loadedRegions.contains(region)) {
+            loadCatalog(region);
+            cached = catalog.get(key);
+            if (cached != null) return cached;
+        }
+
+        // The UNIQUE key on the four attributes makes a concurrent insert of the same tuple
+        // fall through to the existing row, whose id LAST_INSERT_ID() then reports.
+        String sql = "INSERT INTO VehicleSpecification (color, fuel_type, transmission_type, seating_capacity) VALUES (?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE specification_id = LAST_INSERT_ID(specification_id)";
+        try (Connection conn = ShardRouter.forRegion(region);
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setString(1, color);
             ps.setString(2, fuelType);
             ps.setString(3, transmissionType);
             ps.setInt(4, seatingCapacity);
-            return ps.executeUpdate() > 0;
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    int specId = rs.getInt(1);
+                    catalog.put(key, specId);
+                    return specId;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
 
+    /** Loads every existing specification of every region into the in-memory catalog. */
+    public static void loadCatalog() {
+        for (String region : ShardRouter.regions()) loadCatalog(region);
+    }
+
+    private static void loadCatalog(String region) {
+        String sql = "SELECT specification_id, color, fuel_type, transmission_type, seating_capacity FROM VehicleSpecification";
+        try (Connection conn = ShardRouter.forRegion(region);
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                catalog.putIfAbsent(region + "|" + specKey(rs.getString("color"),
+                        rs.getString("fuel_type"),
+                        rs.getString("transmission_type"),
+                        rs.getInt("seating_capacity")), rs.getInt("specification_id"));
+            }
+            loadedRegions.add(region);
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
         }
     }
 
+    // MySQL compares these columns case-insensitively, so the catalog does too.
+    private static String specKey(String color, String fuelType, String transmissionType, int seatingCapacity) {
+        return (color == null ? "" : color.trim().toLowerCase(Locale.ROOT)) + "|" +
+                (fuelType == null ? "" : fuelType.trim().toLowerCase(Locale.ROOT)) + "|" +
+                (transmissionType == null ? "" : transmissionType.trim().toLowerCase(Locale.ROOT)) + "|" +
+                seatingCapacity;
+    }
+
     public static boolean updateSpecification(int specId, String color, String fuelType, String transmissionType, int seatingCapacity) {
         String sql = "UPDATE VehicleSpecification SET color = ?, fuel_type = ?, transmission_type = ?, seating_capacity = ? WHERE specification_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forSpecification(specId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, color);
@@ -34,7 +109,12 @@ public class VehicleSpecificationController {
             ps.setString(3, transmissionType);
             ps.setInt(4, seatingCapacity);
             ps.setInt(5, specId);
-            return ps.executeUpdate() > 0;
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) {
+                catalog.values().remove(specId);
+                catalog.put(ShardRouter.regionOf(specId) + "|" + specKey(color, fuelType, transmissionType, seatingCapacity), specId);
+            }
+            return updated;
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -44,11 +124,13 @@ public class VehicleSpecificationController {
 
     public static boolean deleteSpecification(int specId) {
         String sql = "DELETE FROM VehicleSpecification WHERE specification_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forSpecification(specId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, specId);
-            return ps.executeUpdate() > 0;
+            boolean deleted = ps.executeUpdate() > 0;
+            if (deleted) catalog.values().remove(specId);
+            return deleted;
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -57,30 +139,29 @@ public class VehicleSpecificationController {
     }
 
     public static List<String> getAllSpecifications() {
-        List<String> specs = new ArrayList<>();
         String sql = "SELECT * FROM VehicleSpecification";
-        try (Connection conn = Srent_DB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                String spec = String.format("Spec ID %d: %s | Fuel: %s | Transmission: %s | Seats: %d",
-                        rs.getInt("specification_id"),
-                        rs.getString("color"),
-                        rs.getString("fuel_type"),
-                        rs.getString("transmission_type"),
-                        rs.getInt("seating_capacity"));
-                specs.add(spec);
+        return ShardRouter.fanOut(conn -> {
+            List<String> specs = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+                    String spec = String.format("Spec ID %d: %s | Fuel: %s | Transmission: %s | Seats: %d",
+                            rs.getInt("specification_id"),
+                            rs.getString("color"),
+                            rs.getString("fuel_type"),
+                            rs.getString("transmission_type"),
+                            rs.getInt("seating_capacity"));
+                    specs.add(spec);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return specs;
+            return specs;
+        });
     }
 
     public static String getSpecificationById(int specId) {
         String sql = "SELECT * FROM VehicleSpecification WHERE specification_id = ?";
-        try (Connection conn = Srent_DB.getConnection();
+        try (Connection conn = ShardRouter.forSpecification(specId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, specId);
             ResultSet rs = ps.executeQuery();
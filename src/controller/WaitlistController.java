@@ -0,0 +1,59 @@
+package controller;
+
+import service.impl.AvailabilityDispatcher;
+import service.impl.FileNotificationSink;
+import service.impl.LogNotificationSink;
+import service.interfaces.NotificationSink;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Waitlists for a car that is taken, or for any car of a specification, backed by one
+ * process-wide {@link AvailabilityDispatcher}. {@link BookingController} reports every car that
+ * a cancelled or finished booking frees after it commits; notifications are appended to
+ * {@code -Dsrent.notify.file} when set and printed to the log otherwise.
+ */
+public class WaitlistController {
+
+    private static final AvailabilityDispatcher DISPATCHER = new AvailabilityDispatcher(sink());
+
+    private static NotificationSink sink() {
+        String file = System.getProperty("srent.notify.file");
+        return file == null || file.isBlank() ? new LogNotificationSink() : new FileNotificationSink(Paths.get(file));
+    }
+
+    /** @return the wait id, to leave the waitlist with */
+    public static int joinCarWaitlist(int userId, int carId, int priority) {
+        return DISPATCHER.waitForCar(userId, carId, priority);
+    }
+
+    public static int joinCarWaitlist(int userId, int carId) {
+        return joinCarWaitlist(userId, carId, AvailabilityDispatcher.PRIORITY_NORMAL);
+    }
+
+    /** @return the wait id, to leave the waitlist with */
+    public static int joinSpecificationWaitlist(int userId, int specificationId, int priority) {
+        return DISPATCHER.waitForSpecification(userId, specificationId, priority);
+    }
+
+    /** @return false if the request is not waiting any more or belongs to someone else */
+    public static boolean leave(int waitId, int userId) {
+        AvailabilityDispatcher.Waiter w = DISPATCHER.find(waitId);
+        return w != null && w.getUserId() == userId && DISPATCHER.leave(waitId);
+    }
+
+    /** Staff may remove any request. */
+    public static boolean leave(int waitId) {
+        return DISPATCHER.leave(waitId);
+    }
+
+    public static List<AvailabilityDispatcher.Waiter> getWaitlistsOfUser(int userId) {
+        return DISPATCHER.waitingFor(userId);
+    }
+
+    /** {@code specificationId} is -1 when the car has none; returns without waiting for matching. */
+    static void carReleased(int carId, int specificationId) {
+        DISPATCHER.carReleased(carId, specificationId);
+    }
+}
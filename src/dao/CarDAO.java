@@ -5,4 +5,12 @@ import java.util.List;
 
 public interface CarDAO {
     List<Car> getAllCars();
+
+    /** @return the car with {@code carId}, or {@code null}; backends with a key lookup override the scan */
+    default Car findCar(int carId) {
+        for (Car car : getAllCars()) {
+            if (car.getId() == carId) return car;
+        }
+        return null;
+    }
 }
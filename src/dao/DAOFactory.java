@@ -0,0 +1,50 @@
+package dao;
+
+import dao.impl.InMemoryBookingDAO;
+import dao.impl.InMemoryCarDAO;
+import dao.impl.InMemoryUserDAO;
+import dao.impl.JdbcBookingDAO;
+import dao.impl.JdbcCarDAO;
+import dao.impl.JdbcUserDAO;
+
+import java.util.Locale;
+
+/**
+ * Picks the DAO backend for the whole process.
+ * <p>
+ * Set {@code -Dsrent.backend=memory} to run the services without MySQL (load tests,
+ * benchmarks); the default {@code jdbc} backend uses the pooled {@code Srent_DB} connections.
+ */
+public final class DAOFactory {
+
+    public enum Backend {
+        JDBC,
+        MEMORY
+    }
+
+    private static final Backend BACKEND = Backend.valueOf(
+            System.getProperty("srent.backend", "jdbc").trim().toUpperCase(Locale.ROOT));
+
+    private static final CarDAO CAR_DAO = BACKEND == Backend.MEMORY ? new InMemoryCarDAO() : new JdbcCarDAO();
+    private static final BookingDAO BOOKING_DAO = BACKEND == Backend.MEMORY ? new InMemoryBookingDAO() : new JdbcBookingDAO();
+    private static final UserDAO USER_DAO = BACKEND == Backend.MEMORY ? new InMemoryUserDAO() : new JdbcUserDAO();
+
+    private DAOFactory() {
+    }
+
+    public static Backend getBackend() {
+        return BACKEND;
+    }
+
+    public static CarDAO getCarDAO() {
+        return CAR_DAO;
+    }
+
+    public static BookingDAO getBookingDAO() {
+        return BOOKING_DAO;
+    }
+
+    public static UserDAO getUserDAO() {
+        return USER_DAO;
+    }
+}
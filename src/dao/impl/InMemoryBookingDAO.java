@@ -0,0 +1,66 @@
+package dao.impl;
+
+import dao.BookingDAO;
+import model.Booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Thread-safe in-memory booking store; ids are assigned from a counter like AUTO_INCREMENT. */
+public class InMemoryBookingDAO implements BookingDAO {
+    private final Map<Integer, Booking> bookings = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @Override
+    public boolean saveBooking(Booking booking) {
+        insert(booking);
+        return true;
+    }
+
+    /** Stores the booking as {@code confirmed} under a fresh id and returns that id. */
+    public int insert(Booking booking) {
+        int id = nextId.getAndIncrement();
+        bookings.put(id, new Booking(id, booking.getUserId(), booking.getCarId(), booking.getStartDate(),
+                booking.getEndDate(), "confirmed", booking.getAmount(), booking.getCarModel()));
+        return id;
+    }
+
+    /** Stores the booking under its own id, as loaded from a dataset; later inserts continue after it. */
+    public void put(Booking booking) {
+        bookings.put(booking.getBookingId(), booking);
+        nextId.accumulateAndGet(booking.getBookingId() + 1, Math::max);
+    }
+
+    @Override
+    public boolean deleteBooking(int bookingId) {
+        return bookings.remove(bookingId) != null;
+    }
+
+    public Booking findById(int bookingId) {
+        return bookings.get(bookingId);
+    }
+
+    /** @return the id the next saved booking will receive */
+    public int peekNextId() {
+        return nextId.get();
+    }
+
+    public List<Booking> getBookingsForCar(int carId) {
+        List<Booking> result = new ArrayList<>();
+        for (Booking booking : bookings.values()) {
+            if (booking.getCarId() == carId) result.add(booking);
+        }
+        return result;
+    }
+
+    public List<Booking> getAll() {
+        return new ArrayList<>(bookings.values());
+    }
+
+    public int size() {
+        return bookings.size();
+    }
+}
@@ -0,0 +1,40 @@
+package dao.impl;
+
+import dao.CarDAO;
+import model.Car;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Thread-safe in-memory fleet for load tests and benchmarks that run without MySQL. */
+public class InMemoryCarDAO implements CarDAO {
+    private final Map<Integer, Car> cars = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Car> getAllCars() {
+        List<Car> snapshot = new ArrayList<>(cars.values());
+        snapshot.sort(Comparator.comparingInt(Car::getId));
+        return snapshot;
+    }
+
+    /** Adds a car or replaces the car with the same id. */
+    public void saveCar(Car car) {
+        cars.put(car.getId(), car);
+    }
+
+    public Car findById(int carId) {
+        return cars.get(carId);
+    }
+
+    @Override
+    public Car findCar(int carId) {
+        return cars.get(carId);
+    }
+
+    public boolean deleteCar(int carId) {
+        return cars.remove(carId) != null;
+    }
+}
@@ -0,0 +1,27 @@
+package dao.impl;
+
+import dao.UserDAO;
+import model.User;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Thread-safe in-memory user store keyed by case-insensitive username, like the UNIQUE column. */
+public class InMemoryUserDAO implements UserDAO {
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    @Override
+    public User findByUsername(String username) {
+        return username == null ? null : users.get(username.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public boolean createUser(User user) {
+        return users.putIfAbsent(user.getUsername().toLowerCase(Locale.ROOT), user) == null;
+    }
+
+    public int size() {
+        return users.size();
+    }
+}
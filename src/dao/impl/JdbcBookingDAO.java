@@ -0,0 +1,103 @@
+package dao.impl;
+
+import dao.BookingDAO;
+import model.Booking;
+import util.ShardRouter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public class JdbcBookingDAO implements BookingDAO {
+
+    /**
+     * Inserts the booking with its {@code makes} and {@code reserves} links in one transaction.
+     * The amount is the car's daily rent times the number of booked days.
+     */
+    @Override
+    public boolean saveBooking(Booking booking) {
+        String rentSql = "SELECT daily_rent FROM Car WHERE car_id = ?";
+        String insertBooking = "INSERT INTO Booking (start_date, end_date, booking_status, secure_deposit, amount, drive_option) " +
+                "VALUES (?, ?, 'confirmed', 0, ?, 'self')";
+        String insertMakes = "INSERT INTO makes (user_id, booking_id) VALUES (?, ?)";
+        String insertReserves = "INSERT INTO reserves (booking_id, car_id) VALUES (?, ?)";
+
+        try (Connection conn = ShardRouter.forCar(booking.getCarId())) {
+            conn.setAutoCommit(false);
+
+            double dailyRent;
+            try (PreparedStatement ps = conn.prepareStatement(rentSql)) {
+                ps.setInt(1, booking.getCarId());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return false;
+                    dailyRent = rs.getDouble("daily_rent");
+                }
+            }
+            long days = ChronoUnit.DAYS.between(LocalDate.parse(booking.getStartDate()),
+                    LocalDate.parse(booking.getEndDate())) + 1;
+            if (days < 1) days = 1;
+
+            int bookingId;
+            try (PreparedStatement ps = conn.prepareStatement(insertBooking, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, booking.getStartDate());
+                ps.setString(2, booking.getEndDate());
+                ps.setDouble(3, dailyRent * days);
+                ps.executeUpdate();
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    bookingId = rs.getInt(1);
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(insertMakes)) {
+                ps.setInt(1, booking.getUserId());
+                ps.setInt(2, bookingId);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(insertReserves)) {
+                ps.setInt(1, bookingId);
+                ps.setInt(2, booking.getCarId());
+                ps.executeUpdate();
+            }
+
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteBooking(int bookingId) {
+        String deleteReserves = "DELETE FROM reserves WHERE booking_id = ?";
+        String deleteMakes = "DELETE FROM makes WHERE booking_id = ?";
+        String deleteBooking = "DELETE FROM Booking WHERE booking_id = ?";
+
+        try (Connection conn = ShardRouter.forBooking(bookingId)) {
+            conn.setAutoCommit(false);
+            for (String sql : new String[]{ deleteReserves, deleteMakes }) {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, bookingId);
+                    ps.executeUpdate();
+                }
+            }
+            int affected;
+            try (PreparedStatement ps = conn.prepareStatement(deleteBooking)) {
+                ps.setInt(1, bookingId);
+                affected = ps.executeUpdate();
+            }
+            conn.commit();
+            return affected > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package dao.impl;
+
+import dao.CarDAO;
+import model.Car;
+import util.ShardRouter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JdbcCarDAO implements CarDAO {
+
+    private static final String SELECT_CARS =
+            "SELECT c.car_id, c.model, c.daily_rent, c.vehicle_status, c.latitude, c.longitude, " +
+                    "       vs.color, vs.fuel_type, vs.transmission_type, vs.seating_capacity " +
+                    "  FROM Car c " +
+                    "  JOIN has h ON c.car_id = h.car_id " +
+                    "  JOIN VehicleSpecification vs ON h.specification_id = vs.specification_id";
+
+    @Override
+    public List<Car> getAllCars() {
+        return ShardRouter.fanOut(conn -> {
+            List<Car> cars = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_CARS);
+                 ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+                    cars.add(car(rs));
+                }
+            }
+            return cars;
+        });
+    }
+
+    @Override
+    public Car findCar(int carId) {
+        try (Connection conn = ShardRouter.forCar(carId);
+             PreparedStatement ps = conn.prepareStatement(SELECT_CARS + " WHERE c.car_id = ?")) {
+            ps.setInt(1, carId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? car(rs) : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static Car car(ResultSet rs) throws SQLException {
+        double latitude = rs.getDouble("latitude");
+        if (rs.wasNull()) latitude = Double.NaN;
+        double longitude = rs.getDouble("longitude");
+        if (rs.wasNull()) longitude = Double.NaN;
+        return new Car(
+                rs.getInt("car_id"),
+                "Unknown",
+                rs.getString("model"),
+                rs.getString("color"),
+                rs.getString("fuel_type"),
+                rs.getString("transmission_type"),
+                rs.getInt("seating_capacity"),
+                rs.getDouble("daily_rent"),
+                rs.getString("vehicle_status"),
+                latitude,
+                longitude
+        );
+    }
+}
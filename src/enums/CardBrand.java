@@ -0,0 +1,28 @@
+package enums;
+
+public enum CardBrand {
+    VISA,
+    MASTERCARD,
+    MAESTRO,
+    TROY,
+    OTHER;
+
+
+    /** @return the value stored in the Card.card_brand column */
+    public String getDisplayName() {
+        switch (this) {
+            case VISA:
+                return "Visa";
+            case MASTERCARD:
+                return "Mastercard";
+            case MAESTRO:
+                return "Maestro";
+            case TROY:
+                return "Troy";
+            case OTHER:
+                return "Other";
+            default:
+                throw new IllegalArgumentException("Unknown CardBrand: " + this);
+        }
+    }
+}
@@ -16,6 +16,18 @@ public class Booking {
     /** The end date of the booking (in format YYYY-MM-DD). */
     private final String endDate;
 
+    /** The booking's database ID, or 0 for a booking that has not been stored yet. */
+    private final int bookingId;
+
+    /** The booking status (e.g., "confirmed", "cancelled"), or {@code null} if not stored yet. */
+    private final String status;
+
+    /** The total amount charged for the booking. */
+    private final double amount;
+
+    /** The model of the booked car, if it was loaded with the booking. */
+    private final String carModel;
+
     /**
      * Constructs a new Booking instance.
      *
@@ -25,11 +37,54 @@ public class Booking {
      * @param endDate   the end date of the booking
      */
     public Booking(int userId, int carId, String startDate, String endDate) {
+        this(0, userId, carId, startDate, endDate, null, 0, null);
+    }
+
+    /**
+     * Constructs a Booking loaded from the database.
+     *
+     * @param bookingId the booking's ID
+     * @param userId    the ID of the user who made the booking
+     * @param carId     the ID of the booked car
+     * @param startDate the start date of the booking
+     * @param endDate   the end date of the booking
+     * @param status    the booking status
+     * @param amount    the total amount charged
+     * @param carModel  the model of the booked car
+     */
+    public Booking(int bookingId, int userId, int carId, String startDate, String endDate,
+                   String status, double amount, String carModel) {
+        this.bookingId = bookingId;
         this.userId = userId;
         this.carId = carId;
         this.startDate = startDate;
         this.endDate = endDate;
+        this.status = status;
+        this.amount = amount;
+        this.carModel = carModel;
     }
 
-    // Getter methods would be documented here if provided
+    /** @return the ID of the user who made the booking */
+    public int getUserId() { return userId; }
+
+    /** @return the ID of the booked car */
+    public int getCarId() { return carId; }
+
+    /** @return the start date of the booking (YYYY-MM-DD) */
+    public String getStartDate() { return startDate; }
+
+    /** @return the end date of the booking (YYYY-MM-DD) */
+    public String getEndDate() { return endDate; }
+
+    /** @return the booking's database ID, or 0 if not stored yet */
+    public int getBookingId() { return bookingId; }
+
+    /** @return the booking status, or {@code null} if not stored yet */
+    public String getStatus() { return status; }
+
+    /** @return the total amount charged for the booking */
+    public double getAmount() { return amount; }
+
+    /** @return the model of the booked car, or {@code null} if not loaded */
+    public String getCarModel() { return carModel; }
 }
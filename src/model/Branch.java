@@ -0,0 +1,37 @@
+package model;
+
+/**
+ * Represents a pickup location where cars are parked between rentals.
+ */
+public class Branch {
+    /** The branch's database ID. */
+    private final int branchId;
+
+    /** Display name, e.g. "Kadıköy". */
+    private final String name;
+
+    /** Latitude in degrees. */
+    private final double latitude;
+
+    /** Longitude in degrees. */
+    private final double longitude;
+
+    public Branch(int branchId, String name, double latitude, double longitude) {
+        this.branchId = branchId;
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /** @return the branch's database ID */
+    public int getBranchId() { return branchId; }
+
+    /** @return the display name */
+    public String getName() { return name; }
+
+    /** @return the latitude in degrees */
+    public double getLatitude() { return latitude; }
+
+    /** @return the longitude in degrees */
+    public double getLongitude() { return longitude; }
+}
@@ -32,6 +32,12 @@ public class Car {
     /** Current status of the car (e.g., "available", "reserved"). */
     private String status;
 
+    /** Pickup latitude in degrees, or {@code NaN} if the car has no location. */
+    private double latitude;
+
+    /** Pickup longitude in degrees, or {@code NaN} if the car has no location. */
+    private double longitude;
+
     /**
      * Constructs a new Car instance with the given attributes.
      *
@@ -47,6 +53,17 @@ public class Car {
      */
     public Car(int id, String brand, String model, String color, String fuelType, String transmission,
                int seatingCapacity, double rentalPrice, String status) {
+        this(id, brand, model, color, fuelType, transmission, seatingCapacity, rentalPrice, status, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Constructs a new Car instance that is picked up at the given coordinates.
+     *
+     * @param latitude  the pickup latitude in degrees, or {@code NaN} if unknown
+     * @param longitude the pickup longitude in degrees, or {@code NaN} if unknown
+     */
+    public Car(int id, String brand, String model, String color, String fuelType, String transmission,
+               int seatingCapacity, double rentalPrice, String status, double latitude, double longitude) {
         this.id = id;
         this.brand = brand;
         this.model = model;
@@ -56,6 +73,8 @@ public class Car {
         this.seatingCapacity = seatingCapacity;
         this.rentalPrice = rentalPrice;
         this.status = status;
+        this.latitude = latitude;
+        this.longitude = longitude;
     }
 
     /** @return the unique ID of the car */
@@ -84,4 +103,13 @@ public class Car {
 
     /** @return the current status of the car */
     public String getStatus() { return status; }
+
+    /** @return the pickup latitude in degrees, or {@code NaN} if unknown */
+    public double getLatitude() { return latitude; }
+
+    /** @return the pickup longitude in degrees, or {@code NaN} if unknown */
+    public double getLongitude() { return longitude; }
+
+    /** @return whether the car has pickup coordinates */
+    public boolean hasLocation() { return !Double.isNaN(latitude) && !Double.isNaN(longitude); }
 }
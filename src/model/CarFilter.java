@@ -0,0 +1,88 @@
+package model;
+
+/**
+ * Criteria for searching the fleet. Every criterion is optional; unset ones match any car.
+ * String criteria compare case-insensitively.
+ * <p>
+ * Setters return {@code this} so criteria can be chained:
+ * <pre>new CarFilter().fuelType("Diesel").priceBetween(0, 80).availableOnly()</pre>
+ */
+public class CarFilter {
+
+    private String brand;
+    private String color;
+    private String fuelType;
+    private String transmission;
+    private boolean availableOnly;
+    private double minPrice = 0;
+    private double maxPrice = Double.MAX_VALUE;
+    private int minSeats = 0;
+    private int maxSeats = Integer.MAX_VALUE;
+
+    public CarFilter brand(String brand) {
+        this.brand = brand;
+        return this;
+    }
+
+    public CarFilter color(String color) {
+        this.color = color;
+        return this;
+    }
+
+    public CarFilter fuelType(String fuelType) {
+        this.fuelType = fuelType;
+        return this;
+    }
+
+    public CarFilter transmission(String transmission) {
+        this.transmission = transmission;
+        return this;
+    }
+
+    /** Restricts the result to cars whose status is "available". */
+    public CarFilter availableOnly() {
+        this.availableOnly = true;
+        return this;
+    }
+
+    /** Daily rent within {@code [min, max]}, both inclusive. */
+    public CarFilter priceBetween(double min, double max) {
+        this.minPrice = min;
+        this.maxPrice = max;
+        return this;
+    }
+
+    /** Seating capacity within {@code [min, max]}, both inclusive. */
+    public CarFilter seatsBetween(int min, int max) {
+        this.minSeats = min;
+        this.maxSeats = max;
+        return this;
+    }
+
+    /** @return the brand to match, or {@code null} for any */
+    public String getBrand() { return brand; }
+
+    /** @return the color to match, or {@code null} for any */
+    public String getColor() { return color; }
+
+    /** @return the fuel type to match, or {@code null} for any */
+    public String getFuelType() { return fuelType; }
+
+    /** @return the transmission type to match, or {@code null} for any */
+    public String getTransmission() { return transmission; }
+
+    /** @return whether only available cars match */
+    public boolean isAvailableOnly() { return availableOnly; }
+
+    /** @return the lowest daily rent that matches */
+    public double getMinPrice() { return minPrice; }
+
+    /** @return the highest daily rent that matches */
+    public double getMaxPrice() { return maxPrice; }
+
+    /** @return the lowest seating capacity that matches */
+    public int getMinSeats() { return minSeats; }
+
+    /** @return the highest seating capacity that matches */
+    public int getMaxSeats() { return maxSeats; }
+}
@@ -0,0 +1,545 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import controller.AuthenticationController;
+import controller.AuthenticationController.LoginResult;
+import controller.AuthenticationController.UserRole;
+import controller.BookingController;
+import controller.CarController;
+import controller.LocationController;
+import controller.PricingController;
+import controller.RecommendationController;
+import controller.WaitlistController;
+import dao.DAOFactory;
+import model.Booking;
+import model.Car;
+import model.CarFilter;
+import service.impl.CarFilterManager;
+import util.FlatJson;
+import util.Validator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless HTTP/JSON API on the JDK's built-in server, for the website and partner integrations.
+ * <p>
+ * Each request runs on its own virtual thread when the JVM has them (Java 21+); on older JVMs
+ * a bounded pool of platform threads is used instead. Database-bound handlers share a fixed
+ * number of permits ({@code -Dsrent.http.dbConcurrency}, default 32) so a burst of requests
+ * cannot open an unbounded number of pooled connections. The catalog is served from a
+ * {@link CarFilterManager} snapshot that is at most two seconds old and is dropped after
+ * every booking change. Cars carry both the base {@code dailyRent} and the demand-priced
+ * {@code dailyRate} from {@link PricingController}; bookings are charged the latter.
+ * <pre>
+ * POST   /api/login                  {"username":..,"password":..} -> {"token":..,"userId":..,"role":..}
+ * GET    /api/cars/available
+ * GET    /api/cars?brand=&amp;color=&amp;fuelType=&amp;transmission=&amp;available=&amp;minPrice=&amp;maxPrice=&amp;minSeats=&amp;maxSeats=
+ * GET    /api/cars/nearest?lat=&amp;lon=&amp;k=   (plus the filters above; available cars only, nearest first)
+ * POST   /api/bookings               {"carId":..,"startDate":"YYYY-MM-DD","endDate":..}   (token)
+ *                                    409 when taken: {"error":..,"alternatives":[similar available cars]}
+ * POST   /api/bookings/{id}/cancel                                                          (token)
+ * GET    /api/users/{id}/bookings                                                           (token)
+ * POST   /api/waitlist               {"carId":..} or {"specificationId":..} -> 201 {"waitId":..}  (token)
+ *                                    admins may add "priority" (0 normal, 1 high, 2 urgent) and "userId"
+ * GET    /api/waitlist               the caller's open waitlist requests                     (token)
+ * DELETE /api/waitlist/{id}                                                                  (token)
+ * GET    /health
+ * </pre>
+ * Authenticated calls send {@code Authorization: Bearer <token>}. Customers may only see and
+ * cancel their own bookings; admins may act on any.
+ */
+public class ApiServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final long CATALOG_TTL_MS = 2_000;
+    private static final long TOKEN_TTL_MS = TimeUnit.HOURS.toMillis(12);
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int MAX_NEAREST = 100;
+
+    private final int port;
+    private final CarFilterManager catalog;
+    private final Semaphore dbPermits = new Semaphore(Integer.getInteger("srent.http.dbConcurrency", 32));
+    private final Map<String, Token> tokens = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private boolean virtualThreads;
+
+    public ApiServer(int port) {
+        this.port = port;
+        this.catalog = new CarFilterManager(DAOFactory.getCarDAO(), CATALOG_TTL_MS);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("srent.http.port", DEFAULT_PORT);
+        ApiServer api = new ApiServer(port);
+        api.start();
+        System.out.println("SpeedyRent API listening on port " + api.getPort()
+                + (api.usesVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+    }
+
+    public void start() throws IOException {
+        // The JDK server writes headers and body separately; with Nagle on, every response
+        // waits out the client's delayed ACK (~40 ms). Read once when the server class loads.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/health", ex -> respond(ex, 200, "{\"status\":\"ok\"}"));
+        server.createContext("/api/login", guarded(this::handleLogin));
+        server.createContext("/api/cars", guarded(this::handleCars));
+        server.createContext("/api/bookings", guarded(this::handleBookings));
+        server.createContext("/api/users", guarded(this::handleUsers));
+        server.createContext("/api/waitlist", guarded(this::handleWaitlist));
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    /** @return the bound port (useful when started with port 0) */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /* ---------- handlers ---------- */
+
+    private void handleLogin(HttpExchange ex) throws IOException {
+        if (!requireMethod(ex, "POST")) return;
+        Map<String, String> body = readJson(ex);
+        if (body == null) return;
+        String username = body.get("username");
+        String password = body.get("password");
+        if (username == null || password == null) {
+            respond(ex, 400, Json.error("username and password are required"));
+            return;
+        }
+        LoginResult result = withDb(() -> AuthenticationController.authenticate(username, password));
+        if (result.getRole() == UserRole.UNKNOWN) {
+            respond(ex, 401, Json.error("invalid credentials"));
+            return;
+        }
+        String token = newToken();
+        tokens.put(token, new Token(result.getUserId(), result.getRole(), System.currentTimeMillis() + TOKEN_TTL_MS));
+        StringBuilder sb = new StringBuilder("{\"token\":");
+        Json.string(sb, token);
+        sb.append(",\"userId\":").append(result.getUserId());
+        Json.field(sb, "role", result.getRole().name());
+        respond(ex, 200, sb.append('}').toString());
+    }
+
+    private void handleCars(HttpExchange ex) throws IOException {
+        if (!requireMethod(ex, "GET")) return;
+        String path = ex.getRequestURI().getPath();
+        if (path.equals("/api/cars/available")) {
+            respond(ex, 200, Json.cars(catalog.filterAvailableCars()));
+            return;
+        }
+        if (path.equals("/api/cars/nearest")) {
+            nearestCars(ex);
+            return;
+        }
+        if (!path.equals("/api/cars") && !path.equals("/api/cars/")) {
+            respond(ex, 404, Json.error("not found"));
+            return;
+        }
+        Map<String, String> q = query(ex);
+        CarFilter filter = parseFilter(ex, q);
+        if (filter == null) return;
+        respond(ex, 200, Json.cars(catalog.filter(filter)));
+    }
+
+    private void nearestCars(HttpExchange ex) throws IOException {
+        Map<String, String> q = query(ex);
+        CarFilter filter = parseFilter(ex, q);
+        if (filter == null) return;
+        double lat, lon;
+        int k;
+        try {
+            lat = Double.parseDouble(q.getOrDefault("lat", ""));
+            lon = Double.parseDouble(q.getOrDefault("lon", ""));
+            k = parseInt(q.get("k"), 10);
+        } catch (NumberFormatException e) {
+            respond(ex, 400, Json.error("lat and lon are required and k must be a number"));
+            return;
+        }
+        if (!Validator.isValidCoordinate(lat, lon) || k < 1 || k > MAX_NEAREST) {
+            respond(ex, 400, Json.error("lat/lon out of range or k not in 1.." + MAX_NEAREST));
+            return;
+        }
+        respond(ex, 200, Json.nearestCars(withDb(() -> LocationController.findNearestAvailableCars(lat, lon, k, filter))));
+    }
+
+    /** @return the filter from the query string, or {@code null} after answering 400 */
+    private static CarFilter parseFilter(HttpExchange ex, Map<String, String> q) throws IOException {
+        CarFilter filter = new CarFilter()
+                .brand(q.get("brand"))
+                .color(q.get("color"))
+                .fuelType(q.get("fuelType"))
+                .transmission(q.get("transmission"));
+        try {
+            if ("true".equalsIgnoreCase(q.get("available"))) filter.availableOnly();
+            filter.priceBetween(parseDouble(q.get("minPrice"), 0), parseDouble(q.get("maxPrice"), Double.MAX_VALUE));
+            filter.seatsBetween(parseInt(q.get("minSeats"), 0), parseInt(q.get("maxSeats"), Integer.MAX_VALUE));
+        } catch (NumberFormatException e) {
+            respond(ex, 400, Json.error("price and seat bounds must be numbers"));
+            return null;
+        }
+        return filter;
+    }
+
+    private void handleBookings(HttpExchange ex) throws IOException {
+        Token token = authenticate(ex);
+        if (token == null) return;
+        String[] parts = ex.getRequestURI().getPath().split("/");   // "", "api", "bookings", id, "cancel"
+        if (parts.length == 3 && ex.getRequestMethod().equals("POST")) {
+            createBooking(ex, token);
+        } else if (parts.length == 5 && parts[4].equals("cancel") && ex.getRequestMethod().equals("POST")) {
+            cancelBooking(ex, token, parts[3]);
+        } else {
+            respond(ex, 404, Json.error("not found"));
+        }
+    }
+
+    private void createBooking(HttpExchange ex, Token token) throws IOException {
+        Map<String, String> body = readJson(ex);
+        if (body == null) return;
+        int carId;
+        try {
+            carId = Integer.parseInt(body.getOrDefault("carId", ""));
+        } catch (NumberFormatException e) {
+            respond(ex, 400, Json.error("carId must be a number"));
+            return;
+        }
+        String start = body.get("startDate");
+        String end = body.get("endDate");
+        if (!Validator.isValidDateRange(start, end)) {
+            respond(ex, 400, Json.error("startDate/endDate must be a valid YYYY-MM-DD range"));
+            return;
+        }
+        Car car = catalog.findById(carId);
+        if (car == null) {
+            respond(ex, 404, Json.error("unknown car"));
+            return;
+        }
+        // The amount is computed here from the current demand price, never taken from the client.
+        int days = Validator.parseIsoDate(end) - Validator.parseIsoDate(start) + 1;
+        double amount = PricingController.dailyRate(car) * days;
+        String driveOption = body.getOrDefault("driveOption", "self");
+        if (!"self".equals(driveOption) && !"chauffeur".equals(driveOption)) {
+            respond(ex, 400, Json.error("driveOption must be self or chauffeur"));
+            return;
+        }
+
+        // Availability check and booking are one transaction in bookIfAvailable.
+        int bookingId = withDb(() -> BookingController.bookIfAvailable(token.userId, carId, start, end,
+                0.0, amount, driveOption, 0, start));
+        if (bookingId == 0) {
+            respond(ex, 409, Json.unavailable("car is not available", RecommendationController.findAlternatives(carId)));
+        } else if (bookingId < 0) {
+            respond(ex, 500, Json.error("booking failed"));
+        } else {
+            catalog.invalidate();
+            StringBuilder sb = new StringBuilder("{\"created\":true,\"bookingId\":").append(bookingId);
+            sb.append(",\"carId\":").append(carId);
+            sb.append(",\"amount\":");
+            Json.number(sb, amount);
+            respond(ex, 201, sb.append('}').toString());
+        }
+    }
+
+    private void cancelBooking(HttpExchange ex, Token token, String idText) throws IOException {
+        int bookingId;
+        try {
+            bookingId = Integer.parseInt(idText);
+        } catch (NumberFormatException e) {
+            respond(ex, 400, Json.error("booking id must be a number"));
+            return;
+        }
+        Boolean cancelled = withDb(() -> {
+            if (token.role != UserRole.ADMIN && !ownsBooking(token.userId, bookingId)) return null;
+            return BookingController.cancelBooking(bookingId);
+        });
+        if (cancelled == null) {
+            respond(ex, 404, Json.error("no such booking"));
+        } else if (!cancelled) {
+            respond(ex, 500, Json.error("cancellation failed"));
+        } else {
+            catalog.invalidate();
+            respond(ex, 200, "{\"cancelled\":true,\"bookingId\":" + bookingId + "}");
+        }
+    }
+
+    private void handleUsers(HttpExchange ex) throws IOException {
+        if (!requireMethod(ex, "GET")) return;
+        Token token = authenticate(ex);
+        if (token == null) return;
+        String[] parts = ex.getRequestURI().getPath().split("/");   // "", "api", "users", id, "bookings"
+        if (parts.length != 5 || !parts[4].equals("bookings")) {
+            respond(ex, 404, Json.error("not found"));
+            return;
+        }
+        int userId;
+        try {
+            userId = Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            respond(ex, 400, Json.error("user id must be a number"));
+            return;
+        }
+        if (token.role != UserRole.ADMIN && token.userId != userId) {
+            respond(ex, 403, Json.error("forbidden"));
+            return;
+        }
+        List<Booking> bookings = withDb(() -> BookingController.getBookingsByUserAsObjects(userId));
+        respond(ex, 200, Json.bookings(bookings));
+    }
+
+    private void handleWaitlist(HttpExchange ex) throws IOException {
+        Token token = authenticate(ex);
+        if (token == null) return;
+        String[] parts = ex.getRequestURI().getPath().split("/");   // "", "api", "waitlist", id
+        String method = ex.getRequestMethod();
+        if (parts.length == 3 && method.equals("POST")) {
+            joinWaitlist(ex, token);
+        } else if (parts.length == 3 && method.equals("GET")) {
+            respond(ex, 200, Json.waitlist(WaitlistController.getWaitlistsOfUser(token.userId)));
+        } else if (parts.length == 4 && method.equals("DELETE")) {
+            leaveWaitlist(ex, token, parts[3]);
+        } else {
+            respond(ex, 404, Json.error("not found"));
+        }
+    }
+
+    private void joinWaitlist(HttpExchange ex, Token token) throws IOException {
+        Map<String, String> body = readJson(ex);
+        if (body == null) return;
+        boolean admin = token.role == UserRole.ADMIN;
+        int carId, specId, priority, userId;
+        try {
+            carId = parseInt(body.get("carId"), -1);
+            specId = parseInt(body.get("specificationId"), -1);
+            priority = admin ? parseInt(body.get("priority"), 0) : 0;
+            userId = admin ? parseInt(body.get("userId"), token.userId) : token.userId;
+        } catch (NumberFormatException e) {
+            respond(ex, 400, Json.error("carId, specificationId, priority and userId must be numbers"));
+            return;
+        }
+        if ((carId == -1) == (specId == -1)) {
+            respond(ex, 400, Json.error("exactly one of carId and specificationId is required"));
+            return;
+        }
+        if (carId != -1 && catalog.findById(carId) == null) {
+            respond(ex, 404, Json.error("unknown car"));
+            return;
+        }
+        int waitId = carId != -1
+                ? WaitlistController.joinCarWaitlist(userId, carId, priority)
+                : WaitlistController.joinSpecificationWaitlist(userId, specId, priority);
+        respond(ex, 201, "{\"waitId\":" + waitId + "}");
+    }
+
+    private void leaveWaitlist(HttpExchange ex, Token token, String idText) throws IOException {
+        int waitId;
+        try {
+            waitId = Integer.parseInt(idText);
+        } catch (NumberFormatException e) {
+            respond(ex, 400, Json.error("wait id must be a number"));
+            return;
+        }
+        boolean left = token.role == UserRole.ADMIN
+                ? WaitlistController.leave(waitId)
+                : WaitlistController.leave(waitId, token.userId);
+        if (left) {
+            respond(ex, 200, "{\"left\":true,\"waitId\":" + waitId + "}");
+        } else {
+            respond(ex, 404, Json.error("no such waitlist request"));
+        }
+    }
+
+    /* ---------- plumbing ---------- */
+
+    /** Turns an exception escaping a handler into a 500 instead of a dropped connection. */
+    private static HttpHandler guarded(HttpHandler handler) {
+        return ex -> {
+            try {
+                handler.handle(ex);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                respond(ex, 500, Json.error("internal error"));
+            }
+        };
+    }
+
+    private static boolean ownsBooking(int userId, int bookingId) {
+        for (Booking b : BookingController.getBookingsByUserAsObjects(userId)) {
+            if (b.getBookingId() == bookingId) return true;
+        }
+        return false;
+    }
+
+    private interface DbCall<T> {
+        T call();
+    }
+
+    /** Runs a controller call while holding one of the database permits. */
+    private <T> T withDb(DbCall<T> call) throws IOException {
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for the database", e);
+        }
+        try {
+            return call.call();
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    private Token authenticate(HttpExchange ex) throws IOException {
+        String header = ex.getRequestHeaders().getFirst("Authorization");
+        Token token = null;
+        if (header != null && header.startsWith("Bearer ")) {
+            token = tokens.get(header.substring(7).trim());
+            if (token != null && token.expiresAt < System.currentTimeMillis()) {
+                tokens.values().remove(token);
+                token = null;
+            }
+        }
+        if (token == null) respond(ex, 401, Json.error("missing or expired token"));
+        return token;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(48);
+        for (byte b : bytes) sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+
+    private static boolean requireMethod(HttpExchange ex, String method) throws IOException {
+        if (ex.getRequestMethod().equals(method)) return true;
+        ex.getResponseHeaders().set("Allow", method);
+        respond(ex, 405, Json.error("method not allowed"));
+        return false;
+    }
+
+    /** @return the parsed body, or {@code null} after answering 400 */
+    private static Map<String, String> readJson(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                buf.write(chunk, 0, n);
+                if (buf.size() > MAX_BODY_BYTES) {
+                    respond(ex, 413, Json.error("request body too large"));
+                    return null;
+                }
+            }
+            return FlatJson.parseObject(buf.toString(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            respond(ex, 400, Json.error("invalid JSON: " + e.getMessage()));
+            return null;
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> params = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (!value.isEmpty()) params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8), value);
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static double parseDouble(String text, double defaultVal) {
+        return text == null ? defaultVal : Double.parseDouble(text);
+    }
+
+    private static int parseInt(String text, int defaultVal) {
+        return text == null ? defaultVal : Integer.parseInt(text);
+    }
+
+    /**
+     * One virtual thread per request where available; looked up reflectively so the code also
+     * compiles and runs on Java 17.
+     */
+    private ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            virtualThreads = true;
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            AtomicInteger ids = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(PLATFORM_THREADS, PLATFORM_THREADS,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "http-worker-" + ids.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /** A logged-in API client. */
+    private static final class Token {
+        final int userId;
+        final UserRole role;
+        final long expiresAt;
+
+        Token(int userId, UserRole role, long expiresAt) {
+            this.userId = userId;
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
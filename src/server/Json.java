@@ -0,0 +1,153 @@
+package server;
+
+import model.Booking;
+import controller.PricingController;
+import model.Car;
+import service.impl.AvailabilityDispatcher;
+import service.impl.NearestCarIndex;
+
+import java.util.List;
+
+/**
+ * JSON encoding for the HTTP API, written straight from the model objects into one
+ * {@link StringBuilder} (no row strings, no reflection). Request bodies are read with
+ * {@link util.FlatJson}.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    public static String cars(List<Car> cars) {
+        StringBuilder sb = new StringBuilder(64 + cars.size() * 160);
+        sb.append('[');
+        for (int i = 0; i < cars.size(); i++) {
+            if (i > 0) sb.append(',');
+            car(sb, cars.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    public static StringBuilder car(StringBuilder sb, Car c) {
+        sb.append("{\"id\":").append(c.getId());
+        field(sb, "brand", c.getBrand());
+        field(sb, "model", c.getModel());
+        field(sb, "color", c.getColor());
+        field(sb, "fuelType", c.getFuelType());
+        field(sb, "transmission", c.getTransmission());
+        sb.append(",\"seats\":").append(c.getSeatingCapacity());
+        sb.append(",\"dailyRent\":");
+        number(sb, c.getRentalPrice());
+        sb.append(",\"dailyRate\":");
+        number(sb, PricingController.dailyRate(c));
+        field(sb, "status", c.getStatus());
+        if (c.hasLocation()) {
+            sb.append(",\"latitude\":");
+            number(sb, c.getLatitude());
+            sb.append(",\"longitude\":");
+            number(sb, c.getLongitude());
+        }
+        return sb.append('}');
+    }
+
+    /** @return {@code [{"distanceKm":..,"car":{..}},..]} */
+    public static String nearestCars(List<NearestCarIndex.Hit> hits) {
+        StringBuilder sb = new StringBuilder(64 + hits.size() * 200);
+        sb.append('[');
+        for (int i = 0; i < hits.size(); i++) {
+            if (i > 0) sb.append(',');
+            NearestCarIndex.Hit hit = hits.get(i);
+            sb.append("{\"distanceKm\":");
+            number(sb, Math.round(hit.getDistanceKm() * 1000) / 1000.0);
+            sb.append(",\"car\":");
+            car(sb, hit.getCar()).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    public static String bookings(List<Booking> bookings) {
+        StringBuilder sb = new StringBuilder(64 + bookings.size() * 160);
+        sb.append('[');
+        for (int i = 0; i < bookings.size(); i++) {
+            if (i > 0) sb.append(',');
+            Booking b = bookings.get(i);
+            sb.append("{\"id\":").append(b.getBookingId());
+            sb.append(",\"userId\":").append(b.getUserId());
+            sb.append(",\"carId\":").append(b.getCarId());
+            field(sb, "carModel", b.getCarModel());
+            field(sb, "startDate", b.getStartDate());
+            field(sb, "endDate", b.getEndDate());
+            field(sb, "status", b.getStatus());
+            sb.append(",\"amount\":");
+            number(sb, b.getAmount());
+            sb.append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    /** @return {@code [{"waitId":..,"carId":..|"specificationId":..,"priority":..},..]} */
+    public static String waitlist(List<AvailabilityDispatcher.Waiter> waiters) {
+        StringBuilder sb = new StringBuilder(16 + waiters.size() * 48);
+        sb.append('[');
+        for (int i = 0; i < waiters.size(); i++) {
+            if (i > 0) sb.append(',');
+            AvailabilityDispatcher.Waiter w = waiters.get(i);
+            sb.append("{\"waitId\":").append(w.getWaitId());
+            if (w.getCarId() != -1) sb.append(",\"carId\":").append(w.getCarId());
+            else sb.append(",\"specificationId\":").append(w.getSpecificationId());
+            sb.append(",\"priority\":").append(w.getPriority()).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    /** @return {@code {"error":"..."}} */
+    public static String error(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        string(sb, message);
+        return sb.append('}').toString();
+    }
+
+    /** @return {@code {"error":..,"alternatives":[..]}} for a car that was taken */
+    public static String unavailable(String message, List<Car> alternatives) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        string(sb, message);
+        return sb.append(",\"alternatives\":").append(cars(alternatives)).append('}').toString();
+    }
+
+    /** Appends {@code ,"name":value} with the value quoted and escaped, or {@code null}. */
+    public static void field(StringBuilder sb, String name, String value) {
+        sb.append(",\"").append(name).append("\":");
+        string(sb, value);
+    }
+
+    public static void number(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) sb.append("null");
+        else if (value == Math.rint(value) && Math.abs(value) < 1e15) sb.append((long) value);
+        else sb.append(value);
+    }
+
+    public static void string(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
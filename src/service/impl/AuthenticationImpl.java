@@ -1,12 +1,17 @@
 package service.impl;
 
 import service.interfaces.Authentication;
+import dao.DAOFactory;
 import dao.UserDAO;
 import model.User;
 
 public class AuthenticationImpl implements Authentication {
     private final UserDAO userDAO;
 
+    public AuthenticationImpl() {
+        this(DAOFactory.getUserDAO());
+    }
+
     public AuthenticationImpl(UserDAO userDAO) {
         this.userDAO = userDAO;
     }
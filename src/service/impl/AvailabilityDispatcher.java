@@ -0,0 +1,320 @@
+package service.impl;
+
+import service.interfaces.NotificationSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waitlists for cars and specifications, and the dispatcher that tells waiting customers when a
+ * car comes free.
+ * <p>
+ * Each waitlist is one lock-free set per priority level, ordered by arrival. {@link #carReleased} only appends
+ * to a lock-free event queue and unparks the dispatcher thread, so a cancellation never waits for
+ * matching or delivery. The dispatcher drains every event queued by then as one batch: repeated
+ * events for the same car collapse into one, each car goes to the longest-waiting request of the
+ * highest priority among its own waitlist and its specification's, and the whole batch is handed
+ * to the {@link NotificationSink} in a single call. Bursts such as mass cancellations therefore
+ * cost one sink call per batch rather than one per car.
+ * <p>
+ * A request counts as notified only once the sink has taken the batch. If the sink fails, every
+ * request in the batch goes back to its place in line, the cars are released again and the
+ * dispatcher retries after {@link #RETRY_DELAY_MS}; a sink that failed halfway through a batch
+ * may therefore see some notifications twice.
+ * <p>
+ * The dispatcher thread is the only consumer of the waitlists, so look-then-remove is safe there.
+ * Leaving a waitlist just marks the request; the dispatcher drops it when it reaches the head.
+ * Waitlists live in memory and are lost on restart.
+ */
+public class AvailabilityDispatcher {
+
+    public static final int PRIORITY_NORMAL = 0;
+    public static final int PRIORITY_HIGH = 1;
+    /** Waitlisted by staff on a customer's behalf, e.g. after a breakdown. */
+    public static final int PRIORITY_URGENT = 2;
+    private static final int PRIORITY_LEVELS = 3;
+
+    /** Events matched per batch at most; the rest wait for the next round. */
+    public static final int MAX_BATCH = 10_000;
+
+    /** Pause before the next batch after the sink failed. */
+    public static final long RETRY_DELAY_MS = 5_000;
+
+    private static final Comparator<Waiter> BY_ARRIVAL = Comparator.comparingLong(w -> w.seq);
+
+    /** A waitlisted request for one car or for any car of one specification. */
+    public static final class Waiter {
+        private final int waitId;
+        private final int userId;
+        private final int carId;
+        private final int specificationId;
+        private final int priority;
+        private final long seq;
+        private final long since;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+
+        Waiter(int waitId, int userId, int carId, int specificationId, int priority, long seq, long since) {
+            this.waitId = waitId;
+            this.userId = userId;
+            this.carId = carId;
+            this.specificationId = specificationId;
+            this.priority = priority;
+            this.seq = seq;
+            this.since = since;
+        }
+
+        public int getWaitId() { return waitId; }
+
+        public int getUserId() { return userId; }
+
+        /** @return the car waited for, or -1 when waiting for a specification */
+        public int getCarId() { return carId; }
+
+        /** @return the specification waited for, or -1 when waiting for one car */
+        public int getSpecificationId() { return specificationId; }
+
+        public int getPriority() { return priority; }
+
+        public boolean isActive() { return active.get(); }
+    }
+
+    /** Tells one waiting customer which car came free. */
+    public static final class Notification {
+        private final Waiter waiter;
+        private final int carId;
+        private final long notifiedAt;
+
+        Notification(Waiter waiter, int carId, long notifiedAt) {
+            this.waiter = waiter;
+            this.carId = carId;
+            this.notifiedAt = notifiedAt;
+        }
+
+        public Waiter getWaiter() { return waiter; }
+
+        public int getUserId() { return waiter.userId; }
+
+        public int getCarId() { return carId; }
+
+        public long getNotifiedAt() { return notifiedAt; }
+
+        /** @return how long the request waited, in milliseconds */
+        public long getWaitedMs() { return notifiedAt - waiter.since; }
+
+        /** One line for logs and notification files. */
+        public String toLine() {
+            return String.format("wait #%d: user %d, car %d is available (waited for %s, priority %d, %d s)",
+                    waiter.waitId, waiter.userId, carId,
+                    waiter.carId != -1 ? "car " + waiter.carId : "spec " + waiter.specificationId,
+                    waiter.priority, getWaitedMs() / 1000);
+        }
+    }
+
+    private static final class Event {
+        final int carId;
+        final int specificationId;
+
+        Event(int carId, int specificationId) {
+            this.carId = carId;
+            this.specificationId = specificationId;
+        }
+    }
+
+    /** One lane per priority level, highest last, each ordered by arrival. */
+    private static final class Waitlist {
+        final List<ConcurrentSkipListSet<Waiter>> lanes = new ArrayList<>(PRIORITY_LEVELS);
+
+        Waitlist() {
+            for (int i = 0; i < PRIORITY_LEVELS; i++) lanes.add(new ConcurrentSkipListSet<>(BY_ARRIVAL));
+        }
+
+        /** Dispatcher thread only: the first request still waiting at {@code priority}. */
+        Waiter head(int priority) {
+            ConcurrentSkipListSet<Waiter> lane = lanes.get(priority);
+            for (Waiter w : lane) {
+                if (w.isActive()) return w;
+                lane.remove(w);
+            }
+            return null;
+        }
+    }
+
+    private final NotificationSink sink;
+    private final Map<Integer, Waitlist> byCar = new ConcurrentHashMap<>();
+    private final Map<Integer, Waitlist> bySpecification = new ConcurrentHashMap<>();
+    private final Map<Integer, Waiter> waiters = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitIds = new AtomicInteger();
+    private final AtomicLong seqs = new AtomicLong();
+    private final AtomicLong notified = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong handled = new AtomicLong();
+    private final Thread thread;
+
+    public AvailabilityDispatcher(NotificationSink sink) {
+        this.sink = sink;
+        this.thread = new Thread(this::run, "availability-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return the new request's wait id */
+    public int waitForCar(int userId, int carId, int priority) {
+        return enqueue(byCar.computeIfAbsent(carId, id -> new Waitlist()), userId, carId, -1, priority);
+    }
+
+    /** @return the new request's wait id */
+    public int waitForSpecification(int userId, int specificationId, int priority) {
+        return enqueue(bySpecification.computeIfAbsent(specificationId, id -> new Waitlist()),
+                userId, -1, specificationId, priority);
+    }
+
+    private int enqueue(Waitlist list, int userId, int carId, int specificationId, int priority) {
+        int level = Math.max(PRIORITY_NORMAL, Math.min(PRIORITY_LEVELS - 1, priority));
+        Waiter w = new Waiter(waitIds.incrementAndGet(), userId, carId, specificationId, level,
+                seqs.incrementAndGet(), System.currentTimeMillis());
+        waiters.put(w.waitId, w);
+        list.lanes.get(level).add(w);
+        return w.waitId;
+    }
+
+    /** @return false if there is no such request waiting */
+    public boolean leave(int waitId) {
+        Waiter w = waiters.get(waitId);
+        // Inactive but still listed: being notified right now, too late to leave.
+        if (w == null || !w.active.compareAndSet(true, false)) return false;
+        waiters.remove(waitId, w);
+        return true;
+    }
+
+    /** @return the request, or null once it was notified or left */
+    public Waiter find(int waitId) {
+        return waiters.get(waitId);
+    }
+
+    /** The requests the user is still waiting on, oldest first. */
+    public List<Waiter> waitingFor(int userId) {
+        List<Waiter> result = new ArrayList<>();
+        for (Waiter w : waiters.values()) if (w.userId == userId && w.isActive()) result.add(w);
+        result.sort((a, b) -> Long.compare(a.seq, b.seq));
+        return result;
+    }
+
+    /**
+     * Publishes that a car is bookable again; {@code specificationId} is -1 if unknown.
+     * Returns at once, the matching happens on the dispatcher thread.
+     */
+    public void carReleased(int carId, int specificationId) {
+        published.incrementAndGet();
+        events.offer(new Event(carId, specificationId));
+        LockSupport.unpark(thread);
+    }
+
+    /** @return whether every event published so far has been matched and delivered */
+    public boolean isIdle() {
+        return handled.get() == published.get();
+    }
+
+    public long getNotifiedCount() {
+        return notified.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    private void run() {
+        while (true) {
+            if (events.isEmpty()) {
+                // A publish after this check unparks us, so the permit is never lost.
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                if (!dispatchBatch()) Thread.sleep(RETRY_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** @return false if the sink failed and the batch was put back */
+    private boolean dispatchBatch() {
+        // Same car released twice in one batch (cancelled, re-booked, cancelled) is one release.
+        Map<Integer, Integer> released = new LinkedHashMap<>();
+        Event e;
+        int polled = 0;
+        while (released.size() < MAX_BATCH && (e = events.poll()) != null) {
+            polled++;
+            Integer known = released.get(e.carId);
+            if (known == null || known == -1) released.put(e.carId, e.specificationId);
+        }
+        long now = System.currentTimeMillis();
+        List<Notification> batch = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> car : released.entrySet()) {
+            Waiter w = match(byCar.get(car.getKey()), car.getValue() == -1 ? null : bySpecification.get(car.getValue()));
+            if (w == null) continue;
+            batch.add(new Notification(w, car.getKey(), now));
+        }
+        try {
+            if (batch.isEmpty()) return true;
+            batches.incrementAndGet();
+            try {
+                sink.deliver(batch);
+            } catch (IOException | RuntimeException ex) {
+                System.err.println("Could not deliver " + batch.size() + " waitlist notifications; retrying in "
+                        + RETRY_DELAY_MS + " ms");
+                ex.printStackTrace();
+                putBack(batch, released);
+                return false;
+            }
+            for (Notification n : batch) waiters.remove(n.waiter.waitId, n.waiter);
+            notified.addAndGet(batch.size());
+            return true;
+        } finally {
+            handled.addAndGet(polled);
+        }
+    }
+
+    /** Returns undelivered requests to their place in line and releases their cars again. */
+    private void putBack(List<Notification> batch, Map<Integer, Integer> released) {
+        for (Notification n : batch) {
+            Waiter w = n.waiter;
+            Waitlist list = w.carId != -1 ? byCar.get(w.carId) : bySpecification.get(w.specificationId);
+            w.active.set(true);
+            list.lanes.get(w.priority).add(w);
+            published.incrementAndGet();
+            events.offer(new Event(n.carId, released.get(n.carId)));
+        }
+    }
+
+    /** Takes the highest-priority, longest-waiting request from either waitlist. */
+    private static Waiter match(Waitlist forCar, Waitlist forSpecification) {
+        for (int p = PRIORITY_LEVELS - 1; p >= 0; p--) {
+            Waiter a = forCar == null ? null : forCar.head(p);
+            Waiter b = forSpecification == null ? null : forSpecification.head(p);
+            if (a == null && b == null) continue;
+            Waitlist from = b == null || a != null && a.seq < b.seq ? forCar : forSpecification;
+            Waiter w = from == forCar ? a : b;
+            from.lanes.get(p).remove(w);
+            // Left between head() and here: try again from the top.
+            if (!w.active.compareAndSet(true, false)) return match(forCar, forSpecification);
+            return w;
+        }
+        return null;
+    }
+}
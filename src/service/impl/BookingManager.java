@@ -1,20 +1,28 @@
 package service.impl;
 
 import dao.BookingDAO;
+import dao.DAOFactory;
 import model.Booking;
+import service.interfaces.BookingManagement;
 
-public class BookingManager {
+public class BookingManager implements BookingManagement {
     private final BookingDAO bookingDAO;
 
+    public BookingManager() {
+        this(DAOFactory.getBookingDAO());
+    }
+
     public BookingManager(BookingDAO bookingDAO) {
         this.bookingDAO = bookingDAO;
     }
 
+    @Override
     public boolean bookCar(int userId, int carId, String startDate, String endDate) {
         Booking booking = new Booking(userId, carId, startDate, endDate);
         return bookingDAO.saveBooking(booking);
     }
 
+    @Override
     public boolean cancelBooking(int bookingId) {
         return bookingDAO.deleteBooking(bookingId);
     }
@@ -1,33 +1,452 @@
 package service.impl;
 
 import dao.CarDAO;
+import dao.DAOFactory;
 import model.Car;
+import model.CarFilter;
+import service.interfaces.CarBrowsing;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Answers fleet searches from one cached, column-oriented snapshot of {@link CarDAO#getAllCars()}.
+ * <p>
+ * A {@link CarFilter} is compiled into a list of column criteria. String criteria become int
+ * comparisons against per-column dictionary codes, and the criteria are ordered so the one that
+ * rejects the most cars per unit of work runs first. Selectivity is known exactly from value
+ * counts and sorted price/seat columns taken when the snapshot is built; a criterion no car can
+ * satisfy short-circuits to an empty result, and one every car satisfies is dropped.
+ * <p>
+ * Evaluation is column at a time: the first criterion scans its column into a selection vector
+ * of matching rows, sized from its exact match count, and each further criterion narrows that
+ * vector in place. Every step is a tight loop over a primitive array, so a search never touches
+ * a {@link Car} until it collects the result. On a multi-core machine, fleets of at least
+ * {@link #PARALLEL_THRESHOLD} cars are split into one contiguous row range per core; each range
+ * is scanned and narrowed on its own and the per-range vectors are joined in row order, so the
+ * result is the same as the sequential one.
+ */
+public class CarFilterManager implements CarBrowsing {
+
+    /** Snapshots older than this are reloaded on the next search. */
+    public static final long SNAPSHOT_TTL_MS = 30_000;
+
+    /** Fleets at least this large are scanned in parallel chunks when there is more than one core. */
+    public static final int PARALLEL_THRESHOLD = 50_000;
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
 
-public class CarFilterManager {
     private final CarDAO carDAO;
+    private final long snapshotTtlMs;
+    private volatile Snapshot snapshot;
+
+    public CarFilterManager() {
+        this(DAOFactory.getCarDAO());
+    }
 
     public CarFilterManager(CarDAO carDAO) {
+        this(carDAO, SNAPSHOT_TTL_MS);
+    }
+
+    public CarFilterManager(CarDAO carDAO, long snapshotTtlMs) {
         this.carDAO = carDAO;
+        this.snapshotTtlMs = snapshotTtlMs;
     }
 
+    @Override
     public List<Car> filterByBrand(String brand) {
-        return carDAO.getAllCars().stream()
-                .filter(car -> car.getBrand().equalsIgnoreCase(brand))
-                .collect(Collectors.toList());
+        return filter(new CarFilter().brand(brand));
     }
 
+    @Override
     public List<Car> filterByColor(String color) {
-        return carDAO.getAllCars().stream()
-                .filter(car -> car.getColor().equalsIgnoreCase(color))
-                .collect(Collectors.toList());
+        return filter(new CarFilter().color(color));
     }
 
+    @Override
     public List<Car> filterAvailableCars() {
-        return carDAO.getAllCars().stream()
-                .filter(car -> car.getStatus().equalsIgnoreCase("available"))
-                .collect(Collectors.toList());
+        return filter(new CarFilter().availableOnly());
+    }
+
+    /** Evaluates every criterion of {@code filter} over the cached snapshot, one column at a time. */
+    @Override
+    public List<Car> filter(CarFilter filter) {
+        Snapshot snap = currentSnapshot();
+        List<Criterion> criteria = compile(filter, snap);
+        if (criteria == null) return new ArrayList<>();
+        if (criteria.isEmpty()) return new ArrayList<>(Arrays.asList(snap.cars));
+
+        int n = snap.cars.length;
+        if (CORES > 1 && n >= PARALLEL_THRESHOLD) return parallelFilter(criteria, snap);
+
+        Criterion first = criteria.get(0);
+        int[] rows = new int[first.matches];
+        int count = narrow(criteria, rows, first.scan(0, n, rows));
+        List<Car> result = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) result.add(snap.cars[rows[k]]);
+        return result;
+    }
+
+    /** Scans one row range per core on the common pool and joins the selections in row order. */
+    private static List<Car> parallelFilter(List<Criterion> criteria, Snapshot snap) {
+        int n = snap.cars.length;
+        int chunkSize = (n + CORES - 1) / CORES;
+        Criterion first = criteria.get(0);
+        int[][] rows = new int[CORES][];
+        int[] counts = new int[CORES];
+        IntStream.range(0, CORES).parallel().forEach(c -> {
+            int from = c * chunkSize;
+            int to = Math.min(n, from + chunkSize);
+            int[] chunk = new int[Math.max(0, Math.min(first.matches, to - from))];
+            rows[c] = chunk;
+            counts[c] = narrow(criteria, chunk, first.scan(from, to, chunk));
+        });
+        int total = 0;
+        for (int count : counts) total += count;
+        List<Car> result = new ArrayList<>(total);
+        for (int c = 0; c < CORES; c++) {
+            for (int k = 0; k < counts[c]; k++) result.add(snap.cars[rows[c][k]]);
+        }
+        return result;
+    }
+
+    /** Applies every criterion after the first to the first {@code count} of {@code rows}. */
+    private static int narrow(List<Criterion> criteria, int[] rows, int count) {
+        for (int k = 1; k < criteria.size() && count > 0; k++) count = criteria.get(k).narrow(rows, count);
+        return count;
+    }
+
+    /** @return the car with {@code carId} in the cached snapshot, or {@code null} */
+    public Car findById(int carId) {
+        Snapshot snap = currentSnapshot();
+        int row = snap.rowOf(carId);
+        return row < 0 ? null : snap.cars[row];
+    }
+
+    /** Drops the cached snapshot so the next search reloads the fleet, e.g. after a car is edited. */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /** Reloads the snapshot now. */
+    public void refresh() {
+        snapshot = new Snapshot(carDAO.getAllCars(), System.currentTimeMillis());
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot snap = snapshot;
+        if (snap == null || System.currentTimeMillis() - snap.loadedAt > snapshotTtlMs) {
+            synchronized (this) {
+                snap = snapshot;
+                if (snap == null || System.currentTimeMillis() - snap.loadedAt > snapshotTtlMs) {
+                    snap = new Snapshot(carDAO.getAllCars(), System.currentTimeMillis());
+                    snapshot = snap;
+                }
+            }
+        }
+        return snap;
+    }
+
+    /**
+     * @return the criteria in evaluation order, empty if nothing constrains the result,
+     *         or {@code null} if no car can match
+     */
+    private static List<Criterion> compile(CarFilter filter, Snapshot snap) {
+        int n = snap.cars.length;
+        List<Criterion> criteria = new ArrayList<>();
+        if (!addEquals(criteria, snap.brand, filter.getBrand())) return null;
+        if (!addEquals(criteria, snap.color, filter.getColor())) return null;
+        if (!addEquals(criteria, snap.fuel, filter.getFuelType())) return null;
+        if (!addEquals(criteria, snap.transmission, filter.getTransmission())) return null;
+        if (filter.isAvailableOnly() && !addEquals(criteria, snap.status, "available")) return null;
+
+        double minPrice = filter.getMinPrice();
+        double maxPrice = filter.getMaxPrice();
+        if (minPrice > maxPrice) return null;
+        int priceMatches = countBetween(snap.sortedPrices, minPrice, maxPrice);
+        if (priceMatches == 0 && n > 0) return null;
+        if (priceMatches < n) criteria.add(new PriceBetween(snap.price, minPrice, maxPrice, priceMatches));
+
+        int minSeats = filter.getMinSeats();
+        int maxSeats = filter.getMaxSeats();
+        if (minSeats > maxSeats) return null;
+        int seatMatches = countBetween(snap.sortedSeats, minSeats, maxSeats);
+        if (seatMatches == 0 && n > 0) return null;
+        if (seatMatches < n) criteria.add(new SeatsBetween(snap.seats, minSeats, maxSeats, seatMatches));
+
+        // Classic predicate ordering: ascending cost / (1 - selectivity), i.e. cheapest way to reject a row first.
+        criteria.sort((a, b) -> Double.compare(a.rank(n), b.rank(n)));
+        return criteria;
+    }
+
+    /** Adds an equality criterion on a dictionary column; returns {@code false} if no car has {@code value}. */
+    private static boolean addEquals(List<Criterion> criteria, Column column, String value) {
+        if (value == null) return true;
+        Integer code = column.dictionary.get(value.toLowerCase(Locale.ROOT));
+        if (code == null) return false;
+        int count = column.counts[code];
+        if (count == column.codes.length) return true;
+        criteria.add(new CodeEquals(column.codes, code, count));
+        return true;
+    }
+
+    private static int countBetween(double[] sorted, double min, double max) {
+        return upperBound(sorted, max) - lowerBound(sorted, min);
+    }
+
+    private static int countBetween(int[] sorted, int min, int max) {
+        return upperBound(sorted, max) - lowerBound(sorted, min);
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(double[] sorted, double value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(int[] sorted, int value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** One compiled condition on a snapshot column, with its exact number of matching rows. */
+    private abstract static class Criterion {
+        final int matches;
+        final int cost;
+
+        Criterion(int matches, int cost) {
+            this.matches = matches;
+            this.cost = cost;
+        }
+
+        double rank(int rows) {
+            return cost / Math.max(1e-9, 1 - (double) matches / rows);
+        }
+
+        /** Writes the matching rows of {@code [from, to)}, ascending, to {@code out}; returns how many. */
+        abstract int scan(int from, int to, int[] out);
+
+        /** Keeps the matching rows among the first {@code count} of {@code rows}; returns how many. */
+        abstract int narrow(int[] rows, int count);
+    }
+
+    private static final class CodeEquals extends Criterion {
+        private final int[] codes;
+        private final int wanted;
+
+        CodeEquals(int[] codes, int wanted, int matches) {
+            super(matches, 1);
+            this.codes = codes;
+            this.wanted = wanted;
+        }
+
+        @Override
+        int scan(int from, int to, int[] out) {
+            int[] codes = this.codes;
+            int wanted = this.wanted;
+            int found = 0;
+            for (int i = from; i < to && found < out.length; i++) {
+                if (codes[i] == wanted) out[found++] = i;
+            }
+            return found;
+        }
+
+        @Override
+        int narrow(int[] rows, int count) {
+            int[] codes = this.codes;
+            int wanted = this.wanted;
+            int kept = 0;
+            for (int k = 0; k < count; k++) {
+                int i = rows[k];
+                if (codes[i] == wanted) rows[kept++] = i;
+            }
+            return kept;
+        }
+    }
+
+    private static final class PriceBetween extends Criterion {
+        private final double[] price;
+        private final double min, max;
+
+        PriceBetween(double[] price, double min, double max, int matches) {
+            super(matches, 2);
+            this.price = price;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        int scan(int from, int to, int[] out) {
+            double[] price = this.price;
+            int found = 0;
+            for (int i = from; i < to && found < out.length; i++) {
+                if (price[i] >= min && price[i] <= max) out[found++] = i;
+            }
+            return found;
+        }
+
+        @Override
+        int narrow(int[] rows, int count) {
+            double[] price = this.price;
+            int kept = 0;
+            for (int k = 0; k < count; k++) {
+                int i = rows[k];
+                if (price[i] >= min && price[i] <= max) rows[kept++] = i;
+            }
+            return kept;
+        }
+    }
+
+    private static final class SeatsBetween extends Criterion {
+        private final int[] seats;
+        private final int min, max;
+
+        SeatsBetween(int[] seats, int min, int max, int matches) {
+            super(matches, 2);
+            this.seats = seats;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        int scan(int from, int to, int[] out) {
+            int[] seats = this.seats;
+            int found = 0;
+            for (int i = from; i < to && found < out.length; i++) {
+                if (seats[i] >= min && seats[i] <= max) out[found++] = i;
+            }
+            return found;
+        }
+
+        @Override
+        int narrow(int[] rows, int count) {
+            int[] seats = this.seats;
+            int kept = 0;
+            for (int k = 0; k < count; k++) {
+                int i = rows[k];
+                if (seats[i] >= min && seats[i] <= max) rows[kept++] = i;
+            }
+            return kept;
+        }
+    }
+
+    /** Dictionary-encoded string column: lowercase value -> code, one code per car. */
+    private static final class Column {
+        final Map<String, Integer> dictionary = new HashMap<>();
+        // Value as stored -> code, so repeated values skip the lowercasing.
+        private final Map<String, Integer> byValue = new HashMap<>();
+        final int[] codes;
+        int[] counts = new int[8];
+
+        Column(int size) {
+            codes = new int[size];
+        }
+
+        void set(int row, String value) {
+            Integer code = byValue.get(value);
+            if (code == null) {
+                String key = value == null ? "" : value.toLowerCase(Locale.ROOT);
+                code = dictionary.get(key);
+                if (code == null) {
+                    code = dictionary.size();
+                    dictionary.put(key, code);
+                    if (code == counts.length) counts = Arrays.copyOf(counts, code * 2);
+                }
+                byValue.put(value, code);
+            }
+            codes[row] = code;
+            counts[code]++;
+        }
+    }
+
+    /** Immutable column view of one {@link CarDAO#getAllCars()} result. */
+    private static final class Snapshot {
+        final long loadedAt;
+        final Car[] cars;
+        final Column brand, color, fuel, transmission, status;
+        final double[] price;
+        final int[] seats;
+        final double[] sortedPrices;
+        final int[] sortedSeats;
+        // (car id << 32) | row, sorted by id.
+        final long[] rowById;
+
+        Snapshot(List<Car> fleet, long loadedAt) {
+            this.loadedAt = loadedAt;
+            this.cars = (fleet == null ? Collections.<Car>emptyList() : fleet).toArray(new Car[0]);
+            int n = cars.length;
+            brand = new Column(n);
+            color = new Column(n);
+            fuel = new Column(n);
+            transmission = new Column(n);
+            status = new Column(n);
+            price = new double[n];
+            seats = new int[n];
+            rowById = new long[n];
+            for (int i = 0; i < n; i++) {
+                Car car = cars[i];
+                rowById[i] = (long) car.getId() << 32 | i;
+                brand.set(i, car.getBrand());
+                color.set(i, car.getColor());
+                fuel.set(i, car.getFuelType());
+                transmission.set(i, car.getTransmission());
+                status.set(i, car.getStatus());
+                price[i] = car.getRentalPrice();
+                seats[i] = car.getSeatingCapacity();
+            }
+            sortedPrices = price.clone();
+            Arrays.sort(sortedPrices);
+            sortedSeats = seats.clone();
+            Arrays.sort(sortedSeats);
+            Arrays.sort(rowById);
+        }
+
+        /** @return the row of {@code carId}, or -1 */
+        int rowOf(int carId) {
+            int lo = 0, hi = rowById.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int id = (int) (rowById[mid] >> 32);
+                if (id < carId) lo = mid + 1;
+                else if (id > carId) hi = mid - 1;
+                else return (int) rowById[mid];
+            }
+            return -1;
+        }
     }
 }
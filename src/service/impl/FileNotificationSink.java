@@ -0,0 +1,33 @@
+package service.impl;
+
+import service.impl.AvailabilityDispatcher.Notification;
+import service.interfaces.NotificationSink;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/** Appends one line per notification to a file, e.g. for a mailer process to pick up. */
+public class FileNotificationSink implements NotificationSink {
+
+    private final Path file;
+
+    public FileNotificationSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void deliver(List<Notification> batch) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Notification n : batch) {
+                out.write(n.toLine());
+                out.newLine();
+            }
+        }
+    }
+}
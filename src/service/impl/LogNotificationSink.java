@@ -0,0 +1,17 @@
+package service.impl;
+
+import service.impl.AvailabilityDispatcher.Notification;
+import service.interfaces.NotificationSink;
+
+import java.util.List;
+
+/** Prints notifications to standard output; the stand-in until e-mail/SMS delivery exists. */
+public class LogNotificationSink implements NotificationSink {
+
+    @Override
+    public void deliver(List<Notification> batch) {
+        StringBuilder sb = new StringBuilder();
+        for (Notification n : batch) sb.append("[waitlist] ").append(n.toLine()).append(System.lineSeparator());
+        System.out.print(sb);
+    }
+}
@@ -0,0 +1,277 @@
+package service.impl;
+
+import dao.CarDAO;
+import dao.DAOFactory;
+import model.Car;
+import model.CarFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Nearest-available-car search over a uniform latitude/longitude grid.
+ * <p>
+ * Every available car with a location sits in the grid cell its coordinates fall into; cells
+ * are copy-on-write arrays, so searches read them without locking while updates replace them.
+ * A search walks square rings of cells outwards from the caller and stops once the nearest
+ * point of the next ring is farther than the k-th match so far. Filter criteria are checked
+ * per car as it is visited, which keeps sparse filters from scanning the whole fleet: the
+ * walk only goes as far as it needs to find k cars that pass.
+ * <p>
+ * The grid is filled from {@link CarDAO#getAllCars()} on first use and kept current through
+ * {@link #carChanged(int)}; after {@code reloadMs} the next search also triggers a reload in the
+ * background to pick up changes made by other processes (see {@link ReloadingIndex} for what a
+ * failed reload does). Longitudes do not wrap at ±180°.
+ */
+public class NearestCarIndex {
+
+    /** Cell edge in degrees, about 5.5 km north-south. */
+    public static final double CELL_DEG = 0.05;
+
+    public static final long RELOAD_MS = 5 * 60_000;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** A car and how far it is from the search point. */
+    public static final class Hit {
+        private final Car car;
+        private final double distanceKm;
+
+        Hit(Car car, double distanceKm) {
+            this.car = car;
+            this.distanceKm = distanceKm;
+        }
+
+        public Car getCar() { return car; }
+
+        public double getDistanceKm() { return distanceKm; }
+    }
+
+    private final double cellDeg;
+    private final ToDoubleFunction<Car> dailyRate;
+    private final ReloadingIndex<Grid> grid;
+
+    public NearestCarIndex() {
+        this(DAOFactory.getCarDAO());
+    }
+
+    public NearestCarIndex(CarDAO carDAO) {
+        this(carDAO, CELL_DEG, RELOAD_MS);
+    }
+
+    public NearestCarIndex(CarDAO carDAO, double cellDeg, long reloadMs) {
+        this(carDAO, cellDeg, reloadMs, Car::getRentalPrice);
+    }
+
+    /** {@code dailyRate} gives the price a filter's price range is checked against. */
+    public NearestCarIndex(CarDAO carDAO, double cellDeg, long reloadMs, ToDoubleFunction<Car> dailyRate) {
+        this.cellDeg = cellDeg;
+        this.dailyRate = dailyRate;
+        this.grid = new ReloadingIndex<>("nearest-car", carDAO, reloadMs, new ReloadingIndex.Builder<Grid>() {
+            @Override
+            public Grid build(List<Car> cars) {
+                Grid g = new Grid();
+                for (Car car : cars) g.put(car);
+                return g;
+            }
+
+            @Override
+            public void update(Grid g, int carId, Car car) {
+                if (car == null) g.remove(carId);
+                else g.put(car);
+            }
+        });
+    }
+
+    /**
+     * The {@code k} available cars nearest to {@code (latitude, longitude)} that match
+     * {@code filter} (may be null), nearest first. {@code availableOnly} is implied.
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k, CarFilter filter) {
+        Grid g = grid.current();
+        List<Hit> result = new ArrayList<>();
+        if (k <= 0 || g.available == 0) return result;
+
+        TopK top = new TopK(k, latitude, longitude, filter);
+        int row0 = row(latitude), col0 = col(longitude);
+        int minRow = g.minRow, maxRow = g.maxRow, minCol = g.minCol, maxCol = g.maxCol;
+        int lastRing = Math.max(Math.max(row0 - minRow, maxRow - row0), Math.max(col0 - minCol, maxCol - col0));
+        double cosLat = Math.cos(Math.toRadians(latitude));
+
+        for (int r = 0; r <= lastRing && top.seen < g.available; r++) {
+            if (top.found == k && ringDistanceKm(r, cosLat) > top.bestKm[k - 1]) break;
+            int rowFrom = Math.max(row0 - r, minRow), rowTo = Math.min(row0 + r, maxRow);
+            for (int row = rowFrom; row <= rowTo; row++) {
+                if (row == row0 - r || row == row0 + r) {
+                    int colTo = Math.min(col0 + r, maxCol);
+                    for (int col = Math.max(col0 - r, minCol); col <= colTo; col++) top.visit(g.cells.get(key(row, col)));
+                } else {
+                    if (col0 - r >= minCol) top.visit(g.cells.get(key(row, col0 - r)));
+                    if (col0 + r <= maxCol) top.visit(g.cells.get(key(row, col0 + r)));
+                }
+            }
+        }
+        for (int i = 0; i < top.found; i++) result.add(new Hit(top.best[i], top.bestKm[i]));
+        return result;
+    }
+
+    /** Re-reads one car after it was added, edited, booked, released, moved or deleted. */
+    public void carChanged(int carId) {
+        grid.carChanged(carId);
+    }
+
+    /** Drops the grid so the next search rebuilds it from the DAO. */
+    public void invalidate() {
+        grid.invalidate();
+    }
+
+    /** @return how many cars are indexed as available */
+    public int availableCount() {
+        return grid.current().available;
+    }
+
+    private boolean matches(Car car, CarFilter f) {
+        if (!(equalsOrAny(f.getBrand(), car.getBrand())
+                && equalsOrAny(f.getColor(), car.getColor())
+                && equalsOrAny(f.getFuelType(), car.getFuelType())
+                && equalsOrAny(f.getTransmission(), car.getTransmission())
+                && car.getSeatingCapacity() >= f.getMinSeats() && car.getSeatingCapacity() <= f.getMaxSeats())) {
+            return false;
+        }
+        // Last, since it is the only check that is not a field read.
+        double rate = dailyRate.applyAsDouble(car);
+        return rate >= f.getMinPrice() && rate <= f.getMaxPrice();
+    }
+
+    private static boolean equalsOrAny(String wanted, String actual) {
+        return wanted == null || wanted.equalsIgnoreCase(actual);
+    }
+
+    /**
+     * Lower bound on the distance to any point in ring {@code r}: such a point is at least
+     * {@code r - 1} cells away in latitude, or in longitude, where the nearest point of a
+     * meridian {@code d} degrees away lies {@code asin(cos(lat) * sin(d))} radians off.
+     */
+    private double ringDistanceKm(int r, double cosLat) {
+        if (r <= 1) return 0;
+        double d = Math.toRadians(Math.min(90, (r - 1) * cellDeg));
+        return EARTH_RADIUS_KM * Math.min(d, Math.asin(cosLat * Math.sin(d)));
+    }
+
+    /** Haversine great-circle distance. */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDeg);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor(longitude / cellDeg);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    /** The k nearest matches seen so far, kept sorted by insertion (k is small). */
+    private final class TopK {
+        final Car[] best;
+        final double[] bestKm;
+        final double latitude, longitude;
+        final CarFilter filter;
+        int found;
+        int seen;
+
+        TopK(int k, double latitude, double longitude, CarFilter filter) {
+            this.best = new Car[k];
+            this.bestKm = new double[k];
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.filter = filter;
+        }
+
+        void visit(Car[] cell) {
+            if (cell == null) return;
+            seen += cell.length;
+            int k = best.length;
+            for (Car car : cell) {
+                if (filter != null && !matches(car, filter)) continue;
+                double km = distanceKm(latitude, longitude, car.getLatitude(), car.getLongitude());
+                if (found == k && km >= bestKm[k - 1]) continue;
+                int i = found == k ? k - 1 : found++;
+                while (i > 0 && bestKm[i - 1] > km) {
+                    best[i] = best[i - 1];
+                    bestKm[i] = bestKm[i - 1];
+                    i--;
+                }
+                best[i] = car;
+                bestKm[i] = km;
+            }
+        }
+    }
+
+    /** The indexed fleet; mutated only under the owning index's lock. */
+    private final class Grid {
+        final Map<Integer, Car> located = new ConcurrentHashMap<>();
+        final Map<Long, Car[]> cells = new ConcurrentHashMap<>();
+        volatile int available;
+        // Bounding box of every cell ever filled; it never shrinks, which only costs empty lookups.
+        volatile int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE;
+        volatile int minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+
+        void put(Car car) {
+            if (!car.hasLocation()) {
+                remove(car.getId());
+                return;
+            }
+            Car old = located.put(car.getId(), car);
+            if (old != null) removeFromCell(old);
+            if ("available".equalsIgnoreCase(car.getStatus())) addToCell(car);
+        }
+
+        void remove(int carId) {
+            Car old = located.remove(carId);
+            if (old != null) removeFromCell(old);
+        }
+
+        private void addToCell(Car car) {
+            int row = row(car.getLatitude()), col = col(car.getLongitude());
+            cells.merge(key(row, col), new Car[]{car}, (cell, one) -> {
+                Car[] grown = Arrays.copyOf(cell, cell.length + 1);
+                grown[cell.length] = one[0];
+                return grown;
+            });
+            available++;
+            if (row < minRow) minRow = row;
+            if (row > maxRow) maxRow = row;
+            if (col < minCol) minCol = col;
+            if (col > maxCol) maxCol = col;
+        }
+
+        private void removeFromCell(Car car) {
+            long key = key(row(car.getLatitude()), col(car.getLongitude()));
+            cells.computeIfPresent(key, (k, cell) -> {
+                for (int i = 0; i < cell.length; i++) {
+                    if (cell[i].getId() != car.getId()) continue;
+                    available--;
+                    if (cell.length == 1) return null;
+                    Car[] shrunk = new Car[cell.length - 1];
+                    System.arraycopy(cell, 0, shrunk, 0, i);
+                    System.arraycopy(cell, i + 1, shrunk, i, cell.length - i - 1);
+                    return shrunk;
+                }
+                return cell;
+            });
+        }
+    }
+}
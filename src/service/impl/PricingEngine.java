@@ -0,0 +1,283 @@
+package service.impl;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Demand-based daily rates: each car's admin-set {@code daily_rent} is scaled by a multiplier
+ * derived from how often it was booked lately, how far ahead those bookings were made and how
+ * much of the coming weeks it is already booked for.
+ * <p>
+ * The inputs are per-car counters updated incrementally by {@link #bookingCreated},
+ * {@link #bookingCancelled} and {@link #bookingMoved}; nothing here reads the Booking table.
+ * Each booking's time and lead time are kept until its weight has decayed away, so cancelling
+ * it removes exactly what it added.
+ * {@link #recompute()} turns the counters into multipliers in one parallel pass and publishes
+ * them as an immutable {@link PriceTable} through a volatile field, so {@link #multiplier(int)}
+ * is a lock-free lookup and every reader sees either the old table or the new one, never a mix.
+ * Cars without recent demand are not in the table and keep their base rate.
+ */
+public class PricingEngine {
+
+    public static final long RECOMPUTE_MS = 60_000;
+
+    /** Days ahead over which utilization is measured. */
+    public static final int HORIZON_DAYS = 28;
+
+    /** Booked days further ahead than this are ignored, which also bounds a counter's size. */
+    public static final int MAX_DAYS_AHEAD = 365;
+
+    public static final double MAX_MULTIPLIER = 1.5;
+
+    /** Recent-booking count decays by half in this many days. */
+    private static final double HALF_LIFE_DAYS = 7;
+    /** Decayed bookings at which a car counts as fully in demand. */
+    private static final double BUSY_BOOKINGS = 4;
+    /** Mean lead time (days) at or above which bookings add no urgency premium. */
+    private static final double LEAD_WINDOW_DAYS = 14;
+
+    private static final double UTILIZATION_WEIGHT = 0.25;
+    private static final double DENSITY_WEIGHT = 0.15;
+    private static final double URGENCY_WEIGHT = 0.10;
+
+    private static final double DECAY_PER_MS = Math.log(2) / (HALF_LIFE_DAYS * 86_400_000L);
+    /** A booking made this long ago weighs under 0.1% and is no longer tracked on its own. */
+    private static final long FORGET_MADE_MS = (long) (10 * HALF_LIFE_DAYS * 86_400_000L);
+
+    private final Clock clock;
+    private final Map<Integer, Demand> demand = new ConcurrentHashMap<>();
+    private volatile PriceTable table = PriceTable.EMPTY;
+    private ScheduledExecutorService scheduler;
+
+    public PricingEngine() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public PricingEngine(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** Recomputes every {@code periodMs} on a daemon thread; later calls do nothing. */
+    public synchronized void start(long periodMs) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pricing-recompute");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                recompute();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void bookingCreated(int bookingId, int carId, LocalDate start, LocalDate end) {
+        LocalDate today = LocalDate.now(clock);
+        long now = clock.millis();
+        double lead = Math.max(0, ChronoUnit.DAYS.between(today, start));
+        while (true) {
+            Demand d = demand.computeIfAbsent(carId, id -> new Demand());
+            synchronized (d) {
+                if (d.retired) continue; // dropped by recompute() meanwhile; use a fresh one
+                d.decayTo(now);
+                d.recent += 1;
+                d.leadDays += lead;
+                d.made.put(bookingId, new Made(now, lead));
+                d.book(start, end, today, 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes back what the booking added when it was made, decayed since then. A booking this
+     * engine never saw, or one old enough to have been pruned, only gives its days back.
+     */
+    public void bookingCancelled(int bookingId, int carId, LocalDate start, LocalDate end) {
+        LocalDate today = LocalDate.now(clock);
+        long now = clock.millis();
+        while (true) {
+            Demand d = demand.computeIfAbsent(carId, id -> new Demand());
+            synchronized (d) {
+                if (d.retired) continue;
+                d.decayTo(now);
+                Made m = d.made.remove(bookingId);
+                if (m != null) {
+                    double weight = Math.exp(-DECAY_PER_MS * Math.max(0, now - m.at));
+                    d.recent = Math.max(0, d.recent - weight);
+                    d.leadDays = Math.max(0, d.leadDays - weight * m.leadDays);
+                }
+                d.book(start, end, today, -1);
+                return;
+            }
+        }
+    }
+
+    /** New dates for an existing booking: only the booked days move, the demand signal stays. */
+    public void bookingMoved(int carId, LocalDate oldStart, LocalDate oldEnd, LocalDate newStart, LocalDate newEnd) {
+        LocalDate today = LocalDate.now(clock);
+        while (true) {
+            Demand d = demand.computeIfAbsent(carId, id -> new Demand());
+            synchronized (d) {
+                if (d.retired) continue;
+                d.book(oldStart, oldEnd, today, -1);
+                d.book(newStart, newEnd, today, 1);
+                return;
+            }
+        }
+    }
+
+    /** @return the current multiplier for the car, 1 when it has no recent demand */
+    public double multiplier(int carId) {
+        return table.multiplier(carId);
+    }
+
+    /** The base rate scaled by the published multiplier, rounded to cents. */
+    public double dailyRate(int carId, double baseRent) {
+        double m = table.multiplier(carId);
+        return m == 1 ? baseRent : Math.round(baseRent * m * 100) / 100.0;
+    }
+
+    public PriceTable currentTable() {
+        return table;
+    }
+
+    /**
+     * Rebuilds the price table from the counters in one parallel pass and publishes it.
+     * Counters that have decayed to nothing are dropped on the way.
+     */
+    public PriceTable recompute() {
+        LocalDate today = LocalDate.now(clock);
+        long now = clock.millis();
+        int[] ids = demand.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        double[] multipliers = new double[ids.length];
+        IntStream.range(0, ids.length).parallel().forEach(i -> {
+            Demand d = demand.get(ids[i]);
+            multipliers[i] = d == null ? 1 : d.multiplier(today, now);
+            if (d != null && multipliers[i] == 1) retireIfIdle(ids[i], d, today);
+        });
+
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (multipliers[i] == 1) continue;
+            ids[n] = ids[i];
+            multipliers[n++] = multipliers[i];
+        }
+        PriceTable fresh = new PriceTable(Arrays.copyOf(ids, n), Arrays.copyOf(multipliers, n), now);
+        table = fresh;
+        return fresh;
+    }
+
+    private void retireIfIdle(int carId, Demand d, LocalDate today) {
+        synchronized (d) {
+            if (!d.isIdle(today)) return;
+            d.retired = true;
+            demand.remove(carId, d);
+        }
+    }
+
+    /** One published set of multipliers; never changes after construction. */
+    public static final class PriceTable {
+        static final PriceTable EMPTY = new PriceTable(new int[0], new double[0], 0);
+
+        private final int[] carIds;          // ascending
+        private final double[] multipliers;
+        private final long computedAt;
+
+        PriceTable(int[] carIds, double[] multipliers, long computedAt) {
+            this.carIds = carIds;
+            this.multipliers = multipliers;
+            this.computedAt = computedAt;
+        }
+
+        public double multiplier(int carId) {
+            int i = Arrays.binarySearch(carIds, carId);
+            return i >= 0 ? multipliers[i] : 1;
+        }
+
+        /** @return how many cars are priced above their base rate */
+        public int size() {
+            return carIds.length;
+        }
+
+        public long getComputedAt() {
+            return computedAt;
+        }
+    }
+
+    /** One booking's share of {@link Demand#recent} and {@link Demand#leadDays} when it was made. */
+    private static final class Made {
+        final long at;
+        final double leadDays;
+
+        Made(long at, double leadDays) {
+            this.at = at;
+            this.leadDays = leadDays;
+        }
+    }
+
+    /** Demand counters for one car; guarded by its own monitor. */
+    private static final class Demand {
+        /** Bookings made, exponentially decayed to {@link #decayedAt}. */
+        double recent;
+        /** Sum of those bookings' lead times in days, decayed the same way. */
+        double leadDays;
+        long decayedAt;
+        /** Epoch day -> bookings covering it, for today and later. */
+        final TreeMap<Long, Integer> booked = new TreeMap<>();
+        /** Booking id -> when it was made and its lead time, so a cancel removes its own share. */
+        final Map<Integer, Made> made = new HashMap<>();
+        boolean retired;
+
+        void decayTo(long now) {
+            if (decayedAt != 0 && now > decayedAt) {
+                double f = Math.exp(-DECAY_PER_MS * (now - decayedAt));
+                recent *= f;
+                leadDays *= f;
+            }
+            decayedAt = now;
+        }
+
+        void book(LocalDate start, LocalDate end, LocalDate today, int delta) {
+            long from = Math.max(start.toEpochDay(), today.toEpochDay());
+            long to = Math.min(end.toEpochDay(), today.toEpochDay() + MAX_DAYS_AHEAD);
+            for (long day = from; day <= to; day++) {
+                booked.merge(day, delta, (a, b) -> a + b > 0 ? a + b : null);
+            }
+        }
+
+        synchronized double multiplier(LocalDate today, long now) {
+            decayTo(now);
+            long first = today.toEpochDay();
+            booked.headMap(first).clear();
+            made.values().removeIf(m -> now - m.at > FORGET_MADE_MS);
+            int bookedDays = booked.subMap(first, first + HORIZON_DAYS).size();
+
+            double utilization = (double) bookedDays / HORIZON_DAYS;
+            double density = Math.min(1, recent / BUSY_BOOKINGS);
+            double urgency = recent < 1e-6 ? 0 : Math.max(0, 1 - leadDays / recent / LEAD_WINDOW_DAYS);
+            double m = 1 + UTILIZATION_WEIGHT * utilization
+                    + DENSITY_WEIGHT * density
+                    + URGENCY_WEIGHT * urgency * density;
+            m = Math.min(MAX_MULTIPLIER, Math.round(m * 100) / 100.0);
+            return m;
+        }
+
+        boolean isIdle(LocalDate today) {
+            return recent < 0.05 && booked.ceilingKey(today.toEpochDay()) == null;
+        }
+    }
+}
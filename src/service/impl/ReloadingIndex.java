@@ -0,0 +1,128 @@
+package service.impl;
+
+import dao.CarDAO;
+import model.Car;
+import util.ShardRouter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The load/reload cycle shared by {@link NearestCarIndex} and {@link SimilarCarIndex}: an index
+ * over the whole fleet, built from {@link CarDAO#getAllCars()} on first use, rebuilt on a
+ * background thread once it is {@code reloadMs} old and kept current in between by per-car
+ * updates. Cars that change while a rebuild runs are replayed onto the new index.
+ * <p>
+ * A rebuild that fails, or that only got part of the fleet because a shard did not answer,
+ * leaves the current index in place and is retried after {@link #RETRY_MS}. The very first load
+ * has nothing to fall back on, so it publishes what it got and retries just the same.
+ */
+final class ReloadingIndex<S> {
+
+    static final long RETRY_MS = 30_000;
+
+    /** How the owning index is built and updated. */
+    interface Builder<S> {
+        S build(List<Car> cars);
+
+        /** {@code car} is null when it no longer exists. Called with the holder's lock held. */
+        void update(S index, int carId, Car car);
+    }
+
+    private final String name;
+    private final CarDAO carDAO;
+    private final long reloadMs;
+    private final Builder<S> builder;
+    private volatile S index;
+    private volatile long loadedAt;
+    /** {@code reloadMs}, or {@link #RETRY_MS} after a load that failed. */
+    private volatile long reloadAfterMs;
+    /** Cars changed while a reload is building its index; replayed onto the new one. */
+    private Set<Integer> changedDuringReload;
+
+    ReloadingIndex(String name, CarDAO carDAO, long reloadMs, Builder<S> builder) {
+        this.name = name;
+        this.carDAO = carDAO;
+        this.reloadMs = reloadMs;
+        this.builder = builder;
+    }
+
+    S current() {
+        S s = index;
+        if (s == null) {
+            synchronized (this) {
+                s = index;
+                if (s == null) {
+                    List<Car> cars = carDAO.getAllCars();
+                    s = builder.build(cars);
+                    loaded(complete(cars));
+                    index = s;
+                }
+            }
+        } else if (System.currentTimeMillis() - loadedAt > reloadAfterMs) {
+            reloadInBackground();
+        }
+        return s;
+    }
+
+    void carChanged(int carId) {
+        if (index == null) return; // not loaded yet; the first use reads everything
+        Car car = carDAO.findCar(carId);
+        synchronized (this) {
+            if (changedDuringReload != null) changedDuringReload.add(carId);
+            S s = index;
+            if (s != null) builder.update(s, carId, car);
+        }
+    }
+
+    void invalidate() {
+        index = null;
+    }
+
+    private void reloadInBackground() {
+        synchronized (this) {
+            if (changedDuringReload != null) return;
+            changedDuringReload = ConcurrentHashMap.newKeySet();
+        }
+        Thread t = new Thread(() -> {
+            Set<Integer> replay = null;
+            try {
+                List<Car> cars = carDAO.getAllCars();
+                if (complete(cars)) {
+                    S fresh = builder.build(cars);
+                    synchronized (this) {
+                        loaded(true);
+                        index = fresh;
+                        replay = changedDuringReload;
+                    }
+                } else {
+                    loaded(false);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Reloading " + name + " failed; keeping the current index");
+                e.printStackTrace();
+                loaded(false);
+            } finally {
+                synchronized (this) {
+                    changedDuringReload = null;
+                }
+            }
+            if (replay != null) for (int carId : replay) carChanged(carId);
+        }, name + "-reload");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void loaded(boolean complete) {
+        reloadAfterMs = complete ? reloadMs : Math.min(reloadMs, RETRY_MS);
+        loadedAt = System.currentTimeMillis();
+    }
+
+    private boolean complete(List<Car> cars) {
+        if (!ShardRouter.isPartial(cars)) return true;
+        System.err.println("Loading " + name + ": no answer from "
+                + ((ShardRouter.PartialResult<Car>) cars).getFailedRegions() + "; retrying in " + Math.min(reloadMs, RETRY_MS) + " ms");
+        return false;
+    }
+}
@@ -0,0 +1,436 @@
+package service.impl;
+
+import dao.CarDAO;
+import dao.DAOFactory;
+import model.Car;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed "similar cars": the {@link #NEIGHBOURS} most similar cars of every car in the fleet,
+ * so that offering alternatives to a car that was just taken is a map lookup plus an availability
+ * check.
+ * <p>
+ * Similarity is a weighted distance over fuel type, transmission, seat count, price (as a ratio,
+ * so 500 vs 600 counts like 1000 vs 1200), color and model family (the first word of the model).
+ * Cars alike in everything but price share a bucket sorted by price, so the distance to any car
+ * is its bucket's mismatch penalty plus the price gap. Buckets are grouped by fuel, transmission
+ * and seats; a neighbour search visits groups in penalty order, skips buckets whose penalty
+ * already exceeds the k-th best so far and walks the rest outwards by price until the price gap
+ * does too. The result is exact without comparing every pair.
+ * <p>
+ * {@link #carChanged(int)} updates one car in place: its own list is recomputed, cars that listed
+ * it are recomputed, and cars it is now close enough to join are found with the same bounded
+ * walk. Neighbour lists are immutable arrays swapped into a concurrent map, so lookups never lock.
+ * The whole index is rebuilt in the background every {@code reloadMs}, as {@link ReloadingIndex}
+ * describes.
+ */
+public class SimilarCarIndex {
+
+    /** Neighbours kept per car; enough that a few being booked still leaves alternatives. */
+    public static final int NEIGHBOURS = 20;
+
+    public static final long RELOAD_MS = 5 * 60_000;
+
+    private static final double FUEL_WEIGHT = 3.0;
+    private static final double TRANSMISSION_WEIGHT = 2.0;
+    private static final double SEAT_WEIGHT = 1.0;   // per seat of difference
+    private static final double PRICE_WEIGHT = 4.0;  // per unit of |ln(price ratio)|, ~0.9 for 25% apart
+    private static final double FAMILY_WEIGHT = 1.0;
+    private static final double COLOR_WEIGHT = 0.5;
+
+    private final ReloadingIndex<State> state;
+
+    public SimilarCarIndex() {
+        this(DAOFactory.getCarDAO());
+    }
+
+    public SimilarCarIndex(CarDAO carDAO) {
+        this(carDAO, RELOAD_MS);
+    }
+
+    public SimilarCarIndex(CarDAO carDAO, long reloadMs) {
+        this.state = new ReloadingIndex<>("similar-cars", carDAO, reloadMs, new ReloadingIndex.Builder<State>() {
+            @Override
+            public State build(List<Car> cars) {
+                return SimilarCarIndex.build(cars);
+            }
+
+            @Override
+            public void update(State s, int carId, Car car) {
+                s.upsert(carId, car);
+            }
+        });
+    }
+
+    /**
+     * Up to {@code k} currently available cars most similar to {@code carId}, most similar first.
+     * Only the precomputed neighbours are considered, so at most {@link #NEIGHBOURS}.
+     */
+    public List<Car> alternatives(int carId, int k) {
+        State s = state.current();
+        List<Car> result = new ArrayList<>();
+        Neighbours n = s.neighbours.get(carId);
+        if (n == null) return result;
+        for (int i = 0; i < n.ids.length && result.size() < k; i++) {
+            Entry e = s.entries.get(n.ids[i]);
+            if (e != null && e.available) result.add(e.car);
+        }
+        return result;
+    }
+
+    /** @return the precomputed neighbour ids of the car, most similar first */
+    public int[] neighbourIds(int carId) {
+        Neighbours n = state.current().neighbours.get(carId);
+        return n == null ? new int[0] : n.ids.clone();
+    }
+
+    /** Re-reads one car after it was added, edited, booked, released or deleted. */
+    public void carChanged(int carId) {
+        state.carChanged(carId);
+    }
+
+    /** Drops the index so the next lookup rebuilds it from the DAO. */
+    public void invalidate() {
+        state.invalidate();
+    }
+
+    private static State build(List<Car> cars) {
+        State s = new State();
+        for (Car car : cars) s.insert(new Entry(car));
+        s.sortGroups();
+        Entry[] all = s.entries.values().toArray(new Entry[0]);
+        Neighbours[] lists = new Neighbours[all.length];
+        // Nothing is inserted from here on, so the searches can run side by side.
+        IntStream.range(0, all.length).parallel().forEach(i -> lists[i] = s.search(all[i]));
+        for (int i = 0; i < all.length; i++) s.setNeighbours(all[i], lists[i]);
+        return s;
+    }
+
+    /** Penalty for fuel, transmission and seats; the same for any two cars of two groups. */
+    private static double groupPenalty(Entry a, Entry b) {
+        double d = SEAT_WEIGHT * Math.abs(a.seats - b.seats);
+        if (!a.fuel.equals(b.fuel)) d += FUEL_WEIGHT;
+        if (!a.transmission.equals(b.transmission)) d += TRANSMISSION_WEIGHT;
+        return d;
+    }
+
+    /** Penalty for model family and color, on top of the group's. */
+    private static double bucketPenalty(Entry a, Entry b) {
+        double d = 0;
+        if (!a.family.equals(b.family)) d += FAMILY_WEIGHT;
+        if (!a.color.equals(b.color)) d += COLOR_WEIGHT;
+        return d;
+    }
+
+    private static double pricePenalty(Entry a, Entry b) {
+        return PRICE_WEIGHT * Math.abs(a.logPrice - b.logPrice);
+    }
+
+    private static String norm(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** A car as the index sees it. */
+    private static final class Entry {
+        final Car car;
+        final int id;
+        final String fuel, transmission, color, family;
+        final String group, bucket;
+        final int seats;
+        final double logPrice;
+        final boolean available;
+
+        Entry(Car car) {
+            this.car = car;
+            this.id = car.getId();
+            this.fuel = norm(car.getFuelType());
+            this.transmission = norm(car.getTransmission());
+            this.color = norm(car.getColor());
+            String model = norm(car.getModel());
+            int space = model.indexOf(' ');
+            this.family = space < 0 ? model : model.substring(0, space);
+            this.seats = car.getSeatingCapacity();
+            this.logPrice = Math.log(Math.max(1, car.getRentalPrice()));
+            this.available = "available".equalsIgnoreCase(car.getStatus());
+            this.group = fuel + '|' + transmission + '|' + seats;
+            this.bucket = family + '|' + color;
+        }
+
+        boolean samePlaceAs(Entry other) {
+            return group.equals(other.group) && bucket.equals(other.bucket) && logPrice == other.logPrice;
+        }
+    }
+
+    /** One car's neighbours, most similar first; never modified once published. */
+    private static final class Neighbours {
+        static final Neighbours NONE = new Neighbours(new int[0], new double[0]);
+
+        final int[] ids;
+        final double[] distances;
+
+        Neighbours(int[] ids, double[] distances) {
+            this.ids = ids;
+            this.distances = distances;
+        }
+
+        /** Distance a newcomer has to beat to get in. */
+        double threshold() {
+            return ids.length < NEIGHBOURS ? Double.POSITIVE_INFINITY : distances[ids.length - 1];
+        }
+
+        boolean contains(int id) {
+            for (int n : ids) if (n == id) return true;
+            return false;
+        }
+    }
+
+    /** Cars alike in everything but price, ascending by price. */
+    private static final class Bucket {
+        final Entry sample;
+        final List<Entry> byPrice = new ArrayList<>();
+        /** Upper bound on the threshold of any car in here; only grows until the next rebuild. */
+        double maxThreshold;
+
+        Bucket(Entry sample) {
+            this.sample = sample;
+        }
+
+        /** Index of the first entry priced at or above {@code logPrice}. */
+        int lowerBound(double logPrice) {
+            int lo = 0, hi = byPrice.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (byPrice.get(mid).logPrice < logPrice) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private int indexOf(Entry e) {
+            for (int i = lowerBound(e.logPrice); i < byPrice.size(); i++) {
+                if (byPrice.get(i).id == e.id) return i;
+            }
+            return -1;
+        }
+
+        void add(Entry e) {
+            byPrice.add(lowerBound(e.logPrice), e);
+        }
+
+        void remove(Entry e) {
+            int i = indexOf(e);
+            if (i >= 0) byPrice.remove(i);
+        }
+
+        /** Swaps in a newer entry for the same car at the same price. */
+        void replace(Entry e) {
+            int i = indexOf(e);
+            if (i >= 0) byPrice.set(i, e);
+        }
+    }
+
+    /** Buckets of one fuel/transmission/seats combination. */
+    private static final class Group {
+        final Entry sample;
+        final Map<String, Bucket> buckets = new HashMap<>();
+        /** Every group, nearest first; refreshed by {@link State#sortGroups()}. */
+        Group[] nearestFirst;
+
+        Group(Entry sample) {
+            this.sample = sample;
+        }
+    }
+
+    /** The k nearest entries seen so far, kept sorted by insertion (k is small). */
+    private static final class TopK {
+        final int[] ids = new int[NEIGHBOURS];
+        final double[] distances = new double[NEIGHBOURS];
+        int found;
+
+        double bound() {
+            return found < NEIGHBOURS ? Double.POSITIVE_INFINITY : distances[NEIGHBOURS - 1];
+        }
+
+        void offer(int id, double d) {
+            if (found == NEIGHBOURS && (d > distances[NEIGHBOURS - 1]
+                    || d == distances[NEIGHBOURS - 1] && id > ids[NEIGHBOURS - 1])) return;
+            int i = found == NEIGHBOURS ? NEIGHBOURS - 1 : found++;
+            while (i > 0 && (distances[i - 1] > d || distances[i - 1] == d && ids[i - 1] > id)) {
+                ids[i] = ids[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            ids[i] = id;
+            distances[i] = d;
+        }
+
+        Neighbours toNeighbours() {
+            return new Neighbours(Arrays.copyOf(ids, found), Arrays.copyOf(distances, found));
+        }
+    }
+
+    /** The indexed fleet; mutated only under the owning index's lock. */
+    private static final class State {
+        final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+        final Map<Integer, Neighbours> neighbours = new ConcurrentHashMap<>();
+        final Map<String, Group> groups = new HashMap<>();
+        /** Car id -> cars whose neighbour list contains it. */
+        final Map<Integer, Set<Integer>> listedBy = new HashMap<>();
+
+        /** @return whether a new group had to be created */
+        boolean insert(Entry e) {
+            entries.put(e.id, e);
+            Group g = groups.get(e.group);
+            boolean created = g == null;
+            if (created) {
+                g = new Group(e);
+                groups.put(e.group, g);
+            }
+            g.buckets.computeIfAbsent(e.bucket, k -> new Bucket(e)).add(e);
+            return created;
+        }
+
+        /** @return whether the car's group is gone now */
+        boolean delete(Entry e) {
+            entries.remove(e.id);
+            Group g = groups.get(e.group);
+            Bucket b = g.buckets.get(e.bucket);
+            b.remove(e);
+            if (!b.byPrice.isEmpty()) return false;
+            g.buckets.remove(e.bucket);
+            if (!g.buckets.isEmpty()) return false;
+            groups.remove(e.group);
+            return true;
+        }
+
+        void sortGroups() {
+            Group[] all = groups.values().toArray(new Group[0]);
+            for (Group g : all) {
+                Group[] order = all.clone();
+                Arrays.sort(order, Comparator.comparingDouble(o -> groupPenalty(g.sample, o.sample)));
+                g.nearestFirst = order;
+            }
+        }
+
+        /** Exact top-{@link #NEIGHBOURS} of {@code e} among the other cars. */
+        Neighbours search(Entry e) {
+            TopK top = new TopK();
+            for (Group g : groups.get(e.group).nearestFirst) {
+                double groupPenalty = groupPenalty(e, g.sample);
+                if (groupPenalty > top.bound()) break;
+                // The car's own kind first, so the bound tightens before the others are tried.
+                Bucket same = g.buckets.get(e.bucket);
+                if (same != null) walk(e, same, groupPenalty, top);
+                for (Bucket b : g.buckets.values()) {
+                    if (b != same) walk(e, b, groupPenalty + bucketPenalty(e, b.sample), top);
+                }
+            }
+            return top.toNeighbours();
+        }
+
+        private static void walk(Entry e, Bucket b, double penalty, TopK top) {
+            if (penalty > top.bound()) return;
+            List<Entry> row = b.byPrice;
+            int up = b.lowerBound(e.logPrice), down = up - 1;
+            while (up < row.size() || down >= 0) {
+                // Take whichever side is closer in price; stop once neither can beat the bound.
+                boolean takeUp = down < 0 || up < row.size()
+                        && row.get(up).logPrice - e.logPrice <= e.logPrice - row.get(down).logPrice;
+                Entry c = takeUp ? row.get(up++) : row.get(down--);
+                double d = penalty + pricePenalty(e, c);
+                if (d > top.bound()) break;
+                if (c.id != e.id) top.offer(c.id, d);
+            }
+        }
+
+        void setNeighbours(Entry e, Neighbours fresh) {
+            Neighbours old = neighbours.put(e.id, fresh);
+            if (old != null) for (int id : old.ids) unlist(id, e.id);
+            for (int id : fresh.ids) listedBy.computeIfAbsent(id, k -> new HashSet<>()).add(e.id);
+            Bucket b = groups.get(e.group).buckets.get(e.bucket);
+            b.maxThreshold = Math.max(b.maxThreshold, fresh.threshold());
+        }
+
+        private void unlist(int id, int by) {
+            Set<Integer> s = listedBy.get(id);
+            if (s == null) return;
+            s.remove(by);
+            if (s.isEmpty()) listedBy.remove(id);
+        }
+
+        void upsert(int carId, Car car) {
+            Entry old = entries.get(carId);
+            Entry fresh = car == null ? null : new Entry(car);
+
+            // Only availability changed: every distance is the same, the lists stay valid.
+            if (old != null && fresh != null && old.samePlaceAs(fresh)) {
+                groups.get(fresh.group).buckets.get(fresh.bucket).replace(fresh);
+                entries.put(carId, fresh);
+                return;
+            }
+
+            boolean groupsChanged = old != null && delete(old);
+            if (fresh != null) groupsChanged |= insert(fresh);
+            if (groupsChanged) sortGroups();
+
+            List<Integer> stale = new ArrayList<>(listedBy.getOrDefault(carId, Collections.emptySet()));
+            if (fresh == null) {
+                Neighbours gone = neighbours.remove(carId);
+                if (gone != null) for (int id : gone.ids) unlist(id, carId);
+                listedBy.remove(carId);
+            } else {
+                setNeighbours(fresh, search(fresh));
+                joinNeighbourLists(fresh);
+            }
+            // Cars that listed it may now have it farther away, or gone: recompute them.
+            for (int id : stale) {
+                Entry e = entries.get(id);
+                if (e != null) setNeighbours(e, search(e));
+            }
+        }
+
+        /** Adds {@code e} to the list of every car it is now closer to than that car's k-th. */
+        private void joinNeighbourLists(Entry e) {
+            for (Group g : groups.values()) {
+                double groupPenalty = groupPenalty(e, g.sample);
+                for (Bucket b : g.buckets.values()) {
+                    double penalty = groupPenalty + bucketPenalty(e, b.sample);
+                    if (penalty > b.maxThreshold) continue;
+                    List<Entry> row = b.byPrice;
+                    int start = b.lowerBound(e.logPrice);
+                    for (int i = start; i < row.size(); i++) {
+                        if (penalty + pricePenalty(e, row.get(i)) > b.maxThreshold) break;
+                        offer(row.get(i), e, penalty);
+                    }
+                    for (int i = start - 1; i >= 0; i--) {
+                        if (penalty + pricePenalty(e, row.get(i)) > b.maxThreshold) break;
+                        offer(row.get(i), e, penalty);
+                    }
+                }
+            }
+        }
+
+        private void offer(Entry c, Entry e, double penalty) {
+            if (c.id == e.id) return;
+            Neighbours n = neighbours.getOrDefault(c.id, Neighbours.NONE);
+            double d = penalty + pricePenalty(c, e);
+            if (d > n.threshold() || n.contains(e.id)) return;
+            TopK top = new TopK();
+            for (int i = 0; i < n.ids.length; i++) top.offer(n.ids[i], n.distances[i]);
+            top.offer(e.id, d);
+            setNeighbours(c, top.toNeighbours());
+        }
+    }
+}
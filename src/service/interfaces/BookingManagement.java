@@ -0,0 +1,6 @@
+package service.interfaces;
+
+public interface BookingManagement {
+    boolean bookCar(int userId, int carId, String startDate, String endDate);
+    boolean cancelBooking(int bookingId);
+}
@@ -0,0 +1,13 @@
+package service.interfaces;
+
+import model.Car;
+import model.CarFilter;
+
+import java.util.List;
+
+public interface CarBrowsing {
+    List<Car> filterByBrand(String brand);
+    List<Car> filterByColor(String color);
+    List<Car> filterAvailableCars();
+    List<Car> filter(CarFilter filter);
+}
@@ -0,0 +1,13 @@
+package service.interfaces;
+
+import service.impl.AvailabilityDispatcher.Notification;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Where availability notifications go; one call per matched batch. */
+public interface NotificationSink {
+
+    /** @throws IOException if the batch could not be delivered; the dispatcher then retries it */
+    void deliver(List<Notification> batch) throws IOException;
+}
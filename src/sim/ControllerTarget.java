@@ -0,0 +1,112 @@
+package sim;
+
+import controller.AuthenticationController;
+import controller.BookingController;
+import controller.CarController;
+import dao.DAOFactory;
+import model.Booking;
+import model.Car;
+import service.impl.CarFilterManager;
+import util.Srent_DB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Drives the controllers exactly as the desktop panels call them, against the MySQL
+ * database configured in {@link Srent_DB}.
+ * <p>
+ * Logins go through {@link AuthenticationController#authenticate}, the same check
+ * {@code login()} runs, because {@code login()} also writes the process-wide
+ * {@code Session} that all simulated users would otherwise overwrite.
+ */
+class ControllerTarget implements Target {
+
+    /** Shared, slightly stale view of the fleet, like the list a customer has open. */
+    private final CarFilterManager fleet = new CarFilterManager(DAOFactory.getCarDAO(), 2_000);
+
+    /** Bookings with an id above this were made during the run. */
+    private final int firstRunBookingId;
+
+    ControllerTarget() {
+        firstRunBookingId = queryInt("SELECT COALESCE(MAX(booking_id), 0) FROM Booking") + 1;
+    }
+
+    @Override
+    public int login(String username, String password) {
+        AuthenticationController.LoginResult result = AuthenticationController.authenticate(username, password);
+        return result.getRole() == AuthenticationController.UserRole.UNKNOWN ? -1 : result.getUserId();
+    }
+
+    @Override
+    public int search(Query q) {
+        return CarController.filterCars(q.minRent, q.maxRent, null, null,
+                q.fuelType, q.transmission, q.minSeats, q.maxSeats).size();
+    }
+
+    @Override
+    public List<Car> availableCars() {
+        return fleet.filterAvailableCars();
+    }
+
+    /** Same booking call as {@code BookingPanel}. */
+    @Override
+    public BookingOutcome book(int userId, Car car, String startDate, String endDate, double amount) {
+        int bookingId = BookingController.bookIfAvailable(userId, car.getId(), startDate, endDate,
+                0.0, amount, "self", 0, startDate);
+        if (bookingId == 0) return BookingOutcome.CONFLICT;
+        if (bookingId < 0) return BookingOutcome.FAILED;
+        fleet.invalidate();
+        return BookingOutcome.CONFIRMED;
+    }
+
+    @Override
+    public int cancellableBooking(int userId) {
+        for (Booking b : BookingController.getBookingsByUserAsObjects(userId)) {
+            if ("confirmed".equals(b.getStatus())) return b.getBookingId();
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean cancel(int bookingId) {
+        boolean ok = BookingController.cancelBooking(bookingId);
+        if (ok) fleet.invalidate();
+        return ok;
+    }
+
+    @Override
+    public int listActiveBookings() {
+        return BookingController.getActiveBookings().size();
+    }
+
+    @Override
+    public int countOverlappingBookings() {
+        return queryInt("SELECT COUNT(*) FROM reserves r1 " +
+                "JOIN reserves r2 ON r1.car_id = r2.car_id AND r1.booking_id < r2.booking_id " +
+                "JOIN Booking b1 ON b1.booking_id = r1.booking_id " +
+                "JOIN Booking b2 ON b2.booking_id = r2.booking_id " +
+                "WHERE b1.booking_status = 'confirmed' AND b2.booking_status = 'confirmed' " +
+                "AND b1.start_date <= b2.end_date AND b2.start_date <= b1.end_date " +
+                "AND r2.booking_id >= " + firstRunBookingId);
+    }
+
+    @Override
+    public String describe() {
+        return "controllers over MySQL";
+    }
+
+    private static int queryInt(String sql) {
+        try (Connection conn = Srent_DB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+}
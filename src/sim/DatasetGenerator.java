@@ -0,0 +1,547 @@
+package sim;
+
+import util.CardFingerprint;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeded, deterministic generator for scale-testing datasets in the schema of
+ * {@code src/util/DDL}: users with their admin/customer rows, cards, shared vehicle
+ * specifications, cars, bookings and every bridge table.
+ * <p>
+ * Every attribute of a user, card or car is a hash of {@code (seed, table, id)}, so the same
+ * settings always produce byte-identical files and independent tables are written in parallel.
+ * Bookings are simulated day by day over the history and advance-booking window: daily volume
+ * follows a seasonal and weekday curve, cars are drawn by model popularity, a car is never
+ * confirmed twice for the same day, and about one booking in eight is cancelled.
+ * {@code gen.bookings} is the demand: requests that find no free car in peak season are
+ * dropped and counted, so a fleet that is too small for it writes fewer rows.
+ * <p>
+ * Output formats ({@code gen.format}):
+ * <ul>
+ *   <li>{@code sql}: one file per table with multi-row {@code INSERT}s and a {@code load.sql}
+ *       that sources them ({@code cd out && mysql srent < load.sql})</li>
+ *   <li>{@code tsv}: one file per table and a {@code load.sql} of {@code LOAD DATA LOCAL INFILE}
+ *       statements (the fastest way into MySQL; needs {@code --local-infile=1})</li>
+ *   <li>{@code bin}: typed binary rows that {@link InMemoryTarget} loads with
+ *       {@code -Dsim.memory.dataset=dir}</li>
+ * </ul>
+ * Settings come from an optional properties file given as the first argument, overridden by
+ * {@code -Dgen.*} system properties: {@code gen.out} (dataset), {@code gen.format} (sql),
+ * {@code gen.seed} (42), {@code gen.users} (100000), {@code gen.adminShare} (0.002),
+ * {@code gen.cars} (10000), {@code gen.bookings} (1000000), {@code gen.today} (2026-01-01),
+ * {@code gen.historyDays} (730), {@code gen.futureDays} (120), {@code gen.rowsPerInsert}
+ * (1000), {@code gen.gzip} (false).
+ */
+public class DatasetGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Ahmet", "Ayse", "Mehmet", "Elif", "Mustafa", "Zeynep", "Emre", "Selin", "Can", "Deniz",
+            "John", "Mary", "Michael", "Sarah", "David", "Emma", "James", "Olivia", "Daniel", "Sofia",
+            "Luca", "Giulia", "Lukas", "Anna", "Pierre", "Camille", "Javier", "Lucia", "Kenji", "Yuki",
+            "Wei", "Li", "Omar", "Leila", "Ivan", "Nina", "Mateo", "Valentina", "Noah", "Mia"};
+    private static final String[] LAST_NAMES = {
+            "Yilmaz", "Kaya", "Demir", "Sahin", "Celik", "Yildiz", "Aydin", "Ozturk", "Arslan", "Dogan",
+            "Smith", "Johnson", "Brown", "Garcia", "Miller", "Davis", "Wilson", "Taylor", "Moore", "Clark",
+            "Rossi", "Bianchi", "Muller", "Schmidt", "Martin", "Bernard", "Fernandez", "Lopez", "Tanaka", "Sato",
+            "Wang", "Chen", "Haddad", "Novak", "Ivanov", "Petrov", "Silva", "Santos", "Kim", "Park"};
+    private static final String[] OCCUPATIONS = {
+            "Software Engineer", "Teacher", "Nurse", "Accountant", "Sales Manager", "Student", "Doctor",
+            "Graphic Designer", "Civil Engineer", "Lawyer", "Data Analyst", "Electrician", "Journalist",
+            "Project Manager", "Architect", "Pharmacist", "Consultant", "Chef", "Retired", "Entrepreneur"};
+    private static final String[] STREETS = {
+            "Ataturk Cd.", "Istiklal Cd.", "Cumhuriyet Sk.", "Main St.", "Oak Ave.", "Station Rd.",
+            "Via Roma", "Hauptstrasse", "Rue de la Paix", "Gran Via", "Bagdat Cd.", "Park Ln."};
+    private static final String[] CITIES = {
+            "Istanbul", "Ankara", "Izmir", "Antalya", "Bursa", "London", "Berlin", "Rome", "Paris", "Madrid"};
+    private static final double[] CITY_WEIGHTS = {30, 14, 10, 8, 6, 8, 7, 6, 6, 5};
+    private static final String[] DOMAINS = {"gmail.com", "outlook.com", "yahoo.com", "hotmail.com", "icloud.com", "proton.me"};
+
+    /* Spec attributes, in the order specification ids are assigned. */
+    private static final String[] COLORS = {
+            "White", "Black", "Grey", "Silver", "Blue", "Red", "Navy", "Green", "Beige", "Brown", "Orange", "Yellow"};
+    private static final double[] COLOR_WEIGHTS = {28, 18, 16, 12, 7, 6, 4, 3, 2, 2, 1, 1};
+    private static final String[] FUELS = {"petrol", "diesel", "hybrid", "gasoline"};
+    private static final String[] TRANSMISSIONS = {"automatic", "manual"};
+    private static final int[] SEATS = {2, 4, 5, 7, 9};
+
+    /** Fleet models: share of the fleet, relative demand per car, base rent and typical layout. */
+    private static final Model[] MODELS = {
+            new Model("Fiat Egea", 14, 1.4, 32, 5, "petrol,diesel", 0.3),
+            new Model("Renault Clio", 12, 1.5, 34, 5, "petrol,diesel", 0.4),
+            new Model("Toyota Corolla", 10, 1.3, 42, 5, "hybrid,petrol", 0.9),
+            new Model("Volkswagen Polo", 8, 1.1, 38, 5, "petrol", 0.5),
+            new Model("Hyundai i20", 7, 1.0, 33, 5, "petrol", 0.4),
+            new Model("Dacia Duster", 6, 1.2, 45, 5, "diesel,petrol", 0.3),
+            new Model("Peugeot 3008", 5, 1.0, 58, 5, "diesel,hybrid", 0.9),
+            new Model("Ford Focus", 5, 0.8, 40, 5, "petrol,diesel", 0.5),
+            new Model("Volkswagen Passat", 4, 0.9, 65, 5, "diesel", 1.0),
+            new Model("Toyota C-HR", 4, 1.1, 55, 5, "hybrid", 1.0),
+            new Model("Ford Transit Custom", 3, 0.7, 80, 9, "diesel", 0.2),
+            new Model("Volkswagen Caddy", 3, 0.8, 60, 7, "diesel", 0.3),
+            new Model("BMW 3 Series", 3, 0.9, 95, 5, "petrol,diesel", 1.0),
+            new Model("Mercedes C-Class", 3, 0.9, 105, 5, "petrol,diesel,hybrid", 1.0),
+            new Model("Mercedes Vito", 2, 0.6, 110, 9, "diesel", 1.0),
+            new Model("Fiat 500", 3, 0.9, 30, 4, "petrol,gasoline", 0.2),
+            new Model("Mini Cooper", 2, 0.8, 62, 4, "petrol", 0.8),
+            new Model("Mazda MX-5", 1, 1.3, 85, 2, "petrol", 0.3),
+            new Model("Audi A6", 1, 0.6, 130, 5, "diesel,hybrid", 1.0),
+            new Model("Porsche 911", 1, 0.5, 290, 2, "petrol", 1.0),
+    };
+
+    /* Seasonal booking volume by month (Jan..Dec) and by start weekday (Mon..Sun). */
+    private static final double[] MONTH_WEIGHTS = {0.6, 0.6, 0.8, 1.0, 1.1, 1.5, 2.1, 2.2, 1.3, 1.0, 0.7, 1.1};
+    private static final double[] WEEKDAY_WEIGHTS = {0.8, 0.8, 0.9, 1.0, 1.5, 1.3, 0.7};
+
+    private static final int SALT_USER = 1, SALT_CARD = 2, SALT_CAR = 3, SALT_BOOKING = 4;
+
+    private final Settings s;
+    private final int admins;
+    private final int today;
+
+    private DatasetGenerator(Settings settings) {
+        this.s = settings;
+        this.admins = Math.max(1, (int) Math.round(settings.users * settings.adminShare));
+        this.today = (int) settings.today.toEpochDay();
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Card rows are fingerprinted with the deployment's key, so fail before writing anything.
+        CardFingerprint.requireKey();
+        Properties props = new Properties();
+        if (args.length > 0) {
+            try (InputStream in = new FileInputStream(args[0])) {
+                props.load(in);
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("gen.")) props.setProperty(key, System.getProperty(key));
+        }
+        new DatasetGenerator(new Settings(props)).generate();
+    }
+
+    void generate() throws Exception {
+        long started = System.nanoTime();
+        Files.createDirectories(s.out);
+        System.out.printf("Generating %,d users (%,d admins), %,d cars, ~%,d bookings as %s into %s (seed %d)%n",
+                s.users, admins, s.cars, s.bookings, s.format, s.out.toAbsolutePath(), s.seed);
+
+        List<String> loadOrder = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors())));
+        try {
+            Future<List<String>> people = pool.submit(this::writePeople);
+            Future<List<String>> cards = pool.submit(this::writeCards);
+            Future<List<String>> fleet = pool.submit(this::writeFleetAndBookings);
+            loadOrder.addAll(people.get());
+            loadOrder.addAll(cards.get());
+            loadOrder.addAll(fleet.get());
+        } finally {
+            pool.shutdown();
+        }
+
+        if (!s.format.equals("bin")) {
+            List<String> script = new ArrayList<>();
+            script.add("-- Generated by sim.DatasetGenerator, seed " + s.seed + ". Run from this directory on an empty schema.");
+            if (s.gzip) script.add("-- Unpack first: gunzip *." + s.format + ".gz");
+            script.addAll(loadOrder);
+            Files.write(s.out.resolve("load.sql"), script, StandardCharsets.UTF_8);
+        }
+        System.out.printf("Done in %.1f s%n", (System.nanoTime() - started) / 1e9);
+    }
+
+    /* ---------- users, admins, customers ---------- */
+
+    private List<String> writePeople() throws IOException {
+        List<String> load = new ArrayList<>();
+        try (TableWriter user = open("User", "user_id", "first_name", "last_name", "username", "password",
+                "gender", "email", "address", "created_at");
+             TableWriter admin = open("Admin", "user_id", "salary");
+             TableWriter customer = open("Customer", "user_id", "occupation")) {
+            // Sign-ups spread over the year before the booking history and the history itself.
+            int firstSignUp = today - s.historyDays - 365;
+            int signUpSpan = s.historyDays + 365;
+            StringBuilder sb = new StringBuilder(64);
+            for (int id = 1; id <= s.users; id++) {
+                String first = firstName(id);
+                String last = lastName(id);
+                long h = hash(SALT_USER, id, 3);
+                double g = unit(SALT_USER, id, 4);
+
+                sb.setLength(0);
+                sb.append(Character.toLowerCase(first.charAt(0))).append(last.toLowerCase(Locale.ROOT)).append(id);
+                String username = sb.toString();
+                sb.setLength(0);
+                sb.append(first.toLowerCase(Locale.ROOT)).append('.').append(last.toLowerCase(Locale.ROOT)).append(id)
+                        .append('@').append(DOMAINS[(int) Long.remainderUnsigned(h, DOMAINS.length)]);
+                String email = sb.toString();
+                String address = (1 + Long.remainderUnsigned(h >>> 8, 240)) + " " + STREETS[(int) Long.remainderUnsigned(h >>> 20, STREETS.length)]
+                        + ", " + CITIES[weighted(CITY_WEIGHTS, unit(SALT_USER, id, 5))];
+                int signUpDay = firstSignUp + (int) ((long) signUpSpan * (id - 1) / s.users);
+                long second = Long.remainderUnsigned(h >>> 32, 86_400);
+                String createdAt = TableWriter.Dates.format(signUpDay) + String.format(" %02d:%02d:%02d",
+                        second / 3600, second / 60 % 60, second % 60);
+
+                user.num(id).str(first).str(last).str(username).str(password(id))
+                        .str(g < 0.48 ? "F" : g < 0.96 ? "M" : "X").str(email).str(address).str(createdAt).end();
+                if (id <= admins) {
+                    admin.num(id).money(6000 + Long.remainderUnsigned(h >>> 40, 61) * 100).end();
+                } else {
+                    customer.num(id).str(OCCUPATIONS[(int) Long.remainderUnsigned(h >>> 44, OCCUPATIONS.length)]).end();
+                }
+            }
+            load.add(user.loadStatement(fileName("User")));
+            load.add(admin.loadStatement(fileName("Admin")));
+            load.add(customer.loadStatement(fileName("Customer")));
+            report(user, admin, customer);
+        }
+        return load;
+    }
+
+    /* ---------- cards ---------- */
+
+    private List<String> writeCards() throws IOException {
+        List<String> load = new ArrayList<>();
+        try (TableWriter card = open("Card", "card_id", "card_brand", "card_fingerprint", "card_last4");
+             TableWriter brings = open("brings", "user_id", "card_id", "exp_date", "name_on_card")) {
+            // Brand: Visa 45%, Mastercard 35%, Troy 12%, Maestro 8%.
+            String[] brands = {"Visa", "Mastercard", "Troy", "Maestro"};
+            String[] bins = {"454360", "542119", "979212", "675912"};
+            double[] brandWeights = {45, 35, 12, 8};
+            char[] digits = new char[16];
+            long cardId = 0;
+            for (int userId = admins + 1; userId <= s.users; userId++) {
+                double u = unit(SALT_CARD, userId, 0);
+                int count = u < 0.25 ? 0 : u < 0.85 ? 1 : 2;
+                for (int k = 0; k < count; k++) {
+                    cardId++;
+                    int brand = weighted(brandWeights, unit(SALT_CARD, cardId, 1));
+                    // BIN + 9 digits unique per card id (odd multiplier coprime with 10^9) + Luhn digit.
+                    long account = cardId * 48_271L % 1_000_000_000L;
+                    bins[brand].getChars(0, 6, digits, 0);
+                    for (int i = 14; i >= 6; i--) {
+                        digits[i] = (char) ('0' + account % 10);
+                        account /= 10;
+                    }
+                    digits[15] = luhnDigit(digits);
+                    String number = new String(digits);
+                    int expiry = today + 30 + (int) Long.remainderUnsigned(hash(SALT_CARD, cardId, 3), 5 * 365);
+                    LocalDate exp = LocalDate.ofEpochDay(expiry);
+                    exp = exp.withDayOfMonth(exp.lengthOfMonth());
+
+                    card.num(cardId).str(brands[brand]).str(CardFingerprint.of(number))
+                            .str(CardFingerprint.lastFour(number)).end();
+                    brings.num(userId).num(cardId).date((int) exp.toEpochDay())
+                            .str((firstName(userId) + " " + lastName(userId)).toUpperCase(Locale.ROOT)).end();
+                }
+            }
+            load.add(card.loadStatement(fileName("Card")));
+            load.add(brings.loadStatement(fileName("brings")));
+            report(card, brings);
+        }
+        return load;
+    }
+
+    /* ---------- fleet and bookings ---------- */
+
+    private List<String> writeFleetAndBookings() throws IOException {
+        List<String> load = new ArrayList<>();
+        int n = s.cars;
+        int[] model = new int[n + 1];
+        int[] spec = new int[n + 1];
+        double[] rent = new double[n + 1];
+        int[] mileage = new int[n + 1];
+        double[] demand = new double[n + 1];
+
+        double[] shares = new double[MODELS.length];
+        for (int m = 0; m < MODELS.length; m++) shares[m] = MODELS[m].share;
+        for (int id = 1; id <= n; id++) {
+            Model m = MODELS[model[id] = weighted(shares, unit(SALT_CAR, id, 0))];
+            String[] fuels = m.fuels.split(",");
+            int fuel = indexOf(FUELS, fuels[(int) Long.remainderUnsigned(hash(SALT_CAR, id, 1), fuels.length)]);
+            int trans = unit(SALT_CAR, id, 2) < m.automaticShare ? 0 : 1;
+            int color = weighted(COLOR_WEIGHTS, unit(SALT_CAR, id, 3));
+            spec[id] = specId(color, fuel, trans, indexOf(SEATS, m.seats));
+            rent[id] = Math.round(m.baseRent * (0.9 + 0.25 * unit(SALT_CAR, id, 4)) * 2) / 2.0;
+            mileage[id] = 2_000 + (int) (unit(SALT_CAR, id, 5) * 90_000);
+            demand[id] = m.demand * (0.7 + 0.6 * unit(SALT_CAR, id, 6));
+        }
+
+        BitSet rentedToday = new BitSet(n + 1);
+        long[] outcome = writeBookings(load, model, rent, mileage, demand, rentedToday);
+
+        try (TableWriter specs = open("VehicleSpecification", "specification_id", "color", "fuel_type",
+                "transmission_type", "seating_capacity");
+             TableWriter car = open("Car", "car_id", "model", "daily_rent", "deposit", "mileage", "vehicle_status");
+             TableWriter has = open("has", "car_id", "specification_id");
+             TableWriter manages = open("manages", "user_id", "car_id")) {
+            for (int c = 0; c < COLORS.length; c++)
+                for (int f = 0; f < FUELS.length; f++)
+                    for (int t = 0; t < TRANSMISSIONS.length; t++)
+                        for (int seats = 0; seats < SEATS.length; seats++)
+                            specs.num(specId(c, f, t, seats)).str(COLORS[c]).str(FUELS[f]).str(TRANSMISSIONS[t]).num(SEATS[seats]).end();
+            for (int id = 1; id <= n; id++) {
+                double u = unit(SALT_CAR, id, 7);
+                String status = rentedToday.get(id) ? "rented" : u < 0.03 ? "service" : u < 0.04 ? "retired" : "available";
+                car.num(id).str(MODELS[model[id]].name).money(rent[id]).money(rent[id] * 5).num(mileage[id]).str(status).end();
+                has.num(id).num(spec[id]).end();
+                manages.num(1 + (id - 1) % admins).num(id).end();
+            }
+            // Cars and specs must exist before the bookings that reference them.
+            load.add(0, manages.loadStatement(fileName("manages")));
+            load.add(0, has.loadStatement(fileName("has")));
+            load.add(0, car.loadStatement(fileName("Car")));
+            load.add(0, specs.loadStatement(fileName("VehicleSpecification")));
+            report(specs, car, has, manages);
+        }
+        System.out.printf("  bookings: %,d turned away (no free car), %,d cancelled, %,d active today%n",
+                outcome[0], outcome[1], rentedToday.cardinality());
+        return load;
+    }
+
+    /** @return {turned away, cancelled} */
+    private long[] writeBookings(List<String> load, int[] model, double[] rent, int[] mileage,
+                                 double[] demand, BitSet rentedToday) throws IOException {
+        int n = s.cars;
+        double[] cumulative = new double[n + 1];
+        for (int id = 1; id <= n; id++) cumulative[id] = cumulative[id - 1] + demand[id];
+        int[] busyUntil = new int[n + 1];
+        int firstDay = today - s.historyDays;
+        int lastDay = today + s.futureDays;
+
+        double totalWeight = 0;
+        for (int day = firstDay; day <= lastDay; day++) totalWeight += dayWeight(day);
+        int customers = s.users - admins;
+
+        long bookingId = 0, turnedAway = 0, cancelled = 0;
+        double carry = 0;
+        try (TableWriter booking = open("Booking", "booking_id", "start_date", "end_date", "booking_status",
+                "secure_deposit", "amount", "drive_option", "reading", "date_out");
+             TableWriter makes = open("makes", "user_id", "booking_id");
+             TableWriter reserves = open("reserves", "booking_id", "car_id")) {
+            for (int day = firstDay; day <= lastDay; day++) {
+                double expected = s.bookings * dayWeight(day) / totalWeight + carry;
+                int count = (int) expected;
+                carry = expected - count;
+                for (int k = 0; k < count; k++) {
+                    long key = (long) (day - firstDay) << 24 | k;
+                    int days = 1 + Math.min(29, (int) (-Math.log(1 - unit(SALT_BOOKING, key, 0)) * 3.5));
+                    int end = day + days - 1;
+                    boolean cancel = unit(SALT_BOOKING, key, 1) < 0.12;
+
+                    // Popular cars first; a few retries before the customer gives up.
+                    int car = 0;
+                    for (int attempt = 0; attempt < 8 && car == 0; attempt++) {
+                        int candidate = pickCar(cumulative, unit(SALT_BOOKING, key, 2 + attempt));
+                        if (cancel || busyUntil[candidate] < day) car = candidate;
+                    }
+                    if (car == 0) {
+                        turnedAway++;
+                        continue;
+                    }
+
+                    String status;
+                    if (cancel) status = "cancelled";
+                    else if (end < today) status = "finished";
+                    else if (day <= today) status = "confirmed";
+                    else status = unit(SALT_BOOKING, key, 6) < 0.03 ? "pending" : "confirmed";
+                    boolean chauffeur = unit(SALT_BOOKING, key, 7) < 0.04;
+                    double amount = rent[car] * days + (chauffeur ? 60.0 * days : 0);
+                    // Loyal customers book far more often: skewed towards the earliest accounts.
+                    int customer = admins + 1 + (int) (customers * Math.pow(unit(SALT_BOOKING, key, 8), 2.5));
+
+                    bookingId++;
+                    booking.num(bookingId).date(day).date(end).str(status).money(rent[car] * 5).money(amount)
+                            .str(chauffeur ? "chauffeur" : "self");
+                    if (status.equals("finished") || (status.equals("confirmed") && day <= today)) {
+                        booking.num(mileage[car]).date(day);
+                        if (status.equals("finished")) mileage[car] += days * (80 + (int) (unit(SALT_BOOKING, key, 9) * 170));
+                        else rentedToday.set(car);
+                    } else {
+                        booking.nul().nul();
+                    }
+                    booking.end();
+                    makes.num(customer).num(bookingId).end();
+                    reserves.num(bookingId).num(car).end();
+
+                    if (cancel) cancelled++;
+                    else busyUntil[car] = end + 1;      // one day to turn the car around
+                }
+            }
+            load.add(booking.loadStatement(fileName("Booking")));
+            load.add(makes.loadStatement(fileName("makes")));
+            load.add(reserves.loadStatement(fileName("reserves")));
+            report(booking, makes, reserves);
+        }
+        return new long[]{turnedAway, cancelled};
+    }
+
+    private double dayWeight(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        double w = MONTH_WEIGHTS[date.getMonthValue() - 1] * WEEKDAY_WEIGHTS[date.getDayOfWeek().getValue() - 1];
+        // Fewer bookings exist yet for dates further in the future.
+        if (epochDay > today) w *= Math.max(0.1, 1 - (double) (epochDay - today) / (s.futureDays + 1));
+        return w;
+    }
+
+    private static int pickCar(double[] cumulative, double u) {
+        double target = u * cumulative[cumulative.length - 1];
+        int lo = 1, hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] <= target) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /* ---------- helpers ---------- */
+
+    private TableWriter open(String table, String... columns) throws IOException {
+        Path file = s.out.resolve(fileName(table, s.format, s.gzip));
+        switch (s.format) {
+            case "tsv": return TableWriter.tsv(file, s.gzip, table, columns);
+            case "bin": return TableWriter.binary(file, s.gzip, table, columns);
+            default: return TableWriter.sql(file, s.gzip, s.rowsPerInsert, table, columns);
+        }
+    }
+
+    /** The name {@code load.sql} refers to; gzipped files are unpacked before loading. */
+    private String fileName(String table) {
+        return fileName(table, s.format, false);
+    }
+
+    static String fileName(String table, String format, boolean gzip) {
+        return table + "." + format + (gzip ? ".gz" : "");
+    }
+
+    private static void report(TableWriter... writers) {
+        for (TableWriter w : writers) System.out.printf("  %-22s %,12d rows%n", w.table, w.rows());
+    }
+
+    private String firstName(int userId) {
+        return FIRST_NAMES[(int) Long.remainderUnsigned(hash(SALT_USER, userId, 1), FIRST_NAMES.length)];
+    }
+
+    private String lastName(int userId) {
+        return LAST_NAMES[(int) Long.remainderUnsigned(hash(SALT_USER, userId, 2), LAST_NAMES.length)];
+    }
+
+    /** Deterministic per-user password, so load tests can log in as any generated user. */
+    String password(int userId) {
+        return "pw" + Long.toString(hash(SALT_USER, userId, 6) >>> 24, 36);
+    }
+
+    private static int specId(int color, int fuel, int transmission, int seats) {
+        return 1 + ((color * FUELS.length + fuel) * TRANSMISSIONS.length + transmission) * SEATS.length + seats;
+    }
+
+    private static int weighted(double[] weights, double u) {
+        double total = 0;
+        for (double w : weights) total += w;
+        double target = u * total;
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0) return i;
+        }
+        return weights.length - 1;
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) if (values[i].equals(value)) return i;
+        throw new IllegalArgumentException(value);
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) if (values[i] == value) return i;
+        throw new IllegalArgumentException(String.valueOf(value));
+    }
+
+    private static char luhnDigit(char[] digits) {
+        int sum = 0;
+        for (int i = 14, k = 0; i >= 0; i--, k++) {
+            int d = digits[i] - '0';
+            if (k % 2 == 0) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    /** SplitMix64 finaliser over (seed, table, id, field): the same inputs always give the same value. */
+    private long hash(int salt, long id, int field) {
+        long z = s.seed + salt * 0x9E3779B97F4A7C15L + id * 0xBF58476D1CE4E5B9L + field * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** @return a uniform value in [0, 1) */
+    private double unit(int salt, long id, int field) {
+        return (hash(salt, id, field) >>> 11) * 0x1.0p-53;
+    }
+
+    private static final class Model {
+        final String name;
+        final double share, demand, baseRent, automaticShare;
+        final int seats;
+        final String fuels;
+
+        Model(String name, double share, double demand, double baseRent, int seats, String fuels, double automaticShare) {
+            this.name = name;
+            this.share = share;
+            this.demand = demand;
+            this.baseRent = baseRent;
+            this.seats = seats;
+            this.fuels = fuels;
+            this.automaticShare = automaticShare;
+        }
+    }
+
+    static final class Settings {
+        final Path out;
+        final String format;
+        final long seed;
+        final int users, cars;
+        final long bookings;
+        final double adminShare;
+        final LocalDate today;
+        final int historyDays, futureDays, rowsPerInsert;
+        final boolean gzip;
+
+        Settings(Properties p) {
+            out = Paths.get(p.getProperty("gen.out", "dataset"));
+            format = p.getProperty("gen.format", "sql").trim().toLowerCase(Locale.ROOT);
+            seed = Long.parseLong(p.getProperty("gen.seed", "42"));
+            users = Integer.parseInt(p.getProperty("gen.users", "100000"));
+            adminShare = Double.parseDouble(p.getProperty("gen.adminShare", "0.002"));
+            cars = Integer.parseInt(p.getProperty("gen.cars", "10000"));
+            bookings = Long.parseLong(p.getProperty("gen.bookings", "1000000"));
+            today = LocalDate.parse(p.getProperty("gen.today", "2026-01-01"));
+            historyDays = Integer.parseInt(p.getProperty("gen.historyDays", "730"));
+            futureDays = Integer.parseInt(p.getProperty("gen.futureDays", "120"));
+            rowsPerInsert = Integer.parseInt(p.getProperty("gen.rowsPerInsert", "1000"));
+            gzip = Boolean.parseBoolean(p.getProperty("gen.gzip", "false"));
+            if (!format.equals("sql") && !format.equals("tsv") && !format.equals("bin")) {
+                throw new IllegalArgumentException("gen.format must be sql, tsv or bin, not " + format);
+            }
+            if (users < 2 || cars < 1) throw new IllegalArgumentException("Need at least 2 users and 1 car");
+        }
+    }
+}
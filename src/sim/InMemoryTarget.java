@@ -0,0 +1,246 @@
+package sim;
+
+import dao.impl.InMemoryBookingDAO;
+import dao.impl.InMemoryCarDAO;
+import dao.impl.InMemoryUserDAO;
+import model.Booking;
+import model.Car;
+import model.CarFilter;
+import model.User;
+import service.impl.AuthenticationImpl;
+import service.impl.CarFilterManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Embedded stand-in for MySQL built on the in-memory DAOs. Every statement the controllers
+ * would send costs one emulated round trip, and bookings follow
+ * {@code BookingController.bookIfAvailable}: the car is claimed atomically, then the booking is
+ * written and committed, so two actors never both get the same car.
+ */
+class InMemoryTarget implements Target {
+
+    private static final String[] BRANDS = {"Toyota", "Renault", "Fiat", "Ford", "Volkswagen", "Hyundai", "BMW", "Peugeot"};
+    private static final String[] COLORS = {"White", "Black", "Grey", "Red", "Blue"};
+    private static final String[] FUELS = {"Petrol", "Diesel", "Hybrid", "Electric"};
+    private static final String[] TRANSMISSIONS = {"Manual", "Automatic"};
+
+    private final InMemoryCarDAO cars = new InMemoryCarDAO();
+    private final InMemoryBookingDAO bookings = new InMemoryBookingDAO();
+    private final InMemoryUserDAO users = new InMemoryUserDAO();
+    private final AuthenticationImpl authentication = new AuthenticationImpl(users);
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+    private final Map<Integer, ConcurrentLinkedDeque<Integer>> bookingsByUser = new ConcurrentHashMap<>();
+    private final CarFilterManager catalog = new CarFilterManager(cars, 250);
+    private final CarFilterManager fleet = new CarFilterManager(cars, 2_000);
+    private final long roundTripNanos;
+    private final List<String[]> datasetAdmins = new ArrayList<>();
+    private final List<String[]> datasetCustomers = new ArrayList<>();
+
+    InMemoryTarget(int carCount, long seed, long roundTripMicros) {
+        this.roundTripNanos = roundTripMicros * 1_000;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int id = 1; id <= carCount; id++) {
+            cars.saveCar(new Car(id, BRANDS[random.nextInt(BRANDS.length)], "Model " + id,
+                    COLORS[random.nextInt(COLORS.length)], FUELS[random.nextInt(FUELS.length)],
+                    TRANSMISSIONS[random.nextInt(TRANSMISSIONS.length)], 2 + random.nextInt(8),
+                    25 + random.nextInt(36) * 5, "available"));
+        }
+    }
+
+    /**
+     * A stand-in filled from a {@link DatasetGenerator} {@code bin} dataset: every user, the
+     * fleet with its specifications, and the bookings that are still pending or confirmed
+     * (finished and cancelled history is skipped, as the simulator only works on live ones).
+     */
+    static InMemoryTarget fromDataset(Path dir, long roundTripMicros) throws IOException {
+        InMemoryTarget target = new InMemoryTarget(0, 0, roundTripMicros);
+        target.load(dir);
+        return target;
+    }
+
+    private void load(Path dir) throws IOException {
+        Map<Long, Object[]> specs = new HashMap<>();
+        TableWriter.readBinary(datasetFile(dir, "VehicleSpecification"), row -> specs.put((Long) row[0], row.clone()));
+        Map<Long, Long> specOfCar = new HashMap<>();
+        TableWriter.readBinary(datasetFile(dir, "has"), row -> specOfCar.put((Long) row[0], (Long) row[1]));
+        TableWriter.readBinary(datasetFile(dir, "Car"), row -> {
+            int id = ((Long) row[0]).intValue();
+            String model = (String) row[1];
+            Object[] spec = specs.get(specOfCar.get((Long) row[0]));
+            String status = "rented".equals(row[5]) ? "reserved" : (String) row[5];
+            cars.saveCar(new Car(id, model.substring(0, model.indexOf(' ')), model, (String) spec[1], (String) spec[2],
+                    (String) spec[3], ((Long) spec[4]).intValue(), (Double) row[2], status));
+        });
+
+        Set<Long> admins = new HashSet<>();
+        TableWriter.readBinary(datasetFile(dir, "Admin"), row -> admins.add((Long) row[0]));
+        TableWriter.readBinary(datasetFile(dir, "User"), row -> {
+            String[] credentials = {(String) row[3], (String) row[4]};
+            register(credentials[0], credentials[1]);
+            (admins.contains((Long) row[0]) ? datasetAdmins : datasetCustomers).add(credentials);
+        });
+
+        Map<Long, Object[]> live = new HashMap<>();
+        TableWriter.readBinary(datasetFile(dir, "Booking"), row -> {
+            if ("pending".equals(row[3]) || "confirmed".equals(row[3])) live.put((Long) row[0], row.clone());
+        });
+        Map<Long, Long> bookedBy = new HashMap<>();
+        TableWriter.readBinary(datasetFile(dir, "makes"), row -> {
+            if (live.containsKey((Long) row[1])) bookedBy.put((Long) row[1], (Long) row[0]);
+        });
+        TableWriter.readBinary(datasetFile(dir, "reserves"), row -> {
+            Object[] b = live.get((Long) row[0]);
+            if (b == null) return;
+            int bookingId = ((Long) row[0]).intValue();
+            int userId = bookedBy.get((Long) row[0]).intValue();
+            Car car = cars.findById(((Long) row[1]).intValue());
+            bookings.put(new Booking(bookingId, userId, car.getId(), TableWriter.Dates.format((Integer) b[1]),
+                    TableWriter.Dates.format((Integer) b[2]), (String) b[3], (Double) b[5], car.getModel()));
+            bookingsByUser.computeIfAbsent(userId, k -> new ConcurrentLinkedDeque<>()).add(bookingId);
+        });
+    }
+
+    private static Path datasetFile(Path dir, String table) throws IOException {
+        for (boolean gzip : new boolean[]{false, true}) {
+            Path file = dir.resolve(DatasetGenerator.fileName(table, "bin", gzip));
+            if (Files.exists(file)) return file;
+        }
+        throw new IOException("No " + table + " table in " + dir + " (generate it with gen.format=bin)");
+    }
+
+    /** Logins of generated users, admins from user id 1 and customers from the first customer. */
+    List<String[]> datasetCredentials(boolean admins, int count) {
+        List<String[]> source = admins ? datasetAdmins : datasetCustomers;
+        if (source.isEmpty()) throw new IllegalStateException("No dataset loaded");
+        return new ArrayList<>(source.subList(0, Math.min(Math.max(1, count), source.size())));
+    }
+
+    /** Creates a user the simulator can log in as. */
+    void register(String username, String password) {
+        if (users.createUser(new User(username, password))) {
+            userIds.put(username.toLowerCase(Locale.ROOT), userIds.size() + 1);
+        }
+    }
+
+    @Override
+    public int login(String username, String password) {
+        roundTrip();
+        if (!authentication.login(username, password)) return -1;
+        return userIds.getOrDefault(username.toLowerCase(Locale.ROOT), -1);
+    }
+
+    @Override
+    public int search(Query q) {
+        roundTrip();
+        CarFilter filter = new CarFilter()
+                .fuelType(q.fuelType)
+                .transmission(q.transmission)
+                .priceBetween(q.minRent != null ? q.minRent : 0, q.maxRent != null ? q.maxRent : Double.MAX_VALUE)
+                .seatsBetween(q.minSeats != null ? q.minSeats : 0, q.maxSeats != null ? q.maxSeats : Integer.MAX_VALUE);
+        return catalog.filter(filter).size();
+    }
+
+    @Override
+    public List<Car> availableCars() {
+        return fleet.filterAvailableCars();
+    }
+
+    @Override
+    public BookingOutcome book(int userId, Car car, String startDate, String endDate, double amount) {
+        roundTrip();
+        // UPDATE ... WHERE vehicle_status = 'available'
+        synchronized (cars) {
+            Car current = cars.findById(car.getId());
+            if (current == null) return BookingOutcome.FAILED;
+            if (!"available".equals(current.getStatus())) return BookingOutcome.CONFLICT;
+            cars.saveCar(withStatus(current, "reserved"));
+        }
+        roundTrip();
+        int bookingId = bookings.insert(new Booking(0, userId, car.getId(), startDate, endDate, null, amount, car.getModel()));
+        bookingsByUser.computeIfAbsent(userId, k -> new ConcurrentLinkedDeque<>()).add(bookingId);
+        roundTrip();
+        fleet.invalidate();
+        return BookingOutcome.CONFIRMED;
+    }
+
+    @Override
+    public int cancellableBooking(int userId) {
+        roundTrip();
+        ConcurrentLinkedDeque<Integer> own = bookingsByUser.get(userId);
+        if (own == null) return -1;
+        for (Integer id : own) {
+            if (bookings.findById(id) != null) return id;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean cancel(int bookingId) {
+        roundTrip();
+        Booking booking = bookings.findById(bookingId);
+        if (booking == null || !bookings.deleteBooking(bookingId)) return false;
+        ConcurrentLinkedDeque<Integer> own = bookingsByUser.get(booking.getUserId());
+        if (own != null) own.remove(bookingId);
+        roundTrip();
+        Car car = cars.findById(booking.getCarId());
+        roundTrip();
+        if (car != null) cars.saveCar(withStatus(car, "available"));
+        fleet.invalidate();
+        return true;
+    }
+
+    @Override
+    public int listActiveBookings() {
+        roundTrip();
+        return bookings.size();
+    }
+
+    @Override
+    public int countOverlappingBookings() {
+        Map<Integer, List<Booking>> byCar = new HashMap<>();
+        for (Booking b : bookings.getAll()) {
+            byCar.computeIfAbsent(b.getCarId(), k -> new ArrayList<>()).add(b);
+        }
+        int overlaps = 0;
+        for (List<Booking> list : byCar.values()) {
+            for (int i = 0; i < list.size(); i++) {
+                for (int j = i + 1; j < list.size(); j++) {
+                    Booking a = list.get(i), b = list.get(j);
+                    if (a.getStartDate().compareTo(b.getEndDate()) <= 0 && b.getStartDate().compareTo(a.getEndDate()) <= 0) {
+                        overlaps++;
+                    }
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    @Override
+    public String describe() {
+        return String.format("in-memory stand-in (%d cars, %d us per round trip)",
+                cars.getAllCars().size(), roundTripNanos / 1_000);
+    }
+
+    private void roundTrip() {
+        if (roundTripNanos > 0) LockSupport.parkNanos(roundTripNanos);
+    }
+
+    private static Car withStatus(Car c, String status) {
+        return new Car(c.getId(), c.getBrand(), c.getModel(), c.getColor(), c.getFuelType(),
+                c.getTransmission(), c.getSeatingCapacity(), c.getRentalPrice(), status);
+    }
+}
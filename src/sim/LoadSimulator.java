@@ -0,0 +1,353 @@
+package sim;
+
+import model.Car;
+import sim.Profile.Action;
+import util.LatencyHistogram;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Closed-loop load simulator: N customer and admin actors log in, search, book and cancel
+ * through a {@link Target} with configurable action mixes and think times, and the run ends
+ * with throughput, latency percentiles, booking-conflict rates and a double-booking check.
+ * <p>
+ * Timing is coordinated-omission corrected. Each actor follows a planned schedule in which
+ * think time separates the <em>intended</em> start of one action from the next. When the
+ * system stalls, the actions that should have started meanwhile fire late, and their latency
+ * is measured from the intended start, so a stall is charged to every request it delayed
+ * rather than only to the one that hit it. Service time (from the actual start) is reported
+ * alongside for comparison. Every action scheduled inside the measured window is recorded,
+ * including those still running at its end: the run waits for them instead of cutting off its
+ * slowest samples.
+ * <p>
+ * Settings come from an optional properties file given as the first argument, overridden by
+ * {@code -Dsim.*} system properties:
+ * <pre>
+ * sim.target                 memory | jdbc                    (memory)
+ * sim.customers, sim.admins  number of actors                 (50, 2)
+ * sim.durationSec            measured run length              (60)
+ * sim.warmupSec              unrecorded ramp-up               (5)
+ * sim.seed                   random seed                      (42)
+ * sim.customer.mix           login:2,search:68,book:18,cancel:12
+ * sim.customer.thinkMs       mean think time                  (1000)
+ * sim.admin.mix              search:40,list:60
+ * sim.admin.thinkMs                                           (3000)
+ * sim.hotCarSkew             &gt;= 1; higher makes actors favour the same cars (2.0)
+ * sim.memory.cars            fleet size of the stand-in       (500)
+ * sim.memory.roundTripMicros emulated cost of one statement   (300)
+ * sim.memory.dataset         dir of a gen.format=bin DatasetGenerator run; replaces sim.memory.cars
+ * sim.customer.credentials   jdbc only: CSV of username,password
+ * sim.admin.credentials      jdbc only: CSV of username,password
+ * </pre>
+ */
+public class LoadSimulator {
+
+    private final Settings settings;
+    private final Target target;
+    private final List<String[]> customerCredentials;
+    private final List<String[]> adminCredentials;
+
+    private final Map<Action, LatencyHistogram> corrected = new EnumMap<>(Action.class);
+    private final Map<Action, LatencyHistogram> service = new EnumMap<>(Action.class);
+    private final Map<Action, LongAdder> errors = new EnumMap<>(Action.class);
+    private final LongAdder bookingsConfirmed = new LongAdder();
+    private final LongAdder bookingConflicts = new LongAdder();
+    private final LongAdder bookingsFailed = new LongAdder();
+    private final LongAdder noCarToBook = new LongAdder();
+    private final LongAdder nothingToCancel = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile String firstError;
+    private long drainNanos;
+
+    public static void main(String[] args) throws Exception {
+        Properties props = new Properties();
+        if (args.length > 0) {
+            try (InputStream in = new FileInputStream(args[0])) {
+                props.load(in);
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("sim.")) props.setProperty(key, System.getProperty(key));
+        }
+        new LoadSimulator(new Settings(props)).run();
+    }
+
+    LoadSimulator(Settings settings) throws IOException {
+        this.settings = settings;
+        for (Action a : Action.values()) {
+            corrected.put(a, new LatencyHistogram());
+            service.put(a, new LatencyHistogram());
+            errors.put(a, new LongAdder());
+        }
+        if (settings.targetName.equals("jdbc")) {
+            target = new ControllerTarget();
+            customerCredentials = readCredentials(settings.customerCredentials, settings.customers);
+            adminCredentials = readCredentials(settings.adminCredentials, settings.admins);
+        } else if (settings.dataset != null) {
+            InMemoryTarget memory = InMemoryTarget.fromDataset(Paths.get(settings.dataset), settings.roundTripMicros);
+            customerCredentials = memory.datasetCredentials(false, settings.customers);
+            adminCredentials = memory.datasetCredentials(true, settings.admins);
+            target = memory;
+        } else {
+            InMemoryTarget memory = new InMemoryTarget(settings.memoryCars, settings.seed, settings.roundTripMicros);
+            customerCredentials = generateCredentials(memory, "customer", settings.customers);
+            adminCredentials = generateCredentials(memory, "admin", settings.admins);
+            target = memory;
+        }
+    }
+
+    void run() throws InterruptedException {
+        System.out.println("Target:    " + target.describe());
+        System.out.println("Customers: " + settings.customers + " x " + settings.customerProfile);
+        System.out.println("Admins:    " + settings.admins + " x " + settings.adminProfile);
+        System.out.printf("Duration:  %d s after %d s warm-up, seed %d%n%n",
+                settings.durationSec, settings.warmupSec, settings.seed);
+
+        long start = System.nanoTime();
+        long recordFrom = start + settings.warmupSec * 1_000_000_000L;
+        long deadline = recordFrom + settings.durationSec * 1_000_000_000L;
+
+        int actorCount = settings.customers + settings.admins;
+        CountDownLatch done = new CountDownLatch(actorCount);
+        for (int i = 0; i < actorCount; i++) {
+            boolean admin = i >= settings.customers;
+            int index = admin ? i - settings.customers : i;
+            List<String[]> creds = admin ? adminCredentials : customerCredentials;
+            Actor actor = new Actor(admin ? settings.adminProfile : settings.customerProfile,
+                    creds.get(index % creds.size()), new SplittableRandom(settings.seed * 31 + i),
+                    recordFrom, deadline, done);
+            Thread t = new Thread(actor, "sim-" + (admin ? "admin-" : "customer-") + index);
+            t.setDaemon(true);
+            t.start();
+        }
+        // Actors stop scheduling at the deadline but finish, and record, what is already due.
+        done.await();
+        drainNanos = Math.max(0, System.nanoTime() - deadline);
+        report(settings.durationSec);
+    }
+
+    /** One simulated user following its profile until the deadline. */
+    private final class Actor implements Runnable {
+        private final Profile profile;
+        private final String[] credentials;
+        private final SplittableRandom random;
+        private final long recordFrom, deadline;
+        private final CountDownLatch done;
+        private int userId = -1;
+
+        Actor(Profile profile, String[] credentials, SplittableRandom random,
+              long recordFrom, long deadline, CountDownLatch done) {
+            this.profile = profile;
+            this.credentials = credentials;
+            this.random = random;
+            this.recordFrom = recordFrom;
+            this.deadline = deadline;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                // Stagger the first actions so actors do not all fire at t=0.
+                long intended = System.nanoTime() + profile.thinkNanos(random);
+                while (intended < deadline) {
+                    long now;
+                    while ((now = System.nanoTime()) < intended) LockSupport.parkNanos(intended - now);
+                    if (intended >= recordFrom) lag(now - intended);
+
+                    Action action = userId < 0 ? Action.LOGIN : profile.next(random);
+                    boolean ok;
+                    try {
+                        ok = perform(action);
+                    } catch (RuntimeException e) {
+                        ok = false;
+                        if (firstError == null) firstError = action + ": " + e;
+                    }
+                    long end = System.nanoTime();
+                    // Everything scheduled inside the window counts, however late it finishes: dropping the
+                    // actions that stall past the deadline would hide exactly the slowest samples.
+                    if (intended >= recordFrom) {
+                        corrected.get(action).recordNanos(end - intended);
+                        service.get(action).recordNanos(end - now);
+                        if (!ok) errors.get(action).increment();
+                    }
+                    // The schedule advances by think time alone, independent of how long the action took.
+                    intended += profile.thinkNanos(random);
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private boolean perform(Action action) {
+            switch (action) {
+                case LOGIN:
+                    userId = target.login(credentials[0], credentials[1]);
+                    return userId > 0;
+                case SEARCH:
+                    target.search(randomQuery());
+                    return true;
+                case BOOK:
+                    return book();
+                case CANCEL: {
+                    int bookingId = target.cancellableBooking(userId);
+                    if (bookingId < 0) {
+                        nothingToCancel.increment();
+                        return true;
+                    }
+                    return target.cancel(bookingId);
+                }
+                case LIST:
+                    target.listActiveBookings();
+                    return true;
+                default:
+                    throw new IllegalStateException("Unhandled action " + action);
+            }
+        }
+
+        private boolean book() {
+            List<Car> cars = target.availableCars();
+            if (cars.isEmpty()) {
+                noCarToBook.increment();
+                return true;
+            }
+            // Skewed towards the front of the list, like customers picking from the first page.
+            Car car = cars.get((int) (cars.size() * Math.pow(random.nextDouble(), settings.hotCarSkew)));
+            LocalDate start = LocalDate.now().plusDays(1 + random.nextInt(30));
+            int days = 1 + random.nextInt(7);
+            LocalDate end = start.plusDays(days - 1);
+            switch (target.book(userId, car, start.toString(), end.toString(), car.getRentalPrice() * days)) {
+                case CONFIRMED:
+                    bookingsConfirmed.increment();
+                    return true;
+                case CONFLICT:
+                    bookingConflicts.increment();
+                    return true;
+                default:
+                    bookingsFailed.increment();
+                    return false;
+            }
+        }
+
+        private Target.Query randomQuery() {
+            String[] fuels = {null, "Petrol", "Diesel", "Hybrid", "Electric"};
+            String[] transmissions = {null, "Manual", "Automatic"};
+            Double minRent = random.nextInt(3) == 0 ? (double) (25 + random.nextInt(10) * 10) : null;
+            Double maxRent = random.nextInt(2) == 0 ? (double) (100 + random.nextInt(10) * 10) : null;
+            Integer minSeats = random.nextInt(3) == 0 ? 2 + random.nextInt(4) : null;
+            return new Target.Query(minRent, maxRent, fuels[random.nextInt(fuels.length)],
+                    transmissions[random.nextInt(transmissions.length)], minSeats, null);
+        }
+    }
+
+    private void lag(long nanos) {
+        long max;
+        while (nanos > (max = maxLagNanos.get()) && !maxLagNanos.compareAndSet(max, nanos)) {
+            // retry
+        }
+    }
+
+    private void report(long seconds) {
+        System.out.printf("%-7s %8s %7s %8s %9s %9s %9s %9s %9s %12s%n",
+                "action", "count", "errors", "ops/s", "p50", "p90", "p99", "p99.9", "max", "service p99");
+        long total = 0;
+        for (Action a : Action.values()) {
+            LatencyHistogram h = corrected.get(a);
+            if (h.count() == 0) continue;
+            total += h.count();
+            System.out.printf("%-7s %8d %7d %8.1f %9s %9s %9s %9s %9s %12s%n",
+                    a.name().toLowerCase(), h.count(), errors.get(a).sum(), (double) h.count() / seconds,
+                    ms(h.percentileMicros(50)), ms(h.percentileMicros(90)), ms(h.percentileMicros(99)),
+                    ms(h.percentileMicros(99.9)), ms(h.maxMicros()), ms(service.get(a).percentileMicros(99)));
+        }
+        System.out.printf("%nThroughput: %.1f actions/s%n", (double) total / seconds);
+
+        long confirmed = bookingsConfirmed.sum(), conflicts = bookingConflicts.sum(), failed = bookingsFailed.sum();
+        long attempts = confirmed + conflicts + failed;
+        System.out.printf("Bookings:   %d attempted, %d confirmed, %d conflicts (%.1f%%), %d failed, %d with no car left%n",
+                attempts, confirmed, conflicts, attempts == 0 ? 0 : 100.0 * conflicts / attempts, failed, noCarToBook.sum());
+        System.out.printf("Cancels:    %d with nothing to cancel%n", nothingToCancel.sum());
+        System.out.printf("Overlapping confirmed bookings on one car: %d%n", target.countOverlappingBookings());
+        System.out.printf("Max schedule lag: %s%n", ms(maxLagNanos.get() / 1_000));
+        System.out.printf("Drained in-flight actions for %s after the deadline%n", ms(drainNanos / 1_000));
+        if (firstError != null) System.out.println("First error: " + firstError);
+    }
+
+    private static String ms(long micros) {
+        return String.format("%.1fms", micros / 1000.0);
+    }
+
+    private static List<String[]> generateCredentials(InMemoryTarget memory, String prefix, int count) {
+        List<String[]> creds = new ArrayList<>();
+        for (int i = 1; i <= Math.max(1, count); i++) {
+            String[] c = {prefix + i, "sim-" + prefix + i};
+            memory.register(c[0], c[1]);
+            creds.add(c);
+        }
+        return creds;
+    }
+
+    private static List<String[]> readCredentials(String path, int actors) throws IOException {
+        if (actors == 0) return Collections.singletonList(new String[]{"", ""});
+        if (path == null) throw new IllegalArgumentException("The jdbc target needs sim.customer.credentials / sim.admin.credentials files");
+        List<String[]> creds = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+            String[] parts = line.trim().split(",", 2);
+            if (parts.length == 2 && !line.startsWith("#")) creds.add(new String[]{parts[0].trim(), parts[1].trim()});
+        }
+        if (creds.isEmpty()) throw new IllegalArgumentException("No credentials in " + path);
+        return creds;
+    }
+
+    /** Parsed {@code sim.*} settings. */
+    static final class Settings {
+        final String targetName;
+        final int customers, admins;
+        final long durationSec, warmupSec, seed;
+        final Profile customerProfile, adminProfile;
+        final double hotCarSkew;
+        final int memoryCars;
+        final long roundTripMicros;
+        final String customerCredentials, adminCredentials;
+        final String dataset;
+
+        Settings(Properties p) {
+            targetName = p.getProperty("sim.target", "memory").trim();
+            customers = Integer.parseInt(p.getProperty("sim.customers", "50"));
+            admins = Integer.parseInt(p.getProperty("sim.admins", "2"));
+            durationSec = Long.parseLong(p.getProperty("sim.durationSec", "60"));
+            warmupSec = Long.parseLong(p.getProperty("sim.warmupSec", "5"));
+            seed = Long.parseLong(p.getProperty("sim.seed", "42"));
+            customerProfile = Profile.parse("customer", p.getProperty("sim.customer.mix", "login:2,search:68,book:18,cancel:12"),
+                    Double.parseDouble(p.getProperty("sim.customer.thinkMs", "1000")));
+            adminProfile = Profile.parse("admin", p.getProperty("sim.admin.mix", "search:40,list:60"),
+                    Double.parseDouble(p.getProperty("sim.admin.thinkMs", "3000")));
+            hotCarSkew = Math.max(1, Double.parseDouble(p.getProperty("sim.hotCarSkew", "2.0")));
+            memoryCars = Integer.parseInt(p.getProperty("sim.memory.cars", "500"));
+            roundTripMicros = Long.parseLong(p.getProperty("sim.memory.roundTripMicros", "300"));
+            customerCredentials = p.getProperty("sim.customer.credentials");
+            adminCredentials = p.getProperty("sim.admin.credentials");
+            dataset = p.getProperty("sim.memory.dataset");
+            if (!targetName.equals("memory") && !targetName.equals("jdbc")) {
+                throw new IllegalArgumentException("sim.target must be memory or jdbc, not " + targetName);
+            }
+        }
+    }
+}
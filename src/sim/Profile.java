@@ -0,0 +1,81 @@
+package sim;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * How one kind of actor behaves: a weighted mix of actions and an exponentially
+ * distributed think time between the intended starts of consecutive actions.
+ * <p>
+ * Mixes are written as {@code action:weight} pairs, e.g. {@code search:70,book:15,cancel:10,login:5}.
+ */
+final class Profile {
+
+    enum Action {
+        LOGIN,
+        SEARCH,
+        BOOK,
+        CANCEL,
+        LIST
+    }
+
+    final String name;
+    private final Action[] actions;
+    private final int[] cumulative;
+    private final double thinkMeanNanos;
+
+    private Profile(String name, Map<Action, Integer> weights, double thinkMeanMs) {
+        this.name = name;
+        this.actions = new Action[weights.size()];
+        this.cumulative = new int[weights.size()];
+        int i = 0, total = 0;
+        for (Map.Entry<Action, Integer> e : weights.entrySet()) {
+            total += e.getValue();
+            actions[i] = e.getKey();
+            cumulative[i++] = total;
+        }
+        this.thinkMeanNanos = thinkMeanMs * 1_000_000;
+    }
+
+    /** @throws IllegalArgumentException on an unknown action or a non-positive total weight */
+    static Profile parse(String name, String mix, double thinkMeanMs) {
+        Map<Action, Integer> weights = new EnumMap<>(Action.class);
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad mix entry '" + part + "' in " + name + " profile");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) weights.put(Action.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("Empty action mix for " + name + " profile");
+        return new Profile(name, weights, thinkMeanMs);
+    }
+
+    Action next(SplittableRandom random) {
+        int r = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) return actions[i];
+        }
+        return actions[actions.length - 1];
+    }
+
+    /** Exponential think time, capped at ten times the mean so one draw cannot idle an actor for the whole run. */
+    long thinkNanos(SplittableRandom random) {
+        if (thinkMeanNanos <= 0) return 0;
+        double draw = -Math.log(1 - random.nextDouble()) * thinkMeanNanos;
+        return (long) Math.min(draw, thinkMeanNanos * 10);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(" [");
+        int previous = 0;
+        for (int i = 0; i < actions.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(actions[i].name().toLowerCase(Locale.ROOT)).append(':').append(cumulative[i] - previous);
+            previous = cumulative[i];
+        }
+        return sb.append("], think ").append(Math.round(thinkMeanNanos / 1_000_000)).append(" ms").toString();
+    }
+}
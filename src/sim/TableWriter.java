@@ -0,0 +1,388 @@
+package sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the rows of one table to a file as multi-row {@code INSERT} statements, as a
+ * tab-separated file for {@code LOAD DATA}, or as a typed binary stream that
+ * {@link #readBinary} loads back into the in-memory stand-in. Values are appended field by
+ * field, so no row objects or per-row strings are built:
+ * <pre>
+ * w.num(id).str(name).nul().date(epochDay).end();
+ * </pre>
+ */
+abstract class TableWriter implements Closeable {
+
+    /** Called once per row by {@link #readBinary}; dates arrive as {@link Integer} epoch days. */
+    interface RowReader {
+        void row(Object[] values) throws IOException;
+    }
+
+    private static final int TAG_NULL = 0, TAG_LONG = 1, TAG_DOUBLE = 2, TAG_STRING = 3, TAG_DATE = 4, TAG_END = 5;
+
+    protected final String table;
+    protected final String[] columns;
+    private long rows;
+
+    private TableWriter(String table, String[] columns) {
+        this.table = table;
+        this.columns = columns;
+    }
+
+    /** {@code INSERT INTO table (...) VALUES (...),(...);} with {@code rowsPerInsert} rows per statement. */
+    static TableWriter sql(Path file, boolean gzip, int rowsPerInsert, String table, String... columns) throws IOException {
+        return new Sql(open(file, gzip), rowsPerInsert, table, columns);
+    }
+
+    /** Tab-separated values with {@code \N} for NULL, as {@code LOAD DATA} reads them by default. */
+    static TableWriter tsv(Path file, boolean gzip, String table, String... columns) throws IOException {
+        return new Tsv(open(file, gzip), table, columns);
+    }
+
+    static TableWriter binary(Path file, boolean gzip, String table, String... columns) throws IOException {
+        return new Binary(open(file, gzip), table, columns);
+    }
+
+    /** @return the statement that loads this table's file, for {@code load.sql}; {@code null} for binary files */
+    abstract String loadStatement(String fileName);
+
+    abstract TableWriter num(long value) throws IOException;
+
+    /** Money with two decimals. */
+    abstract TableWriter money(double value) throws IOException;
+
+    /** {@code null} is written as NULL. */
+    abstract TableWriter str(CharSequence value) throws IOException;
+
+    abstract TableWriter date(int epochDay) throws IOException;
+
+    abstract TableWriter nul() throws IOException;
+
+    void end() throws IOException {
+        endRow();
+        rows++;
+    }
+
+    protected abstract void endRow() throws IOException;
+
+    long rows() {
+        return rows;
+    }
+
+    protected String columnList() {
+        return "(" + String.join(", ", columns) + ")";
+    }
+
+    private static OutputStream open(Path file, boolean gzip) throws IOException {
+        OutputStream stream = Files.newOutputStream(file);
+        if (gzip) stream = new GZIPOutputStream(stream, 1 << 16);
+        return new BufferedOutputStream(stream, 1 << 16);
+    }
+
+    /** Reads a file written by {@link #binary}, gzipped or not. */
+    static void readBinary(Path file, RowReader reader) throws IOException {
+        InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        raw.mark(2);
+        boolean gzip = raw.read() == 0x1f && raw.read() == 0x8b;
+        raw.reset();
+        try (DataInputStream in = new DataInputStream(gzip ? new BufferedInputStream(new GZIPInputStream(raw, 1 << 16), 1 << 16) : raw)) {
+            int columns = in.readInt();
+            Object[] values = new Object[columns];
+            while (true) {
+                int tag;
+                try {
+                    tag = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                int i = 0;
+                while (tag != TAG_END) {
+                    switch (tag) {
+                        case TAG_NULL: values[i++] = null; break;
+                        case TAG_LONG: values[i++] = in.readLong(); break;
+                        case TAG_DOUBLE: values[i++] = in.readDouble(); break;
+                        case TAG_STRING: values[i++] = in.readUTF(); break;
+                        case TAG_DATE: values[i++] = in.readInt(); break;
+                        default: throw new IOException("Corrupt row in " + file + ": tag " + tag);
+                    }
+                    tag = in.readUnsignedByte();
+                }
+                reader.row(values);
+            }
+        }
+    }
+
+    /** Shared text handling: rows are built in one buffer and flushed in large chunks. */
+    private abstract static class Text extends TableWriter {
+        private static final int BUFFER_CHARS = 1 << 16;
+
+        protected final StringBuilder buf = new StringBuilder(BUFFER_CHARS + 4096);
+        private final Writer out;
+        protected int fieldsInRow;
+
+        Text(OutputStream out, String table, String[] columns) {
+            super(table, columns);
+            this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        }
+
+        protected abstract void separator();
+
+        protected abstract void quoted(CharSequence s);
+
+        protected abstract void nullValue();
+
+        protected abstract void rowEnd();
+
+        @Override
+        TableWriter num(long value) {
+            separator();
+            buf.append(value);
+            return this;
+        }
+
+        @Override
+        TableWriter money(double value) {
+            separator();
+            long cents = Math.round(value * 100);
+            if (cents < 0) {
+                buf.append('-');
+                cents = -cents;
+            }
+            buf.append(cents / 100).append('.');
+            long rest = cents % 100;
+            if (rest < 10) buf.append('0');
+            buf.append(rest);
+            return this;
+        }
+
+        @Override
+        TableWriter str(CharSequence value) {
+            if (value == null) return nul();
+            separator();
+            quoted(value);
+            return this;
+        }
+
+        @Override
+        TableWriter date(int epochDay) {
+            return str(Dates.format(epochDay));
+        }
+
+        @Override
+        TableWriter nul() {
+            separator();
+            nullValue();
+            return this;
+        }
+
+        @Override
+        protected void endRow() throws IOException {
+            rowEnd();
+            fieldsInRow = 0;
+            if (buf.length() >= BUFFER_CHARS) flushBuffer();
+        }
+
+        protected void flushBuffer() throws IOException {
+            out.append(buf);
+            buf.setLength(0);
+        }
+
+        protected void finish() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            flushBuffer();
+            out.close();
+        }
+    }
+
+    private static final class Sql extends Text {
+        private final int rowsPerInsert;
+        private final String insertPrefix;
+        private int rowsInStatement;
+
+        Sql(OutputStream out, int rowsPerInsert, String table, String[] columns) {
+            super(out, table, columns);
+            this.rowsPerInsert = rowsPerInsert;
+            this.insertPrefix = "INSERT INTO " + table + " " + columnList() + " VALUES\n(";
+            buf.append("SET foreign_key_checks = 0;\nSET unique_checks = 0;\nSET autocommit = 0;\n");
+        }
+
+        @Override
+        String loadStatement(String fileName) {
+            return "SOURCE " + fileName + ";";
+        }
+
+        @Override
+        protected void separator() {
+            if (fieldsInRow++ > 0) buf.append(',');
+            else buf.append(rowsInStatement == 0 ? insertPrefix : ",\n(");
+        }
+
+        @Override
+        protected void quoted(CharSequence s) {
+            buf.append('\'');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '\'' || c == '\\') buf.append('\\');
+                buf.append(c);
+            }
+            buf.append('\'');
+        }
+
+        @Override
+        protected void nullValue() {
+            buf.append("NULL");
+        }
+
+        @Override
+        protected void rowEnd() {
+            buf.append(')');
+            if (++rowsInStatement == rowsPerInsert) {
+                buf.append(";\n");
+                rowsInStatement = 0;
+            }
+        }
+
+        @Override
+        protected void finish() {
+            if (rowsInStatement > 0) buf.append(";\n");
+            buf.append("COMMIT;\nSET unique_checks = 1;\nSET foreign_key_checks = 1;\n");
+        }
+    }
+
+    private static final class Tsv extends Text {
+        Tsv(OutputStream out, String table, String[] columns) {
+            super(out, table, columns);
+        }
+
+        @Override
+        String loadStatement(String fileName) {
+            return "LOAD DATA LOCAL INFILE '" + fileName + "' INTO TABLE " + table
+                    + " CHARACTER SET utf8mb4 " + columnList() + ";";
+        }
+
+        @Override
+        protected void separator() {
+            if (fieldsInRow++ > 0) buf.append('\t');
+        }
+
+        @Override
+        protected void quoted(CharSequence s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '\t': buf.append("\\t"); break;
+                    case '\n': buf.append("\\n"); break;
+                    case '\\': buf.append("\\\\"); break;
+                    default: buf.append(c);
+                }
+            }
+        }
+
+        @Override
+        protected void nullValue() {
+            buf.append("\\N");
+        }
+
+        @Override
+        protected void rowEnd() {
+            buf.append('\n');
+        }
+    }
+
+    private static final class Binary extends TableWriter {
+        private final DataOutputStream out;
+
+        Binary(OutputStream out, String table, String[] columns) throws IOException {
+            super(table, columns);
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(columns.length);
+        }
+
+        @Override
+        String loadStatement(String fileName) {
+            return null;
+        }
+
+        @Override
+        TableWriter num(long value) throws IOException {
+            out.writeByte(TAG_LONG);
+            out.writeLong(value);
+            return this;
+        }
+
+        @Override
+        TableWriter money(double value) throws IOException {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(Math.round(value * 100) / 100.0);
+            return this;
+        }
+
+        @Override
+        TableWriter str(CharSequence value) throws IOException {
+            if (value == null) return nul();
+            out.writeByte(TAG_STRING);
+            out.writeUTF(value.toString());
+            return this;
+        }
+
+        @Override
+        TableWriter date(int epochDay) throws IOException {
+            out.writeByte(TAG_DATE);
+            out.writeInt(epochDay);
+            return this;
+        }
+
+        @Override
+        TableWriter nul() throws IOException {
+            out.writeByte(TAG_NULL);
+            return this;
+        }
+
+        @Override
+        protected void endRow() throws IOException {
+            out.writeByte(TAG_END);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** {@code YYYY-MM-DD} strings for epoch days, cached for the range a dataset uses. */
+    static final class Dates {
+        private static final int FIRST = (int) LocalDate.of(2000, 1, 1).toEpochDay();
+        private static final String[] CACHE = new String[366 * 60];
+
+        private Dates() {
+        }
+
+        static String format(int epochDay) {
+            int i = epochDay - FIRST;
+            if (i < 0 || i >= CACHE.length) return LocalDate.ofEpochDay(epochDay).toString();
+            String s = CACHE[i];
+            if (s == null) CACHE[i] = s = LocalDate.ofEpochDay(epochDay).toString();
+            return s;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package sim;
+
+import model.Car;
+
+import java.util.List;
+
+/**
+ * The system a {@link LoadSimulator} drives: either the real controllers against MySQL
+ * ({@link ControllerTarget}) or an embedded stand-in ({@link InMemoryTarget}).
+ * Implementations must be safe to call from many actor threads at once.
+ */
+public interface Target {
+
+    enum BookingOutcome {
+        CONFIRMED,
+        /** The car was no longer available when the booking was attempted. */
+        CONFLICT,
+        FAILED
+    }
+
+    /** Search criteria in the shape of {@code CarController.filterCars}; {@code null} means unconstrained. */
+    final class Query {
+        final Double minRent, maxRent;
+        final String fuelType, transmission;
+        final Integer minSeats, maxSeats;
+
+        Query(Double minRent, Double maxRent, String fuelType, String transmission, Integer minSeats, Integer maxSeats) {
+            this.minRent = minRent;
+            this.maxRent = maxRent;
+            this.fuelType = fuelType;
+            this.transmission = transmission;
+            this.minSeats = minSeats;
+            this.maxSeats = maxSeats;
+        }
+    }
+
+    /** @return the user's ID, or -1 if the credentials were rejected */
+    int login(String username, String password);
+
+    /** @return the number of matching cars */
+    int search(Query query);
+
+    /** Cars an actor can try to book; may be a few seconds stale, like a customer's open list. */
+    List<Car> availableCars();
+
+    BookingOutcome book(int userId, Car car, String startDate, String endDate, double amount);
+
+    /** @return the ID of one of the user's confirmed bookings, or -1 if there is none */
+    int cancellableBooking(int userId);
+
+    boolean cancel(int bookingId);
+
+    /** The admin overview: @return the number of active bookings */
+    int listActiveBookings();
+
+    /** @return pairs of confirmed bookings made during the run that overlap on the same car */
+    int countOverlappingBookings();
+
+    String describe();
+}
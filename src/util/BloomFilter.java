@@ -0,0 +1,101 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over case-insensitive strings.
+ * <p>
+ * {@link #mightContain} never returns {@code false} for a value that was added, so a
+ * negative answer can be trusted without asking the database. Positive answers are only
+ * "possibly present" and must be confirmed by the caller.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a filter sized for the given number of entries and target false-positive rate.
+     *
+     * @param expectedEntries       how many values the filter is expected to hold
+     * @param falsePositiveRate     the acceptable false-positive probability, e.g. 0.01
+     */
+    public BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, (m + 63) / 64 * 64);
+        this.bitCount = m;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, m / 64));
+    }
+
+    /** Adds a value; {@code null} is ignored. */
+    public void put(String value) {
+        if (value == null) return;
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /** @return {@code false} if the value was definitely never added, {@code true} if it may have been */
+    public boolean mightContain(String value) {
+        if (value == null) return false;
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** @return the number of bits in the filter */
+    public long bitSize() {
+        return bitCount;
+    }
+
+    /** @return the number of hash functions applied per value */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /** @return the theoretical false-positive rate after {@code entries} insertions */
+    public double expectedFalsePositiveRate(long entries) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries / bitCount), hashCount);
+    }
+
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // 64-bit FNV-1a over the lower-cased UTF-8 bytes, finished with the MurmurHash3 fmix64 step.
+    private static long hash(String value) {
+        byte[] data = value.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
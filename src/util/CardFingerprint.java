@@ -0,0 +1,90 @@
+package util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Keyed fingerprint of a card number (PAN).
+ * <p>
+ * The fingerprint is HMAC-SHA256 over the PAN's digits, hex encoded. The key comes from the
+ * {@code srent.card.key} system property or the {@code SRENT_CARD_KEY} environment variable,
+ * so the same card always maps to the same value inside one deployment while the value alone
+ * does not reveal the number. There is no built-in fallback key: without one configured, no
+ * fingerprint is computed, and {@link #requireKey()} lets the app check that before it starts.
+ */
+public final class CardFingerprint {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    /** Shortest accepted key, in bytes. */
+    private static final int MIN_KEY_BYTES = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Loaded on the first fingerprint, so {@link #requireKey()} can report a missing key itself. */
+    private static final class Key {
+        static final byte[] BYTES = loadKey();
+    }
+
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(Key.BYTES, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    });
+
+    private CardFingerprint() {
+    }
+
+    /**
+     * Checks the key configuration without fingerprinting anything, for startup.
+     *
+     * @throws IllegalStateException if no key of at least {@value #MIN_KEY_BYTES} bytes is configured
+     */
+    public static void requireKey() {
+        loadKey();
+    }
+
+    /** @return the 64-character hex fingerprint of the digits in {@code pan} */
+    public static String of(CharSequence pan) {
+        Mac mac = MAC.get();
+        for (int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if (c >= '0' && c <= '9') mac.update((byte) c);
+        }
+        byte[] digest = mac.doFinal();
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /** @return the last four digits of {@code pan}, ignoring separators */
+    public static String lastFour(CharSequence pan) {
+        char[] last = new char[4];
+        int found = 0;
+        for (int i = pan.length() - 1; i >= 0 && found < 4; i--) {
+            char c = pan.charAt(i);
+            if (c >= '0' && c <= '9') last[3 - found++] = c;
+        }
+        return new String(last, 4 - found, found);
+    }
+
+    private static byte[] loadKey() {
+        String key = System.getProperty("srent.card.key");
+        if (key == null || key.isEmpty()) key = System.getenv("SRENT_CARD_KEY");
+        if (key == null || key.isEmpty()) {
+            throw new IllegalStateException("No card fingerprint key: set SRENT_CARD_KEY or -Dsrent.card.key.");
+        }
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("The card fingerprint key must be at least " + MIN_KEY_BYTES + " bytes long.");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,130 @@
+package util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off data step of the card fingerprint migration, run by hand between
+ * {@code migrations/001_card_fingerprint_columns.sql} and {@code 002_drop_card_numbers.sql}:
+ * <pre>
+ * java -Dsrent.card.key=... -cp ... util.CardMigration
+ * </pre>
+ * Every {@code Card} row that still has a {@code card_number} but no fingerprint is fingerprinted
+ * with the deployment's key, which SQL alone cannot do. A row whose number is already stored
+ * under another card_id is merged into that card: its users are moved over, keeping one link
+ * per user, and the row is deleted. The numbers are cleared but the columns stay; dropping them
+ * is left to 002. Running it again does nothing.
+ */
+public final class CardMigration {
+
+    private CardMigration() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            CardFingerprint.requireKey();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        try (Connection conn = Srent_DB.getConnection()) {
+            if (!hasColumn(conn, "Card", "card_number")) {
+                System.out.println("Card has no card_number column; nothing to migrate.");
+                return;
+            }
+            int[] done = fingerprintStoredNumbers(conn);
+            System.out.printf("Fingerprinted %d cards, merged %d duplicates, %d cards left without a fingerprint%n",
+                    done[0], done[1], leftWithoutFingerprint(conn));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /** @return {fingerprinted, merged} */
+    private static int[] fingerprintStoredNumbers(Connection conn) throws SQLException {
+        Map<String, Integer> stored = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT card_id, card_fingerprint FROM Card WHERE card_fingerprint IS NOT NULL");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) stored.put(rs.getString("card_fingerprint"), rs.getInt("card_id"));
+        }
+        String missingSql = "SELECT card_id, card_number FROM Card WHERE card_fingerprint IS NULL AND card_number IS NOT NULL";
+        String backfillSql = "UPDATE Card SET card_fingerprint = ?, card_last4 = ?, card_number = NULL WHERE card_id = ?";
+        // A user linked to both copies keeps one link; the duplicate Card row then goes.
+        String dropDuplicateLinks = "DELETE FROM brings WHERE card_id = ? AND user_id IN " +
+                "(SELECT user_id FROM (SELECT user_id FROM brings WHERE card_id = ?) kept)";
+        String moveLinks = "UPDATE brings SET card_id = ? WHERE card_id = ?";
+        String dropCard = "DELETE FROM Card WHERE card_id = ?";
+        conn.setAutoCommit(false);
+        try (PreparedStatement select = conn.prepareStatement(missingSql);
+             PreparedStatement backfill = conn.prepareStatement(backfillSql);
+             PreparedStatement dropLinks = conn.prepareStatement(dropDuplicateLinks);
+             PreparedStatement move = conn.prepareStatement(moveLinks);
+             PreparedStatement drop = conn.prepareStatement(dropCard)) {
+            int fingerprinted = 0;
+            List<int[]> duplicates = new ArrayList<>();
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    int cardId = rs.getInt("card_id");
+                    String number = rs.getString("card_number");
+                    String fingerprint = CardFingerprint.of(number);
+                    Integer keep = stored.putIfAbsent(fingerprint, cardId);
+                    if (keep != null) {
+                        duplicates.add(new int[]{keep, cardId});
+                        continue;
+                    }
+                    backfill.setString(1, fingerprint);
+                    backfill.setString(2, CardFingerprint.lastFour(number));
+                    backfill.setInt(3, cardId);
+                    backfill.addBatch();
+                    fingerprinted++;
+                }
+            }
+            backfill.executeBatch();
+            for (int[] d : duplicates) {
+                dropLinks.setInt(1, d[1]);
+                dropLinks.setInt(2, d[0]);
+                dropLinks.executeUpdate();
+                move.setInt(1, d[0]);
+                move.setInt(2, d[1]);
+                move.executeUpdate();
+                drop.setInt(1, d[1]);
+                drop.executeUpdate();
+            }
+            conn.commit();
+            return new int[]{fingerprinted, duplicates.size()};
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static long leftWithoutFingerprint(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM Card WHERE card_fingerprint IS NULL AND card_number IS NOT NULL")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT * FROM " + table + " WHERE 1 = 0")) {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                if (meta.getColumnName(i).equalsIgnoreCase(column)) return true;
+            }
+        }
+        return false;
+    }
+}
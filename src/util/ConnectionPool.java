@@ -0,0 +1,208 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal JDBC connection pool.
+ * <p>
+ * {@link #getConnection()} hands out a proxy whose {@code close()} returns the physical
+ * connection to the pool instead of closing it. At most {@code maxTotal} connections are handed
+ * out at once; a caller beyond that waits up to {@code maxWaitMs} for one to come back and then
+ * gets an {@link SQLException}, so a burst queues up instead of opening connections until the
+ * server refuses them. Up to {@code maxIdle} returned connections are kept. On return the proxy
+ * closes any statements the caller left open and rolls back an unfinished transaction.
+ * <p>
+ * A connection that sat idle for less than {@code validateAfterMs} is handed out as it is; only
+ * older ones get the {@code isValid} round trip, since those are the ones a server timeout or a
+ * network drop may have killed.
+ */
+public class ConnectionPool {
+
+    /** Defaults for pools built with the short constructor. */
+    public static final int DEFAULT_MAX_TOTAL = 64;
+    public static final long DEFAULT_MAX_WAIT_MS = 5_000;
+    public static final long DEFAULT_VALIDATE_AFTER_MS = 30_000;
+
+    /** A returned connection and when it came back. */
+    private static final class Idle {
+        final Connection physical;
+        final long since;
+
+        Idle(Connection physical, long since) {
+            this.physical = physical;
+            this.since = since;
+        }
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final BlockingQueue<Idle> idle;
+    private final int maxTotal;
+    private final Semaphore permits;
+    private final long maxWaitMs;
+    private final long validateAfterMs;
+
+    public ConnectionPool(String url, String user, String password, int maxIdle) {
+        this(url, user, password, maxIdle, DEFAULT_MAX_TOTAL, DEFAULT_MAX_WAIT_MS, DEFAULT_VALIDATE_AFTER_MS);
+    }
+
+    public ConnectionPool(String url, String user, String password, int maxIdle, int maxTotal,
+                          long maxWaitMs, long validateAfterMs) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxTotal = Math.max(1, maxTotal);
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, Math.min(maxIdle, this.maxTotal)));
+        this.permits = new Semaphore(this.maxTotal, true);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.validateAfterMs = Math.max(0, validateAfterMs);
+    }
+
+    /**
+     * @return a pooled connection; closing it hands it back to the pool
+     * @throws SQLException if none could be opened, or none came free within {@code maxWaitMs}
+     */
+    public Connection getConnection() throws SQLException {
+        try {
+            if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Connection pool exhausted: " + maxTotal
+                        + " connections in use for more than " + maxWaitMs + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection.", e);
+        }
+        try {
+            Idle entry;
+            while ((entry = idle.poll()) != null) {
+                if (isUsable(entry)) return wrap(entry.physical);
+                closeQuietly(entry.physical);
+            }
+            return wrap(DriverManager.getConnection(url, user, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Opens connections until {@code count} are idle, e.g. while the login screen is shown. */
+    public void warmUp(int count) {
+        try {
+            // Idle plus borrowed stays within maxTotal.
+            while (idle.size() < count && idle.size() + inUseCount() < maxTotal) {
+                Connection physical = DriverManager.getConnection(url, user, password);
+                if (!idle.offer(new Idle(physical, System.currentTimeMillis()))) {
+                    closeQuietly(physical);
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Connection pool warm-up failed: " + e.getMessage());
+        }
+    }
+
+    /** @return the number of idle physical connections */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /** @return the number of connections handed out and not yet closed */
+    public int inUseCount() {
+        return maxTotal - permits.availablePermits();
+    }
+
+    /** Closes every idle connection. */
+    public void shutdown() {
+        Idle entry;
+        while ((entry = idle.poll()) != null) closeQuietly(entry.physical);
+    }
+
+    private void release(Connection physical, List<Statement> statements) {
+        try {
+            for (Statement statement : statements) {
+                try { statement.close(); } catch (SQLException ignored) {}
+            }
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!idle.offer(new Idle(physical, System.currentTimeMillis()))) closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isUsable(Idle entry) {
+        try {
+            if (entry.physical.isClosed()) return false;
+            return System.currentTimeMillis() - entry.since < validateAfterMs || entry.physical.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection physical) {
+        try { physical.close(); } catch (SQLException ignored) {}
+    }
+
+    private Connection wrap(Connection physical) {
+        InvocationHandler handler = new InvocationHandler() {
+            private final List<Statement> statements = new ArrayList<>();
+            private boolean closed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            release(physical, statements);
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed || physical.isClosed();
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(physical)) return physical;
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled[" + physical + "]";
+                    default:
+                        break;
+                }
+                if (closed) throw new SQLException("Connection is closed.");
+                try {
+                    Object result = method.invoke(physical, args);
+                    if (result instanceof Statement) statements.add((Statement) result);
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{ Connection.class }, handler);
+    }
+}
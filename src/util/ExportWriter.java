@@ -0,0 +1,227 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows as CSV (RFC 4180, header line first) or as a JSON array of objects, one per line,
+ * through a file channel with an optional gzip layer. Fields are appended one by one into a
+ * char buffer that is encoded and written in 64K chunks, so memory stays the same whatever
+ * the row count.
+ * <p>
+ * Rows go to a {@code .part} file next to the target. {@link #commit()} finishes it and renames
+ * it into place; closing without a commit deletes it, so a failed export leaves no truncated
+ * file that looks complete, and an earlier export under the same name stays as it was.
+ * <pre>
+ * try (ExportWriter w = ExportWriter.open(file, Format.CSV, false, columns)) {
+ *     w.num(id).text(name).money(amount).endRow();
+ *     w.commit();
+ * }
+ * </pre>
+ */
+public final class ExportWriter implements Closeable {
+
+    public enum Format {
+        CSV, JSON;
+
+        public String extension() {
+            return this == CSV ? ".csv" : ".json";
+        }
+    }
+
+    private static final int FLUSH_CHARS = 1 << 16;
+
+    private final Path file;
+    private final Path part;
+    private final Format format;
+    private final String[] columns;
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(FLUSH_CHARS * 3);
+    private final StringBuilder buf = new StringBuilder(FLUSH_CHARS + 1024);
+    private int field;
+    private long rows;
+    private boolean finished;
+    private boolean committed;
+
+    private ExportWriter(Path file, Format format, boolean gzip, String[] columns) throws IOException {
+        this.file = file;
+        this.part = file.resolveSibling(file.getFileName() + ".part");
+        this.format = format;
+        this.columns = columns;
+        FileChannel fc = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.channel = gzip ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(fc), 1 << 16)) : fc;
+        if (format == Format.CSV) {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) buf.append(',');
+                buf.append(columns[i]);
+            }
+            buf.append("\r\n");
+        } else {
+            buf.append('[');
+        }
+    }
+
+    public static ExportWriter open(Path file, Format format, boolean gzip, String... columns) throws IOException {
+        return new ExportWriter(file, format, gzip, columns);
+    }
+
+    public ExportWriter num(long value) {
+        name();
+        buf.append(value);
+        return this;
+    }
+
+    /** Two decimals, without going through {@code String.format}. */
+    public ExportWriter money(double value) {
+        name();
+        long cents = Math.round(value * 100);
+        if (cents < 0) {
+            buf.append('-');
+            cents = -cents;
+        }
+        buf.append(cents / 100).append('.');
+        long rest = cents % 100;
+        if (rest < 10) buf.append('0');
+        buf.append(rest);
+        return this;
+    }
+
+    /** {@code null} is an empty CSV field or JSON {@code null}. */
+    public ExportWriter text(String value) {
+        name();
+        if (value == null) {
+            if (format == Format.JSON) buf.append("null");
+        } else if (format == Format.JSON) {
+            jsonString(value);
+        } else {
+            csvField(value);
+        }
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        if (format == Format.CSV) {
+            buf.append("\r\n");
+        } else {
+            buf.append('}');
+        }
+        field = 0;
+        rows++;
+        if (buf.length() >= FLUSH_CHARS) flush();
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    private void name() {
+        if (format == Format.CSV) {
+            if (field++ > 0) buf.append(',');
+            return;
+        }
+        if (field == 0) buf.append(rows == 0 ? "\n{" : ",\n{");
+        else buf.append(',');
+        buf.append('"').append(columns[field++]).append("\":");
+    }
+
+    private void csvField(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            buf.append(value);
+            return;
+        }
+        buf.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') buf.append('"');
+            buf.append(c);
+        }
+        buf.append('"');
+    }
+
+    private void jsonString(String value) {
+        buf.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': buf.append("\\\""); break;
+                case '\\': buf.append("\\\\"); break;
+                case '\n': buf.append("\\n"); break;
+                case '\r': buf.append("\\r"); break;
+                case '\t': buf.append("\\t"); break;
+                default:
+                    if (c < 0x20) buf.append(String.format("\\u%04x", (int) c));
+                    else buf.append(c);
+            }
+        }
+        buf.append('"');
+    }
+
+    private void flush() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(buf);
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            drain();
+            if (result.isUnderflow()) break;
+            if (result.isError()) result.throwException();
+        }
+        encoder.reset();
+        buf.setLength(0);
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) channel.write(bytes);
+        bytes.clear();
+    }
+
+    /** Completes the file and moves it to its final name; call once every row is written. */
+    public void commit() throws IOException {
+        if (finished) throw new IOException("Export to " + file + " is already closed");
+        finished = true;
+        try {
+            if (format == Format.JSON) buf.append(rows == 0 ? "]\n" : "\n]\n");
+            flush();
+        } finally {
+            channel.close();
+        }
+        try {
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+    }
+
+    /** Without a {@link #commit()} first, discards the partial file. */
+    @Override
+    public void close() throws IOException {
+        if (committed) return;
+        try {
+            if (!finished) channel.close();
+        } finally {
+            finished = true;
+            Files.deleteIfExists(part);
+        }
+    }
+}
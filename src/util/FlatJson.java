@@ -0,0 +1,100 @@
+package util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parser for flat JSON objects: string keys mapped to strings, numbers, booleans or null, no
+ * nesting. Enough for the HTTP API's request bodies and the user import's JSON-lines files.
+ */
+public final class FlatJson {
+
+    private FlatJson() {
+    }
+
+    /**
+     * Values are returned as their text: strings unescaped, other literals as written,
+     * {@code null} for JSON null.
+     *
+     * @throws IllegalArgumentException if {@code text} is not such an object
+     */
+    public static Map<String, String> parseObject(String text) {
+        Map<String, String> values = new HashMap<>();
+        int[] pos = {skipSpace(text, 0)};
+        expect(text, pos, '{');
+        if (peek(text, pos) == '}') {
+            pos[0]++;
+            return values;
+        }
+        while (true) {
+            String key = readString(text, pos);
+            expect(text, pos, ':');
+            values.put(key, readValue(text, pos, key));
+            char next = peek(text, pos);
+            pos[0]++;
+            if (next == '}') return values;
+            if (next != ',') throw new IllegalArgumentException("expected ',' or '}' at " + (pos[0] - 1));
+        }
+    }
+
+    private static String readValue(String s, int[] pos, String key) {
+        if (peek(s, pos) == '"') return readString(s, pos);
+        int start = pos[0];
+        while (pos[0] < s.length() && ",} \t\r\n".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+        String literal = s.substring(start, pos[0]);
+        if (literal.isEmpty()) throw new IllegalArgumentException("missing value for \"" + key + "\" at " + start);
+        if (literal.startsWith("{") || literal.startsWith("[")) {
+            throw new IllegalArgumentException("nested value for \"" + key + "\" is not supported");
+        }
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static String readString(String s, int[] pos) {
+        expect(s, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < s.length()) {
+            char c = s.charAt(pos[0]++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos[0] >= s.length()) break;
+            char esc = s.charAt(pos[0]++);
+            switch (esc) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > s.length()) throw new IllegalArgumentException("bad unicode escape");
+                    try {
+                        sb.append((char) Integer.parseInt(s.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("bad unicode escape");
+                    }
+                    pos[0] += 4;
+                    break;
+                default: sb.append(esc);
+            }
+        }
+        throw new IllegalArgumentException("unterminated string");
+    }
+
+    private static void expect(String s, int[] pos, char c) {
+        if (peek(s, pos) != c) throw new IllegalArgumentException("expected '" + c + "' at " + pos[0]);
+        pos[0]++;
+    }
+
+    private static char peek(String s, int[] pos) {
+        pos[0] = skipSpace(s, pos[0]);
+        if (pos[0] >= s.length()) throw new IllegalArgumentException("unexpected end of input");
+        return s.charAt(pos[0]);
+    }
+
+    private static int skipSpace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+}
@@ -0,0 +1,249 @@
+package util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes queries to regional databases. Each region (shard) owns its fleet: cars, their
+ * specifications, branches and the bookings on them, with {@code makes}/{@code reserves}/
+ * {@code has}/{@code manages} rows next to them. Users, cards and everything else global stay
+ * on the home shard, which is also what {@link Srent_DB#getConnection()} returns.
+ * <p>
+ * Configured with {@code -Dsrent.shards=istanbul=jdbc:mysql://10.0.0.1:3306/srent,ankara=jdbc:...}
+ * and optionally {@code -Dsrent.shard.home=istanbul} (default: the first). Without it there is one
+ * shard, the {@link Srent_DB} database, and every call below goes there.
+ * <p>
+ * Shard k hands out car, booking, specification and branch ids in
+ * {@code (k * ID_RANGE, (k + 1) * ID_RANGE]}, so the owner of any id is known without a lookup;
+ * the first shard keeps the ids of an existing single database. The other shards get their
+ * AUTO_INCREMENT counters moved into their range on first use. Regional shards run the same DDL
+ * minus the foreign keys to {@code User}, which lives on the home shard only.
+ */
+public final class ShardRouter {
+
+    public static final long ID_RANGE = 100_000_000L;
+    public static final String DEFAULT_REGION = "default";
+
+    /** A query run on one shard's connection; the router opens and closes the connection. */
+    public interface ShardQuery<T> {
+        List<T> run(Connection conn) throws SQLException;
+    }
+
+    private static final String[][] ROUTED_IDS = {
+            {"Car", "car_id"}, {"Booking", "booking_id"}, {"VehicleSpecification", "specification_id"},
+            {"Branch", "branch_id"}};
+
+    // Regions come from the properties alone, so asking about them never opens a connection.
+    private static final String[] REGIONS;
+    private static final int HOME;
+
+    static {
+        Map<String, String> configured = configured();
+        if (configured.isEmpty()) {
+            REGIONS = new String[]{DEFAULT_REGION};
+            HOME = 0;
+        } else {
+            REGIONS = configured.keySet().toArray(new String[0]);
+            HOME = Arrays.asList(REGIONS).indexOf(System.getProperty("srent.shard.home", REGIONS[0]));
+            if (HOME < 0) throw new IllegalArgumentException("srent.shard.home is not in srent.shards");
+        }
+    }
+
+    private ShardRouter() {
+    }
+
+    /** {@code srent.shards} as region -> JDBC URL, in configured order; empty when not sharded. */
+    static Map<String, String> configured() {
+        Map<String, String> shards = new LinkedHashMap<>();
+        String spec = System.getProperty("srent.shards", "").trim();
+        if (spec.isEmpty()) return shards;
+        for (String part : spec.split(",")) {
+            int eq = part.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("srent.shards entry must be region=jdbcUrl: " + part);
+            shards.put(part.substring(0, eq).trim(), part.substring(eq + 1).trim());
+        }
+        return shards;
+    }
+
+    /** The URL {@link Srent_DB} connects to: the home shard's when sharded, {@code fallback} otherwise. */
+    static String homeUrl(String fallback) {
+        Map<String, String> shards = configured();
+        if (shards.isEmpty()) return fallback;
+        String home = System.getProperty("srent.shard.home");
+        if (home == null) return shards.values().iterator().next();
+        String url = shards.get(home);
+        if (url == null) throw new IllegalArgumentException("srent.shard.home " + home + " is not in srent.shards");
+        return url;
+    }
+
+    /** Built on first use, after {@link Srent_DB} has its pool. */
+    private static final class Shards {
+        static final ConnectionPool[] POOLS = new ConnectionPool[REGIONS.length];
+        static final ExecutorService FAN_OUT;
+
+        static {
+            Map<String, String> configured = configured();
+            for (int i = 0; i < REGIONS.length; i++) {
+                POOLS[i] = i == HOME ? Srent_DB.getPool() : Srent_DB.newPool(configured.get(REGIONS[i]));
+            }
+            AtomicInteger ids = new AtomicInteger();
+            FAN_OUT = Executors.newFixedThreadPool(Math.max(2, REGIONS.length * 2), r -> {
+                Thread t = new Thread(r, "shard-fan-out-" + ids.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            for (int i = 1; i < REGIONS.length; i++) reserveIdRange(i);
+        }
+    }
+
+    public static boolean isSharded() {
+        return REGIONS.length > 1;
+    }
+
+    public static List<String> regions() {
+        return Collections.unmodifiableList(Arrays.asList(REGIONS));
+    }
+
+    public static String homeRegion() {
+        return REGIONS[HOME];
+    }
+
+    /** The region that owns a car, booking or specification id. */
+    public static String regionOf(long id) {
+        return REGIONS[shardOf(id)];
+    }
+
+    public static Connection forRegion(String region) throws SQLException {
+        int shard = Arrays.asList(REGIONS).indexOf(region);
+        if (shard < 0) throw new IllegalArgumentException("Unknown region: " + region);
+        return connection(shard);
+    }
+
+    public static Connection forCar(int carId) throws SQLException {
+        return connection(shardOf(carId));
+    }
+
+    public static Connection forBooking(int bookingId) throws SQLException {
+        return connection(shardOf(bookingId));
+    }
+
+    public static Connection forSpecification(int specId) throws SQLException {
+        return connection(shardOf(specId));
+    }
+
+    /**
+     * What {@link #fanOut} returns when shards failed: the rows of the shards that answered,
+     * plus the regions that did not.
+     */
+    public static final class PartialResult<T> extends ArrayList<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> failedRegions;
+
+        PartialResult(List<T> rows, List<String> failedRegions) {
+            super(rows);
+            this.failedRegions = Collections.unmodifiableList(failedRegions);
+        }
+
+        public List<String> getFailedRegions() {
+            return failedRegions;
+        }
+    }
+
+    /** @return whether {@code result} came from {@link #fanOut} with at least one shard missing */
+    public static boolean isPartial(List<?> result) {
+        return result instanceof PartialResult;
+    }
+
+    /**
+     * Runs {@code query} on every shard in parallel and concatenates the results in region
+     * order. A shard that fails is reported and left out, so listings degrade instead of
+     * failing as a whole, and the result is then a {@link PartialResult}. Callers that must not
+     * act on incomplete data, such as index rebuilds, check {@link #isPartial}.
+     */
+    public static <T> List<T> fanOut(ShardQuery<T> query) {
+        int n = REGIONS.length;
+        List<Future<List<T>>> parts = new ArrayList<>(n - 1);
+        for (int i = 1; i < n; i++) {
+            int shard = i;
+            parts.add(Shards.FAN_OUT.submit(() -> runOn(shard, query)));
+        }
+        List<T> merged = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        // The caller's thread takes the first shard itself instead of just waiting.
+        try {
+            merged.addAll(runOn(0, query));
+        } catch (SQLException e) {
+            shardFailed(0, e, failed);
+        }
+        for (int i = 1; i < n; i++) {
+            try {
+                merged.addAll(parts.get(i - 1).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (int rest = i; rest < n; rest++) failed.add(REGIONS[rest]);
+                break;
+            } catch (ExecutionException e) {
+                shardFailed(i, e.getCause(), failed);
+            }
+        }
+        return failed.isEmpty() ? merged : new PartialResult<>(merged, failed);
+    }
+
+    private static <T> List<T> runOn(int shard, ShardQuery<T> query) throws SQLException {
+        try (Connection conn = Shards.POOLS[shard].getConnection()) {
+            return query.run(conn);
+        }
+    }
+
+    private static void shardFailed(int shard, Throwable cause, List<String> failed) {
+        System.err.println("Shard " + REGIONS[shard] + " failed: " + cause.getMessage());
+        cause.printStackTrace();
+        failed.add(REGIONS[shard]);
+    }
+
+    // Ids outside every configured range (never issued by this router) stay on the first shard.
+    static int shardOf(long id) {
+        long shard = (id - 1) / ID_RANGE;
+        return shard < 0 || shard >= REGIONS.length ? 0 : (int) shard;
+    }
+
+    /** @throws SQLException if the shard's pool cannot hand out a connection */
+    private static Connection connection(int shard) throws SQLException {
+        return Shards.POOLS[shard].getConnection();
+    }
+
+    /** Moves shard k's AUTO_INCREMENT counters to the start of its id range if they are below it. */
+    private static void reserveIdRange(int shard) {
+        long first = shard * ID_RANGE + 1;
+        try (Connection conn = Shards.POOLS[shard].getConnection(); Statement st = conn.createStatement()) {
+            boolean mysql = conn.getMetaData().getURL().startsWith("jdbc:mysql:");
+            for (String[] table : ROUTED_IDS) {
+                long max;
+                try (ResultSet rs = st.executeQuery("SELECT MAX(" + table[1] + ") FROM " + table[0])) {
+                    max = rs.next() ? rs.getLong(1) : 0;
+                }
+                if (max >= first) continue;
+                st.execute(mysql
+                        ? "ALTER TABLE " + table[0] + " AUTO_INCREMENT = " + first
+                        : "ALTER TABLE " + table[0] + " ALTER COLUMN " + table[1] + " RESTART WITH " + first);
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not reserve the id range of shard " + REGIONS[shard]);
+            e.printStackTrace();
+        }
+    }
+}
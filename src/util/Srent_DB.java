@@ -1,24 +1,32 @@
 package util;
 
 import java.sql.*;
-import java.util.*;
 
 public class Srent_DB {
-    private static String userType;
-    private static Connection conn;
-    private static PreparedStatement ps;
-    private static Scanner scanner;
     private static String HOST_NAME = "127.0.0.1";
     private static final String PORT = "3306";               // mysql use this port(default)
-    private static final String USER_NAME = "root";          // admin name: root
-    private static final String PASSWORD = "Wthrw_<>1215@";     // admin pwd
+    private static final String USER_NAME = System.getProperty("srent.db.user", "root");          // admin name: root
+    private static final String PASSWORD = System.getProperty("srent.db.password", "Wthrw_<>1215@");     // admin pwd
     private static final String DB_NAME = "srent";
+    private static final int POOL_MAX_IDLE = 8;
+    // Per database; sized above ApiServer's default of 32 concurrent requests.
+    private static final int POOL_MAX_TOTAL = Integer.getInteger("srent.db.maxConnections", ConnectionPool.DEFAULT_MAX_TOTAL);
+    private static final long POOL_MAX_WAIT_MS = Long.getLong("srent.db.maxWaitMs", ConnectionPool.DEFAULT_MAX_WAIT_MS);
+    private static final long POOL_VALIDATE_AFTER_MS = Long.getLong("srent.db.validateIdleMs", ConnectionPool.DEFAULT_VALIDATE_AFTER_MS);
 
+    /**
+     * {@code -Dsrent.db.url} points the app at another database, e.g. an embedded one for benchmarks.
+     * With {@code -Dsrent.shards} this is the home shard (see {@link ShardRouter}).
+     */
+    private static final String URL = ShardRouter.homeUrl(System.getProperty("srent.db.url",
+            "jdbc:mysql://" + HOST_NAME + ":" + PORT + "/" + DB_NAME)); // need to specify DB_NAME
+
+    private static final ConnectionPool POOL = newPool(URL);
+
+    /** Borrows a pooled connection; {@code close()} returns it to the pool. */
     public static Connection getConnection() {
         try {
-            String url = "jdbc:mysql://" + HOST_NAME + ":" + PORT + "/" + DB_NAME; // need to specify DB_NAME
-            Connection connection = DriverManager.getConnection(url, USER_NAME, PASSWORD);
-            return connection;
+            return POOL.getConnection();
 
         } catch(SQLException e) {
             e.printStackTrace();
@@ -26,23 +34,33 @@ public class Srent_DB {
         }
     }
 
+    public static ConnectionPool getPool() {
+        return POOL;
+    }
+
+    /** A pool for another database with the same credentials, for the regional shards. */
+    static ConnectionPool newPool(String url) {
+        return new ConnectionPool(url, USER_NAME, PASSWORD, POOL_MAX_IDLE, POOL_MAX_TOTAL,
+                POOL_MAX_WAIT_MS, POOL_VALIDATE_AFTER_MS);
+    }
+
     public static String getDBName() {
         return DB_NAME;
     }
 
     /* checks if the user is exist or not */
+    // conn/ps are locals: shared static fields let concurrent callers close each other's statements
     public static boolean authenticateUser(int userID, String password) {
-        try {
-            boolean isFound;
-            conn = getConnection();
-            String sql = "SELECT * FROM user WHERE user_id = ? AND password = ?";
-            ps = conn.prepareStatement(sql);
+        String sql = "SELECT * FROM user WHERE user_id = ? AND password = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, userID);
             ps.setString(2, password);
-            ResultSet rs = ps.executeQuery();
-            conn.close();
+            boolean isFound;
+            try (ResultSet rs = ps.executeQuery()) {
+                isFound = rs.next();
+            }
 
-            isFound = rs.next();
             System.out.println(isFound ? "User is found" : "User is not found");
             return isFound;
 
@@ -53,17 +71,14 @@ public class Srent_DB {
         }
     }
 
-    /* reserves car for that user */
-    public static boolean reserveCar(int userID, int carID) {
-        try {
-            conn = getConnection();
-            String sql = "INSERT INTO reserves VALUES(?,?)";
-            ps = conn.prepareStatement(sql);
-            ps.setInt(1, userID);
+    /* reserves car for that booking */
+    public static boolean reserveCar(int bookingID, int carID) {
+        String sql = "INSERT INTO reserves (booking_id, car_id) VALUES (?, ?)";
+        try (Connection conn = ShardRouter.forCar(carID);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, bookingID);
             ps.setInt(2, carID);
-            ResultSet rs = ps.executeQuery();
-            conn.close();
-            return rs.next();
+            return ps.executeUpdate() > 0;
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -73,14 +88,11 @@ public class Srent_DB {
     }
 
     public static boolean cancelReservation(int bookingID) {
-        try {
-            conn = getConnection();
-            String sql = "DELETE FROM reservations WHERE booking_id = ?";
-            ps = conn.prepareStatement(sql);
+        String sql = "DELETE FROM reserves WHERE booking_id = ?";
+        try (Connection conn = ShardRouter.forBooking(bookingID);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, bookingID);
-            ResultSet rs = ps.executeQuery();
-            conn.close();
-            return rs.next();
+            return ps.executeUpdate() > 0;
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,338 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over a few short text fields per document.
+ * <p>
+ * Every field is split into tokens and each token is padded as {@code "  token "} before
+ * its trigrams are taken, so a query of three or more characters behaves like
+ * {@code LIKE '%query%'} while one- and two-character queries match token prefixes.
+ * Posting lists are sorted {@code int} arrays, which keeps a million documents compact
+ * and lets candidate lists be intersected with binary search.
+ */
+public class TrigramIndex {
+
+    private static final int SCORE_EXACT_TOKEN = 100;
+    private static final int SCORE_TOKEN_PREFIX = 50;
+    private static final int SCORE_SUBSTRING = 10;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private String[][] normalized = new String[16][];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a document or replaces the fields of an existing one.
+     *
+     * @param id     the document id (e.g. user_id); must not be negative
+     * @param fields the searchable fields; {@code null} fields are ignored
+     */
+    public void put(int id, String... fields) {
+        String[] norm = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            norm[i] = fields[i] == null ? "" : fields[i].toLowerCase(Locale.ROOT);
+        }
+        lock.writeLock().lock();
+        try {
+            if (id >= normalized.length) {
+                normalized = Arrays.copyOf(normalized, Math.max(id + 1, normalized.length * 2));
+            }
+            String[] previous = normalized[id];
+            normalized[id] = norm;
+            documents.put(id, fields.clone());
+            if (previous != null) {
+                for (String field : previous) forEachTrigram(field, key -> remove(key, id));
+            }
+            for (String field : norm) forEachTrigram(field, key -> add(key, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the original fields stored for {@code id}, or {@code null} if it is not indexed */
+    public String[] get(int id) {
+        lock.readLock().lock();
+        try {
+            return documents.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the number of indexed documents */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Removes every document from the index. */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            normalized = new String[16][];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index and returns matching ids, best match first.
+     * Exact token matches rank above token prefixes, which rank above plain substrings;
+     * earlier fields weigh more than later ones and ties are broken by ascending id.
+     *
+     * @param query  the text typed by the user
+     * @param limit  maximum number of ids to return
+     * @param offset number of ranked ids to skip
+     * @return the ranked page of matching ids
+     */
+    public List<Integer> search(String query, int limit, int offset) {
+        List<Integer> result = new ArrayList<>();
+        if (query == null || limit <= 0) return result;
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) return result;
+
+        long[] keys;
+        if (q.length() >= 3) {
+            keys = innerTrigrams(q);
+        } else if (q.length() == 2) {
+            keys = new long[]{ pack(' ', ' ', q.charAt(0)), pack(' ', q.charAt(0), q.charAt(1)) };
+        } else {
+            keys = new long[]{ pack(' ', ' ', q.charAt(0)) };
+        }
+
+        lock.readLock().lock();
+        try {
+            int[][] lists = new int[keys.length][];
+            int[] sizes = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                Postings p = postings.get(keys[i]);
+                if (p == null) return result;
+                lists[i] = p.ids;
+                sizes[i] = p.size;
+            }
+            Integer[] order = new Integer[keys.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(sizes[a], sizes[b]));
+
+            int smallest = order[0];
+            int wanted = (int) Math.min(Integer.MAX_VALUE - 1L, (long) Math.max(0, offset) + limit);
+            TopK top = new TopK(Math.min(wanted, sizes[smallest]));
+            // Candidates come out of the smallest list in ascending order, so each other list
+            // only ever needs to be walked forward from where the previous candidate left it.
+            int[] cursors = new int[keys.length];
+            candidates:
+            for (int n = 0; n < sizes[smallest]; n++) {
+                int id = lists[smallest][n];
+                for (int k = 1; k < order.length; k++) {
+                    int other = order[k];
+                    int at = advance(lists[other], sizes[other], cursors[other], id);
+                    cursors[other] = at;
+                    if (at == sizes[other]) break candidates;
+                    if (lists[other][at] != id) continue candidates;
+                }
+                int score = score(normalized[id], q);
+                if (score > 0) top.offer(score, id);
+            }
+
+            int[] ranked = top.drainBestFirst();
+            for (int i = Math.max(0, offset); i < ranked.length; i++) {
+                result.add(ranked[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the first position at or after {@code from} whose id is {@code >= target} (galloping search) */
+    private static int advance(int[] ids, int size, int from, int target) {
+        if (from >= size || ids[from] >= target) return from;
+        int step = 1;
+        int lo = from;
+        int hi = from + 1;
+        while (hi < size && ids[hi] < target) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        if (hi > size) hi = size;
+        int at = Arrays.binarySearch(ids, lo + 1, hi, target);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private static int score(String[] fields, String q) {
+        int best = 0;
+        for (int f = 0; f < fields.length; f++) {
+            String field = fields[f];
+            int at = field.indexOf(q);
+            if (at < 0) continue;
+            int weight = fields.length - f;
+            int score = SCORE_SUBSTRING;
+            for (; at >= 0; at = field.indexOf(q, at + 1)) {
+                boolean tokenStart = at == 0 || isSeparator(field.charAt(at - 1));
+                if (!tokenStart) continue;
+                int end = at + q.length();
+                boolean tokenEnd = end == field.length() || isSeparator(field.charAt(end));
+                score = Math.max(score, tokenEnd ? SCORE_EXACT_TOKEN : SCORE_TOKEN_PREFIX);
+            }
+            // Short queries are prefix queries; a mid-token hit is not a match for them.
+            if (q.length() < 3 && score == SCORE_SUBSTRING) continue;
+            best = Math.max(best, score * 10 + weight);
+        }
+        return best;
+    }
+
+    private interface KeyConsumer {
+        void accept(long key);
+    }
+
+    private static void forEachTrigram(String field, KeyConsumer consumer) {
+        int start = 0;
+        int len = field.length();
+        while (start < len) {
+            while (start < len && isSeparator(field.charAt(start))) start++;
+            int end = start;
+            while (end < len && !isSeparator(field.charAt(end))) end++;
+            if (end > start) {
+                // "  tok " : two leading pads give prefix keys, one trailing pad gives a suffix key
+                char a = ' ', b = ' ';
+                for (int i = start; i <= end; i++) {
+                    char c = i < end ? field.charAt(i) : ' ';
+                    consumer.accept(pack(a, b, c));
+                    a = b;
+                    b = c;
+                }
+            }
+            start = end;
+        }
+        // Whole-field trigrams so that queries spanning separators ("doe@exa") still match.
+        for (int i = 0; i + 3 <= len; i++) {
+            consumer.accept(pack(field.charAt(i), field.charAt(i + 1), field.charAt(i + 2)));
+        }
+    }
+
+    private static long[] innerTrigrams(String q) {
+        long[] keys = new long[q.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = pack(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2));
+        }
+        return keys;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '.' || c == '@' || c == '_' || c == '-';
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private void add(long key, int id) {
+        postings.computeIfAbsent(key, k -> new Postings()).add(id);
+    }
+
+    private void remove(long key, int id) {
+        Postings p = postings.get(key);
+        if (p != null && p.remove(id) && p.size == 0) postings.remove(key);
+    }
+
+    /** Bounded min-heap keeping the best {@code capacity} (score, id) pairs packed into longs. */
+    private static final class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int capacity) {
+            heap = new long[Math.max(1, capacity)];
+        }
+
+        void offer(int score, int id) {
+            // Higher score wins; on equal score the lower id wins.
+            long key = ((long) score << 32) | (Integer.MAX_VALUE - id);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        int[] drainBestFirst() {
+            int[] ids = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ids[i] = Integer.MAX_VALUE - (int) heap[0];
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+            return ids;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) break;
+                int child = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+                if (heap[i] <= heap[child]) break;
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+    }
+
+    /** Sorted, de-duplicated, growable list of document ids. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            if (size == 0 || ids[size - 1] < id) {
+                ids[size++] = id;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) return;
+            at = -at - 1;
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return false;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
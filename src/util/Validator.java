@@ -0,0 +1,306 @@
+package util;
+
+import enums.CardBrand;
+
+/**
+ * Input checks for cards, emails, dates and coordinates, run before anything reaches the database.
+ * <p>
+ * Every method reads its {@link CharSequence} argument in place: no regular expressions,
+ * no substrings and no boxing, so a call allocates nothing and can sit on hot paths such as
+ * form validation on every keystroke or bulk imports.
+ */
+public final class Validator {
+
+    /** Returned by {@link #parseIsoDate} and {@link #parseExpiry} for unparseable input. */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    /** Longest rental a single booking may span, in days (inclusive of both ends). */
+    public static final int MAX_RENTAL_DAYS = 365;
+
+    private static final int MIN_CARD_DIGITS = 12;
+    private static final int MAX_CARD_DIGITS = 19;
+
+    private static final CardBrand[] BRANDS = CardBrand.values();
+
+    // {first prefix, last prefix, prefix length, CardBrand ordinal}; first matching row wins,
+    // so the longer, more specific prefixes come before the short ones they overlap.
+    private static final int[][] BRAND_PREFIXES = {
+            { 9792, 9792, 4, CardBrand.TROY.ordinal() },
+            { 2221, 2720, 4, CardBrand.MASTERCARD.ordinal() },
+            { 6304, 6304, 4, CardBrand.MAESTRO.ordinal() },
+            { 6759, 6759, 4, CardBrand.MAESTRO.ordinal() },
+            { 6761, 6763, 4, CardBrand.MAESTRO.ordinal() },
+            { 51, 55, 2, CardBrand.MASTERCARD.ordinal() },
+            { 50, 50, 2, CardBrand.MAESTRO.ordinal() },
+            { 56, 58, 2, CardBrand.MAESTRO.ordinal() },
+            { 4, 4, 1, CardBrand.VISA.ordinal() },
+    };
+
+    private Validator() {
+    }
+
+    /* ---------- cards ---------- */
+
+    /**
+     * @return {@code true} if the number has 12-19 digits (spaces and dashes allowed
+     *         between them) and passes the Luhn check
+     */
+    public static boolean isValidCardNumber(CharSequence number) {
+        int digits = countCardDigits(number);
+        return digits >= MIN_CARD_DIGITS && digits <= MAX_CARD_DIGITS && passesLuhn(number);
+    }
+
+    /** Luhn (mod 10) checksum over the digits of {@code number}, ignoring spaces and dashes. */
+    public static boolean passesLuhn(CharSequence number) {
+        if (number == null) return false;
+        int sum = 0;
+        int digits = 0;
+        for (int i = number.length() - 1; i >= 0; i--) {
+            char c = number.charAt(i);
+            if (c == ' ' || c == '-') continue;
+            if (c < '0' || c > '9') return false;
+            int d = c - '0';
+            if ((digits & 1) == 1) {
+                d <<= 1;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+            digits++;
+        }
+        return digits > 0 && sum % 10 == 0;
+    }
+
+    /** @return the brand implied by the number's leading digits, or {@link CardBrand#OTHER} */
+    public static CardBrand detectCardBrand(CharSequence number) {
+        if (number == null) return CardBrand.OTHER;
+        for (int[] row : BRAND_PREFIXES) {
+            int prefix = leadingDigits(number, row[2]);
+            if (prefix >= row[0] && prefix <= row[1]) return BRANDS[row[3]];
+        }
+        return CardBrand.OTHER;
+    }
+
+    /**
+     * Parses a card expiry written as {@code MM/YY}, {@code MM/YYYY}, {@code YYYY-MM} or
+     * {@code YYYY-MM-DD}.
+     *
+     * @return the expiry as {@code year * 100 + month}, or {@link #INVALID}
+     */
+    public static int parseExpiry(CharSequence s) {
+        if (s == null) return INVALID;
+        int len = s.length();
+        int year;
+        int month;
+        if ((len == 5 || len == 7) && s.charAt(2) == '/') {
+            month = digits(s, 0, 2);
+            year = digits(s, 3, len);
+            if (year != INVALID && len == 5) year += 2000;
+        } else if ((len == 7 || len == 10) && s.charAt(4) == '-') {
+            year = digits(s, 0, 4);
+            month = digits(s, 5, 7);
+            if (len == 10 && (s.charAt(7) != '-' || parseIsoDate(s) == INVALID)) return INVALID;
+        } else {
+            return INVALID;
+        }
+        if (year == INVALID || month == INVALID || month < 1 || month > 12) return INVALID;
+        return year * 100 + month;
+    }
+
+    /** @return {@code true} if the expiry parses and the card is still valid this month (UTC) */
+    public static boolean isValidExpiry(CharSequence s) {
+        return isValidExpiry(s, currentYearMonth());
+    }
+
+    /**
+     * @param currentYearMonth today as {@code year * 100 + month}
+     * @return {@code true} if the expiry parses and is not before {@code currentYearMonth};
+     *         a card stays valid through the last day of its expiry month
+     */
+    public static boolean isValidExpiry(CharSequence s, int currentYearMonth) {
+        int expiry = parseExpiry(s);
+        return expiry != INVALID && expiry >= currentYearMonth;
+    }
+
+    /* ---------- email ---------- */
+
+    /**
+     * Practical email syntax check: a dot-atom local part of at most 64 characters, an
+     * {@code @}, and a domain of at least two labels (letters, digits, inner hyphens) ending
+     * in an alphabetic top-level label. Total length is capped at 254 characters.
+     */
+    public static boolean isValidEmail(CharSequence s) {
+        if (s == null) return false;
+        int len = s.length();
+        if (len < 3 || len > 254) return false;
+
+        int at = -1;
+        for (int i = 0; i < len; i++) {
+            if (s.charAt(i) == '@') {
+                if (at >= 0) return false;
+                at = i;
+            }
+        }
+        if (at < 1 || at > 64 || at == len - 1) return false;
+
+        char prev = '.';
+        for (int i = 0; i < at; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (prev == '.') return false;
+            } else if (!isLocalPartChar(c)) {
+                return false;
+            }
+            prev = c;
+        }
+        if (prev == '.') return false;
+
+        int labels = 0;
+        int labelStart = at + 1;
+        boolean labelAlpha = true;
+        for (int i = at + 1; i <= len; i++) {
+            char c = i < len ? s.charAt(i) : '.';
+            if (c == '.') {
+                int labelLen = i - labelStart;
+                if (labelLen < 1 || labelLen > 63) return false;
+                if (s.charAt(labelStart) == '-' || s.charAt(i - 1) == '-') return false;
+                labels++;
+                if (i == len) {
+                    // top-level label: letters only, at least two of them
+                    return labels >= 2 && labelAlpha && labelLen >= 2;
+                }
+                labelStart = i + 1;
+                labelAlpha = true;
+            } else if ((c >= '0' && c <= '9') || c == '-') {
+                labelAlpha = false;
+            } else if (!isAsciiLetter(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /* ---------- dates ---------- */
+
+    /**
+     * Parses a strict {@code YYYY-MM-DD} date, honouring month lengths and leap years.
+     *
+     * @return days since 1970-01-01, or {@link #INVALID}
+     */
+    public static int parseIsoDate(CharSequence s) {
+        if (s == null || s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') return INVALID;
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 7);
+        int day = digits(s, 8, 10);
+        if (year == INVALID || month == INVALID || day == INVALID) return INVALID;
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) return INVALID;
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Sanity check for a rental period: both dates parse, the end is not before the start,
+     * and the booking spans at most {@link #MAX_RENTAL_DAYS} days.
+     */
+    public static boolean isValidDateRange(CharSequence start, CharSequence end) {
+        int from = parseIsoDate(start);
+        int to = parseIsoDate(end);
+        if (from == INVALID || to == INVALID || to < from) return false;
+        return to - from + 1 <= MAX_RENTAL_DAYS;
+    }
+
+    /** Latitude in {@code [-90, 90]} and longitude in {@code [-180, 180]} degrees; NaN fails. */
+    public static boolean isValidCoordinate(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /** @return the current UTC month as {@code year * 100 + month} */
+    public static int currentYearMonth() {
+        long day = Math.floorDiv(System.currentTimeMillis(), 86_400_000L);
+        // Inverse of epochDay(), after Howard Hinnant's civil_from_days.
+        long z = day + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 100 + month);
+    }
+
+    /* ---------- helpers ---------- */
+
+    private static int epochDay(int year, int month, int day) {
+        // Howard Hinnant's days_from_civil.
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int mp = month > 2 ? month - 3 : month + 9;
+        int doy = (153 * mp + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097 + doe - 719_468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /** @return the decimal value of {@code s[from, to)}, or {@link #INVALID} if any char is not a digit */
+    private static int digits(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return INVALID;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int countCardDigits(CharSequence number) {
+        if (number == null) return 0;
+        int digits = 0;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') digits++;
+            else if (c != ' ' && c != '-') return 0;
+        }
+        return digits;
+    }
+
+    /** @return the first {@code count} digits of a card number as an int, or -1 if it is shorter */
+    private static int leadingDigits(CharSequence number, int count) {
+        int value = 0;
+        int seen = 0;
+        for (int i = 0; i < number.length() && seen < count; i++) {
+            char c = number.charAt(i);
+            if (c == ' ' || c == '-') continue;
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+            seen++;
+        }
+        return seen == count ? value : -1;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        if (isAsciiLetter(c) || (c >= '0' && c <= '9')) return true;
+        switch (c) {
+            case '!': case '#': case '$': case '%': case '&': case '\'': case '*': case '+':
+            case '-': case '/': case '=': case '?': case '^': case '_': case '`': case '{':
+            case '|': case '}': case '~':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+-- 001: card fingerprints, step 1 of 2 (non-destructive).
+-- Adds the fingerprint and last-four columns to Card and moves expiry and holder name to
+-- `brings`, where each user keeps their own. Run this, then `java util.CardMigration` with the
+-- deployment's srent.card.key to fingerprint the stored numbers, then 002.
+
+ALTER TABLE Card
+    MODIFY card_number VARCHAR(19),
+    ADD COLUMN card_fingerprint CHAR(64),
+    ADD COLUMN card_last4 CHAR(4),
+    ADD UNIQUE KEY uq_card_fingerprint (card_fingerprint);
+
+ALTER TABLE brings
+    ADD COLUMN exp_date DATE,
+    ADD COLUMN name_on_card VARCHAR(60);
+
+UPDATE brings b JOIN Card c ON c.card_id = b.card_id
+   SET b.exp_date = c.exp_date, b.name_on_card = c.name_on_card;
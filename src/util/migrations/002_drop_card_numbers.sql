@@ -0,0 +1,7 @@
+-- 002: card fingerprints, step 2 of 2 (destructive).
+-- Drops the stored card numbers and the per-card expiry/holder columns. Only run this after
+-- `java util.CardMigration` has reported "0 cards left without a fingerprint"; take a backup first.
+
+ALTER TABLE Card DROP COLUMN card_number;
+ALTER TABLE Card DROP COLUMN exp_date;
+ALTER TABLE Card DROP COLUMN name_on_card;
@@ -0,0 +1,5 @@
+-- 003: adds 'reserved' to Car.vehicle_status.
+-- The application marks a booked car 'reserved' (BookingController.bookIfAvailable), which
+-- strict mode rejects while the ENUM does not list it. Safe to run on a live database.
+
+ALTER TABLE Car MODIFY vehicle_status ENUM('available','reserved','rented','service','retired') DEFAULT 'available';
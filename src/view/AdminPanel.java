@@ -1,25 +1,28 @@
 package view;
 
 import controller.CarController;
+import controller.UserController;
 import controller.VehicleSpecificationController;
 import model.Car;
+import util.ShardRouter;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
 
-public class AdminPanel extends JPanel {
+public class AdminPanel extends JPanel implements PanelRegistry.Reusable {
     private final CardLayout cardLayout;
     private final JPanel container;
 
     private JTable carTable;
-    private DefaultTableModel tableModel;
+    private ListTableModel<Car> tableModel;
 
     private JTextField modelField, rentField, seatField;
-    private JComboBox<String> fuelBox, transBox, colorBox, statusBox;
+    private JComboBox<String> fuelBox, transBox, colorBox, statusBox, regionBox;
     private JButton addButton, deleteButton, updateButton;
     private JButton manageBookingsButton;
+    private JLabel uniquenessStatsLabel;
+    private CoalescingLoader<List<Car>> carLoader;
 
     public AdminPanel(CardLayout cardLayout, JPanel container) {
         this.cardLayout = cardLayout;
@@ -41,6 +44,8 @@ public class AdminPanel extends JPanel {
         transBox = new JComboBox<>(new String[]{"Automatic", "Manual"});
         colorBox = new JComboBox<>(new String[]{"Black", "White", "Red", "Blue", "Silver"});
         statusBox = new JComboBox<>(new String[]{"available", "reserved"});
+        regionBox = new JComboBox<>(ShardRouter.regions().toArray(new String[0]));
+        regionBox.setSelectedItem(ShardRouter.homeRegion());
 
         // Row 0
         gbc.gridx = 0; gbc.gridy = 0; formPanel.add(new JLabel("Model:"), gbc);
@@ -63,12 +68,15 @@ public class AdminPanel extends JPanel {
         // Row 3
         gbc.gridx = 0; gbc.gridy = 3; formPanel.add(new JLabel("Status:"), gbc);
         gbc.gridx = 1; gbc.gridy = 3; formPanel.add(statusBox, gbc);
+        if (ShardRouter.isSharded()) {
+            gbc.gridx = 2; gbc.gridy = 3; formPanel.add(new JLabel("Region:"), gbc);
+            gbc.gridx = 3; gbc.gridy = 3; formPanel.add(regionBox, gbc);
+        }
 
         add(formPanel, BorderLayout.NORTH);
 
         // === Table Panel ===
-        String[] columns = {"ID", "Model", "Fuel", "Transmission", "Seats", "Color", "Rent", "Status"};
-        tableModel = new DefaultTableModel(columns, 0);
+        tableModel = CarTableModels.create("Rent");
         carTable = new JTable(tableModel);
         carTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         add(new JScrollPane(carTable), BorderLayout.CENTER);
@@ -84,56 +92,69 @@ public class AdminPanel extends JPanel {
         buttonPanel.add(deleteButton);
         buttonPanel.add(updateButton);
         buttonPanel.add(manageBookingsButton);
-
-        add(buttonPanel, BorderLayout.SOUTH);
+        JProgressBar loadingBar = CoalescingLoader.newIndicator();
+        buttonPanel.add(loadingBar);
+        carLoader = new CoalescingLoader<>(CarController::getAllCarsAsObjects, tableModel::setRows, loadingBar,
+                "admin car reload");
+
+        // Registration uniqueness filter: queries avoided and false-positive rate
+        uniquenessStatsLabel = new JLabel();
+        uniquenessStatsLabel.setFont(uniquenessStatsLabel.getFont().deriveFont(11f));
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(uniquenessStatsLabel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
 
         // === Events ===
         addButton.addActionListener(e -> onAddCar());
         deleteButton.addActionListener(e -> onDeleteCar());
         updateButton.addActionListener(e -> onUpdateCar());
-        manageBookingsButton.addActionListener(e -> {
-            ReservationManagementPanel rmp = new ReservationManagementPanel(cardLayout, container, true);
-            container.add(rmp, "manage_reservations");
-            cardLayout.show(container, "manage_reservations");
-        });
+        manageBookingsButton.addActionListener(e -> PanelRegistry.of(container).show("manage_reservations_admin",
+                () -> new ReservationManagementPanel(cardLayout, container, true)));
 
         carTable.getSelectionModel().addListSelectionListener(e -> fillFormFromTable());
 
         loadCars();
+        showUniquenessStats();
 
         // En sona ekle:
         this.addComponentListener(new java.awt.event.ComponentAdapter() {
             @Override
             public void componentShown(java.awt.event.ComponentEvent e) {
                 loadCars();
+                showUniquenessStats();
             }
         });
     }
 
+    @Override
+    public void release() {
+        carLoader.cancel();
+    }
+
     private void loadCars() {
-        tableModel.setRowCount(0);
-        List<Car> cars = CarController.getAllCarsAsObjects();
-        for (Car car : cars) {
-            tableModel.addRow(new Object[]{
-                    car.getId(), car.getModel(),
-                    car.getFuelType(), car.getTransmission(),
-                    car.getSeatingCapacity(), car.getColor(),
-                    car.getRentalPrice(), car.getStatus()
-            });
-        }
+        carLoader.request();
+    }
+
+    private void showUniquenessStats() {
+        String stats = UserController.getUniquenessFilterStats();
+        uniquenessStatsLabel.setText(" " + stats);
+        uniquenessStatsLabel.setToolTipText(stats);
     }
 
     private void fillFormFromTable() {
         int row = carTable.getSelectedRow();
         if (row == -1) return;
 
-        modelField.setText(tableModel.getValueAt(row, 1).toString());
-        fuelBox.setSelectedItem(tableModel.getValueAt(row, 2).toString());
-        transBox.setSelectedItem(tableModel.getValueAt(row, 3).toString());
-        seatField.setText(tableModel.getValueAt(row, 4).toString());
-        colorBox.setSelectedItem(tableModel.getValueAt(row, 5).toString());
-        rentField.setText(tableModel.getValueAt(row, 6).toString());
-        statusBox.setSelectedItem(tableModel.getValueAt(row, 7).toString());
+        Car car = tableModel.getRow(row);
+        modelField.setText(car.getModel());
+        fuelBox.setSelectedItem(car.getFuelType());
+        transBox.setSelectedItem(car.getTransmission());
+        seatField.setText(String.valueOf(car.getSeatingCapacity()));
+        colorBox.setSelectedItem(car.getColor());
+        rentField.setText(String.valueOf(car.getRentalPrice()));
+        statusBox.setSelectedItem(car.getStatus());
+        regionBox.setSelectedItem(ShardRouter.regionOf(car.getId()));
     }
 
     private void clearForm() {
@@ -144,6 +165,7 @@ public class AdminPanel extends JPanel {
         transBox.setSelectedIndex(0);
         colorBox.setSelectedIndex(0);
         statusBox.setSelectedIndex(0);
+        regionBox.setSelectedItem(ShardRouter.homeRegion());
         carTable.clearSelection();
     }
 
@@ -156,23 +178,23 @@ public class AdminPanel extends JPanel {
             String trans = (String) transBox.getSelectedItem();
             String color = (String) colorBox.getSelectedItem();
             String status = (String) statusBox.getSelectedItem();
-
-            boolean specAdded = VehicleSpecificationController.addSpecification(color, fuel, trans, seats);
-            if (!specAdded) {
-                JOptionPane.showMessageDialog(this, "Failed to add vehicle specification.");
-                return;
-            }
-
-            int lastSpecId = VehicleSpecificationController.getAllSpecifications().size();
-            boolean added = CarController.addCar(model, rent, 0.0, 0, status, lastSpecId);
-
-            if (added) {
-                JOptionPane.showMessageDialog(this, "Car successfully added.");
-                loadCars();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to add car.");
-            }
+            String region = (String) regionBox.getSelectedItem();
+
+            BackgroundTasks.runDisabling(() -> {
+                int specId = VehicleSpecificationController.getOrCreateSpecification(region, color, fuel, trans, seats);
+                if (specId <= 0) return "Failed to add vehicle specification.";
+                return CarController.addCar(region, model, rent, 0.0, 0, status, specId) ? "" : "Failed to add car.";
+            }, error -> {
+                if (error == null) {
+                    JOptionPane.showMessageDialog(this, "Failed to add car.");
+                } else if (error.isEmpty()) {
+                    JOptionPane.showMessageDialog(this, "Car successfully added.");
+                    loadCars();
+                    clearForm();
+                } else {
+                    JOptionPane.showMessageDialog(this, error);
+                }
+            }, addButton, deleteButton, updateButton);
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Rent and seat fields must be valid numbers.");
         }
@@ -184,14 +206,16 @@ public class AdminPanel extends JPanel {
             JOptionPane.showMessageDialog(this, "Please select a car to delete.");
             return;
         }
-        int carId = (int) tableModel.getValueAt(row, 0);
-        if (CarController.deleteCar(carId)) {
-            JOptionPane.showMessageDialog(this, "Car successfully deleted.");
-            loadCars();
-            clearForm();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to delete car.");
-        }
+        int carId = tableModel.getRow(row).getId();
+        BackgroundTasks.runDisabling(() -> CarController.deleteCar(carId), deleted -> {
+            if (Boolean.TRUE.equals(deleted)) {
+                JOptionPane.showMessageDialog(this, "Car successfully deleted.");
+                loadCars();
+                clearForm();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to delete car.");
+            }
+        }, addButton, deleteButton, updateButton);
     }
 
     private void onUpdateCar() {
@@ -201,7 +225,7 @@ public class AdminPanel extends JPanel {
             return;
         }
         try {
-            int carId = (int) tableModel.getValueAt(row, 0);
+            int carId = tableModel.getRow(row).getId();
             String model = modelField.getText().trim();
             double rent = Double.parseDouble(rentField.getText().trim());
             int seats = Integer.parseInt(seatField.getText().trim());
@@ -210,21 +234,22 @@ public class AdminPanel extends JPanel {
             String color = (String) colorBox.getSelectedItem();
             String status = (String) statusBox.getSelectedItem();
 
-            boolean carOk = CarController.updateCar(carId, model, rent, status);
-            int specId = CarController.getSpecificationIdForCar(carId);
-            boolean specOk = false;
-
-            if (specId > 0) {
-                specOk = VehicleSpecificationController.updateSpecification(specId, color, fuel, trans, seats);
-            }
-
-            if (carOk && specOk) {
-                JOptionPane.showMessageDialog(this, "Car successfully updated.");
-                loadCars();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update car.");
-            }
+            BackgroundTasks.runDisabling(() -> {
+                boolean carOk = CarController.updateCar(carId, model, rent, status);
+                // Spec rows are shared between cars, so re-point this car instead of editing the row.
+                int specId = VehicleSpecificationController.getOrCreateSpecification(ShardRouter.regionOf(carId),
+                        color, fuel, trans, seats);
+                boolean specOk = specId > 0 && CarController.setSpecificationForCar(carId, specId);
+                return carOk && specOk;
+            }, updated -> {
+                if (Boolean.TRUE.equals(updated)) {
+                    JOptionPane.showMessageDialog(this, "Car successfully updated.");
+                    loadCars();
+                    clearForm();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update car.");
+                }
+            }, addButton, deleteButton, updateButton);
 
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Please enter valid numeric values.");
@@ -0,0 +1,60 @@
+package view;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs controller calls for the views on a small worker pool so JDBC never blocks the
+ * Event Dispatch Thread. Results are always handed back on the EDT.
+ */
+public final class BackgroundTasks {
+
+    private static final int WORKERS = 4;
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(WORKERS, r -> {
+        Thread t = new Thread(r, "ui-worker-" + THREAD_IDS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Runs {@code work} off the EDT and passes its result to {@code onDone} on the EDT.
+     * If {@code work} throws, the stack trace is printed and {@code onDone} receives {@code null}.
+     */
+    public static <T> Future<?> run(Callable<T> work, Consumer<T> onDone) {
+        return POOL.submit(() -> {
+            T result = null;
+            try {
+                result = work.call();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            T finalResult = result;
+            SwingUtilities.invokeLater(() -> onDone.accept(finalResult));
+        });
+    }
+
+    /**
+     * Like {@link #run}, but disables {@code controls} until the result has been applied,
+     * so a slow query cannot be triggered twice by repeated clicks.
+     */
+    public static <T> Future<?> runDisabling(Callable<T> work, Consumer<T> onDone, JComponent... controls) {
+        for (JComponent c : controls) c.setEnabled(false);
+        return run(work, result -> {
+            try {
+                onDone.accept(result);
+            } finally {
+                for (JComponent c : controls) c.setEnabled(true);
+            }
+        });
+    }
+}
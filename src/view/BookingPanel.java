@@ -1,7 +1,9 @@
 package view;
 
 import controller.BookingController;
-import controller.CarController;
+import controller.PricingController;
+import controller.RecommendationController;
+import controller.WaitlistController;
 import model.Car;
 
 import javax.swing.*;
@@ -11,17 +13,19 @@ import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import util.Session;
+import java.util.List;
 import java.util.Locale;
 
-public class BookingPanel extends JPanel {
+public class BookingPanel extends JPanel implements PanelRegistry.Reusable {
     private final CardLayout cardLayout;
     private final JPanel container;
-    private final Car selectedCar;
-    private final int currentUserId;
+    private Car selectedCar;
 
+    private JLabel title;
     private JSpinner spinnerStartDate;
     private JSpinner spinnerEndDate;
     private JCheckBox chkGPS;
@@ -38,17 +42,33 @@ public class BookingPanel extends JPanel {
     public BookingPanel(CardLayout cardLayout, JPanel container, Car selectedCar) {
         this.cardLayout = cardLayout;
         this.container = container;
-        this.selectedCar = selectedCar;
-        this.currentUserId = Session.getCurrentUserId();
 
         setLayout(new BorderLayout(10, 10));
         initComponents();
         registerListeners();
+        bind(selectedCar);
+    }
+
+    /** Prepares the panel for booking {@code car}, resetting dates and services. */
+    public void bind(Car car) {
+        this.selectedCar = car;
+        title.setText("Booking: " + car.getModel());
+        Date today = new Date();
+        spinnerStartDate.setValue(today);
+        spinnerEndDate.setValue(today);
+        chkGPS.setSelected(false);
+        chkChildSeat.setSelected(false);
+        chkInsurance.setSelected(false);
         updateTotalCost();
     }
 
+    @Override
+    public void release() {
+        selectedCar = null;
+    }
+
     private void initComponents() {
-        JLabel title = new JLabel("Booking: " + selectedCar.getModel(), SwingConstants.CENTER);
+        title = new JLabel("", SwingConstants.CENTER);
         title.setFont(new Font("Arial", Font.BOLD, 18));
         add(title, BorderLayout.NORTH);
 
@@ -101,6 +121,7 @@ public class BookingPanel extends JPanel {
     }
 
     private void updateTotalCost() {
+        if (selectedCar == null) return;
         LocalDate start = ((Date) spinnerStartDate.getValue()).toInstant()
                 .atZone(ZoneId.systemDefault()).toLocalDate();
         LocalDate end = ((Date) spinnerEndDate.getValue()).toInstant()
@@ -119,14 +140,10 @@ public class BookingPanel extends JPanel {
     }
 
     private void doConfirmBooking() {
-        if (!CarController.isCarAvailable(selectedCar.getId())) {
-            JOptionPane.showMessageDialog(this,
-                    "Sorry, this car is no longer available.",
-                    "Unavailable", JOptionPane.WARNING_MESSAGE);
-            cardLayout.show(container, "carlist");
-            return;
-        }
-
+        long started = EdtWatchdog.begin();
+        Car car = selectedCar;
+        if (car == null) return;
+        int userId = Session.getCurrentUserId();
         LocalDate start = ((Date) spinnerStartDate.getValue()).toInstant()
                 .atZone(ZoneId.systemDefault()).toLocalDate();
         LocalDate end = ((Date) spinnerEndDate.getValue()).toInstant()
@@ -147,28 +164,96 @@ public class BookingPanel extends JPanel {
             return;
         }
 
-        boolean success = BookingController.createBooking(
-                currentUserId,
-                selectedCar.getId(),
-                startStr,
-                endStr,
-                0.0,
-                totalCost,
-                "self",
-                0,
-                startStr
-        );
-
-        if (success) {
-            CarController.updateCar(selectedCar.getId(), selectedCar.getModel(), selectedCar.getRentalPrice(), "reserved");
-            JOptionPane.showMessageDialog(this,
-                    "Booking confirmed!\nTotal: $" + totalCost,
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
+        BackgroundTasks.runDisabling(() -> {
+            // Availability check, booking and marking the car reserved are one transaction.
+            int bookingId = BookingController.bookIfAvailable(
+                    userId,
+                    car.getId(),
+                    startStr,
+                    endStr,
+                    0.0,
+                    totalCost,
+                    "self",
+                    0,
+                    startStr
+            );
+            if (bookingId == 0) {
+                // Priced like the car list, so switching keeps the shown total right.
+                return new BookingResult(BookingOutcome.UNAVAILABLE,
+                        PricingController.priced(RecommendationController.findAlternatives(car.getId())));
+            }
+            if (bookingId < 0) return new BookingResult(BookingOutcome.FAILED, null);
+            return new BookingResult(BookingOutcome.CONFIRMED, null);
+        }, result -> {
+            EdtWatchdog.end("booking confirm", started);
+            BookingOutcome outcome = result == null ? BookingOutcome.FAILED : result.outcome;
+            if (outcome == BookingOutcome.UNAVAILABLE) {
+                offerAlternatives(result.alternatives);
+            } else if (outcome == BookingOutcome.CONFIRMED) {
+                JOptionPane.showMessageDialog(this,
+                        "Booking confirmed!\nTotal: $" + totalCost,
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                cardLayout.show(container, "carlist");
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        "Booking failed. Please try again.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }, btnConfirm, btnCancel);
+    }
+
+    /**
+     * Lets the customer switch to a similar car without leaving the booking screen; dates and
+     * services stay as chosen. The customer may instead join the taken car's waitlist. On
+     * cancel, goes back to the car list.
+     */
+    private void offerAlternatives(List<Car> alternatives) {
+        if (alternatives.isEmpty()) {
+            int answer = JOptionPane.showConfirmDialog(this,
+                    "Sorry, this car is no longer available.\nNotify you when it is free again?",
+                    "Unavailable", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (answer == JOptionPane.YES_OPTION) joinWaitlist();
             cardLayout.show(container, "carlist");
-        } else {
-            JOptionPane.showMessageDialog(this,
-                    "Booking failed. Please try again.",
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String[] options = new String[alternatives.size() + 1];
+        for (int i = 0; i < alternatives.size(); i++) {
+            Car c = alternatives.get(i);
+            options[i] = String.format("%s - %s/%s, %d seats, %s - %.2f per day",
+                    c.getModel(), c.getFuelType(), c.getTransmission(), c.getSeatingCapacity(), c.getColor(),
+                    c.getRentalPrice());
+        }
+        options[alternatives.size()] = "None - notify me when " + selectedCar.getModel() + " is free";
+        Object choice = JOptionPane.showInputDialog(this,
+                "Sorry, this car is no longer available.\nThese similar cars are free:",
+                "Unavailable", JOptionPane.WARNING_MESSAGE, null, options, options[0]);
+        int index = Arrays.asList(options).indexOf(choice);
+        if (index == alternatives.size()) joinWaitlist();
+        if (index < 0 || index == alternatives.size()) {
+            cardLayout.show(container, "carlist");
+            return;
+        }
+        selectedCar = alternatives.get(index);
+        title.setText("Booking: " + selectedCar.getModel());
+        updateTotalCost();
+    }
+
+    private void joinWaitlist() {
+        WaitlistController.joinCarWaitlist(Session.getCurrentUserId(), selectedCar.getId());
+        JOptionPane.showMessageDialog(this,
+                "You are on the waitlist for " + selectedCar.getModel() + ".\nWe will let you know when it is free.",
+                "Waitlist", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private enum BookingOutcome { CONFIRMED, UNAVAILABLE, FAILED }
+
+    private static final class BookingResult {
+        final BookingOutcome outcome;
+        final List<Car> alternatives;
+
+        BookingResult(BookingOutcome outcome, List<Car> alternatives) {
+            this.outcome = outcome;
+            this.alternatives = alternatives;
         }
     }
 }
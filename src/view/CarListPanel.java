@@ -1,28 +1,44 @@
 package view;
 
 import controller.CarController;
+import controller.PricingController;
 import model.Car;
+import model.CarFilter;
+import service.impl.CarFilterManager;
 import util.Session;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
 
-public class CarListPanel extends JPanel {
+public class CarListPanel extends JPanel implements PanelRegistry.Reusable {
     private final int currentUserId;
 
     private final CardLayout cardLayout;
     private final JPanel container;
 
     private JTable carTable;
+    private ListTableModel<Car> carTableModel;
     private JTextField minPriceField, maxPriceField;
     private JTextField minSeatField, maxSeatField;
     private JComboBox<String> fuelBox, transBox, colorBox, sortBox;
     private JButton applyButton, resetButton, rentButton, myReservationsButton;
 
-    private List<Car> allCars;
+    /** Quiet period after the last keystroke before the filter is recomputed. */
+    private static final int FILTER_DEBOUNCE_MS = 150;
+
+    private Fleet fleet = new Fleet(new ArrayList<>());
+    private final CoalescingLoader<Fleet> carLoader;
+    private final Timer filterDebounce;
+    private int filterGeneration;
+    private Future<?> filterTask;
+    private boolean updatingCombos;
 
     public CarListPanel(CardLayout cardLayout, JPanel container) {
         this.cardLayout = cardLayout;
@@ -33,9 +49,10 @@ public class CarListPanel extends JPanel {
         // === Top Filter Panel ===
         JPanel filterPanel = new JPanel(new GridLayout(5, 4, 10, 10));
 
-        fuelBox = new JComboBox<>(new String[]{"All", "Gasoline", "Diesel", "Electric", "Hybrid"});
-        transBox = new JComboBox<>(new String[]{"All", "Automatic", "Manual"});
-        colorBox = new JComboBox<>(new String[]{"All", "Black", "White", "Red", "Blue", "Grey"});
+        // Options are filled from the loaded fleet, see setOptions().
+        fuelBox = new JComboBox<>(new String[]{"All"});
+        transBox = new JComboBox<>(new String[]{"All"});
+        colorBox = new JComboBox<>(new String[]{"All"});
         sortBox = new JComboBox<>(new String[]{"Sort by Price ↑", "Sort by Price ↓"});
 
         minPriceField = new JTextField(8);
@@ -74,9 +91,8 @@ public class CarListPanel extends JPanel {
         add(filterPanel, BorderLayout.NORTH);
 
         // === Table Panel ===
-        String[] columns = {"ID", "Model", "Fuel", "Transmission", "Seats", "Color", "Price", "Status"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0);
-        carTable = new JTable(model);
+        carTableModel = CarTableModels.create("Price");
+        carTable = new JTable(carTableModel);
         carTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane scrollPane = new JScrollPane(carTable);
         add(scrollPane, BorderLayout.CENTER);
@@ -91,13 +107,42 @@ public class CarListPanel extends JPanel {
         rentButton = new JButton("Rent");
         myReservationsButton = new JButton("My Reservations");
 
+        JProgressBar loadingBar = CoalescingLoader.newIndicator();
+        bottomPanel.add(loadingBar);
         bottomPanel.add(rentButton);
         bottomPanel.add(myReservationsButton);
         add(bottomPanel, BorderLayout.SOUTH);
 
+        carLoader = new CoalescingLoader<>(CarListPanel::loadFleet, loaded -> {
+            fleet = loaded;
+            updatingCombos = true;
+            setOptions(fuelBox, loaded.fuelTypes);
+            setOptions(transBox, loaded.transmissions);
+            setOptions(colorBox, loaded.colors);
+            updatingCombos = false;
+            applyFilters();
+        }, loadingBar, "catalog reload");
+
         // === Events ===
+        filterDebounce = new Timer(FILTER_DEBOUNCE_MS, e -> applyFilters());
+        filterDebounce.setRepeats(false);
+        DocumentListener typing = new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { filterDebounce.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { filterDebounce.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { filterDebounce.restart(); }
+        };
+        for (JTextField field : new JTextField[]{minPriceField, maxPriceField, minSeatField, maxSeatField}) {
+            field.getDocument().addDocumentListener(typing);
+        }
+        for (JComboBox<String> box : List.of(fuelBox, transBox, colorBox, sortBox)) {
+            box.addActionListener(e -> {
+                if (!updatingCombos) applyFilters();
+            });
+        }
+
         applyButton.addActionListener(e -> applyFilters());
         resetButton.addActionListener(e -> {
+            updatingCombos = true;
             fuelBox.setSelectedIndex(0);
             transBox.setSelectedIndex(0);
             colorBox.setSelectedIndex(0);
@@ -106,16 +151,14 @@ public class CarListPanel extends JPanel {
             maxPriceField.setText("");
             minSeatField.setText("");
             maxSeatField.setText("");
+            updatingCombos = false;
             applyFilters();
         });
 
         rentButton.addActionListener(e -> onRent());
 
-        myReservationsButton.addActionListener(e -> {
-            ReservationManagementPanel rmp = new ReservationManagementPanel(cardLayout, container, false);
-            container.add(rmp, "manage_reservations");
-            cardLayout.show(container, "manage_reservations");
-        });
+        myReservationsButton.addActionListener(e -> PanelRegistry.of(container).show("manage_reservations",
+                () -> new ReservationManagementPanel(cardLayout, container, false)));
 
         // Refresh cars when this panel is shown
         this.addComponentListener(new java.awt.event.ComponentAdapter() {
@@ -128,50 +171,71 @@ public class CarListPanel extends JPanel {
         loadCars();
     }
 
+    /**
+     * Runs on a worker; the first load after startup uses the fleet prefetched during login.
+     * Prices are the effective daily rates at load time, so filtering, sorting and the booking
+     * total all agree with what the table shows.
+     */
+    private static Fleet loadFleet() {
+        List<Car> cars = Startup.takePrefetchedFleet();
+        return new Fleet(PricingController.priced(cars != null ? cars : CarController.getAvailableCarsAsObjects()));
+    }
+
+    /** Stops loads and filtering still running; the table keeps its rows for when the user comes back. */
+    @Override
+    public void release() {
+        carLoader.cancel();
+        filterDebounce.stop();
+        filterGeneration++;
+        if (filterTask != null) filterTask.cancel(true);
+        filterTask = null;
+    }
+
     private void loadCars() {
-        allCars = CarController.getAvailableCarsAsObjects();
-        applyFilters();
+        carLoader.request();
     }
 
+    /**
+     * Reads the filter inputs on the EDT and evaluates them on a worker. A newer call cancels
+     * the computation still running for an older one, and only the latest result is shown.
+     */
     private void applyFilters() {
+        long started = EdtWatchdog.begin();
+        filterDebounce.stop();
         String fuel = (String) fuelBox.getSelectedItem();
         String trans = (String) transBox.getSelectedItem();
         String color = (String) colorBox.getSelectedItem();
-        String sort = (String) sortBox.getSelectedItem();
-
-        double minPrice = parseDouble(minPriceField.getText(), 0);
-        double maxPrice = parseDouble(maxPriceField.getText(), Double.MAX_VALUE);
-        int minSeats = parseInt(minSeatField.getText(), 0);
-        int maxSeats = parseInt(maxSeatField.getText(), Integer.MAX_VALUE);
-
-        List<Car> filtered = allCars.stream()
-                .filter(c -> fuel.equals("All") || c.getFuelType().equalsIgnoreCase(fuel))
-                .filter(c -> trans.equals("All") || c.getTransmission().equalsIgnoreCase(trans))
-                .filter(c -> color.equals("All") || c.getColor().equalsIgnoreCase(color))
-                .filter(c -> c.getRentalPrice() >= minPrice && c.getRentalPrice() <= maxPrice)
-                .filter(c -> c.getSeatingCapacity() >= minSeats && c.getSeatingCapacity() <= maxSeats)
-                .collect(Collectors.toList());
-
-        if (sort.equals("Sort by Price ↑")) {
-            filtered.sort((a, b) -> Double.compare(a.getRentalPrice(), b.getRentalPrice()));
-        } else {
-            filtered.sort((a, b) -> Double.compare(b.getRentalPrice(), a.getRentalPrice()));
-        }
+        boolean ascending = "Sort by Price ↑".equals(sortBox.getSelectedItem());
+
+        CarFilter filter = new CarFilter()
+                .fuelType(orNull(fuel))
+                .transmission(orNull(trans))
+                .color(orNull(color))
+                .priceBetween(parseDouble(minPriceField.getText(), 0), parseDouble(maxPriceField.getText(), Double.MAX_VALUE))
+                .seatsBetween(parseInt(minSeatField.getText(), 0), parseInt(maxSeatField.getText(), Integer.MAX_VALUE));
+
+        Fleet current = fleet;
+        int generation = ++filterGeneration;
+        if (filterTask != null) filterTask.cancel(true);
+        filterTask = BackgroundTasks.run(() -> current.filter(filter, ascending), filtered -> {
+            if (generation != filterGeneration || filtered == null) return;
+            carTableModel.setRows(filtered);
+            EdtWatchdog.end("filter apply", started);
+            Startup.markFirstCatalog();
+        });
+    }
 
-        DefaultTableModel model = (DefaultTableModel) carTable.getModel();
-        model.setRowCount(0);
-        for (Car c : filtered) {
-            model.addRow(new Object[]{
-                    c.getId(),
-                    c.getModel(),
-                    c.getFuelType(),
-                    c.getTransmission(),
-                    c.getSeatingCapacity(),
-                    c.getColor(),
-                    c.getRentalPrice(),
-                    c.getStatus()
-            });
-        }
+    /** Replaces the options of a filter combo box, keeping the current choice if it still exists. */
+    private static void setOptions(JComboBox<String> box, List<String> values) {
+        Object selected = box.getSelectedItem();
+        box.removeAllItems();
+        box.addItem("All");
+        for (String value : values) box.addItem(value);
+        box.setSelectedItem(values.contains(selected) ? selected : "All");
+    }
+
+    private static String orNull(String choice) {
+        return choice == null || choice.equals("All") ? null : choice;
     }
 
     private double parseDouble(String text, double defaultVal) {
@@ -197,13 +261,45 @@ public class CarListPanel extends JPanel {
             return;
         }
 
-        int carId = (int) carTable.getValueAt(row, 0);
-        Car selected = allCars.stream().filter(c -> c.getId() == carId).findFirst().orElse(null);
+        Car selected = carTableModel.getRow(carTable.convertRowIndexToModel(row));
 
         if (selected != null) {
-            BookingPanel bookingPanel = new BookingPanel(cardLayout, container, selected);
-            container.add(bookingPanel, "booking");
-            cardLayout.show(container, "booking");
+            PanelRegistry.of(container).show("booking",
+                    () -> new BookingPanel(cardLayout, container, selected),
+                    panel -> panel.bind(selected));
+        }
+    }
+
+    /** One loaded fleet with its filter snapshot and the distinct values offered in the combo boxes. */
+    private static final class Fleet {
+        final CarFilterManager filterManager;
+        final List<String> fuelTypes;
+        final List<String> transmissions;
+        final List<String> colors;
+
+        Fleet(List<Car> cars) {
+            filterManager = new CarFilterManager(() -> cars, Long.MAX_VALUE);
+            filterManager.refresh();
+            TreeSet<String> fuels = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            TreeSet<String> trans = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            TreeSet<String> cols = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            for (Car c : cars) {
+                if (c.getFuelType() != null) fuels.add(c.getFuelType());
+                if (c.getTransmission() != null) trans.add(c.getTransmission());
+                if (c.getColor() != null) cols.add(c.getColor());
+            }
+            fuelTypes = new ArrayList<>(fuels);
+            transmissions = new ArrayList<>(trans);
+            colors = new ArrayList<>(cols);
+        }
+
+        /** Runs on a worker; returns {@code null} if the computation was cancelled. */
+        List<Car> filter(CarFilter filter, boolean ascending) {
+            List<Car> filtered = filterManager.filter(filter);
+            if (Thread.currentThread().isInterrupted()) return null;
+            Comparator<Car> byPrice = Comparator.comparingDouble(Car::getRentalPrice);
+            filtered.sort(ascending ? byPrice : byPrice.reversed());
+            return filtered;
         }
     }
 }
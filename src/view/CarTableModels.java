@@ -0,0 +1,35 @@
+package view;
+
+import model.Car;
+
+/** Column layouts shared by the car tables in the customer and admin views. */
+final class CarTableModels {
+
+    private static final String[] COLUMNS = {"ID", "Model", "Fuel", "Transmission", "Seats", "Color", "Price", "Status"};
+    private static final Class<?>[] TYPES = {Integer.class, String.class, String.class, String.class,
+            Integer.class, String.class, Double.class, String.class};
+
+    private CarTableModels() {
+    }
+
+    /** @param priceLabel header of the daily rent column ("Price" or "Rent") */
+    static ListTableModel<Car> create(String priceLabel) {
+        String[] columns = COLUMNS.clone();
+        columns[6] = priceLabel;
+        return new ListTableModel<>(columns, TYPES, CarTableModels::cell, Car::getId);
+    }
+
+    private static Object cell(Car c, int column) {
+        switch (column) {
+            case 0: return c.getId();
+            case 1: return c.getModel();
+            case 2: return c.getFuelType();
+            case 3: return c.getTransmission();
+            case 4: return c.getSeatingCapacity();
+            case 5: return c.getColor();
+            case 6: return c.getRentalPrice();
+            case 7: return c.getStatus();
+            default: return null;
+        }
+    }
+}
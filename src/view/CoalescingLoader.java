@@ -0,0 +1,99 @@
+package view;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Reloads one view's data in the background.
+ * <p>
+ * {@link #request()} starts a load unless one is already running; requests made while a load
+ * is in flight collapse into a single follow-up load, and the in-flight result is discarded as
+ * stale. {@link #cancel()} abandons the current load. While loading, the optional indicator
+ * component is shown. If an interaction name is given, the time from the first request to
+ * the applied result is recorded with {@link EdtWatchdog}. All methods must be called on the EDT.
+ */
+public class CoalescingLoader<T> {
+
+    private final Callable<T> query;
+    private final Consumer<T> apply;
+    private final JComponent indicator;
+    private final String interaction;
+
+    private int generation;
+    private long requestedAt;
+    private boolean running;
+    private boolean pending;
+    private Future<?> inFlight;
+
+    public CoalescingLoader(Callable<T> query, Consumer<T> apply, JComponent indicator) {
+        this(query, apply, indicator, null);
+    }
+
+    public CoalescingLoader(Callable<T> query, Consumer<T> apply, JComponent indicator, String interaction) {
+        this.query = query;
+        this.apply = apply;
+        this.indicator = indicator;
+        this.interaction = interaction;
+    }
+
+    public void request() {
+        if (running) {
+            pending = true;
+            return;
+        }
+        requestedAt = EdtWatchdog.begin();
+        start();
+    }
+
+    public void cancel() {
+        generation++;
+        pending = false;
+        running = false;
+        if (inFlight != null) inFlight.cancel(true);
+        inFlight = null;
+        showIndicator(false);
+    }
+
+    public boolean isLoading() {
+        return running;
+    }
+
+    private void start() {
+        int gen = ++generation;
+        running = true;
+        pending = false;
+        showIndicator(true);
+        inFlight = BackgroundTasks.run(query, result -> finish(gen, result));
+    }
+
+    private void finish(int gen, T result) {
+        if (gen != generation) return;  // cancelled
+        running = false;
+        inFlight = null;
+        if (pending) {
+            start();
+            return;
+        }
+        showIndicator(false);
+        if (result != null) {
+            apply.accept(result);
+            if (interaction != null) EdtWatchdog.end(interaction, requestedAt);
+        }
+    }
+
+    private void showIndicator(boolean visible) {
+        if (indicator != null) indicator.setVisible(visible);
+    }
+
+    /** @return a small indeterminate progress bar suitable as a loading indicator */
+    public static JProgressBar newIndicator() {
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        bar.setString("Loading...");
+        bar.setStringPainted(true);
+        bar.setVisible(false);
+        return bar;
+    }
+}
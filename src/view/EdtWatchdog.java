@@ -0,0 +1,222 @@
+package view;
+
+import util.LatencyHistogram;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the Event Dispatch Thread for stalls and keeps per-interaction latency histograms.
+ * <p>
+ * {@link #install()} pushes an {@link EventQueue} that timestamps every dispatch. A sampler
+ * thread checks the running dispatch every {@value #SAMPLE_MS} ms; once one has run longer
+ * than the threshold ({@code -Dsrent.edt.stallMs}, default 100) the EDT stack is captured and
+ * the stall is attributed to the {@code controller} (or service/DAO) call and the {@code view}
+ * frame that made it, e.g. {@code CarController.getAllCarsAsObjects <- AdminPanel.loadCars}.
+ * <p>
+ * Interactions such as "filter apply" are timed from the user action to the moment the result
+ * is on screen with {@link #begin}/{@link #end}. Every minute a report with the stall list and
+ * histogram summaries is appended to {@code ui-metrics.log} under {@code -Dsrent.metrics.dir}
+ * (default {@code ~/.speedyrent}); the log rolls over at 1 MB, keeping three old files.
+ */
+public final class EdtWatchdog {
+
+    private static final long SAMPLE_MS = 20;
+    private static final long REPORT_PERIOD_S = 60;
+    private static final long MAX_LOG_BYTES = 1_000_000;
+    private static final int KEPT_LOGS = 3;
+    private static final int MAX_STALLS_PER_REPORT = 50;
+
+    private static final long STALL_THRESHOLD_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("srent.edt.stallMs", 100));
+
+    private static final Map<String, LatencyHistogram> interactions = new ConcurrentHashMap<>();
+    private static final LatencyHistogram dispatchTimes = new LatencyHistogram();
+    private static final ConcurrentLinkedQueue<String> stalls = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger stallCount = new AtomicInteger();
+
+    private static final AtomicLong dispatchStart = new AtomicLong();   // 0 while idle
+    private static volatile long reportedDispatch;                       // start of the last dispatch reported as a stall
+    private static volatile Thread edt;
+    private static volatile boolean installed;
+
+    private EdtWatchdog() {
+    }
+
+    /** Installs the watchdog; later calls do nothing. Disable with {@code -Dsrent.watchdog=false}. */
+    public static synchronized void install() {
+        if (installed || !Boolean.parseBoolean(System.getProperty("srent.watchdog", "true"))) return;
+        installed = true;
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new TimedEventQueue());
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "edt-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(EdtWatchdog::sample, SAMPLE_MS, SAMPLE_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(EdtWatchdog::writeReport, REPORT_PERIOD_S, REPORT_PERIOD_S, TimeUnit.SECONDS);
+    }
+
+    /** Starts timing one user interaction; pass the result to {@link #end}. */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+    /** Records an interaction that started at {@code startNanos} from {@link #begin()}. */
+    public static void end(String interaction, long startNanos) {
+        interactions.computeIfAbsent(interaction, k -> new LatencyHistogram())
+                .recordNanos(System.nanoTime() - startNanos);
+    }
+
+    /** @return the histogram of {@code interaction}, or {@code null} if it was never recorded */
+    public static LatencyHistogram getInteraction(String interaction) {
+        return interactions.get(interaction);
+    }
+
+    /** @return the number of stalls detected since startup */
+    public static int getStallCount() {
+        return stallCount.get();
+    }
+
+    /** @return the current report: dispatch times, interactions and stalls since the last report */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== UI metrics ").append(LocalDateTime.now()).append(" ===\n");
+        sb.append("EDT dispatch: ").append(dispatchTimes.summary()).append('\n');
+        List<String> names = new ArrayList<>(interactions.keySet());
+        names.sort(null);
+        for (String name : names) {
+            sb.append("Interaction ").append(name).append(": ").append(interactions.get(name).summary()).append('\n');
+        }
+        sb.append("Stalls (total ").append(stallCount.get()).append("):\n");
+        String stall;
+        int listed = 0;
+        while ((stall = stalls.poll()) != null) {
+            if (listed++ < MAX_STALLS_PER_REPORT) sb.append(stall).append('\n');
+        }
+        if (listed > MAX_STALLS_PER_REPORT) {
+            sb.append("  ... ").append(listed - MAX_STALLS_PER_REPORT).append(" more\n");
+        }
+        return sb.toString();
+    }
+
+    private static void sample() {
+        long start = dispatchStart.get();
+        if (start == 0 || start == reportedDispatch) return;
+        long running = System.nanoTime() - start;
+        if (running < STALL_THRESHOLD_NANOS) return;
+        Thread thread = edt;
+        if (thread == null) return;
+        StackTraceElement[] stack = thread.getStackTrace();
+        if (dispatchStart.get() != start) return;   // the dispatch finished while we sampled
+        reportedDispatch = start;
+        stallCount.incrementAndGet();
+        stalls.add(String.format("  %s stalled %d ms+ at %s", LocalDateTime.now(),
+                TimeUnit.NANOSECONDS.toMillis(running), culprit(stack)));
+    }
+
+    /** @return the controller call made from the view and the view frame that made it, or the top frames */
+    static String culprit(StackTraceElement[] stack) {
+        StackTraceElement controller = null;
+        StackTraceElement view = null;
+        for (StackTraceElement frame : stack) {
+            String cls = frame.getClassName();
+            if (cls.startsWith("controller.") || cls.startsWith("service.") || cls.startsWith("dao.")) {
+                controller = frame;   // keep the outermost frame of the run: the call the view made
+            } else if (cls.startsWith("view.") && !cls.startsWith("view.EdtWatchdog")) {
+                if (controller != null) {
+                    view = frame;
+                    break;
+                }
+                if (view == null) view = frame;
+            }
+        }
+        if (view != null && controller != null) return shortName(controller) + " <- " + shortName(view);
+        if (view != null) return shortName(view) + " (top: " + (stack.length > 0 ? shortName(stack[0]) : "?") + ")";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(3, stack.length); i++) {
+            if (i > 0) sb.append(" <- ");
+            sb.append(shortName(stack[i]));
+        }
+        return sb.toString();
+    }
+
+    private static String shortName(StackTraceElement frame) {
+        String cls = frame.getClassName();
+        int dot = cls.lastIndexOf('.');
+        String simple = dot >= 0 ? cls.substring(dot + 1) : cls;
+        int lambda = simple.indexOf('$');
+        if (lambda >= 0) simple = simple.substring(0, lambda);
+        return simple + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+    }
+
+    private static void writeReport() {
+        Path dir = Paths.get(System.getProperty("srent.metrics.dir",
+                Paths.get(System.getProperty("user.home"), ".speedyrent").toString()));
+        Path log = dir.resolve("ui-metrics.log");
+        try {
+            Files.createDirectories(dir);
+            if (Files.exists(log) && Files.size(log) > MAX_LOG_BYTES) roll(log);
+            Files.write(log, report().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write UI metrics: " + e.getMessage());
+        }
+    }
+
+    private static void roll(Path log) throws IOException {
+        for (int i = KEPT_LOGS - 1; i >= 1; i--) {
+            Path older = log.resolveSibling(log.getFileName() + "." + i);
+            if (Files.exists(older)) {
+                Files.move(older, log.resolveSibling(log.getFileName() + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(log, log.resolveSibling(log.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Event queue that records when each dispatch starts and how long it takes. A modal dialog
+     * runs a nested dispatch loop inside the event that opened it; the outer event is then
+     * waiting for the user, so it is treated as idle and its duration is not recorded.
+     */
+    private static final class TimedEventQueue extends EventQueue {
+        private int depth;
+        private boolean nested;
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            edt = Thread.currentThread();
+            if (depth > 0) nested = true;
+            depth++;
+            long start = System.nanoTime();
+            dispatchStart.set(start);
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                depth--;
+                dispatchStart.set(0);
+                if (depth > 0 || !nested) dispatchTimes.recordNanos(System.nanoTime() - start);
+                if (depth == 0) nested = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package view;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Table model that reads cells straight from a list of row objects instead of copying
+ * them into {@code Object[]} rows, so a refresh costs one list swap and cells are only
+ * produced for the rows the table actually paints.
+ * <p>
+ * {@link #setRows(List)} fires a single event per refresh. When the new list has the same
+ * row keys in the same order as the old one (a reload where only a few cars changed status
+ * or price) only the changed row ranges are reported, which keeps the selection and
+ * scroll position intact; anything else is one data-changed event.
+ */
+public class ListTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Reads one cell of a row object. */
+    public interface ColumnReader<T> {
+        Object read(T row, int column);
+    }
+
+    /** Beyond this many changed row ranges a single data-changed event is cheaper for the table. */
+    private static final int MAX_UPDATE_RANGES = 32;
+
+    private final String[] columnNames;
+    private final Class<?>[] columnClasses;
+    private final ColumnReader<T> reader;
+    private final Function<T, Object> keyOf;
+    private List<T> rows = new ArrayList<>();
+
+    /**
+     * @param columnNames   header labels
+     * @param columnClasses cell types used for rendering and sorting; {@code null} for all {@code Object}
+     * @param reader        produces a cell on demand
+     * @param keyOf         identity of a row (e.g. the car id), used to diff successive lists
+     */
+    public ListTableModel(String[] columnNames, Class<?>[] columnClasses,
+                          ColumnReader<T> reader, Function<T, Object> keyOf) {
+        this.columnNames = columnNames.clone();
+        this.columnClasses = columnClasses == null ? null : columnClasses.clone();
+        this.reader = reader;
+        this.keyOf = keyOf;
+    }
+
+    /** Replaces the rows; the model keeps {@code newRows} as is, so callers must not modify it afterwards. */
+    public void setRows(List<T> newRows) {
+        List<T> old = rows;
+        rows = newRows == null ? new ArrayList<>() : newRows;
+        if (!sameKeys(old, rows)) {
+            fireTableDataChanged();
+            return;
+        }
+        int columns = columnNames.length;
+        int[] ranges = new int[MAX_UPDATE_RANGES * 2];
+        int count = 0;
+        int runStart = -1;
+        for (int r = 0; r <= rows.size(); r++) {
+            boolean changed = r < rows.size() && !sameCells(old.get(r), rows.get(r), columns);
+            if (changed && runStart < 0) {
+                if (count == MAX_UPDATE_RANGES) {
+                    fireTableDataChanged();
+                    return;
+                }
+                runStart = r;
+            } else if (!changed && runStart >= 0) {
+                ranges[2 * count] = runStart;
+                ranges[2 * count + 1] = r - 1;
+                count++;
+                runStart = -1;
+            }
+        }
+        for (int i = 0; i < count; i++) fireTableRowsUpdated(ranges[2 * i], ranges[2 * i + 1]);
+    }
+
+    /** @return the row object shown at model index {@code row} */
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    /** @return the current rows, read-only by convention */
+    public List<T> getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columnClasses == null ? Object.class : columnClasses[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return reader.read(rows.get(row), column);
+    }
+
+    private boolean sameKeys(List<T> a, List<T> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!Objects.equals(keyOf.apply(a.get(i)), keyOf.apply(b.get(i)))) return false;
+        }
+        return true;
+    }
+
+    private boolean sameCells(T a, T b, int columns) {
+        if (a == b) return true;
+        for (int c = 0; c < columns; c++) {
+            if (!Objects.equals(reader.read(a, c), reader.read(b, c))) return false;
+        }
+        return true;
+    }
+}
@@ -14,6 +14,7 @@ public class LoginPanel extends JPanel {
     private final JPanel container;
     private final JTextField usernameField;
     private final JPasswordField passwordField;
+    private final JButton loginButton;
 
     public LoginPanel(CardLayout cardLayout, JPanel container) {
         this.cardLayout = cardLayout;
@@ -46,13 +47,27 @@ public class LoginPanel extends JPanel {
         gbc.gridx = 1;
         add(passwordField, gbc);
 
-        JButton loginButton = new JButton("Login");
+        loginButton = new JButton("Login");
         gbc.gridy = 3;
         gbc.gridx = 0;
         gbc.gridwidth = 2;
         add(loginButton, gbc);
 
         loginButton.addActionListener(e -> doLogin());
+
+        // Warm the connection pool and prefetch the fleet while the user types credentials.
+        usernameField.addFocusListener(new java.awt.event.FocusAdapter() {
+            @Override
+            public void focusGained(java.awt.event.FocusEvent e) {
+                Startup.warmUp();
+            }
+        });
+        usernameField.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyTyped(java.awt.event.KeyEvent e) {
+                Startup.warmUp();
+            }
+        });
     }
 
     private void doLogin() {
@@ -67,7 +82,16 @@ public class LoginPanel extends JPanel {
             return;
         }
 
-        UserRole role = AuthenticationController.login(username, password);
+        long started = EdtWatchdog.begin();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        BackgroundTasks.runDisabling(() -> AuthenticationController.login(username, password), role -> {
+            setCursor(Cursor.getDefaultCursor());
+            EdtWatchdog.end("login", started);
+            onLoginResult(role == null ? UserRole.UNKNOWN : role);
+        }, loginButton, usernameField, passwordField);
+    }
+
+    private void onLoginResult(UserRole role) {
         if (role == UserRole.UNKNOWN) {
             JOptionPane.showMessageDialog(this,
                     "Login failed. Please check your credentials.",
@@ -79,12 +103,11 @@ public class LoginPanel extends JPanel {
                     "Welcome",
                     JOptionPane.INFORMATION_MESSAGE);
 
+            PanelRegistry panels = PanelRegistry.of(container);
             if (role == UserRole.ADMIN) {
-                cardLayout.show(container, "admin");
+                panels.show("admin", () -> new AdminPanel(cardLayout, container));
             } else if (role == UserRole.CUSTOMER) {
-                CarListPanel clp = new CarListPanel(cardLayout, container);
-                container.add(clp, "carlist");
-                cardLayout.show(container, "carlist");
+                panels.show("carlist", () -> new CarListPanel(cardLayout, container));
             }
         }
     }
@@ -1,15 +1,40 @@
 package view;
 
+import controller.CardController;
+import controller.UserController;
+import model.Car;
+import util.CardFingerprint;
+
 import javax.swing.*;
 import java.awt.*;
 
 public class Main {
     public static void main(String[] args) {
+        Startup.mark("main");
+        try {
+            CardFingerprint.requireKey();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
         try {
             UIManager.setLookAndFeel(
                     UIManager.getSystemLookAndFeelClassName()
             );
         } catch (Exception ignored) {}
+        Startup.mark("look and feel");
+        EdtWatchdog.install();
+
+        // Build the in-memory user search index and uniqueness filters off the EDT;
+        // lookups fall back to SQL until they are ready.
+        Thread indexer = new Thread(() -> {
+            UserController.buildUserSearchIndex();
+            UserController.buildUniquenessFilters();
+            System.out.println(UserController.getUniquenessFilterStats());
+            CardController.buildFingerprintIndex();
+        }, "user-indexes");
+        indexer.setDaemon(true);
+        indexer.start();
 
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("SpeedyRent");
@@ -20,19 +45,40 @@ public class Main {
             CardLayout cardLayout = new CardLayout();
             JPanel container  = new JPanel(cardLayout);
 
-            // === Panellerin oluşturulması ===
+            // === Sadece giriş ekranı; diğer paneller ilk kullanımda oluşturulur ===
             LoginPanel loginPanel = new LoginPanel(cardLayout, container);
-            AdminPanel adminPanel = new AdminPanel(cardLayout, container);
-
-            // === Panelleri karta ekle ===
-            container.add(loginPanel,"login");
-            container.add(adminPanel,"admin");
+            PanelRegistry.of(container).register("login", loginPanel);
 
             frame.setContentPane(container);
             frame.setVisible(true);
 
             // Başlangıç ekranı
             cardLayout.show(container, "login");
+            Startup.mark("login screen shown");
+
+            if (Startup.isCdsTraining()) trainClassDataArchive(cardLayout, container);
         });
     }
+
+    /**
+     * AppCDS training run: builds every screen once so their classes are loaded, touches the
+     * JDBC driver, then exits so the JVM can write the archive named by -XX:ArchiveClassesAtExit.
+     */
+    private static void trainClassDataArchive(CardLayout cardLayout, JPanel container) {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+        Startup.warmUp();
+        Car sample = new Car(0, "Unknown", "Sample", "Black", "Gasoline", "Automatic", 5, 0, "available");
+        new AdminPanel(cardLayout, container);
+        new CarListPanel(cardLayout, container);
+        new BookingPanel(cardLayout, container, sample);
+        new ReservationManagementPanel(cardLayout, container, true);
+        Startup.mark("cds training done");
+        Timer exit = new Timer(2_000, e -> System.exit(0));
+        exit.setRepeats(false);
+        exit.start();
+    }
 }
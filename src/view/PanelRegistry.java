@@ -0,0 +1,97 @@
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Creates each screen of the card-layout container once and reuses it on later navigations.
+ * <p>
+ * Screens that hold per-visit data implement {@link Reusable}: they are rebound to new data
+ * before being shown again and asked to let go of that data when hidden, so a long session
+ * keeps one component tree per screen instead of one per click.
+ */
+public final class PanelRegistry {
+
+    /** A screen that can be shown again with different data. */
+    public interface Reusable {
+        /** Drops per-visit data and stops background work; called when the screen is hidden. */
+        void release();
+    }
+
+    private static final String CLIENT_KEY = PanelRegistry.class.getName();
+
+    private final CardLayout cardLayout;
+    private final JPanel container;
+    private final Map<String, JPanel> panels = new HashMap<>();
+
+    private PanelRegistry(CardLayout cardLayout, JPanel container) {
+        this.cardLayout = cardLayout;
+        this.container = container;
+    }
+
+    /** @return the registry of {@code container}, created on first use */
+    public static PanelRegistry of(JPanel container) {
+        PanelRegistry registry = (PanelRegistry) container.getClientProperty(CLIENT_KEY);
+        if (registry == null) {
+            registry = new PanelRegistry((CardLayout) container.getLayout(), container);
+            container.putClientProperty(CLIENT_KEY, registry);
+        }
+        return registry;
+    }
+
+    /** Registers a panel that was built elsewhere (e.g. at startup) under {@code name}. */
+    public void register(String name, JPanel panel) {
+        if (panels.putIfAbsent(name, panel) == null) add(name, panel);
+    }
+
+    /** Shows the screen called {@code name}, creating it with {@code factory} the first time. */
+    public <P extends JPanel> P show(String name, Supplier<P> factory) {
+        return show(name, factory, null);
+    }
+
+    /**
+     * Shows the screen called {@code name}, creating it with {@code factory} the first time
+     * and passing it to {@code bind} before every showing.
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends JPanel> P show(String name, Supplier<P> factory, Consumer<P> bind) {
+        P panel = (P) panels.get(name);
+        if (panel == null) {
+            panel = factory.get();
+            panels.put(name, panel);
+            add(name, panel);
+        }
+        if (bind != null) bind.accept(panel);
+        cardLayout.show(container, name);
+        return panel;
+    }
+
+    /** Shows an already registered screen. */
+    public void show(String name) {
+        cardLayout.show(container, name);
+    }
+
+    /** @return the number of screens created so far */
+    public int size() {
+        return panels.size();
+    }
+
+    private void add(String name, JPanel panel) {
+        container.add(panel, name);
+        if (panel instanceof Reusable) {
+            Reusable reusable = (Reusable) panel;
+            panel.addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentHidden(ComponentEvent e) {
+                    reusable.release();
+                }
+            });
+        }
+    }
+}
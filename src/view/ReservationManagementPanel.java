@@ -1,25 +1,29 @@
 package view;
 
 import controller.BookingController;
+import controller.ExportController;
+import util.ExportWriter;
 import util.Session;
+import util.Validator;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.File;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
-public class ReservationManagementPanel extends JPanel {
+public class ReservationManagementPanel extends JPanel implements PanelRegistry.Reusable {
     private final CardLayout cardLayout;
     private final JPanel container;
     private final boolean isAdmin;
     private JTable bookingTable;
-    private DefaultTableModel tableModel;
-    private JButton updateButton, cancelButton, backButton;
+    private ListTableModel<String[]> tableModel;
+    private JButton updateButton, cancelButton, exportButton, backButton;
     private JSpinner startDateSpinner, endDateSpinner;
+    private CoalescingLoader<List<String[]>> reservationLoader;
 
     public ReservationManagementPanel(CardLayout cardLayout, JPanel container, boolean isAdmin) {
         this.cardLayout = cardLayout;
@@ -28,7 +32,20 @@ public class ReservationManagementPanel extends JPanel {
 
         setLayout(new BorderLayout(10, 10));
         initComponents();
-        loadReservations();
+
+        // Reload on every showing; the registry reuses this panel across navigations.
+        addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentShown(java.awt.event.ComponentEvent e) {
+                loadReservations();
+            }
+        });
+    }
+
+    @Override
+    public void release() {
+        reservationLoader.cancel();
+        tableModel.setRows(new ArrayList<>());
     }
 
     private void initComponents() {
@@ -38,9 +55,7 @@ public class ReservationManagementPanel extends JPanel {
         } else {
             columns = new String[]{"Booking ID", "Car", "Start Date", "End Date", "Status", "Amount"};
         }
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = new ListTableModel<>(columns, null, (r, c) -> r[c], r -> r[0]);
         bookingTable = new JTable(tableModel);
         bookingTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         add(new JScrollPane(bookingTable), BorderLayout.CENTER);
@@ -62,9 +77,19 @@ public class ReservationManagementPanel extends JPanel {
         backButton = new JButton("Back");
         buttonPanel.add(updateButton);
         buttonPanel.add(cancelButton);
+        if (isAdmin) {
+            exportButton = new JButton("Export...");
+            exportButton.addActionListener(e -> onExport());
+            buttonPanel.add(exportButton);
+        }
         buttonPanel.add(backButton);
+        JProgressBar loadingBar = CoalescingLoader.newIndicator();
+        buttonPanel.add(loadingBar);
         add(buttonPanel, BorderLayout.SOUTH);
 
+        reservationLoader = new CoalescingLoader<>(() -> fetchReservationRows(Session.getCurrentUserId()),
+                tableModel::setRows, loadingBar, "reservation reload");
+
         updateButton.addActionListener(e -> onUpdateBooking());
         cancelButton.addActionListener(e -> onCancelBooking());
         backButton.addActionListener(e -> {
@@ -73,9 +98,14 @@ public class ReservationManagementPanel extends JPanel {
     }
 
     private void loadReservations() {
+        reservationLoader.request();
+    }
+
+    /** Runs on a worker thread: fetches and parses the bookings into table rows. */
+    private List<String[]> fetchReservationRows(int userId) {
         List<String> allBookings = isAdmin
                 ? BookingController.getAllBookings()
-                : BookingController.getBookingsByUser(Session.getCurrentUserId());
+                : BookingController.getBookingsByUser(userId);
 
         List<String[]> active = new ArrayList<>();
         List<String[]> cancelled = new ArrayList<>();
@@ -138,17 +168,18 @@ public class ReservationManagementPanel extends JPanel {
             }
         }
 
-        // === Tabloya yaz ===
-        tableModel.setRowCount(0);
+        // === Tablo satırları ===
+        List<String[]> rows = new ArrayList<>(active.size() + cancelled.size() + 2);
         if (isAdmin) {
-            tableModel.addRow(new String[]{"--- ACTIVE BOOKINGS ---","","","","","",""});
+            rows.add(new String[]{"--- ACTIVE BOOKINGS ---","","","","","",""});
         }
-        active.forEach(r -> tableModel.addRow(r));
+        rows.addAll(active);
 
         if (isAdmin && !cancelled.isEmpty()) {
-            tableModel.addRow(new String[]{"--- CANCELLED BOOKINGS ---","","","","","",""});
+            rows.add(new String[]{"--- CANCELLED BOOKINGS ---","","","","","",""});
         }
-        cancelled.forEach(r -> tableModel.addRow(r));
+        rows.addAll(cancelled);
+        return rows;
     }
 
     private void onUpdateBooking() {
@@ -172,18 +203,18 @@ public class ReservationManagementPanel extends JPanel {
             return;
         }
 
-        boolean success = BookingController.updateBookingDatesAndAmount(
+        BackgroundTasks.runDisabling(() -> BookingController.updateBookingDatesAndAmount(
                 bookingId,
                 newStart.toString(),
                 newEnd.toString()
-        );
-
-        if (success) {
-            JOptionPane.showMessageDialog(this, "Booking dates and amount updated.");
-            loadReservations();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update booking.");
-        }
+        ), success -> {
+            if (Boolean.TRUE.equals(success)) {
+                JOptionPane.showMessageDialog(this, "Booking dates and amount updated.");
+                loadReservations();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update booking.");
+            }
+        }, updateButton, cancelButton);
     }
 
     private void onCancelBooking() {
@@ -201,13 +232,77 @@ public class ReservationManagementPanel extends JPanel {
                 "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm!=JOptionPane.YES_OPTION) return;
 
-        boolean ok = BookingController.cancelBooking(bookingId);
-        JOptionPane.showMessageDialog(this,
-                ok ? "Booking cancelled." : "Cancellation failed."
-        );
-        // panel kapanıp admin/carlist’e dönüyor
-        cardLayout.show(container, isAdmin?"admin":"carlist");
-        loadReservations();
+        BackgroundTasks.runDisabling(() -> BookingController.cancelBooking(bookingId), ok -> {
+            JOptionPane.showMessageDialog(this,
+                    Boolean.TRUE.equals(ok) ? "Booking cancelled." : "Cancellation failed."
+            );
+            // panel kapanıp admin/carlist’e dönüyor; tekrar açılınca yeniden yüklenir
+            cardLayout.show(container, isAdmin?"admin":"carlist");
+        }, updateButton, cancelButton);
+    }
+
+    /** Finance export: streams bookings or the fleet to a file instead of copying from the table. */
+    private void onExport() {
+        JComboBox<String> what = new JComboBox<>(new String[]{"Bookings", "Fleet"});
+        JComboBox<ExportWriter.Format> format = new JComboBox<>(ExportWriter.Format.values());
+        JCheckBox gzip = new JCheckBox("gzip");
+        LocalDate today = LocalDate.now();
+        JTextField from = new JTextField(today.withDayOfMonth(1).minusMonths(1).toString(), 10);
+        JTextField to = new JTextField(today.withDayOfMonth(1).minusDays(1).toString(), 10);
+        JComboBox<String> status = new JComboBox<>(new String[]{"all", "pending", "confirmed", "finished", "cancelled"});
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 6, 6));
+        form.add(new JLabel("Export:"));
+        form.add(what);
+        form.add(new JLabel("Format:"));
+        JPanel formatRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        formatRow.add(format);
+        formatRow.add(gzip);
+        form.add(formatRow);
+        form.add(new JLabel("Start date from (empty = any):"));
+        form.add(from);
+        form.add(new JLabel("Start date to (empty = any):"));
+        form.add(to);
+        form.add(new JLabel("Status:"));
+        form.add(status);
+        if (JOptionPane.showConfirmDialog(this, form, "Export", JOptionPane.OK_CANCEL_OPTION)
+                != JOptionPane.OK_OPTION) return;
+
+        boolean bookings = what.getSelectedIndex() == 0;
+        LocalDate fromDate = null, toDate = null;
+        if (bookings) {
+            String f = from.getText().trim(), t = to.getText().trim();
+            int fromDay = f.isEmpty() ? 0 : Validator.parseIsoDate(f);
+            int toDay = t.isEmpty() ? 0 : Validator.parseIsoDate(t);
+            if (fromDay == Validator.INVALID || toDay == Validator.INVALID) {
+                JOptionPane.showMessageDialog(this, "Dates must be YYYY-MM-DD.");
+                return;
+            }
+            fromDate = f.isEmpty() ? null : LocalDate.ofEpochDay(fromDay);
+            toDate = t.isEmpty() ? null : LocalDate.ofEpochDay(toDay);
+        }
+        ExportWriter.Format fmt = (ExportWriter.Format) format.getSelectedItem();
+        boolean gz = gzip.isSelected();
+        String statusFilter = bookings && status.getSelectedIndex() > 0 ? (String) status.getSelectedItem() : null;
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File((bookings ? "bookings" : "fleet")
+                + (fromDate != null ? "-" + fromDate : "") + fmt.extension() + (gz ? ".gz" : "")));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        LocalDate exportFrom = fromDate, exportTo = toDate;
+        long started = System.nanoTime();
+        BackgroundTasks.runDisabling(() -> bookings
+                ? ExportController.exportBookings(file.toPath(), fmt, gz, exportFrom, exportTo, statusFilter)
+                : ExportController.exportFleet(file.toPath(), fmt, gz), rows -> {
+            if (rows < 0) {
+                JOptionPane.showMessageDialog(this, "Export failed.");
+            } else {
+                JOptionPane.showMessageDialog(this, String.format("Exported %,d rows to %s in %.1f s.",
+                        rows, file.getName(), (System.nanoTime() - started) / 1e9));
+            }
+        }, exportButton, updateButton, cancelButton);
     }
 
     private LocalDate convertToLocalDate(Date d) {
@@ -0,0 +1,106 @@
+package view;
+
+import controller.CarController;
+import model.Car;
+import util.Srent_DB;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startup pipeline of the desktop client.
+ * <p>
+ * Only the login screen is built before the window appears. {@link #warmUp()} is triggered
+ * as soon as the user starts on the credentials: it opens pooled connections (which also
+ * loads the JDBC driver) and prefetches the available-car snapshot in parallel, so the
+ * first catalog after login is served from memory. Phase timings since JVM start are
+ * printed with an {@code [startup]} prefix.
+ * <p>
+ * AppCDS training: run once with
+ * <pre>java -XX:ArchiveClassesAtExit=srent.jsa -Dsrent.cds.train=true -cp ... view.Main</pre>
+ * The client then builds every screen off-screen, touches the driver and exits, and the JVM
+ * writes the class-data archive. Later runs start with {@code -XX:SharedArchiveFile=srent.jsa}.
+ */
+public final class Startup {
+
+    /** Warm connections opened while the user types; enough for the first screen's parallel loads. */
+    private static final int WARM_CONNECTIONS = 2;
+
+    /** A prefetched fleet older than this is not used for the first catalog. */
+    private static final long PREFETCH_MAX_AGE_MS = 60_000;
+
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final List<String> phases = new ArrayList<>();
+    private static final AtomicBoolean warmUpStarted = new AtomicBoolean();
+    private static final AtomicBoolean firstCatalogMarked = new AtomicBoolean();
+
+    private static volatile CompletableFuture<List<Car>> prefetchedFleet;
+    private static volatile long prefetchedAt;
+
+    private Startup() {
+    }
+
+    /** @return whether this run only trains the AppCDS archive */
+    public static boolean isCdsTraining() {
+        return Boolean.getBoolean("srent.cds.train");
+    }
+
+    /** Records that {@code phase} finished now. */
+    public static void mark(String phase) {
+        long elapsed = System.currentTimeMillis() - JVM_START;
+        String line = String.format("[startup] %-22s +%d ms", phase, elapsed);
+        synchronized (phases) {
+            phases.add(line);
+        }
+        System.out.println(line);
+    }
+
+    /** Records the first catalog shown after login; later calls are ignored. */
+    public static void markFirstCatalog() {
+        if (firstCatalogMarked.compareAndSet(false, true)) mark("first catalog");
+    }
+
+    /** @return every phase recorded so far, in order */
+    public static List<String> report() {
+        synchronized (phases) {
+            return new ArrayList<>(phases);
+        }
+    }
+
+    /** Starts warming the pool and prefetching the fleet; only the first call does anything. */
+    public static void warmUp() {
+        if (!warmUpStarted.compareAndSet(false, true)) return;
+        CompletableFuture.runAsync(() -> {
+            Srent_DB.getPool().warmUp(WARM_CONNECTIONS);
+            mark("pool warm");
+        });
+        prefetchedFleet = CompletableFuture.supplyAsync(() -> {
+            List<Car> cars = CarController.getAvailableCarsAsObjects();
+            prefetchedAt = System.currentTimeMillis();
+            mark("fleet prefetched");
+            return cars;
+        });
+    }
+
+    /**
+     * Hands the prefetched fleet to the first catalog load, waiting for it if it is still in
+     * flight. Returns {@code null} once it has been taken or if it is stale, in which case the
+     * caller queries as usual.
+     */
+    public static List<Car> takePrefetchedFleet() {
+        CompletableFuture<List<Car>> future = prefetchedFleet;
+        if (future == null) return null;
+        prefetchedFleet = null;
+        try {
+            List<Car> cars = future.get(30, TimeUnit.SECONDS);
+            if (System.currentTimeMillis() - prefetchedAt > PREFETCH_MAX_AGE_MS) return null;
+            return cars;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}